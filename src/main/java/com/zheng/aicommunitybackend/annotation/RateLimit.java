@@ -41,6 +41,18 @@ public @interface RateLimit {
      */
     String message() default "请求过于频繁，请稍后再试";
     
+    /**
+     * 租借式令牌桶每次从Redis租借的令牌数，不大于0时取每秒补充速率的1/10
+     * 仅对 LEASED_TOKEN_BUCKET 生效
+     */
+    int leaseSize() default 0;
+    
+    /**
+     * 滑动窗口计数器的子窗口数，子窗口越多越接近精确滑动窗口
+     * 仅对 SLIDING_WINDOW_COUNTER 生效
+     */
+    int buckets() default 10;
+    
     /**
      * 限流类型枚举
      */
@@ -55,7 +67,9 @@ public @interface RateLimit {
      */
     enum Algorithm {
         SLIDING_WINDOW,  // 滑动窗口
+        SLIDING_WINDOW_COUNTER,  // 滑动窗口计数器：按子窗口计数，内存与请求数无关
         TOKEN_BUCKET,    // 令牌桶
-        FIXED_WINDOW     // 固定窗口
+        FIXED_WINDOW,    // 固定窗口
+        LEASED_TOKEN_BUCKET  // 租借式令牌桶：本地桶扣减，批量向Redis租借令牌
     }
 }
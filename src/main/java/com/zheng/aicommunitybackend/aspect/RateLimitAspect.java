@@ -55,6 +55,10 @@ public class RateLimitAspect {
                         allowed = rateLimitComponent.slidingWindowRateLimit(
                             key, rateLimit.windowSize(), rateLimit.maxRequests());
                         break;
+                    case SLIDING_WINDOW_COUNTER:
+                        allowed = rateLimitComponent.slidingWindowCounterRateLimit(
+                            key, rateLimit.windowSize(), rateLimit.maxRequests(), rateLimit.buckets());
+                        break;
                     case TOKEN_BUCKET:
                         // 令牌桶算法，容量为最大请求数，补充速率为每秒最大请求数/窗口大小
                         int refillRate = Math.max(1, rateLimit.maxRequests() / rateLimit.windowSize());
@@ -65,6 +69,12 @@ public class RateLimitAspect {
                         allowed = rateLimitComponent.fixedWindowRateLimit(
                             key, rateLimit.windowSize(), rateLimit.maxRequests());
                         break;
+                    case LEASED_TOKEN_BUCKET:
+                        // 租借式令牌桶，容量为最大请求数，补充速率为每秒最大请求数/窗口大小（保留小数）
+                        allowed = rateLimitComponent.leasedTokenBucketRateLimit(
+                            key, rateLimit.maxRequests(), (double) rateLimit.maxRequests() / rateLimit.windowSize(),
+                            rateLimit.leaseSize());
+                        break;
                 }
             } catch (Exception e) {
                 log.error("限流组件异常，使用简化版限流，key: {}", key, e);
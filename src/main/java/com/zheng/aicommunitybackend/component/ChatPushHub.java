@@ -0,0 +1,353 @@
+package com.zheng.aicommunitybackend.component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zheng.aicommunitybackend.domain.dto.ChatPushEvent;
+import jakarta.annotation.PostConstruct;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PingMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 聊天实时推送中心
+ * 维护本节点的 WebSocket / SSE 连接（按用户ID索引，一个用户可有多个终端），
+ * 事件统一发布到 Redis 频道，所有节点（包括发布者自己）收到后只投递给本节点上的接收者连接，
+ * 客户端连到任意节点都能收到推送，无需轮询消息列表
+ */
+@Slf4j
+@Component
+public class ChatPushHub implements MessageListener {
+
+    /**
+     * 聊天推送转发频道
+     */
+    public static final String PUSH_CHANNEL = "chat:push";
+
+    /**
+     * WebSocket 单次发送超时（毫秒）与发送缓冲上限（字节），超出时关闭慢连接
+     */
+    private static final int WS_SEND_TIME_LIMIT_MILLIS = 5000;
+    private static final int WS_BUFFER_SIZE_LIMIT = 512 * 1024;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * SSE 连接超时时间（毫秒），超时后客户端自动重连
+     */
+    @Value("${chat.push.sse-timeout-millis:1800000}")
+    private long sseTimeoutMillis;
+
+    private final Map<Long, Set<PushConnection>> connections = new ConcurrentHashMap<>();
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder relayed = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder deliveryFailures = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(PUSH_CHANNEL));
+    }
+
+    /**
+     * 注册 WebSocket 连接
+     * @param userId 用户ID
+     * @param session WebSocket会话
+     */
+    public void register(Long userId, WebSocketSession session) {
+        add(userId, new WebSocketConnection(session));
+    }
+
+    /**
+     * 移除 WebSocket 连接
+     * @param userId 用户ID
+     * @param session WebSocket会话
+     */
+    public void unregister(Long userId, WebSocketSession session) {
+        connections.computeIfPresent(userId, (id, set) -> {
+            set.removeIf(connection -> connection instanceof WebSocketConnection
+                    && ((WebSocketConnection) connection).id.equals(session.getId()));
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    /**
+     * 创建并注册 SSE 连接
+     * @param userId 用户ID
+     * @return SSE发射器
+     */
+    public SseEmitter openSse(Long userId) {
+        SseEmitter emitter = new SseEmitter(sseTimeoutMillis);
+        SseConnection connection = new SseConnection(emitter);
+        Runnable remove = () -> remove(userId, connection);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+        add(userId, connection);
+        return emitter;
+    }
+
+    /**
+     * 向指定用户推送事件，处于事务中时在提交后发布，避免推送未提交的数据
+     * @param event 推送事件
+     * @param recipients 接收者用户ID
+     */
+    public void publish(ChatPushEvent event, Collection<Long> recipients) {
+        if (recipients.isEmpty()) {
+            return;
+        }
+        if (event.getTimestamp() == null) {
+            event.setTimestamp(System.currentTimeMillis());
+        }
+        RelayMessage relayMessage = new RelayMessage();
+        relayMessage.setRecipients(List.copyOf(recipients));
+        relayMessage.setEvent(event);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    relay(relayMessage);
+                }
+            });
+        } else {
+            relay(relayMessage);
+        }
+    }
+
+    private void relay(RelayMessage relayMessage) {
+        try {
+            stringRedisTemplate.convertAndSend(PUSH_CHANNEL, objectMapper.writeValueAsString(relayMessage));
+            published.increment();
+        } catch (Exception e) {
+            // 推送失败不影响业务，客户端重连后会重新拉取消息
+            log.warn("发布聊天推送事件失败: type={}, conversationId={}, error={}",
+                    relayMessage.getEvent().getType(), relayMessage.getEvent().getConversationId(), e.getMessage());
+        }
+    }
+
+    /**
+     * 收到其他节点（或本节点）发布的事件，投递给本节点上的接收者连接
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        relayed.increment();
+        RelayMessage relayMessage;
+        String payload;
+        try {
+            relayMessage = objectMapper.readValue(new String(message.getBody(), StandardCharsets.UTF_8), RelayMessage.class);
+            payload = objectMapper.writeValueAsString(relayMessage.getEvent());
+        } catch (Exception e) {
+            log.warn("解析聊天推送事件失败: {}", e.getMessage());
+            return;
+        }
+        for (Long recipient : relayMessage.getRecipients()) {
+            Set<PushConnection> userConnections = connections.get(recipient);
+            if (userConnections == null) {
+                continue;
+            }
+            for (PushConnection connection : userConnections) {
+                deliver(recipient, connection, payload);
+            }
+        }
+    }
+
+    /**
+     * 定期发送心跳，保持代理层连接并及时清理已断开的连接
+     */
+    @Scheduled(fixedDelay = 25000)
+    public void heartbeat() {
+        connections.forEach((userId, userConnections) -> {
+            for (PushConnection connection : userConnections) {
+                try {
+                    connection.heartbeat();
+                } catch (Exception e) {
+                    remove(userId, connection);
+                    connection.close();
+                }
+            }
+        });
+    }
+
+    private void deliver(Long userId, PushConnection connection, String payload) {
+        try {
+            connection.send(payload);
+            delivered.increment();
+        } catch (Exception e) {
+            deliveryFailures.increment();
+            log.debug("聊天推送投递失败，移除连接: userId={}, error={}", userId, e.getMessage());
+            remove(userId, connection);
+            connection.close();
+        }
+    }
+
+    /**
+     * 添加与移除都在同一个key的 compute 中完成，避免刚加入的连接所在集合被并发的移除操作从映射中摘掉
+     */
+    private void add(Long userId, PushConnection connection) {
+        connections.compute(userId, (id, set) -> {
+            Set<PushConnection> userConnections = set != null ? set : ConcurrentHashMap.newKeySet();
+            userConnections.add(connection);
+            return userConnections;
+        });
+    }
+
+    private void remove(Long userId, PushConnection connection) {
+        connections.computeIfPresent(userId, (id, set) -> {
+            set.remove(connection);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    /**
+     * 获取推送统计
+     */
+    public PushStats getStats() {
+        PushStats stats = new PushStats();
+        int webSocket = 0;
+        int sse = 0;
+        for (Set<PushConnection> userConnections : connections.values()) {
+            for (PushConnection connection : userConnections) {
+                if (connection instanceof WebSocketConnection) {
+                    webSocket++;
+                } else {
+                    sse++;
+                }
+            }
+        }
+        stats.setOnlineUsers(connections.size());
+        stats.setWebSocketConnections(webSocket);
+        stats.setSseConnections(sse);
+        stats.setPublished(published.sum());
+        stats.setRelayed(relayed.sum());
+        stats.setDelivered(delivered.sum());
+        stats.setDeliveryFailures(deliveryFailures.sum());
+        return stats;
+    }
+
+    /**
+     * 推送连接
+     */
+    private interface PushConnection {
+        void send(String payload) throws IOException;
+
+        void heartbeat() throws IOException;
+
+        void close();
+    }
+
+    /**
+     * WebSocket连接，发送经 ConcurrentWebSocketSessionDecorator 串行化，慢连接不会阻塞其他连接
+     */
+    private static class WebSocketConnection implements PushConnection {
+        private final String id;
+        private final WebSocketSession session;
+
+        WebSocketConnection(WebSocketSession session) {
+            this.id = session.getId();
+            this.session = new ConcurrentWebSocketSessionDecorator(session, WS_SEND_TIME_LIMIT_MILLIS, WS_BUFFER_SIZE_LIMIT);
+        }
+
+        @Override
+        public void send(String payload) throws IOException {
+            session.sendMessage(new TextMessage(payload));
+        }
+
+        @Override
+        public void heartbeat() throws IOException {
+            if (!session.isOpen()) {
+                throw new IOException("WebSocket已关闭");
+            }
+            session.sendMessage(new PingMessage());
+        }
+
+        @Override
+        public void close() {
+            try {
+                session.close(CloseStatus.SESSION_NOT_RELIABLE);
+            } catch (IOException ignored) {
+                // 连接已不可用
+            }
+        }
+    }
+
+    /**
+     * SSE连接
+     */
+    private static class SseConnection implements PushConnection {
+        private final SseEmitter emitter;
+
+        SseConnection(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void send(String payload) throws IOException {
+            emitter.send(SseEmitter.event().name("chat").data(payload));
+        }
+
+        @Override
+        public void heartbeat() throws IOException {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+        }
+
+        @Override
+        public void close() {
+            emitter.complete();
+        }
+    }
+
+    /**
+     * Redis频道中转发的消息：接收者列表 + 事件
+     */
+    @Data
+    public static class RelayMessage {
+        private List<Long> recipients;
+        private ChatPushEvent event;
+    }
+
+    /**
+     * 推送统计信息
+     */
+    @Data
+    public static class PushStats {
+        private int onlineUsers;
+        private int webSocketConnections;
+        private int sseConnections;
+        private long published;
+        private long relayed;
+        private long delivered;
+        private long deliveryFailures;
+    }
+}
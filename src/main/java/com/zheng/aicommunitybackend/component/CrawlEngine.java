@@ -0,0 +1,363 @@
+package com.zheng.aicommunitybackend.component;
+
+import com.zheng.aicommunitybackend.properties.SpiderProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.HttpStatusException;
+import org.jsoup.Jsoup;
+import org.jsoup.UnsupportedMimeTypeException;
+import org.jsoup.nodes.Document;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 网页抓取引擎
+ * 每个请求运行在独立的虚拟线程上，阻塞在网络IO或限速等待时不占用平台线程，详情页可以并行下载；
+ * 同一站点的请求受两道闸门约束：并发数信号量与令牌桶（按配置的速率均匀放行，空闲后允许少量突发），
+ * 保证并行抓取时对单个站点的访问频率不高于串行抓取时的礼貌水平。
+ * 网络异常、429与5xx按指数退避加随机抖动重试，其他4xx直接失败。
+ * 各定时任务共用同一个引擎，站点限速在任务之间同样生效
+ */
+@Slf4j
+@Component
+public class CrawlEngine {
+
+    private final SpiderProperties spiderProperties;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * 全局并发闸门
+     */
+    private final Semaphore globalPermits;
+
+    /**
+     * 站点 -> 该站点的并发与限速闸门
+     */
+    private final Map<String, HostGate> hostGates = new ConcurrentHashMap<>();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder throttleWaitMillis = new LongAdder();
+    private final LongAdder fetchMillis = new LongAdder();
+
+    public CrawlEngine(SpiderProperties spiderProperties) {
+        this.spiderProperties = spiderProperties;
+        this.globalPermits = new Semaphore(Math.max(1, spiderProperties.getCrawl().getMaxConcurrency()));
+    }
+
+    /**
+     * 抓取单个页面（受站点限速约束，失败时按配置重试）
+     * @param url 页面URL
+     * @param headers 请求头
+     * @param timeoutMs 单次请求超时(毫秒)
+     * @return 解析后的文档
+     * @throws IOException 重试耗尽后仍失败
+     */
+    public Document fetch(String url, Map<String, String> headers, int timeoutMs) throws IOException {
+        return execute(url, headers, timeoutMs).requireDocument();
+    }
+
+    /**
+     * 抓取单个页面，失败时返回携带异常的结果而不抛出
+     * 供已运行在虚拟线程上的调用方逐个抓取
+     * @param url 页面URL
+     * @param headers 请求头
+     * @param timeoutMs 单次请求超时(毫秒)
+     * @return 抓取结果
+     */
+    public FetchResult fetchResult(String url, Map<String, String> headers, int timeoutMs) {
+        return execute(url, headers, timeoutMs);
+    }
+
+    /**
+     * 并行抓取一批页面
+     * 本批URL先去重形成待抓取队列，每个URL交给一个虚拟线程，实际并发由全局与站点闸门决定
+     * @param urls 页面URL
+     * @param headers 请求头
+     * @param timeoutMs 单次请求超时(毫秒)
+     * @return URL -> 抓取结果，顺序与传入顺序一致
+     */
+    public Map<String, FetchResult> fetchAll(Collection<String> urls, Map<String, String> headers, int timeoutMs) {
+        Set<String> frontier = new LinkedHashSet<>();
+        for (String url : urls) {
+            if (url != null && !url.isBlank()) {
+                frontier.add(url);
+            }
+        }
+
+        Map<String, Future<FetchResult>> futures = new LinkedHashMap<>();
+        for (String url : frontier) {
+            futures.put(url, executor.submit(() -> execute(url, headers, timeoutMs)));
+        }
+
+        Map<String, FetchResult> results = new LinkedHashMap<>();
+        for (Map.Entry<String, Future<FetchResult>> entry : futures.entrySet()) {
+            try {
+                results.put(entry.getKey(), entry.getValue().get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.values().forEach(future -> future.cancel(true));
+                results.put(entry.getKey(), FetchResult.failure(new IOException("抓取被中断"), 0));
+            } catch (ExecutionException e) {
+                results.put(entry.getKey(), FetchResult.failure(e.getCause(), 0));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 获取抓取统计
+     */
+    public CrawlStats getStats() {
+        CrawlStats stats = new CrawlStats();
+        long successCount = successes.sum();
+        stats.setHosts(hostGates.size());
+        stats.setInFlight(inFlight.get());
+        stats.setPeakInFlight(peakInFlight.get());
+        stats.setRequests(requests.sum());
+        stats.setSuccesses(successCount);
+        stats.setFailures(failures.sum());
+        stats.setRetries(retries.sum());
+        stats.setThrottleWaitMillis(throttleWaitMillis.sum());
+        stats.setAvgFetchMillis(successCount == 0 ? 0 : (double) fetchMillis.sum() / successCount);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 抓取一个URL，按配置重试，不抛出异常
+     */
+    private FetchResult execute(String url, Map<String, String> headers, int timeoutMs) {
+        SpiderProperties.Crawl config = spiderProperties.getCrawl();
+        HostGate gate;
+        try {
+            gate = hostGates.computeIfAbsent(hostOf(url), host -> new HostGate(
+                    config.getPerHostConcurrency(), config.getPerHostRequestsPerSecond(), config.getPerHostBurst()));
+        } catch (IllegalArgumentException e) {
+            failures.increment();
+            return FetchResult.failure(e, 0);
+        }
+
+        int maxAttempts = Math.max(1, config.getMaxAttempts());
+        Throwable lastError = null;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                Document document = fetchOnce(url, headers, timeoutMs, gate);
+                successes.increment();
+                return FetchResult.success(document, attempt);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failures.increment();
+                return FetchResult.failure(new IOException("抓取被中断: " + url), attempt);
+            } catch (IOException e) {
+                lastError = e;
+                if (attempt == maxAttempts || !isRetryable(e)) {
+                    failures.increment();
+                    return FetchResult.failure(e, attempt);
+                }
+                retries.increment();
+                long backoff = backoffMillis(attempt, config);
+                log.debug("抓取失败，{}ms后重试: {}/{}, URL: {}, 错误: {}", backoff, attempt, maxAttempts, url, e.getMessage());
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    failures.increment();
+                    return FetchResult.failure(e, attempt);
+                }
+            }
+        }
+        failures.increment();
+        return FetchResult.failure(lastError, maxAttempts);
+    }
+
+    /**
+     * 依次通过站点并发闸门、站点令牌桶、全局并发闸门后发起一次请求
+     */
+    private Document fetchOnce(String url, Map<String, String> headers, int timeoutMs, HostGate gate)
+            throws IOException, InterruptedException {
+        gate.permits.acquire();
+        try {
+            long wait = gate.reserve();
+            if (wait > 0) {
+                throttleWaitMillis.add(wait);
+                Thread.sleep(wait);
+            }
+            globalPermits.acquire();
+            try {
+                peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                requests.increment();
+                long start = System.currentTimeMillis();
+                Document document = Jsoup.connect(url)
+                        .userAgent(spiderProperties.getUserAgent())
+                        .timeout(timeoutMs)
+                        .headers(headers)
+                        .get();
+                fetchMillis.add(System.currentTimeMillis() - start);
+                return document;
+            } finally {
+                inFlight.decrementAndGet();
+                globalPermits.release();
+            }
+        } finally {
+            gate.permits.release();
+        }
+    }
+
+    /**
+     * 网络异常、429与5xx可重试；其他HTTP错误与不支持的内容类型重试也不会成功
+     */
+    private static boolean isRetryable(IOException e) {
+        if (e instanceof HttpStatusException) {
+            int status = ((HttpStatusException) e).getStatusCode();
+            return status == 429 || status >= 500;
+        }
+        return !(e instanceof UnsupportedMimeTypeException);
+    }
+
+    /**
+     * 指数退避：retryBackoffMs * 2^(attempt-1)，不超过上限，另加最多一半的随机抖动
+     */
+    private static long backoffMillis(int attempt, SpiderProperties.Crawl config) {
+        long base = Math.min(config.getMaxRetryBackoffMs(), config.getRetryBackoffMs() << Math.min(attempt - 1, 20));
+        return base + ThreadLocalRandom.current().nextLong(base / 2 + 1);
+    }
+
+    /**
+     * 解析URL的站点
+     * 使用 URL 而不是 URI：URI 会因路径、查询中未转义的空格、|、中文等字符直接抛错，这些URL交给Jsoup仍可正常抓取
+     */
+    @SuppressWarnings("deprecation")
+    static String hostOf(String url) {
+        String host;
+        try {
+            host = new URL(url).getHost();
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException("无法解析URL的站点: " + url, e);
+        }
+        if (host == null || host.isEmpty()) {
+            throw new IllegalArgumentException("无法解析URL的站点: " + url);
+        }
+        return host.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 站点闸门：并发信号量 + 令牌桶
+     * 令牌允许透支为负数，表示已预约的请求，预约者在锁外按需要的时间休眠，锁只保护令牌计算
+     */
+    private static class HostGate {
+        private final Semaphore permits;
+        private final double tokensPerMillis;
+        private final double burst;
+        private double tokens;
+        private long lastRefill;
+
+        HostGate(int concurrency, double requestsPerSecond, int burst) {
+            this.permits = new Semaphore(Math.max(1, concurrency));
+            this.tokensPerMillis = requestsPerSecond / 1000.0;
+            this.burst = Math.max(1, burst);
+            this.tokens = this.burst;
+            this.lastRefill = System.currentTimeMillis();
+        }
+
+        /**
+         * 预约一个令牌
+         * @return 需要等待的毫秒数
+         */
+        synchronized long reserve() {
+            if (tokensPerMillis <= 0) {
+                return 0;
+            }
+            long now = System.currentTimeMillis();
+            tokens = Math.min(burst, tokens + (now - lastRefill) * tokensPerMillis);
+            lastRefill = now;
+            tokens -= 1;
+            return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPerMillis);
+        }
+    }
+
+    /**
+     * 单个URL的抓取结果
+     */
+    @Data
+    public static class FetchResult {
+        private Document document;
+        private Throwable error;
+        private int attempts;
+
+        static FetchResult success(Document document, int attempts) {
+            FetchResult result = new FetchResult();
+            result.setDocument(document);
+            result.setAttempts(attempts);
+            return result;
+        }
+
+        static FetchResult failure(Throwable error, int attempts) {
+            FetchResult result = new FetchResult();
+            result.setError(error);
+            result.setAttempts(attempts);
+            return result;
+        }
+
+        public boolean isSuccess() {
+            return document != null;
+        }
+
+        /**
+         * 获取文档，抓取失败时抛出原始异常
+         */
+        public Document requireDocument() throws IOException {
+            if (document != null) {
+                return document;
+            }
+            if (error instanceof IOException) {
+                throw (IOException) error;
+            }
+            throw new IOException(error != null ? error.getMessage() : "抓取失败", error);
+        }
+    }
+
+    /**
+     * 抓取统计信息
+     */
+    @Data
+    public static class CrawlStats {
+        private int hosts;
+        private int inFlight;
+        private int peakInFlight;
+        private long requests;
+        private long successes;
+        private long failures;
+        private long retries;
+        private long throttleWaitMillis;
+        private double avgFetchMillis;
+    }
+}
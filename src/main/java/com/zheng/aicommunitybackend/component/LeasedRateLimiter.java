@@ -0,0 +1,254 @@
+package com.zheng.aicommunitybackend.component;
+
+import jakarta.annotation.PreDestroy;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 租借式令牌桶限流
+ * Redis中维护全局令牌桶，各节点按批从中租借令牌放入本地桶，请求只在本地桶上做无锁扣减，
+ * 本地令牌用完时才访问Redis，每个key平均每 leaseSize 个请求一次往返。
+ * 租到的令牌只在 ttl 内有效，过期未用的令牌在下次租借时一并归还，避免某个节点长期囤积配额；
+ * Redis中令牌也耗尽时，本节点在补充出一个令牌所需的时间内直接拒绝，不再反复访问Redis。
+ * 代价是全局配额在节点间的分配有 leaseSize 粒度的偏差，适合全局、活动级等高频热点key，
+ * 不适合每秒只允许几次的用户级限流
+ */
+@Slf4j
+@Component
+public class LeasedRateLimiter {
+
+    @Autowired
+    private RedisScriptRegistry scriptRegistry;
+
+    /**
+     * 租到的令牌在本地的有效期（毫秒）
+     */
+    @Value("${rate-limit.lease.ttl-millis:1000}")
+    private long leaseTtlMillis;
+
+    /**
+     * 本地桶空闲超过该时间（毫秒）后移除
+     */
+    @Value("${rate-limit.lease.idle-millis:60000}")
+    private long idleMillis;
+
+    private final Map<String, LocalBucket> buckets = new ConcurrentHashMap<>();
+
+    private final LongAdder localGrants = new LongAdder();
+    private final LongAdder leases = new LongAdder();
+    private final LongAdder leasedTokens = new LongAdder();
+    private final LongAdder returnedTokens = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    /**
+     * 尝试获取一个令牌
+     * @param key 限流键
+     * @param capacity 全局桶容量
+     * @param refillRate 全局令牌补充速率（每秒）
+     * @param leaseSize 每次租借的令牌数，不大于0时取补充速率的1/10
+     * @return 是否允许通过
+     */
+    public boolean tryAcquire(String key, int capacity, double refillRate, int leaseSize) {
+        long now = System.currentTimeMillis();
+        LocalBucket bucket = buckets.computeIfAbsent(key,
+                k -> new LocalBucket(k, capacity, refillRate, resolveLeaseSize(capacity, refillRate, leaseSize)));
+        bucket.lastAccess = now;
+        if (bucket.tryTake(now)) {
+            localGrants.increment();
+            return true;
+        }
+        return lease(bucket, now, capacity, refillRate, leaseSize);
+    }
+
+    /**
+     * 本地令牌用完或已过期时向Redis租借
+     */
+    private boolean lease(LocalBucket bucket, long now, int capacity, double refillRate, int leaseSize) {
+        synchronized (bucket) {
+            if (bucket.retired) {
+                // 桶已被清理任务移除，改用新桶
+                return tryAcquire(bucket.key, capacity, refillRate, leaseSize);
+            }
+            // 等锁期间其他线程可能已经租到
+            if (bucket.tryTake(now)) {
+                localGrants.increment();
+                return true;
+            }
+            if (now < bucket.blockedUntil) {
+                rejections.increment();
+                return false;
+            }
+
+            long leftover = bucket.takeLeftover(now);
+            long granted = remoteLease(bucket, bucket.leaseSize, leftover);
+            if (granted <= 0) {
+                bucket.blockedUntil = now + bucket.retryDelayMillis;
+                rejections.increment();
+                return false;
+            }
+            // 当前线程用掉一个，其余放入本地桶
+            bucket.available.set(granted - 1);
+            bucket.leaseExpireAt = now + leaseTtlMillis;
+            return true;
+        }
+    }
+
+    /**
+     * 调用Redis脚本归还未用令牌并租借新令牌
+     * @return 实际租到的令牌数
+     */
+    private long remoteLease(LocalBucket bucket, int requested, long returned) {
+        Long granted = scriptRegistry.execute(RedisScriptRegistry.Script.TOKEN_BUCKET_LEASE,
+                Collections.singletonList(bucket.key),
+                String.valueOf(bucket.capacity),
+                String.valueOf(bucket.refillRate),
+                String.valueOf(requested),
+                String.valueOf(returned));
+        leases.increment();
+        returnedTokens.add(returned);
+        long count = granted != null ? granted : 0;
+        leasedTokens.add(count);
+        return count;
+    }
+
+    /**
+     * 归还过期租约中未用的令牌，移除长时间空闲的本地桶
+     */
+    @Scheduled(fixedDelay = 1000)
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        for (LocalBucket bucket : buckets.values()) {
+            synchronized (bucket) {
+                try {
+                    long leftover = bucket.takeLeftover(now);
+                    if (leftover > 0) {
+                        remoteLease(bucket, 0, leftover);
+                    }
+                } catch (Exception e) {
+                    log.warn("归还限流令牌失败: key={}, error={}", bucket.key, e.getMessage());
+                }
+                if (now - bucket.lastAccess > idleMillis) {
+                    bucket.retired = true;
+                    buckets.remove(bucket.key, bucket);
+                }
+            }
+        }
+    }
+
+    /**
+     * 停机时归还所有本地令牌
+     */
+    @PreDestroy
+    public void shutdown() {
+        for (LocalBucket bucket : buckets.values()) {
+            synchronized (bucket) {
+                long leftover = bucket.available.getAndSet(0);
+                if (leftover <= 0) {
+                    continue;
+                }
+                try {
+                    remoteLease(bucket, 0, leftover);
+                } catch (Exception e) {
+                    log.warn("停机归还限流令牌失败: key={}, tokens={}, error={}", bucket.key, leftover, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private int resolveLeaseSize(int capacity, double refillRate, int leaseSize) {
+        int size = leaseSize > 0 ? leaseSize : (int) Math.ceil(refillRate / 10);
+        return Math.max(1, Math.min(capacity, size));
+    }
+
+    /**
+     * 获取租借限流统计
+     */
+    public LeaseStats getStats() {
+        LeaseStats stats = new LeaseStats();
+        stats.setBuckets(buckets.size());
+        stats.setLeaseTtlMillis(leaseTtlMillis);
+        stats.setLocalGrants(localGrants.sum());
+        stats.setLeases(leases.sum());
+        stats.setLeasedTokens(leasedTokens.sum());
+        stats.setReturnedTokens(returnedTokens.sum());
+        stats.setRejections(rejections.sum());
+        return stats;
+    }
+
+    /**
+     * 本地令牌桶
+     * available 只在持有桶锁时增加，无锁路径只做大于0时的CAS扣减
+     */
+    private static class LocalBucket {
+        private final String key;
+        private final int capacity;
+        private final double refillRate;
+        private final int leaseSize;
+        /**
+         * Redis令牌耗尽后再次租借前的等待时间：补充出一个令牌所需的时间
+         */
+        private final long retryDelayMillis;
+        private final AtomicLong available = new AtomicLong();
+        private volatile long leaseExpireAt;
+        private volatile long blockedUntil;
+        private volatile long lastAccess;
+        private boolean retired;
+
+        LocalBucket(String key, int capacity, double refillRate, int leaseSize) {
+            this.key = key;
+            this.capacity = capacity;
+            this.refillRate = refillRate;
+            this.leaseSize = leaseSize;
+            this.retryDelayMillis = Math.max(1, (long) Math.ceil(1000 / refillRate));
+        }
+
+        boolean tryTake(long now) {
+            if (now >= leaseExpireAt) {
+                return false;
+            }
+            while (true) {
+                long current = available.get();
+                if (current <= 0) {
+                    return false;
+                }
+                if (available.compareAndSet(current, current - 1)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * 取出已过期租约中剩余的令牌（需持有桶锁）
+         */
+        long takeLeftover(long now) {
+            if (now < leaseExpireAt) {
+                return 0;
+            }
+            return Math.max(0, available.getAndSet(0));
+        }
+    }
+
+    /**
+     * 租借限流统计信息
+     */
+    @Data
+    public static class LeaseStats {
+        private int buckets;
+        private long leaseTtlMillis;
+        private long localGrants;
+        private long leases;
+        private long leasedTokens;
+        private long returnedTokens;
+        private long rejections;
+    }
+}
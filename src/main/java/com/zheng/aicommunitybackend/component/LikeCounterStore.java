@@ -0,0 +1,149 @@
+package com.zheng.aicommunitybackend.component;
+
+import cn.hutool.core.util.IdUtil;
+import com.zheng.aicommunitybackend.constant.CacheConstants;
+import com.zheng.aicommunitybackend.domain.entity.LikeRecords;
+import com.zheng.aicommunitybackend.domain.vo.LikeStatusVO;
+import com.zheng.aicommunitybackend.mapper.LikeRecordsMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis点赞计数存储
+ * 每个目标维护一个点赞用户集合和一个点赞计数key，与用户点赞哈希一起由同一个Lua脚本原子更新，
+ * Redis中的数据即为点赞状态与点赞数的权威来源，数据库由MQ异步写入。
+ * 计数key不存在的目标视为冷目标，首次访问时从 like_records 预热。
+ * 点赞用户集合与计数key带过期时间，每次读写时续期，长期无人访问的目标自动过期，下次访问时重新预热
+ */
+@Slf4j
+@Component
+public class LikeCounterStore {
+
+    /**
+     * 预热时每页读取的点赞记录数
+     */
+    private static final int WARM_UP_PAGE_SIZE = 1000;
+
+    /**
+     * 预热临时集合过期时间（秒），预热中断时自动清理
+     */
+    private static final long WARM_UP_TEMP_EXPIRE_SECONDS = 60;
+
+    /**
+     * 点赞用户集合与计数key的过期时间（秒），访问时续期
+     */
+    @Value("${like.cache.expire-seconds:604800}")
+    private long cacheExpireSeconds;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisScriptRegistry scriptRegistry;
+
+    @Autowired
+    private LikeRecordsMapper likeRecordsMapper;
+
+    /**
+     * 点赞 / 取消点赞
+     * @param userId 用户ID
+     * @param type 目标类型
+     * @param targetId 目标ID
+     * @return 操作后的点赞状态，目标未预热时返回null
+     */
+    public LikeStatusVO toggle(Long userId, Integer type, Long targetId) {
+        List<String> keys = Arrays.asList(
+                CacheConstants.buildLikeUserKey(userId),
+                CacheConstants.buildLikersKey(type, targetId),
+                CacheConstants.buildLikeCountKey(type, targetId));
+        List<Object> result = scriptRegistry.execute(RedisScriptRegistry.Script.LIKE_TOGGLE, keys,
+                type + ":" + targetId, String.valueOf(userId), String.valueOf(cacheExpireSeconds));
+
+        long state = ((Number) result.get(0)).longValue();
+        if (state < 0) {
+            return null;
+        }
+        return new LikeStatusVO(state == 1, ((Number) result.get(1)).intValue());
+    }
+
+    /**
+     * 通过一次管道调用批量查询点赞状态与点赞数，同时为已预热的目标续期
+     * @param userId 用户ID
+     * @param type 目标类型
+     * @param targetIds 目标ID列表
+     * @return 与 targetIds 一一对应的点赞状态，未预热的目标对应位置为null
+     */
+    public List<LikeStatusVO> getStatuses(Long userId, Integer type, List<Long> targetIds) {
+        byte[] member = String.valueOf(userId).getBytes(StandardCharsets.UTF_8);
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Long targetId : targetIds) {
+                byte[] likersKey = CacheConstants.buildLikersKey(type, targetId).getBytes(StandardCharsets.UTF_8);
+                byte[] countKey = CacheConstants.buildLikeCountKey(type, targetId).getBytes(StandardCharsets.UTF_8);
+                connection.setCommands().sIsMember(likersKey, member);
+                connection.stringCommands().get(countKey);
+                // 续期对不存在的key无效，不会为未预热的目标创建key
+                connection.keyCommands().expire(likersKey, cacheExpireSeconds);
+                connection.keyCommands().expire(countKey, cacheExpireSeconds);
+            }
+            return null;
+        });
+
+        List<LikeStatusVO> statuses = new ArrayList<>(targetIds.size());
+        for (int i = 0; i < targetIds.size(); i++) {
+            Object liked = results.get(i * 4);
+            Object count = results.get(i * 4 + 1);
+            if (count == null) {
+                statuses.add(null);
+            } else {
+                statuses.add(new LikeStatusVO(Boolean.TRUE.equals(liked), Integer.parseInt(count.toString())));
+            }
+        }
+        return statuses;
+    }
+
+    /**
+     * 从 like_records 预热目标的点赞用户集合与点赞数
+     * 点赞用户先分页写入临时集合，再由脚本原子替换，期间其他请求看到的仍是未预热状态；
+     * 并发预热时只有第一个生效
+     * @param type 目标类型
+     * @param targetId 目标ID
+     * @return 预热后的点赞数
+     */
+    public int warmUp(Integer type, Long targetId) {
+        String likersKey = CacheConstants.buildLikersKey(type, targetId);
+        String countKey = CacheConstants.buildLikeCountKey(type, targetId);
+        String tempKey = likersKey + ":warm:" + IdUtil.fastSimpleUUID();
+
+        long lastId = 0;
+        int loaded = 0;
+        while (true) {
+            List<LikeRecords> page = likeRecordsMapper.selectLikersAfter(type, targetId, lastId, WARM_UP_PAGE_SIZE);
+            if (page.isEmpty()) {
+                break;
+            }
+            String[] userIds = page.stream().map(record -> String.valueOf(record.getUserId())).toArray(String[]::new);
+            stringRedisTemplate.opsForSet().add(tempKey, userIds);
+            stringRedisTemplate.expire(tempKey, WARM_UP_TEMP_EXPIRE_SECONDS, TimeUnit.SECONDS);
+            loaded += page.size();
+            lastId = page.get(page.size() - 1).getId();
+            if (page.size() < WARM_UP_PAGE_SIZE) {
+                break;
+            }
+        }
+
+        Long count = scriptRegistry.execute(RedisScriptRegistry.Script.LIKE_WARM_UP,
+                Arrays.asList(likersKey, countKey, tempKey), String.valueOf(cacheExpireSeconds));
+        log.debug("点赞数据预热完成: 类型={}, 目标ID={}, 读取记录={}, 点赞数={}", type, targetId, loaded, count);
+        return count != null ? count.intValue() : 0;
+    }
+}
@@ -0,0 +1,229 @@
+package com.zheng.aicommunitybackend.component;
+
+import com.zheng.aicommunitybackend.domain.dto.LikeActionMessage;
+import com.zheng.aicommunitybackend.domain.dto.LikeBatchResult;
+import com.zheng.aicommunitybackend.service.LikeRecordsService;
+import jakarta.annotation.PreDestroy;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 点赞写回缓冲
+ * MQ消费到的点赞动作先按 (用户, 目标) 合并到内存，只保留最后一次动作；
+ * 定时批量刷入数据库：点赞记录批量插入/删除，点赞数按目标合并后每张表一条UPDATE，
+ * 避免热门帖子每个点赞都争抢同一行锁。
+ * 缓冲只存在于本节点内存，进程异常退出时未刷入的动作由点赞对账任务（LikeReconciliationTask）修复
+ */
+@Slf4j
+@Component
+public class LikeWriteBehindBuffer {
+
+    @Autowired
+    private LikeRecordsService likeRecordsService;
+
+    /**
+     * 单个数据库事务最多应用的动作数
+     */
+    @Value("${like.aggregation.max-batch-size:1000}")
+    private int maxBatchSize;
+
+    /**
+     * 待刷入的动作：点赞关系 -> 最后一次动作
+     */
+    private final Map<String, PendingAction> pending = new ConcurrentHashMap<>();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final long startTime = System.currentTimeMillis();
+
+    private final LongAdder received = new LongAdder();
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder inserted = new LongAdder();
+    private final LongAdder deleted = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+    private final AtomicLong lastFlushSize = new AtomicLong();
+    private final AtomicLong lastFlushMillis = new AtomicLong();
+    private final AtomicLong lastFlushLagMillis = new AtomicLong();
+    private final AtomicLong maxFlushLagMillis = new AtomicLong();
+
+    /**
+     * 提交点赞动作，同一点赞关系的后续动作覆盖之前未刷入的动作
+     * @param message 点赞动作
+     */
+    public void submit(LikeActionMessage message) {
+        received.increment();
+        long now = System.currentTimeMillis();
+        // 保留最早的入队时间，用于计算刷入延迟
+        pending.merge(message.relationKey(), new PendingAction(message, now),
+                (old, latest) -> new PendingAction(latest.message, old.enqueueTime));
+    }
+
+    /**
+     * 定时刷入数据库
+     */
+    @Scheduled(fixedDelayString = "${like.aggregation.flush-interval-ms:500}")
+    public void flush() {
+        if (pending.isEmpty() || !flushLock.tryLock()) {
+            return;
+        }
+        try {
+            while (!pending.isEmpty()) {
+                if (!flushBatch()) {
+                    break;
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 停机前刷入剩余动作
+     */
+    @PreDestroy
+    public void shutdown() {
+        flushLock.lock();
+        try {
+            while (!pending.isEmpty() && flushBatch()) {
+                // 直到缓冲清空或刷入失败
+            }
+            if (!pending.isEmpty()) {
+                log.warn("停机时仍有{}个点赞动作未刷入数据库，将由对账任务修复", pending.size());
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 获取写回缓冲统计
+     */
+    public LikeWriteBehindStats getStats() {
+        LikeWriteBehindStats stats = new LikeWriteBehindStats();
+        long uptimeSeconds = Math.max(1, (System.currentTimeMillis() - startTime) / 1000);
+        long receivedCount = received.sum();
+        long appliedCount = applied.sum();
+        stats.setPending(pending.size());
+        stats.setReceived(receivedCount);
+        stats.setApplied(appliedCount);
+        stats.setMerged(Math.max(0, receivedCount - appliedCount - pending.size()));
+        stats.setInserted(inserted.sum());
+        stats.setDeleted(deleted.sum());
+        stats.setFlushes(flushes.sum());
+        stats.setFailedFlushes(failedFlushes.sum());
+        stats.setReceivedPerSecond((double) receivedCount / uptimeSeconds);
+        stats.setAppliedPerSecond((double) appliedCount / uptimeSeconds);
+        stats.setLastFlushSize(lastFlushSize.get());
+        stats.setLastFlushMillis(lastFlushMillis.get());
+        stats.setLastFlushLagMillis(lastFlushLagMillis.get());
+        stats.setMaxFlushLagMillis(maxFlushLagMillis.get());
+        return stats;
+    }
+
+    /**
+     * 取出一批动作应用到数据库
+     * @return 是否成功
+     */
+    private boolean flushBatch() {
+        List<PendingAction> batch = drain();
+        if (batch.isEmpty()) {
+            return true;
+        }
+
+        long start = System.currentTimeMillis();
+        List<LikeActionMessage> actions = new ArrayList<>(batch.size());
+        long oldestEnqueueTime = start;
+        for (PendingAction action : batch) {
+            actions.add(action.message);
+            oldestEnqueueTime = Math.min(oldestEnqueueTime, action.enqueueTime);
+        }
+
+        try {
+            LikeBatchResult result = likeRecordsService.applyLikeActions(actions);
+            long end = System.currentTimeMillis();
+            long lag = end - oldestEnqueueTime;
+            applied.add(actions.size());
+            inserted.add(result.getInserted());
+            deleted.add(result.getDeleted());
+            flushes.increment();
+            lastFlushSize.set(actions.size());
+            lastFlushMillis.set(end - start);
+            lastFlushLagMillis.set(lag);
+            maxFlushLagMillis.accumulateAndGet(lag, Math::max);
+            log.debug("点赞动作刷入完成: 动作数={}, 新增={}, 删除={}, 耗时={}ms, 延迟={}ms",
+                    actions.size(), result.getInserted(), result.getDeleted(), end - start, lag);
+            return true;
+        } catch (Exception e) {
+            failedFlushes.increment();
+            log.error("点赞动作刷入失败，{}个动作放回缓冲等待重试", actions.size(), e);
+            // 放回缓冲，期间已有更新动作的关系以新动作为准
+            for (PendingAction action : batch) {
+                pending.putIfAbsent(action.message.relationKey(), action);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 逐个移除缓冲中的动作，移除后并发提交的动作会进入下一批
+     */
+    private List<PendingAction> drain() {
+        List<PendingAction> batch = new ArrayList<>(Math.min(pending.size(), maxBatchSize));
+        Iterator<String> iterator = pending.keySet().iterator();
+        while (iterator.hasNext() && batch.size() < maxBatchSize) {
+            PendingAction action = pending.remove(iterator.next());
+            if (action != null) {
+                batch.add(action);
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * 待刷入的点赞动作
+     */
+    private static class PendingAction {
+        private final LikeActionMessage message;
+        private final long enqueueTime;
+
+        PendingAction(LikeActionMessage message, long enqueueTime) {
+            this.message = message;
+            this.enqueueTime = enqueueTime;
+        }
+    }
+
+    /**
+     * 写回缓冲统计信息
+     */
+    @Data
+    public static class LikeWriteBehindStats {
+        private long pending;
+        private long received;
+        private long applied;
+        private long merged;
+        private long inserted;
+        private long deleted;
+        private long flushes;
+        private long failedFlushes;
+        private double receivedPerSecond;
+        private double appliedPerSecond;
+        private long lastFlushSize;
+        private long lastFlushMillis;
+        private long lastFlushLagMillis;
+        private long maxFlushLagMillis;
+    }
+}
@@ -0,0 +1,443 @@
+package com.zheng.aicommunitybackend.component;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.zheng.aicommunitybackend.domain.entity.HotNews;
+import com.zheng.aicommunitybackend.mapper.HotNewsMapper;
+import com.zheng.aicommunitybackend.util.SimHashUtil;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 新闻近似重复索引（多索引哈希）
+ * 把64位SimHash切成4段16位，每段各建一张 段值 -> 指纹 的哈希表。
+ * 两个指纹汉明距离不超过阈值k时，由抽屉原理至少有一段的距离不超过 k/4（阈值10时为2），
+ * 查询时每段只需探测距离不超过2的 1+16+120 个段值，再对候选做完整汉明距离校验，
+ * 代价与保留窗口内的新闻数无关，不再逐条比较。
+ * 启动时（内容指纹迁移之后）从 hot_news.content_hash 加载保留窗口内的当前版本指纹；
+ * 本节点保存新闻后立即加入索引，其他节点保存的新闻由定时增量同步按ID追上。
+ * ID较小的新闻可能晚于ID较大的新闻提交，增量同步每次都回看一段时间内的ID，
+ * 已在索引中的新闻按ID去重，重复扫描不会重复加入
+ */
+@Slf4j
+@Component
+@Order(200) // 在内容指纹迁移任务（ContentHashMigrationTask）之后加载
+public class NearDuplicateIndex implements CommandLineRunner {
+
+    private static final int BANDS = 4;
+    private static final int BAND_BITS = 64 / BANDS;
+    private static final int BAND_MASK = (1 << BAND_BITS) - 1;
+
+    /**
+     * 每段的探测半径：阈值按段数均分后向下取整
+     */
+    private static final int BAND_RADIUS = SimHashUtil.HAMMING_DIST_THRESHOLD / BANDS;
+
+    /**
+     * 每段需要探测的异或掩码（距离不超过 BAND_RADIUS 的所有16位组合）
+     */
+    private static final int[] PROBE_MASKS = buildProbeMasks();
+
+    /**
+     * 增量加载每次读取的行数
+     */
+    private static final int LOAD_PAGE_SIZE = 1000;
+
+    /**
+     * 增量同步的回看时间（毫秒），需大于保存新闻事务的最长耗时与同步间隔之和：
+     * 同步从该时间之前记录的最大ID开始扫描，期间晚提交的较小ID仍会被扫描到
+     */
+    private static final long SYNC_OVERLAP_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    @Autowired
+    private HotNewsMapper hotNewsMapper;
+
+    /**
+     * 索引保留天数，与URL布隆过滤器的去重窗口一致
+     */
+    @Value("${news.dedup.retention-days:7}")
+    private int retentionDays;
+
+    /**
+     * 每段一张表：段值 -> 该段值下的指纹
+     */
+    @SuppressWarnings("unchecked")
+    private final Map<Integer, List<Entry>>[] bands = new Map[BANDS];
+
+    /**
+     * 新闻ID -> 指纹，用于去重与按时间淘汰
+     */
+    private final Map<Long, Entry> entries = new HashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 已从数据库同步到的最大新闻ID
+     */
+    private final AtomicLong loadedMaxId = new AtomicLong();
+
+    /**
+     * 同步水位：每次加载结束的时间与已同步的最大新闻ID，按时间先后排列，
+     * 只保留回看时间内的水位和回看时间之前的最后一个水位
+     */
+    private final Deque<long[]> watermarks = new ArrayDeque<>();
+
+    private final AtomicBoolean ready = new AtomicBoolean();
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder candidates = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder invalidHashes = new LongAdder();
+
+    public NearDuplicateIndex() {
+        for (int i = 0; i < BANDS; i++) {
+            bands[i] = new HashMap<>();
+        }
+    }
+
+    /**
+     * 启动时加载保留窗口内的指纹
+     */
+    @Override
+    public void run(String... args) {
+        long start = System.currentTimeMillis();
+        try {
+            int loaded = loadFromDatabase();
+            ready.set(true);
+            log.info("新闻近似重复索引加载完成: 指纹数={}, 耗时={}ms", loaded, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            // 加载失败不影响启动，定时同步会继续追赶
+            log.error("新闻近似重复索引加载失败", e);
+        }
+    }
+
+    /**
+     * 定时同步其他节点保存的新闻，并淘汰超出保留窗口的指纹
+     */
+    @Scheduled(fixedDelayString = "${news.dedup.sync-interval-ms:60000}")
+    public void sync() {
+        if (!ready.get()) {
+            return;
+        }
+        try {
+            int loaded = loadFromDatabase();
+            int evicted = evictExpired();
+            if (loaded > 0 || evicted > 0) {
+                log.debug("新闻近似重复索引同步完成: 新增={}, 淘汰={}, 当前={}", loaded, evicted, size());
+            }
+        } catch (Exception e) {
+            log.error("新闻近似重复索引同步失败", e);
+        }
+    }
+
+    /**
+     * 加入一条已保存的新闻指纹
+     * @param newsId 新闻ID
+     * @param contentHash 内容指纹
+     * @param createTime 创建时间，为空时按当前时间
+     */
+    public void add(Long newsId, String contentHash, Date createTime) {
+        if (newsId == null || contentHash == null) {
+            return;
+        }
+        long hash;
+        try {
+            hash = SimHashUtil.parseFingerprint(contentHash);
+        } catch (NumberFormatException e) {
+            invalidHashes.increment();
+            return;
+        }
+        long time = createTime != null ? createTime.getTime() : System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            addLocked(new Entry(newsId, hash, time));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 查找与指纹近似重复的新闻
+     * @param contentHash 内容指纹
+     * @return 近似重复的新闻ID，没有时返回null
+     */
+    public Long findSimilar(String contentHash) {
+        long hash;
+        try {
+            hash = SimHashUtil.parseFingerprint(contentHash);
+        } catch (NumberFormatException e) {
+            invalidHashes.increment();
+            return null;
+        }
+        lookups.increment();
+        int compared = 0;
+        lock.readLock().lock();
+        try {
+            for (int band = 0; band < BANDS; band++) {
+                int key = bandValue(hash, band);
+                Map<Integer, List<Entry>> table = bands[band];
+                for (int mask : PROBE_MASKS) {
+                    List<Entry> bucket = table.get(key ^ mask);
+                    if (bucket == null) {
+                        continue;
+                    }
+                    for (Entry entry : bucket) {
+                        compared++;
+                        if (SimHashUtil.isSimilar(hash, entry.hash)) {
+                            hits.increment();
+                            return entry.newsId;
+                        }
+                    }
+                }
+            }
+            return null;
+        } finally {
+            lock.readLock().unlock();
+            candidates.add(compared);
+        }
+    }
+
+    /**
+     * 索引是否已完成启动加载
+     */
+    public boolean isReady() {
+        return ready.get();
+    }
+
+    /**
+     * 清空索引并从数据库重新加载
+     */
+    public void rebuild() {
+        int loaded;
+        synchronized (watermarks) {
+            lock.writeLock().lock();
+            try {
+                entries.clear();
+                for (Map<Integer, List<Entry>> table : bands) {
+                    table.clear();
+                }
+                loadedMaxId.set(0);
+                watermarks.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            loaded = loadFromDatabase();
+        }
+        ready.set(true);
+        log.info("新闻近似重复索引已重建: 指纹数={}", loaded);
+    }
+
+    /**
+     * 获取索引统计
+     */
+    public IndexStats getStats() {
+        IndexStats stats = new IndexStats();
+        long lookupCount = lookups.sum();
+        long candidateCount = candidates.sum();
+        stats.setReady(ready.get());
+        stats.setSize(size());
+        stats.setLoadedMaxId(loadedMaxId.get());
+        stats.setLookups(lookupCount);
+        stats.setHits(hits.sum());
+        stats.setCandidates(candidateCount);
+        stats.setAvgCandidatesPerLookup(lookupCount == 0 ? 0 : (double) candidateCount / lookupCount);
+        stats.setInvalidHashes(invalidHashes.sum());
+        return stats;
+    }
+
+    private int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 按ID增量加载保留窗口内的当前版本指纹
+     * 从回看时间之前记录的最大ID开始扫描，回看范围内已加入索引的新闻由 addLocked 按ID去重；
+     * 启动后还没有早于回看时间的水位时，从头扫描保留窗口
+     * @return 新加入的指纹数
+     */
+    private int loadFromDatabase() {
+        synchronized (watermarks) {
+            long start = System.currentTimeMillis();
+            long fromId = overlapStartId(start);
+            int added = loadAfter(fromId, new Date(start - TimeUnit.DAYS.toMillis(retentionDays)));
+            // 水位时间取加载结束时刻：不大于该最大ID的新闻都在此之前插入
+            watermarks.addLast(new long[]{System.currentTimeMillis(), loadedMaxId.get()});
+            return added;
+        }
+    }
+
+    /**
+     * 回看时间之前记录的最大ID，没有时返回0，调用方需持有 watermarks 锁
+     */
+    private long overlapStartId(long now) {
+        long cutoff = now - SYNC_OVERLAP_MILLIS;
+        // 只保留回看时间之前的最后一个水位
+        while (watermarks.size() > 1) {
+            Iterator<long[]> iterator = watermarks.iterator();
+            iterator.next();
+            if (iterator.next()[0] > cutoff) {
+                break;
+            }
+            watermarks.pollFirst();
+        }
+        long[] oldest = watermarks.peekFirst();
+        return oldest != null && oldest[0] <= cutoff ? oldest[1] : 0L;
+    }
+
+    private int loadAfter(long fromId, Date since) {
+        int added = 0;
+        long lastId = fromId;
+        while (true) {
+            // 只加载当前版本的指纹，旧版本指纹由内容指纹迁移任务重新计算后再加入
+            List<HotNews> page = hotNewsMapper.selectList(new LambdaQueryWrapper<HotNews>()
+                    .select(HotNews::getId, HotNews::getContentHash, HotNews::getCreateTime)
+                    .gt(HotNews::getId, lastId)
+                    .ge(HotNews::getCreateTime, since)
+                    .likeRight(HotNews::getContentHash, SimHashUtil.FINGERPRINT_VERSION)
+                    .orderByAsc(HotNews::getId)
+                    .last("LIMIT " + LOAD_PAGE_SIZE));
+            if (page.isEmpty()) {
+                return added;
+            }
+            lock.writeLock().lock();
+            try {
+                for (HotNews news : page) {
+                    try {
+                        long hash = SimHashUtil.parseFingerprint(news.getContentHash());
+                        long time = news.getCreateTime() != null ? news.getCreateTime().getTime() : System.currentTimeMillis();
+                        if (addLocked(new Entry(news.getId(), hash, time))) {
+                            added++;
+                        }
+                    } catch (NumberFormatException e) {
+                        invalidHashes.increment();
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            lastId = page.get(page.size() - 1).getId();
+            loadedMaxId.accumulateAndGet(lastId, Math::max);
+            if (page.size() < LOAD_PAGE_SIZE) {
+                return added;
+            }
+        }
+    }
+
+    /**
+     * 淘汰超出保留窗口的指纹
+     * @return 淘汰数量
+     */
+    private int evictExpired() {
+        long expireBefore = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionDays);
+        int evicted = 0;
+        lock.writeLock().lock();
+        try {
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+                if (entry.createTime < expireBefore) {
+                    iterator.remove();
+                    for (int band = 0; band < BANDS; band++) {
+                        int key = bandValue(entry.hash, band);
+                        List<Entry> bucket = bands[band].get(key);
+                        if (bucket != null) {
+                            bucket.remove(entry);
+                            if (bucket.isEmpty()) {
+                                bands[band].remove(key);
+                            }
+                        }
+                    }
+                    evicted++;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return evicted;
+    }
+
+    /**
+     * 加入索引，调用方需持有写锁
+     * @return 是否新加入（同一新闻已存在时返回false）
+     */
+    private boolean addLocked(Entry entry) {
+        if (entries.putIfAbsent(entry.newsId, entry) != null) {
+            return false;
+        }
+        for (int band = 0; band < BANDS; band++) {
+            bands[band].computeIfAbsent(bandValue(entry.hash, band), key -> new ArrayList<>(2)).add(entry);
+        }
+        return true;
+    }
+
+    private static int bandValue(long hash, int band) {
+        return (int) (hash >>> (band * BAND_BITS)) & BAND_MASK;
+    }
+
+    /**
+     * 生成所有汉明重量不超过 BAND_RADIUS 的16位掩码
+     */
+    private static int[] buildProbeMasks() {
+        List<Integer> masks = new ArrayList<>();
+        for (int mask = 0; mask <= BAND_MASK; mask++) {
+            if (Integer.bitCount(mask) <= BAND_RADIUS) {
+                masks.add(mask);
+            }
+        }
+        return masks.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * 索引中的指纹
+     */
+    private static class Entry {
+        private final long newsId;
+        private final long hash;
+        private final long createTime;
+
+        Entry(long newsId, long hash, long createTime) {
+            this.newsId = newsId;
+            this.hash = hash;
+            this.createTime = createTime;
+        }
+    }
+
+    /**
+     * 索引统计信息
+     */
+    @Data
+    public static class IndexStats {
+        private boolean ready;
+        private int size;
+        private long loadedMaxId;
+        private long lookups;
+        private long hits;
+        private long candidates;
+        private double avgCandidatesPerLookup;
+        private long invalidHashes;
+    }
+}
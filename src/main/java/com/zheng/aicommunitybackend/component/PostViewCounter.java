@@ -0,0 +1,194 @@
+package com.zheng.aicommunitybackend.component;
+
+import com.zheng.aicommunitybackend.constant.CacheConstants;
+import com.zheng.aicommunitybackend.mapper.CommunityPostsMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 帖子浏览量计数器
+ * 每次浏览只在本节点内存中按帖子累加增量，并对 Redis 中的实时浏览量执行一次自增，详情接口返回该实时值；
+ * 定时把增量合并为一条 view_count = view_count + ? 的批量UPDATE刷入数据库，
+ * 热门帖子不再每次浏览都读整行再写回整行，也不会因并发覆盖丢失浏览量。
+ * 增量只存在于本节点内存，进程异常退出时未刷入的浏览量会丢失，浏览量允许这种误差
+ */
+@Slf4j
+@Component
+public class PostViewCounter {
+
+    @Autowired
+    private RedisScriptRegistry scriptRegistry;
+
+    @Autowired
+    private CommunityPostsMapper communityPostsMapper;
+
+    /**
+     * 单条UPDATE最多包含的帖子数
+     */
+    @Value("${post.view.max-batch-size:500}")
+    private int maxBatchSize;
+
+    /**
+     * Redis实时浏览量的过期时间（秒），过期后下次浏览以数据库/缓存中的值重新初始化
+     */
+    @Value("${post.view.live-expire-seconds:86400}")
+    private long liveExpireSeconds;
+
+    /**
+     * 待刷入的浏览量增量：帖子ID -> 增量
+     */
+    private final Map<Long, Long> pending = new ConcurrentHashMap<>();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final LongAdder views = new LongAdder();
+    private final LongAdder flushedViews = new LongAdder();
+    private final LongAdder flushedRows = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+    private final LongAdder redisFailures = new LongAdder();
+    private final AtomicLong lastFlushMillis = new AtomicLong();
+
+    /**
+     * 记录一次浏览
+     * @param postId 帖子ID
+     * @param baseCount 已知的浏览量（数据库或详情缓存中的值），Redis中没有实时值时用于初始化
+     * @return 本次浏览后的实时浏览量
+     */
+    public long increment(Long postId, long baseCount) {
+        views.increment();
+        // 同一帖子的合并在ConcurrentHashMap的桶锁内完成，与刷入时的remove互斥，增量不会丢失
+        pending.merge(postId, 1L, Long::sum);
+        try {
+            Long count = scriptRegistry.execute(RedisScriptRegistry.Script.POST_VIEW_INCREMENT,
+                    Collections.singletonList(CacheConstants.buildViewCountKey(postId)),
+                    String.valueOf(baseCount), String.valueOf(liveExpireSeconds));
+            return count != null ? count : baseCount + 1;
+        } catch (Exception e) {
+            // Redis不可用时不影响浏览，数据库增量照常累加
+            redisFailures.increment();
+            log.debug("更新帖子实时浏览量失败: postId={}, error={}", postId, e.getMessage());
+            return baseCount + pending.getOrDefault(postId, 1L);
+        }
+    }
+
+    /**
+     * 定时刷入数据库
+     */
+    @Scheduled(fixedDelayString = "${post.view.flush-interval-ms:5000}")
+    public void flush() {
+        if (pending.isEmpty() || !flushLock.tryLock()) {
+            return;
+        }
+        try {
+            while (!pending.isEmpty()) {
+                if (!flushBatch()) {
+                    break;
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 停机前刷入剩余增量
+     */
+    @PreDestroy
+    public void shutdown() {
+        flushLock.lock();
+        try {
+            while (!pending.isEmpty() && flushBatch()) {
+                // 直到增量清空或刷入失败
+            }
+            if (!pending.isEmpty()) {
+                log.warn("停机时仍有{}个帖子的浏览量增量未刷入数据库", pending.size());
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 获取浏览量计数统计
+     */
+    public ViewCounterStats getStats() {
+        ViewCounterStats stats = new ViewCounterStats();
+        stats.setPendingPosts(pending.size());
+        stats.setViews(views.sum());
+        stats.setFlushedViews(flushedViews.sum());
+        stats.setFlushedRows(flushedRows.sum());
+        stats.setFlushes(flushes.sum());
+        stats.setFailedFlushes(failedFlushes.sum());
+        stats.setRedisFailures(redisFailures.sum());
+        stats.setLastFlushMillis(lastFlushMillis.get());
+        return stats;
+    }
+
+    /**
+     * 取出一批增量写入数据库
+     * @return 是否成功
+     */
+    private boolean flushBatch() {
+        // 按帖子ID排序，固定多个节点同时刷入时的加锁顺序
+        Map<Long, Long> batch = new TreeMap<>();
+        Iterator<Long> iterator = pending.keySet().iterator();
+        while (iterator.hasNext() && batch.size() < maxBatchSize) {
+            Long postId = iterator.next();
+            Long delta = pending.remove(postId);
+            if (delta != null) {
+                batch.put(postId, delta);
+            }
+        }
+        if (batch.isEmpty()) {
+            return true;
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            communityPostsMapper.batchIncrementViewCount(batch);
+            long total = batch.values().stream().mapToLong(Long::longValue).sum();
+            flushedViews.add(total);
+            flushedRows.add(batch.size());
+            flushes.increment();
+            lastFlushMillis.set(System.currentTimeMillis() - start);
+            log.debug("帖子浏览量刷入完成: 帖子数={}, 浏览量={}, 耗时={}ms", batch.size(), total, lastFlushMillis.get());
+            return true;
+        } catch (Exception e) {
+            failedFlushes.increment();
+            log.error("帖子浏览量刷入失败，{}个帖子的增量放回等待重试", batch.size(), e);
+            // 放回增量，与期间新产生的增量合并
+            batch.forEach((postId, delta) -> pending.merge(postId, delta, Long::sum));
+            return false;
+        }
+    }
+
+    /**
+     * 浏览量计数统计信息
+     */
+    @Data
+    public static class ViewCounterStats {
+        private long pendingPosts;
+        private long views;
+        private long flushedViews;
+        private long flushedRows;
+        private long flushes;
+        private long failedFlushes;
+        private long redisFailures;
+        private long lastFlushMillis;
+    }
+}
@@ -3,10 +3,9 @@ package com.zheng.aicommunitybackend.component;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Component;
 
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -19,6 +18,12 @@ public class RateLimitComponent {
     @Autowired
     private RedisTemplate<String, Object> redisTemplate;
 
+    @Autowired
+    private RedisScriptRegistry scriptRegistry;
+
+    @Autowired
+    private LeasedRateLimiter leasedRateLimiter;
+
     /**
      * 滑动窗口限流
      * @param key 限流键
@@ -27,41 +32,9 @@ public class RateLimitComponent {
      * @return 是否允许通过
      */
     public boolean slidingWindowRateLimit(String key, int windowSize, int maxRequests) {
-        String luaScript =
-                """
-                        local key = KEYS[1]
-                        local window = tonumber(ARGV[1])
-                        local limit = tonumber(ARGV[2])
-                        local current = tonumber(ARGV[3])
-                        
-                        -- 参数验证
-                        if not window or not limit or not current then
-                            return 0
-                        end
-                        if window <= 0 or limit <= 0 then
-                            return 0
-                        end
-                        
-                        -- 清除旧数据
-                        redis.call('zremrangebyscore', key, 0, current - window * 1000)
-                        
-                        local currentRequests = redis.call('zcard', key)
-                        if currentRequests < limit then
-                            redis.call('zadd', key, current, current)
-                            -- 设置过期时间避免内存泄漏
-                            redis.call('expire', key, window)
-                            return 1
-                        else
-                            return 0
-                        end
-                        """;
         log.debug("滑动窗口限流，key: {}, windowSize: {}, maxRequests: {}", key, windowSize, maxRequests);
-        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
-        script.setScriptText(luaScript);
-        script.setResultType(Long.class);
-
-        Long result = redisTemplate.execute(script,
-                Arrays.asList(key),
+        Long result = scriptRegistry.execute(RedisScriptRegistry.Script.SLIDING_WINDOW_RATE_LIMIT,
+                Collections.singletonList(key),
                 String.valueOf(windowSize),
                 String.valueOf(maxRequests),
                 String.valueOf(System.currentTimeMillis()));
@@ -69,6 +42,26 @@ public class RateLimitComponent {
         return result != null && result == 1;
     }
 
+    /**
+     * 滑动窗口计数器限流
+     * 窗口划分为若干子窗口，每个子窗口一个哈希字段记录请求数，
+     * 内存占用与子窗口数成正比，不随请求量增长，适合高频key
+     * @param key 限流键
+     * @param windowSize 时间窗口大小（秒）
+     * @param maxRequests 窗口内最大请求数
+     * @param buckets 子窗口数
+     * @return 是否允许通过
+     */
+    public boolean slidingWindowCounterRateLimit(String key, int windowSize, int maxRequests, int buckets) {
+        Long result = scriptRegistry.execute(RedisScriptRegistry.Script.SLIDING_WINDOW_COUNTER_RATE_LIMIT,
+                Collections.singletonList(key),
+                String.valueOf(windowSize),
+                String.valueOf(maxRequests),
+                String.valueOf(buckets));
+
+        return result != null && result == 1;
+    }
+
     /**
      * 令牌桶限流
      * @param key 限流键
@@ -77,34 +70,8 @@ public class RateLimitComponent {
      * @return 是否允许通过
      */
     public boolean tokenBucketRateLimit(String key, int capacity, int refillRate) {
-        String luaScript =
-            "local key = KEYS[1] " +
-            "local capacity = tonumber(ARGV[1]) " +
-            "local refillRate = tonumber(ARGV[2]) " +
-            "local currentTime = tonumber(ARGV[3]) " +
-            "local bucket = redis.call('hmget', key, 'tokens', 'lastRefill') " +
-            "local tokens = tonumber(bucket[1]) or capacity " +
-            "local lastRefill = tonumber(bucket[2]) or currentTime " +
-            "local timePassed = math.max(0, currentTime - lastRefill) " +
-            "local tokensToAdd = math.floor(timePassed / 1000 * refillRate) " +
-            "tokens = math.min(capacity, tokens + tokensToAdd) " +
-            "if tokens >= 1 then " +
-                "tokens = tokens - 1 " +
-                "redis.call('hmset', key, 'tokens', tokens, 'lastRefill', currentTime) " +
-                "redis.call('expire', key, 3600) " +
-                "return 1 " +
-            "else " +
-                "redis.call('hmset', key, 'tokens', tokens, 'lastRefill', currentTime) " +
-                "redis.call('expire', key, 3600) " +
-                "return 0 " +
-            "end";
-
-        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
-        script.setScriptText(luaScript);
-        script.setResultType(Long.class);
-
-        Long result = redisTemplate.execute(script,
-                Arrays.asList(key),
+        Long result = scriptRegistry.execute(RedisScriptRegistry.Script.TOKEN_BUCKET_RATE_LIMIT,
+                Collections.singletonList(key),
                 String.valueOf(capacity),
                 String.valueOf(refillRate),
                 String.valueOf(System.currentTimeMillis()));
@@ -120,32 +87,26 @@ public class RateLimitComponent {
      * @return 是否允许通过
      */
     public boolean fixedWindowRateLimit(String key, int windowSize, int maxRequests) {
-        String luaScript =
-            "local key = KEYS[1] " +
-            "local limit = tonumber(ARGV[1]) " +
-            "local window = tonumber(ARGV[2]) " +
-            "local current = redis.call('incr', key) " +
-            "if current == 1 then " +
-                "redis.call('expire', key, window) " +
-            "end " +
-            "if current <= limit then " +
-                "return 1 " +
-            "else " +
-                "return 0 " +
-            "end";
-
-        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
-        script.setScriptText(luaScript);
-        script.setResultType(Long.class);
-
-        Long result = redisTemplate.execute(script,
-                Arrays.asList(key),
+        Long result = scriptRegistry.execute(RedisScriptRegistry.Script.FIXED_WINDOW_RATE_LIMIT,
+                Collections.singletonList(key),
                 String.valueOf(maxRequests),
                 String.valueOf(windowSize));
 
         return result != null && result == 1;
     }
 
+    /**
+     * 租借式令牌桶限流
+     * @param key 限流键
+     * @param capacity 桶容量
+     * @param refillRate 令牌补充速率（每秒）
+     * @param leaseSize 每次租借的令牌数，不大于0时自动计算
+     * @return 是否允许通过
+     */
+    public boolean leasedTokenBucketRateLimit(String key, int capacity, double refillRate, int leaseSize) {
+        return leasedRateLimiter.tryAcquire(key, capacity, refillRate, leaseSize);
+    }
+
     /**
      * 分布式限流（基于计数器）
      * @param key 限流键
@@ -215,6 +176,8 @@ public class RateLimitComponent {
 
     /**
      * 抢红包专用限流
+     * 用户级限流仍走Redis滑动窗口；活动级与全局限流是热点key，改用租借式令牌桶，
+     * 大部分请求在本地完成判断，三次Redis往返降为平均约一次
      * @param userId 用户ID
      * @param activityId 活动ID
      * @return 是否允许通过
@@ -228,15 +191,15 @@ public class RateLimitComponent {
         }
         
         // 活动级限流：每秒最多5000次
-        String activityKey = String.format("rate_limit:red_packet:activity:%d", activityId);
-        if (!slidingWindowRateLimit(activityKey, 1, 5000)) {
+        String activityKey = String.format("rate_limit:red_packet:activity:%d:bucket", activityId);
+        if (!leasedTokenBucketRateLimit(activityKey, 5000, 5000, 0)) {
             log.warn("活动抢红包频率限制，活动ID: {}", activityId);
             return false;
         }
         
         // 全局限流：每秒最多10000次
-        String globalKey = "rate_limit:red_packet:global";
-        if (!slidingWindowRateLimit(globalKey, 1, 10000)) {
+        String globalKey = "rate_limit:red_packet:global:bucket";
+        if (!leasedTokenBucketRateLimit(globalKey, 10000, 10000, 0)) {
             log.warn("全局抢红包频率限制");
             return false;
         }
@@ -0,0 +1,222 @@
+package com.zheng.aicommunitybackend.component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 红包队列分片路由
+ * 超热活动的红包分散到N个子队列，每个分片的队列、已抢用户集合、流水与活动信息使用同一个哈希标签
+ * {activityId:shard}，在Redis Cluster中落在同一个槽位，单个脚本即可原子完成校验与出队。
+ * 用户按ID固定路由到所属分片，所属分片已空时依次从其他分片窃取。
+ * 活动的分片数在预加载时确定并写入Redis，活动生命周期内不变，本节点缓存分片数以免每次请求额外读取
+ */
+@Slf4j
+@Component
+public class RedPacketShardRouter {
+
+    private static final String ACTIVITY_SHARDS_KEY = "red_packet:activity:%d:shards";
+    private static final String SHARD_KEY = "red_packet:activity:{%d:%d}:%s";
+
+    /**
+     * 非分片模式
+     */
+    public static final int SINGLE_SHARD = 1;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisScriptRegistry scriptRegistry;
+
+    /**
+     * 是否启用分片模式
+     */
+    @Value("${red-packet.sharding.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * 分片数
+     */
+    @Value("${red-packet.sharding.shard-count:8}")
+    private int shardCount;
+
+    /**
+     * 红包总数达到该值的活动才使用分片模式
+     */
+    @Value("${red-packet.sharding.min-packets:10000}")
+    private int minPackets;
+
+    private final Cache<Long, Integer> shardCounts = Caffeine.newBuilder()
+            .maximumSize(10000)
+            .expireAfterWrite(10, TimeUnit.MINUTES)
+            .build();
+
+    private final LongAdder shardGrabs = new LongAdder();
+    private final LongAdder steals = new LongAdder();
+    private final LongAdder stealMisses = new LongAdder();
+
+    /**
+     * 决定活动的分片数（预加载时调用）
+     * 已加载过的活动沿用原分片数，否则按红包总数决定；活动生命周期内分片数不变，
+     * 已抢用户集合才能始终在同一分片上判重
+     * @param activityId 活动ID
+     * @param totalCount 活动红包总数
+     * @return 分片数
+     */
+    public int decideShardCount(Long activityId, int totalCount) {
+        String value = stringRedisTemplate.opsForValue().get(String.format(ACTIVITY_SHARDS_KEY, activityId));
+        if (value != null) {
+            return Integer.parseInt(value);
+        }
+        return enabled && shardCount > 1 && totalCount >= minPackets ? shardCount : SINGLE_SHARD;
+    }
+
+    /**
+     * 获取活动的分片数，活动未加载时返回1
+     * @param activityId 活动ID
+     * @return 分片数
+     */
+    public int getShardCount(Long activityId) {
+        Integer cached = shardCounts.getIfPresent(activityId);
+        if (cached != null) {
+            return cached;
+        }
+        String value = stringRedisTemplate.opsForValue().get(String.format(ACTIVITY_SHARDS_KEY, activityId));
+        if (value == null) {
+            return SINGLE_SHARD;
+        }
+        int shards = Integer.parseInt(value);
+        shardCounts.put(activityId, shards);
+        return shards;
+    }
+
+    /**
+     * 记录活动的分片数（预加载时调用）
+     * @param activityId 活动ID
+     * @param shards 分片数
+     * @param expireSeconds 过期时间（秒）
+     */
+    public void saveShardCount(Long activityId, int shards, long expireSeconds) {
+        stringRedisTemplate.opsForValue().set(String.format(ACTIVITY_SHARDS_KEY, activityId),
+                String.valueOf(shards), expireSeconds, TimeUnit.SECONDS);
+        shardCounts.put(activityId, shards);
+    }
+
+    /**
+     * 用户所属分片
+     * @param userId 用户ID
+     * @param shards 分片数
+     * @return 分片序号
+     */
+    public static int homeShard(Long userId, int shards) {
+        return (int) Math.floorMod(Long.hashCode(userId) * 0x9E3779B9L, (long) shards);
+    }
+
+    /**
+     * 分片key：red_packet:activity:{activityId:shard}:suffix
+     * @param activityId 活动ID
+     * @param shard 分片序号
+     * @param suffix queue / users / grabs / info
+     * @return 分片key
+     */
+    public static String shardKey(Long activityId, int shard, String suffix) {
+        return String.format(SHARD_KEY, activityId, shard, suffix);
+    }
+
+    /**
+     * 活动所有分片的key
+     * @param activityId 活动ID
+     * @param shards 分片数
+     * @param suffix queue / users / grabs / info
+     * @return 分片key列表
+     */
+    public static List<String> shardKeys(Long activityId, int shards, String suffix) {
+        List<String> keys = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            keys.add(shardKey(activityId, shard, suffix));
+        }
+        return keys;
+    }
+
+    /**
+     * 分片模式抢红包：先在所属分片抢，所属分片已空时从随机起点依次窃取其他分片
+     * @param userId 用户ID
+     * @param activityId 活动ID
+     * @param shards 分片数
+     * @return 与非分片脚本相同格式的结果：{1, 红包ID:金额:序号} 或 {0, 失败原因}
+     */
+    public List<Object> grab(Long userId, Long activityId, int shards) {
+        shardGrabs.increment();
+        int home = homeShard(userId, shards);
+        List<Object> result = scriptRegistry.execute(RedisScriptRegistry.Script.RED_PACKET_SHARD_GRAB,
+                Arrays.asList(shardKey(activityId, home, "queue"), shardKey(activityId, home, "users"),
+                        shardKey(activityId, home, "grabs"), shardKey(activityId, home, "info")),
+                userId.toString());
+        if (result == null || result.size() != 2 || ((Number) result.get(0)).intValue() != 2) {
+            return result;
+        }
+
+        // 所属分片已空，用户已在所属分片占位，从其他分片窃取
+        int start = ThreadLocalRandom.current().nextInt(shards);
+        for (int i = 0; i < shards; i++) {
+            int shard = (start + i) % shards;
+            if (shard == home) {
+                continue;
+            }
+            List<Object> stolen = scriptRegistry.execute(RedisScriptRegistry.Script.RED_PACKET_SHARD_STEAL,
+                    Arrays.asList(shardKey(activityId, shard, "queue"), shardKey(activityId, shard, "grabs")),
+                    userId.toString());
+            if (stolen != null && ((Number) stolen.get(0)).intValue() == 1) {
+                steals.increment();
+                return stolen;
+            }
+        }
+
+        // 所有分片都已抢完，释放占位
+        stealMisses.increment();
+        stringRedisTemplate.opsForSet().remove(shardKey(activityId, home, "users"), userId.toString());
+        return Arrays.asList(0L, "no_packet");
+    }
+
+    /**
+     * 获取分片路由统计
+     */
+    public ShardStats getStats() {
+        ShardStats stats = new ShardStats();
+        stats.setEnabled(enabled);
+        stats.setShardCount(shardCount);
+        stats.setMinPackets(minPackets);
+        stats.setCachedActivities(shardCounts.estimatedSize());
+        stats.setShardGrabs(shardGrabs.sum());
+        stats.setSteals(steals.sum());
+        stats.setStealMisses(stealMisses.sum());
+        return stats;
+    }
+
+    /**
+     * 分片路由统计信息
+     */
+    @Data
+    public static class ShardStats {
+        private boolean enabled;
+        private int shardCount;
+        private int minPackets;
+        private long cachedActivities;
+        private long shardGrabs;
+        private long steals;
+        private long stealMisses;
+    }
+}
@@ -0,0 +1,55 @@
+package com.zheng.aicommunitybackend.component;
+
+import cn.hutool.core.util.IdUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于Redis的分布式互斥锁
+ * 加锁时写入随机的持有者标识，释放时由Lua脚本比较标识后再删除，
+ * 锁过期后被其他节点重新获取时，原持有者的释放不会误删别人的锁
+ */
+@Slf4j
+@Component
+public class RedisLock {
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisScriptRegistry scriptRegistry;
+
+    /**
+     * 尝试加锁
+     * @param key 锁key
+     * @param timeout 锁过期时间
+     * @param unit 时间单位
+     * @return 持有者标识，加锁失败返回null
+     */
+    public String tryLock(String key, long timeout, TimeUnit unit) {
+        String token = IdUtil.fastSimpleUUID();
+        Boolean locked = stringRedisTemplate.opsForValue().setIfAbsent(key, token, timeout, unit);
+        return Boolean.TRUE.equals(locked) ? token : null;
+    }
+
+    /**
+     * 释放锁，只有持有者标识一致时才删除
+     * @param key 锁key
+     * @param token 加锁时返回的持有者标识
+     * @return 是否释放成功，false 表示锁已过期或已被其他持有者获取
+     */
+    public boolean unlock(String key, String token) {
+        Long released = scriptRegistry.execute(RedisScriptRegistry.Script.LOCK_RELEASE,
+                Collections.singletonList(key), token);
+        if (released == null || released == 0) {
+            log.warn("释放分布式锁时锁已不属于当前持有者: {}", key);
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,278 @@
+package com.zheng.aicommunitybackend.component;
+
+import cn.hutool.crypto.SecureUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lua脚本注册中心
+ * 启动时通过 SCRIPT LOAD 预加载 classpath:lua/ 下的所有脚本，调用时只发送 EVALSHA；
+ * Redis 重启或执行 SCRIPT FLUSH 后返回 NOSCRIPT 时自动重新加载并重试一次。
+ * 同时记录每个脚本的调用次数、异常次数与耗时分布
+ */
+@Slf4j
+@Component
+public class RedisScriptRegistry {
+
+    /**
+     * 已注册的脚本
+     */
+    public enum Script {
+        SLIDING_WINDOW_RATE_LIMIT("lua/sliding_window_rate_limit.lua", ReturnType.INTEGER),
+        SLIDING_WINDOW_COUNTER_RATE_LIMIT("lua/sliding_window_counter_rate_limit.lua", ReturnType.INTEGER),
+        TOKEN_BUCKET_RATE_LIMIT("lua/token_bucket_rate_limit.lua", ReturnType.INTEGER),
+        FIXED_WINDOW_RATE_LIMIT("lua/fixed_window_rate_limit.lua", ReturnType.INTEGER),
+        TOKEN_BUCKET_LEASE("lua/token_bucket_lease.lua", ReturnType.INTEGER),
+        RED_PACKET_GRAB("lua/red_packet_grab.lua", ReturnType.MULTI),
+        RED_PACKET_SHARD_GRAB("lua/red_packet_shard_grab.lua", ReturnType.MULTI),
+        RED_PACKET_SHARD_STEAL("lua/red_packet_shard_steal.lua", ReturnType.MULTI),
+        LIKE_TOGGLE("lua/like_toggle.lua", ReturnType.MULTI),
+        LIKE_WARM_UP("lua/like_warm_up.lua", ReturnType.INTEGER),
+        POST_VIEW_INCREMENT("lua/post_view_increment.lua", ReturnType.INTEGER),
+        LOCK_RELEASE("lua/lock_release.lua", ReturnType.INTEGER);
+
+        private final String location;
+        private final ReturnType returnType;
+
+        Script(String location, ReturnType returnType) {
+            this.location = location;
+            this.returnType = returnType;
+        }
+
+        public String getLocation() { return location; }
+        public ReturnType getReturnType() { return returnType; }
+    }
+
+    /**
+     * 耗时分布桶上界（毫秒），最后一个桶收集超过上界的调用
+     */
+    private static final long[] LATENCY_BUCKETS_MILLIS = {1, 2, 5, 10, 20, 50, 100, 500};
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    private final Map<Script, byte[]> sources = new EnumMap<>(Script.class);
+
+    private final Map<Script, String> shas = new ConcurrentHashMap<>();
+
+    private final Map<Script, ScriptMetrics> metrics = new EnumMap<>(Script.class);
+
+    @PostConstruct
+    public void init() {
+        for (Script script : Script.values()) {
+            byte[] source = readSource(script);
+            sources.put(script, source);
+            // SHA1在本地计算，即使启动时Redis不可用，首次调用也能通过NOSCRIPT分支完成加载
+            shas.put(script, SecureUtil.sha1().digestHex(source));
+            metrics.put(script, new ScriptMetrics());
+        }
+
+        try {
+            loadAll();
+        } catch (Exception e) {
+            log.warn("预加载Lua脚本失败，将在首次调用时加载: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 将所有脚本加载到Redis脚本缓存
+     */
+    public void loadAll() {
+        for (Script script : Script.values()) {
+            load(script);
+        }
+        log.info("Lua脚本预加载完成，共{}个脚本", Script.values().length);
+    }
+
+    /**
+     * 执行脚本
+     * INTEGER 类型返回 Long，MULTI 类型返回元素为 String/Long 的 List
+     * @param script 脚本
+     * @param keys KEYS 参数
+     * @param args ARGV 参数
+     * @return 脚本返回值
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Script script, List<String> keys, String... args) {
+        ScriptMetrics scriptMetrics = metrics.get(script);
+        long start = System.nanoTime();
+        try {
+            Object result;
+            try {
+                result = evalSha(script, keys, args);
+            } catch (RuntimeException e) {
+                if (!isNoScriptError(e)) {
+                    throw e;
+                }
+                log.warn("Redis脚本缓存中不存在脚本{}，重新加载后重试", script);
+                scriptMetrics.reloads.increment();
+                load(script);
+                result = evalSha(script, keys, args);
+            }
+            return (T) convertResult(result);
+        } catch (RuntimeException e) {
+            scriptMetrics.errors.increment();
+            throw e;
+        } finally {
+            scriptMetrics.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 获取所有脚本的调用统计
+     */
+    public List<ScriptStats> getStats() {
+        List<ScriptStats> statsList = new ArrayList<>();
+        for (Script script : Script.values()) {
+            statsList.add(metrics.get(script).snapshot(script, shas.get(script)));
+        }
+        return statsList;
+    }
+
+    private void load(Script script) {
+        String sha = stringRedisTemplate.execute((RedisCallback<String>) connection ->
+                connection.scriptingCommands().scriptLoad(sources.get(script)));
+        if (sha != null) {
+            shas.put(script, sha);
+        }
+        log.debug("Lua脚本已加载: {}, sha: {}", script, sha);
+    }
+
+    private Object evalSha(Script script, List<String> keys, String[] args) {
+        byte[][] keysAndArgs = new byte[keys.size() + args.length][];
+        int i = 0;
+        for (String key : keys) {
+            keysAndArgs[i++] = key.getBytes(StandardCharsets.UTF_8);
+        }
+        for (String arg : args) {
+            keysAndArgs[i++] = arg.getBytes(StandardCharsets.UTF_8);
+        }
+        String sha = shas.get(script);
+        return stringRedisTemplate.execute((RedisCallback<Object>) connection ->
+                connection.scriptingCommands().evalSha(sha, script.getReturnType(), keys.size(), keysAndArgs));
+    }
+
+    /**
+     * 将驱动返回的 byte[] 转为字符串，嵌套列表逐个转换
+     */
+    private Object convertResult(Object result) {
+        if (result instanceof byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        if (result instanceof List<?> list) {
+            List<Object> converted = new ArrayList<>(list.size());
+            for (Object item : list) {
+                converted.add(convertResult(item));
+            }
+            return converted;
+        }
+        return result;
+    }
+
+    private boolean isNoScriptError(Throwable e) {
+        Throwable current = e;
+        while (current != null) {
+            String message = current.getMessage();
+            if (message != null && message.contains("NOSCRIPT")) {
+                return true;
+            }
+            current = current.getCause();
+        }
+        return false;
+    }
+
+    private byte[] readSource(Script script) {
+        try (InputStream in = new ClassPathResource(script.getLocation()).getInputStream()) {
+            return StreamUtils.copyToByteArray(in);
+        } catch (IOException e) {
+            throw new IllegalStateException("读取Lua脚本失败: " + script.getLocation(), e);
+        }
+    }
+
+    /**
+     * 单个脚本的运行指标
+     */
+    private static class ScriptMetrics {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder reloads = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final LongAdder[] buckets = new LongAdder[LATENCY_BUCKETS_MILLIS.length + 1];
+
+        ScriptMetrics() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long elapsedNanos) {
+            calls.increment();
+            totalNanos.add(elapsedNanos);
+            maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+
+            long elapsedMillis = elapsedNanos / 1_000_000;
+            int index = 0;
+            while (index < LATENCY_BUCKETS_MILLIS.length && elapsedMillis >= LATENCY_BUCKETS_MILLIS[index]) {
+                index++;
+            }
+            buckets[index].increment();
+        }
+
+        ScriptStats snapshot(Script script, String sha) {
+            ScriptStats stats = new ScriptStats();
+            long callCount = calls.sum();
+            stats.setScript(script.name());
+            stats.setSha(sha);
+            stats.setCalls(callCount);
+            stats.setErrors(errors.sum());
+            stats.setReloads(reloads.sum());
+            stats.setAvgMillis(callCount == 0 ? 0 : totalNanos.sum() / (double) callCount / 1_000_000);
+            stats.setMaxMillis(maxNanos.get() / 1_000_000.0);
+
+            Map<String, Long> histogram = new LinkedHashMap<>();
+            for (int i = 0; i < LATENCY_BUCKETS_MILLIS.length; i++) {
+                histogram.put("<" + LATENCY_BUCKETS_MILLIS[i] + "ms", buckets[i].sum());
+            }
+            histogram.put(">=" + LATENCY_BUCKETS_MILLIS[LATENCY_BUCKETS_MILLIS.length - 1] + "ms",
+                    buckets[LATENCY_BUCKETS_MILLIS.length].sum());
+            stats.setLatencyHistogram(histogram);
+            return stats;
+        }
+    }
+
+    /**
+     * 脚本调用统计信息
+     */
+    @Data
+    public static class ScriptStats {
+        private String script;
+        private String sha;
+        private long calls;
+        private long errors;
+        private long reloads;
+        private double avgMillis;
+        private double maxMillis;
+        private Map<String, Long> latencyHistogram;
+    }
+}
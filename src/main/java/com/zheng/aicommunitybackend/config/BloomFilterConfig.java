@@ -1,20 +1,40 @@
 package com.zheng.aicommunitybackend.config;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.google.common.hash.BloomFilter;
-import com.google.common.hash.Funnels;
 import com.zheng.aicommunitybackend.domain.entity.HotNews;
 import com.zheng.aicommunitybackend.mapper.HotNewsMapper;
+import com.zheng.aicommunitybackend.util.RotatingBloomFilter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.Scheduled;
-
-import java.nio.charset.StandardCharsets;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -22,22 +42,39 @@ import java.util.concurrent.atomic.AtomicReference;
  * 布隆过滤器配置
  * 用于初始化布隆过滤器并加载数据库中已有的URL
  * 支持动态重建和数据生命周期管理
+ * 过滤器按天分段滚动（见 RotatingBloomFilter），每天零点丢弃最旧的分段，保留窗口不再依赖每晚全量重建
+ * 过滤器位数组与检查点（已加载的最大新闻ID）定期写入本地快照，重启时加载快照后只回放检查点附近及之后的记录
+ * 新闻ID在插入时分配、提交时才可见，较小ID可能晚于较大ID提交，因此每次同步都从回看时间之前的水位开始重放，重复写入对布隆过滤器无影响
  */
 @Slf4j
 @Configuration
 public class BloomFilterConfig {
 
+    /**
+     * 快照文件标识与格式版本
+     */
+    private static final int SNAPSHOT_MAGIC = 0x424C4F4D;
+    private static final int SNAPSHOT_VERSION = 3;
+
+    /**
+     * 同步回看时间：晚于该时间提交的较小ID会在下次同步时被补上
+     */
+    private static final long SYNC_OVERLAP_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
     @Autowired
     private HotNewsMapper hotNewsMapper;
 
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     /**
-     * 预计插入的元素数量 - 可通过配置文件调整
+     * 预计插入的元素数量（整个保留窗口） - 可通过配置文件调整，按保留天数均分到每天的分段
      */
     @Value("${bloom-filter.expected-insertions:200000}")
     private int expectedInsertions;
 
     /**
-     * 可接受的误判率 - 可通过配置文件调整
+     * 可接受的误判率（所有分段合计） - 可通过配置文件调整，按分段数均分到每个分段
      */
     @Value("${bloom-filter.false-positive-probability:0.01}")
     private double falsePositiveProbability;
@@ -49,26 +86,50 @@ public class BloomFilterConfig {
     private int dataRetentionDays;
 
     /**
-     * 是否启用自动重建
+     * 是否启用过期数据自动清理
+     * 原配置项为 auto-rebuild-enabled，未配置新配置项时沿用旧配置，已关闭旧配置的部署不会开始删除新闻
+     */
+    @Value("${bloom-filter.auto-clean-enabled:${bloom-filter.auto-rebuild-enabled:true}}")
+    private boolean autoCleanEnabled;
+
+    /**
+     * 是否启用本地快照
      */
-    @Value("${bloom-filter.auto-rebuild-enabled:true}")
-    private boolean autoRebuildEnabled;
+    @Value("${bloom-filter.snapshot.enabled:true}")
+    private boolean snapshotEnabled;
 
     /**
-     * 布隆过滤器实例
+     * 快照文件路径
      */
-    private volatile BloomFilter<String> bloomFilter;
+    @Value("${bloom-filter.snapshot.path:data/bloom/url-bloom-filter.snapshot}")
+    private String snapshotPath;
 
     /**
-     * 当前加载的URL数量
+     * 按天分段的布隆过滤器实例
      */
-    private final AtomicLong loadedUrlCount = new AtomicLong(0);
+    private volatile RotatingBloomFilter bloomFilter;
 
     /**
      * 最后重建时间
      */
     private volatile LocalDateTime lastRebuildTime;
 
+    /**
+     * 检查点：已加载到布隆过滤器的最大新闻ID
+     */
+    private final AtomicLong checkpointId = new AtomicLong(0);
+
+    /**
+     * 同步水位 [加载结束时间, 已加载最大ID]，按时间递增，用于确定重放起点
+     * 只在持有本对象锁（或启动初始化）时访问
+     */
+    private final Deque<long[]> watermarks = new ArrayDeque<>();
+
+    /**
+     * 最后写入快照时间
+     */
+    private volatile LocalDateTime lastSnapshotTime;
+
     /**
      * 当前告警级别
      */
@@ -99,25 +160,37 @@ public class BloomFilterConfig {
     }
 
     /**
-     * 创建布隆过滤器Bean
-     * @return 布隆过滤器实例
+     * 启动时初始化布隆过滤器
+     * 优先从本地快照恢复，再只回放检查点附近及之后新增的记录；快照不存在、参数变化或已过期时全量重建
      */
-    @Bean
-    public BloomFilter<String> urlBloomFilter() {
+    @PostConstruct
+    public void init() {
         log.info("初始化布隆过滤器，预计容量: {}, 误判率: {}, 数据保留天数: {}",
                 expectedInsertions, falsePositiveProbability, dataRetentionDays);
 
-        // 创建布隆过滤器
-        this.bloomFilter = BloomFilter.create(
-                Funnels.stringFunnel(StandardCharsets.UTF_8),
-                expectedInsertions,
-                falsePositiveProbability);
+        if (snapshotEnabled && restoreFromSnapshot()) {
+            return;
+        }
+        rebuildBloomFilter();
+    }
 
-        // 加载数据库中已有的URL
-        loadExistingUrls(this.bloomFilter);
-        this.lastRebuildTime = LocalDateTime.now();
+    /**
+     * 判断URL是否可能已存在
+     * @param url 新闻源URL
+     * @return false表示一定不存在
+     */
+    public boolean mightContain(String url) {
+        return bloomFilter.mightContain(url);
+    }
 
-        return this.bloomFilter;
+    /**
+     * 记录已保存的URL
+     * @param url 新闻源URL
+     */
+    public void put(String url) {
+        if (url != null && !url.isEmpty()) {
+            bloomFilter.put(url);
+        }
     }
 
     /**
@@ -128,11 +201,15 @@ public class BloomFilterConfig {
         return BloomFilterStats.builder()
                 .expectedInsertions(expectedInsertions)
                 .falsePositiveProbability(falsePositiveProbability)
-                .loadedUrlCount(loadedUrlCount.get())
+                .loadedUrlCount(loadedUrlCount())
+                .usageRatio(calculateUsageRatio())
+                .segments(bloomFilter != null ? bloomFilter.getSegmentStats() : new ArrayList<>())
                 .lastRebuildTime(lastRebuildTime)
                 .dataRetentionDays(dataRetentionDays)
                 .alertLevel(getCurrentAlertLevel())
                 .alertRecommendation(getAlertRecommendation())
+                .checkpointId(checkpointId.get())
+                .lastSnapshotTime(lastSnapshotTime)
                 .build();
     }
 
@@ -141,23 +218,86 @@ public class BloomFilterConfig {
      * @return 重建后加载的URL数量
      */
     public synchronized long rebuildBloomFilter() {
-        log.info("开始手动重建布隆过滤器...");
+        log.info("开始重建布隆过滤器...");
+        long start = System.currentTimeMillis();
 
         // 创建新的布隆过滤器
-        BloomFilter<String> newBloomFilter = BloomFilter.create(
-                Funnels.stringFunnel(StandardCharsets.UTF_8),
-                expectedInsertions,
-                falsePositiveProbability);
-
-        // 加载数据
-        long loadedCount = loadExistingUrls(newBloomFilter);
+        RotatingBloomFilter newBloomFilter = new RotatingBloomFilter(
+                segmentCount(), segmentInsertions(), segmentProbability(), LocalDate.now());
+
+        // 流式加载保留窗口内的全部URL，按创建日期写入对应分段
+        long[] result = streamUrls(newBloomFilter, 0);
+        if (result == null) {
+            // 加载失败时保留旧的过滤器（启动时为空过滤器），避免去重能力整体失效
+            if (this.bloomFilter == null) {
+                this.bloomFilter = newBloomFilter;
+            }
+            return 0;
+        }
 
         // 原子性替换
         this.bloomFilter = newBloomFilter;
+        this.checkpointId.set(result[1]);
+        watermarks.clear();
+        watermarks.addLast(new long[]{System.currentTimeMillis(), result[1]});
         this.lastRebuildTime = LocalDateTime.now();
+        updateAlertLevel(calculateUsageRatio());
+
+        log.info("布隆过滤器重建完成，加载了{}个URL，检查点ID: {}，耗时: {}ms",
+                result[0], result[1], System.currentTimeMillis() - start);
+        if (snapshotEnabled) {
+            saveSnapshot();
+        }
+        return result[0];
+    }
+
+    /**
+     * 定时追平检查点并写入快照
+     * 本节点保存的URL已实时写入过滤器，这里只需把其他节点新增的记录补进来，再推进检查点
+     * 从回看时间之前的水位开始读取，而不是从检查点开始，晚提交的较小ID不会被跳过
+     */
+    @Scheduled(fixedDelayString = "${bloom-filter.snapshot.interval-ms:300000}",
+            initialDelayString = "${bloom-filter.snapshot.interval-ms:300000}")
+    public synchronized void snapshotTask() {
+        if (!snapshotEnabled || bloomFilter == null) {
+            return;
+        }
+        long[] result = streamUrls(bloomFilter, overlapStartId(System.currentTimeMillis()));
+        if (result == null) {
+            return;
+        }
+        checkpointId.accumulateAndGet(result[1], Math::max);
+        // 水位时间取加载结束时刻：不大于该最大ID的新闻都在此之前插入
+        watermarks.addLast(new long[]{System.currentTimeMillis(), checkpointId.get()});
+        // 当天分段随写入持续填充，顺带刷新告警级别
+        updateAlertLevel(calculateUsageRatio());
+        saveSnapshot();
+    }
 
-        log.info("布隆过滤器重建完成，加载了{}个URL", loadedCount);
-        return loadedCount;
+    /**
+     * 每天零点滚动分段：新增当天分段，丢弃超出保留窗口的最旧分段
+     */
+    @Scheduled(cron = "0 0 0 * * ?")
+    public synchronized void rotateTask() {
+        if (bloomFilter == null) {
+            return;
+        }
+        int dropped = bloomFilter.rotate(LocalDate.now());
+        updateAlertLevel(calculateUsageRatio());
+        log.info("布隆过滤器分段滚动完成，丢弃{}个过期分段，当前URL数量: {}", dropped, loadedUrlCount());
+        if (snapshotEnabled) {
+            saveSnapshot();
+        }
+    }
+
+    /**
+     * 停机前写入最新快照
+     */
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (snapshotEnabled && bloomFilter != null) {
+            saveSnapshot();
+        }
     }
 
     /**
@@ -225,10 +365,39 @@ public class BloomFilterConfig {
 
     /**
      * 计算当前使用率（内部方法，避免循环调用）
+     * 取使用率最高的分段，单日数据量超出分段容量时才会升高
      * @return 使用率 (0.0 - 1.0)
      */
     private double calculateUsageRatio() {
-        return (double) loadedUrlCount.get() / expectedInsertions;
+        return bloomFilter != null ? bloomFilter.maxFillRatio() : 0;
+    }
+
+    /**
+     * 当前加载的URL数量（所有分段合计）
+     */
+    private long loadedUrlCount() {
+        return bloomFilter != null ? bloomFilter.size() : 0;
+    }
+
+    /**
+     * 分段数：保留天数 + 当天未满一天的分段
+     */
+    private int segmentCount() {
+        return dataRetentionDays + 1;
+    }
+
+    /**
+     * 每个分段的容量
+     */
+    private int segmentInsertions() {
+        return Math.max(1, (expectedInsertions + dataRetentionDays - 1) / dataRetentionDays);
+    }
+
+    /**
+     * 每个分段的误判率，保证所有分段合计不超过配置值
+     */
+    private double segmentProbability() {
+        return falsePositiveProbability / segmentCount();
     }
 
     /**
@@ -265,7 +434,7 @@ public class BloomFilterConfig {
                         "1. 当前约有 %d 条URL数据\n" +
                         "2. 预计2-3天内可能达到警告级别\n" +
                         "3. 建议每日检查数据增长情况",
-                        usageRatio * 100, loadedUrlCount.get());
+                        usageRatio * 100, loadedUrlCount());
             case NORMAL:
             default:
                 return String.format("使用率正常(%.1f%%)，7天数据周期运行良好", usageRatio * 100);
@@ -273,72 +442,170 @@ public class BloomFilterConfig {
     }
     
     /**
-     * 从数据库加载已有的URL到布隆过滤器
-     * 只加载最近N天的数据，避免过载
+     * 回看时间之前记录的最大ID，没有时返回0，调用方需持有本对象锁
+     */
+    private long overlapStartId(long now) {
+        long cutoff = now - SYNC_OVERLAP_MILLIS;
+        // 只保留回看时间之前的最后一个水位
+        while (watermarks.size() > 1) {
+            Iterator<long[]> iterator = watermarks.iterator();
+            iterator.next();
+            if (iterator.next()[0] > cutoff) {
+                break;
+            }
+            watermarks.pollFirst();
+        }
+        long[] oldest = watermarks.peekFirst();
+        return oldest != null && oldest[0] <= cutoff ? oldest[1] : 0L;
+    }
+
+    /**
+     * 从数据库流式读取URL写入布隆过滤器
+     * 通过MyBatis游标逐行读取 id、source_url、create_time 三列，不再把整个保留窗口的记录实例化为List
      * @param bloomFilter 布隆过滤器实例
-     * @return 加载的URL数量
+     * @param afterId 只读取ID大于该值的记录，0表示全量
+     * @return [新写入的URL数量, 读到的最大ID]，读取失败时返回null
      */
-    private long loadExistingUrls(BloomFilter<String> bloomFilter) {
+    private long[] streamUrls(RotatingBloomFilter bloomFilter, long afterId) {
+        // 从最旧分段当天零点开始读取，使最旧分段完整
+        Date since = Date.from(LocalDate.now().minusDays(dataRetentionDays)
+                .atStartOfDay(ZoneId.systemDefault()).toInstant());
         try {
-            log.info("开始加载数据库中最近{}天的URL到布隆过滤器...", dataRetentionDays);
-
-            // 只查询最近N天的数据和source_url字段，减少数据传输量
-            LambdaQueryWrapper<HotNews> queryWrapper = new LambdaQueryWrapper<>();
-            queryWrapper.select(HotNews::getSourceUrl);
-            queryWrapper.ge(HotNews::getCreateTime,
-                    LocalDateTime.now().minusDays(dataRetentionDays));
-            queryWrapper.isNotNull(HotNews::getSourceUrl);
-            queryWrapper.ne(HotNews::getSourceUrl, "");
+            return transactionTemplate.execute(status -> {
+                long count = 0;
+                long maxId = afterId;
+                try (Cursor<HotNews> cursor = hotNewsMapper.streamSourceUrls(afterId, since)) {
+                    for (HotNews news : cursor) {
+                        LocalDate day = news.getCreateTime() != null
+                                ? news.getCreateTime().toInstant().atZone(ZoneId.systemDefault()).toLocalDate()
+                                : LocalDate.now();
+                        if (bloomFilter.put(news.getSourceUrl(), day)) {
+                            count++;
+                        }
+                        maxId = Math.max(maxId, news.getId());
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return new long[]{count, maxId};
+            });
+        } catch (Exception e) {
+            log.error("加载URL到布隆过滤器时出错: {}", e.getMessage(), e);
+            return null;
+        }
+    }
 
-            List<HotNews> newsList = hotNewsMapper.selectList(queryWrapper);
+    /**
+     * 从本地快照恢复布隆过滤器，并从快照记录的重放起点回放，覆盖快照前后晚提交的记录
+     * @return 是否恢复成功
+     */
+    private boolean restoreFromSnapshot() {
+        Path path = Paths.get(snapshotPath);
+        if (!Files.isRegularFile(path)) {
+            log.info("布隆过滤器快照不存在: {}", path.toAbsolutePath());
+            return false;
+        }
 
-            long count = 0;
-            for (HotNews news : newsList) {
-                String url = news.getSourceUrl();
-                if (url != null && !url.trim().isEmpty()) {
-                    bloomFilter.put(url);
-                    count++;
-                }
+        long start = System.currentTimeMillis();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                log.warn("布隆过滤器快照格式不兼容，改为全量重建");
+                return false;
+            }
+            int snapshotInsertions = in.readInt();
+            double snapshotProbability = in.readDouble();
+            int snapshotRetentionDays = in.readInt();
+            long snapshotCheckpoint = in.readLong();
+            long snapshotReplayId = in.readLong();
+            long rebuildMillis = in.readLong();
+
+            if (snapshotInsertions != expectedInsertions
+                    || Double.compare(snapshotProbability, falsePositiveProbability) != 0
+                    || snapshotRetentionDays != dataRetentionDays) {
+                log.info("布隆过滤器参数已变化，快照作废，改为全量重建");
+                return false;
             }
 
-            loadedUrlCount.set(count);
-            log.info("成功加载{}个URL到布隆过滤器（最近{}天的数据）", count, dataRetentionDays);
-
-            // 检查使用率并更新告警级别
-            double usageRatio = (double) count / expectedInsertions;
-            updateAlertLevel(usageRatio);
+            // 读取后滚动到当天，停机期间过期的分段直接丢弃，快照再旧也不需要全量重建
+            RotatingBloomFilter restored = RotatingBloomFilter.readFrom(
+                    in, segmentCount(), segmentInsertions(), segmentProbability(), LocalDate.now());
+            long snapshotCount = restored.size();
+            long[] result = streamUrls(restored, snapshotReplayId);
+            if (result == null) {
+                return false;
+            }
 
-            return count;
+            this.bloomFilter = restored;
+            this.checkpointId.set(Math.max(snapshotCheckpoint, result[1]));
+            // 重放起点之前的记录在快照时已确认提交；恢复时刻的水位过了回看时间后才能作为下次同步的起点
+            watermarks.clear();
+            watermarks.addLast(new long[]{0L, snapshotReplayId});
+            watermarks.addLast(new long[]{System.currentTimeMillis(), checkpointId.get()});
+            this.lastRebuildTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(rebuildMillis), ZoneId.systemDefault());
+            updateAlertLevel(calculateUsageRatio());
+
+            log.info("布隆过滤器已从快照恢复: 快照URL数={}, 回放新增={}, 检查点ID={}, 耗时={}ms",
+                    snapshotCount, result[0], checkpointId.get(), System.currentTimeMillis() - start);
+            return true;
         } catch (Exception e) {
-            log.error("加载URL到布隆过滤器时出错: {}", e.getMessage(), e);
-            loadedUrlCount.set(0);
-            return 0;
+            log.warn("读取布隆过滤器快照失败，改为全量重建: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 把当前布隆过滤器、检查点与重放起点写入本地快照
+     * 先写临时文件再原子替换，进程中途退出不会留下半个快照
+     */
+    private void saveSnapshot() {
+        if (lastRebuildTime == null) {
+            // 尚未成功加载过，不能把空过滤器写成快照
+            return;
+        }
+        Path path = Paths.get(snapshotPath);
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        long start = System.currentTimeMillis();
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeInt(expectedInsertions);
+                out.writeDouble(falsePositiveProbability);
+                out.writeInt(dataRetentionDays);
+                out.writeLong(checkpointId.get());
+                out.writeLong(overlapStartId(System.currentTimeMillis()));
+                out.writeLong(lastRebuildTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+                bloomFilter.writeTo(out);
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            lastSnapshotTime = LocalDateTime.now();
+            log.debug("布隆过滤器快照已写入: {}, 检查点ID={}, 耗时={}ms",
+                    path, checkpointId.get(), System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            log.error("写入布隆过滤器快照失败: {}", e.getMessage(), e);
         }
     }
 
     /**
-     * 自动重建任务 - 每天凌晨2点执行
-     * 清理过期数据并重建布隆过滤器
+     * 自动清理任务 - 每天凌晨2点执行
+     * 清理过期数据；布隆过滤器已在零点滚动分段，不再需要全量重建
      */
     @Scheduled(cron = "0 0 2 * * ?")
-    public void autoRebuildTask() {
-        if (!autoRebuildEnabled) {
-            log.debug("自动重建功能已禁用，跳过执行");
+    public void autoCleanTask() {
+        if (!autoCleanEnabled) {
+            log.debug("过期数据自动清理已禁用，跳过执行");
             return;
         }
 
         try {
-            log.info("开始执行布隆过滤器自动重建任务...");
-
-            // 先清理过期数据
+            log.info("开始执行过期新闻数据自动清理任务...");
             cleanExpiredData();
-
-            // 重建布隆过滤器
-            rebuildBloomFilter();
-
-            log.info("布隆过滤器自动重建任务完成");
+            log.info("过期新闻数据自动清理任务完成");
         } catch (Exception e) {
-            log.error("布隆过滤器自动重建任务执行失败", e);
+            log.error("过期新闻数据自动清理任务执行失败", e);
         }
     }
 
@@ -404,10 +671,16 @@ public class BloomFilterConfig {
         private final int dataRetentionDays;
         private final AlertLevel alertLevel;
         private final String alertRecommendation;
+        private final long checkpointId;
+        private final LocalDateTime lastSnapshotTime;
+        private final double usageRatio;
+        private final List<RotatingBloomFilter.SegmentStats> segments;
 
         public BloomFilterStats(int expectedInsertions, double falsePositiveProbability,
                                long loadedUrlCount, LocalDateTime lastRebuildTime, int dataRetentionDays,
-                               AlertLevel alertLevel, String alertRecommendation) {
+                               AlertLevel alertLevel, String alertRecommendation,
+                               long checkpointId, LocalDateTime lastSnapshotTime,
+                               double usageRatio, List<RotatingBloomFilter.SegmentStats> segments) {
             this.expectedInsertions = expectedInsertions;
             this.falsePositiveProbability = falsePositiveProbability;
             this.loadedUrlCount = loadedUrlCount;
@@ -415,6 +688,10 @@ public class BloomFilterConfig {
             this.dataRetentionDays = dataRetentionDays;
             this.alertLevel = alertLevel;
             this.alertRecommendation = alertRecommendation;
+            this.checkpointId = checkpointId;
+            this.lastSnapshotTime = lastSnapshotTime;
+            this.usageRatio = usageRatio;
+            this.segments = segments;
         }
 
         public static BloomFilterStatsBuilder builder() {
@@ -429,7 +706,16 @@ public class BloomFilterConfig {
         public int getDataRetentionDays() { return dataRetentionDays; }
         public AlertLevel getAlertLevel() { return alertLevel; }
         public String getAlertRecommendation() { return alertRecommendation; }
-        public double getUsageRatio() { return (double) loadedUrlCount / expectedInsertions; }
+        public long getCheckpointId() { return checkpointId; }
+        public LocalDateTime getLastSnapshotTime() { return lastSnapshotTime; }
+        /**
+         * 使用率最高的分段的使用率
+         */
+        public double getUsageRatio() { return usageRatio; }
+        /**
+         * 各分段（每天一个）的填充情况，按日期从新到旧
+         */
+        public List<RotatingBloomFilter.SegmentStats> getSegments() { return segments; }
         public boolean needsAttention() { return alertLevel.getLevel() >= AlertLevel.INFO.getLevel(); }
 
         public static class BloomFilterStatsBuilder {
@@ -440,6 +726,10 @@ public class BloomFilterConfig {
             private int dataRetentionDays;
             private AlertLevel alertLevel;
             private String alertRecommendation;
+            private long checkpointId;
+            private LocalDateTime lastSnapshotTime;
+            private double usageRatio;
+            private List<RotatingBloomFilter.SegmentStats> segments;
 
             public BloomFilterStatsBuilder expectedInsertions(int expectedInsertions) {
                 this.expectedInsertions = expectedInsertions;
@@ -476,10 +766,32 @@ public class BloomFilterConfig {
                 return this;
             }
 
+            public BloomFilterStatsBuilder checkpointId(long checkpointId) {
+                this.checkpointId = checkpointId;
+                return this;
+            }
+
+            public BloomFilterStatsBuilder lastSnapshotTime(LocalDateTime lastSnapshotTime) {
+                this.lastSnapshotTime = lastSnapshotTime;
+                return this;
+            }
+
+            public BloomFilterStatsBuilder usageRatio(double usageRatio) {
+                this.usageRatio = usageRatio;
+                return this;
+            }
+
+            public BloomFilterStatsBuilder segments(List<RotatingBloomFilter.SegmentStats> segments) {
+                this.segments = segments;
+                return this;
+            }
+
             public BloomFilterStats build() {
                 return new BloomFilterStats(expectedInsertions, falsePositiveProbability,
                                           loadedUrlCount, lastRebuildTime, dataRetentionDays,
-                                          alertLevel, alertRecommendation);
+                                          alertLevel, alertRecommendation,
+                                          checkpointId, lastSnapshotTime,
+                                          usageRatio, segments);
             }
         }
     }
@@ -26,6 +26,7 @@ public class WebMvcConfig implements WebMvcConfigurer {
             "/swagger-ui/**",
             "/v3/api-docs/**",
             "/error",
+            "/ws/**",  // WebSocket握手在 ChatHandshakeInterceptor 中校验令牌
             "/analytics/**"  // 允许数据分析API不需要认证
     );
 
@@ -0,0 +1,33 @@
+package com.zheng.aicommunitybackend.config;
+
+import com.zheng.aicommunitybackend.websocket.ChatHandshakeInterceptor;
+import com.zheng.aicommunitybackend.websocket.ChatWebSocketHandler;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/**
+ * WebSocket配置类
+ */
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final ChatWebSocketHandler chatWebSocketHandler;
+
+    private final ChatHandshakeInterceptor chatHandshakeInterceptor;
+
+    public WebSocketConfig(ChatWebSocketHandler chatWebSocketHandler, ChatHandshakeInterceptor chatHandshakeInterceptor) {
+        this.chatWebSocketHandler = chatWebSocketHandler;
+        this.chatHandshakeInterceptor = chatHandshakeInterceptor;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        // 聊天实时推送，握手时校验JWT
+        registry.addHandler(chatWebSocketHandler, "/ws/chat")
+                .addInterceptors(chatHandshakeInterceptor)
+                .setAllowedOriginPatterns("*");
+    }
+}
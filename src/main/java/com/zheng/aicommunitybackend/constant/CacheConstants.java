@@ -50,6 +50,51 @@ public class CacheConstants {
      */
     public static final String HOT_NEWS_PREFIX = "news:hot:";
 
+    /**
+     * 缓存命名空间版本号前缀，完整key为 cache:version:{namespace}
+     */
+    public static final String VERSION_PREFIX = "cache:version:";
+
+    /**
+     * 帖子分页缓存命名空间
+     */
+    public static final String POST_PAGE_NAMESPACE = "post:page";
+
+    /**
+     * 帖子详情缓存命名空间
+     */
+    public static final String POST_DETAIL_NAMESPACE = "post:detail";
+
+    /**
+     * 新闻列表缓存命名空间（分页与热点列表共用）
+     */
+    public static final String NEWS_LIST_NAMESPACE = "news:list";
+
+    /**
+     * 新闻详情缓存命名空间
+     */
+    public static final String NEWS_DETAIL_NAMESPACE = "news:detail";
+
+    /**
+     * 用户点赞哈希前缀，完整key为 community:like:{userId}，field 为 {type}:{targetId}
+     */
+    public static final String LIKE_USER_PREFIX = "community:like:";
+
+    /**
+     * 目标点赞用户集合前缀，完整key为 community:likers:{type}:{targetId}
+     */
+    public static final String LIKERS_PREFIX = "community:likers:";
+
+    /**
+     * 目标点赞计数前缀，完整key为 community:like-count:{type}:{targetId}，key存在即表示目标已预热
+     */
+    public static final String LIKE_COUNT_PREFIX = "community:like-count:";
+
+    /**
+     * 帖子实时浏览量前缀，完整key为 community:view-count:{postId}
+     */
+    public static final String VIEW_COUNT_PREFIX = "community:view-count:";
+
     /**
      * 默认缓存过期时间（秒）- 30分钟
      */
@@ -65,38 +110,98 @@ public class CacheConstants {
      */
     public static final long DETAIL_EXPIRE_TIME = 60 * 60;
 
+    /**
+     * 构建命名空间版本号key
+     */
+    public static String buildVersionKey(String namespace) {
+        return VERSION_PREFIX + namespace;
+    }
+
     /**
      * 构建帖子详情缓存key
+     * @param version 帖子详情命名空间版本号
      */
-    public static String buildPostDetailKey(Long postId) {
-        return POST_DETAIL_PREFIX + postId;
+    public static String buildPostDetailKey(long version, Long postId) {
+        return POST_DETAIL_PREFIX + "v" + version + ":" + postId;
     }
 
     /**
      * 构建帖子分页缓存key
+     * @param version 帖子分页命名空间版本号
      */
-    public static String buildPostPageKey(int page, int size, String category) {
-        return POST_PAGE_PREFIX + page + ":" + size + ":" + (category != null ? category : "all");
+    public static String buildPostPageKey(long version, int page, int size, String category) {
+        return POST_PAGE_PREFIX + "v" + version + ":" + page + ":" + size + ":" + (category != null ? category : "all");
     }
 
     /**
      * 构建新闻详情缓存key
+     * @param version 新闻详情命名空间版本号
      */
-    public static String buildNewsDetailKey(Long newsId) {
-        return NEWS_DETAIL_PREFIX + newsId;
+    public static String buildNewsDetailKey(long version, Long newsId) {
+        return NEWS_DETAIL_PREFIX + "v" + version + ":" + newsId;
     }
 
     /**
      * 构建新闻分页缓存key
+     * @param version 新闻列表命名空间版本号
      */
-    public static String buildNewsPageKey(int page, int size, String category) {
-        return NEWS_PAGE_PREFIX + page + ":" + size + ":" + (category != null ? category : "all");
+    public static String buildNewsPageKey(long version, int page, int size, String category) {
+        return NEWS_PAGE_PREFIX + "v" + version + ":" + page + ":" + size + ":" + (category != null ? category : "all");
     }
 
     /**
      * 构建热点新闻缓存key
+     * @param version 新闻列表命名空间版本号
      */
-    public static String buildHotNewsKey(int limit) {
-        return HOT_NEWS_PREFIX + limit;
+    public static String buildHotNewsKey(long version, int limit) {
+        return HOT_NEWS_PREFIX + "v" + version + ":" + limit;
+    }
+
+    /**
+     * 构建用户点赞哈希key
+     */
+    public static String buildLikeUserKey(Long userId) {
+        return LIKE_USER_PREFIX + userId;
+    }
+
+    /**
+     * 构建目标点赞用户集合key
+     */
+    public static String buildLikersKey(Integer type, Long targetId) {
+        return LIKERS_PREFIX + type + ":" + targetId;
+    }
+
+    /**
+     * 构建目标点赞计数key
+     */
+    public static String buildLikeCountKey(Integer type, Long targetId) {
+        return LIKE_COUNT_PREFIX + type + ":" + targetId;
+    }
+
+    /**
+     * 构建帖子实时浏览量key
+     */
+    public static String buildViewCountKey(Long postId) {
+        return VIEW_COUNT_PREFIX + postId;
+    }
+
+    /**
+     * 解析版本化缓存key中的版本号，key格式为 {prefix}v{version}:...
+     * @return 版本号，格式不匹配时返回-1
+     */
+    public static long parseVersion(String prefix, String key) {
+        if (key == null || !key.startsWith(prefix + "v")) {
+            return -1;
+        }
+        int start = prefix.length() + 1;
+        int end = key.indexOf(':', start);
+        if (end < 0) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(key.substring(start, end));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
     }
 }
@@ -9,7 +9,8 @@ import com.zheng.aicommunitybackend.mapper.HotNewsMapper;
 import com.zheng.aicommunitybackend.service.HotNewsService;
 import com.zheng.aicommunitybackend.task.BloomFilterMonitorTask;
 import com.zheng.aicommunitybackend.task.NewsSpiderTask;
-import com.zheng.aicommunitybackend.utils.RedisUtils;
+import com.zheng.aicommunitybackend.utils.CacheVersionManager;
+import com.zheng.aicommunitybackend.utils.TwoLevelCache;
 import com.zheng.aicommunitybackend.constant.CacheConstants;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -36,7 +37,10 @@ public class AdminHotNewsController {
     private HotNewsService hotNewsService;
 
     @Autowired
-    private RedisUtils redisUtils;
+    private TwoLevelCache twoLevelCache;
+
+    @Autowired
+    private CacheVersionManager cacheVersionManager;
 
     @Autowired
     private BloomFilterConfig bloomFilterConfig;
@@ -74,9 +78,10 @@ public class AdminHotNewsController {
         log.info("手动触发无效新闻清理任务");
         int cleanedCount = newsSpiderTask.cleanInvalidNewsRecords();
 
-        // 如果有清理记录，清空相关缓存
+        // 如果有清理记录，清空相关缓存（被清理的新闻可能已缓存详情，整体失效详情命名空间）
         if (cleanedCount > 0) {
             clearNewsCache();
+            cacheVersionManager.bump(CacheConstants.NEWS_DETAIL_NAMESPACE);
         }
 
         Map<String, Object> result = new HashMap<>();
@@ -147,7 +152,8 @@ public class AdminHotNewsController {
 
         // 清空相关缓存
         clearNewsCache();
-        redisUtils.delete(CacheConstants.buildNewsDetailKey(id));
+        twoLevelCache.evict(CacheConstants.buildNewsDetailKey(
+                cacheVersionManager.current(CacheConstants.NEWS_DETAIL_NAMESPACE), id));
 
         return Result.success("更新成功");
     }
@@ -172,7 +178,8 @@ public class AdminHotNewsController {
 
         // 清空相关缓存
         clearNewsCache();
-        redisUtils.delete(CacheConstants.buildNewsDetailKey(id));
+        twoLevelCache.evict(CacheConstants.buildNewsDetailKey(
+                cacheVersionManager.current(CacheConstants.NEWS_DETAIL_NAMESPACE), id));
 
         return Result.success("更新成功");
     }
@@ -197,7 +204,8 @@ public class AdminHotNewsController {
 
         // 清空相关缓存
         clearNewsCache();
-        redisUtils.delete(CacheConstants.buildNewsDetailKey(id));
+        twoLevelCache.evict(CacheConstants.buildNewsDetailKey(
+                cacheVersionManager.current(CacheConstants.NEWS_DETAIL_NAMESPACE), id));
 
         return Result.success("更新成功");
     }
@@ -220,7 +228,8 @@ public class AdminHotNewsController {
 
         // 清空相关缓存
         clearNewsCache();
-        redisUtils.delete(CacheConstants.buildNewsDetailKey(id));
+        twoLevelCache.evict(CacheConstants.buildNewsDetailKey(
+                cacheVersionManager.current(CacheConstants.NEWS_DETAIL_NAMESPACE), id));
 
         return Result.success("删除成功");
     }
@@ -307,14 +316,9 @@ public class AdminHotNewsController {
     }
 
     /**
-     * 清空新闻相关缓存
+     * 清空新闻列表缓存（分页与热点列表），新闻详情由调用方按ID精确清除
      */
     private void clearNewsCache() {
-        // 清空新闻列表缓存
-        redisUtils.deleteByPattern(CacheConstants.NEWS_PAGE_PREFIX + "*");
-        // 清空热点新闻缓存
-        redisUtils.deleteByPattern(CacheConstants.HOT_NEWS_PREFIX + "*");
-        // 清空新闻详情缓存
-        redisUtils.deleteByPattern(CacheConstants.NEWS_DETAIL_PREFIX + "*");
+        cacheVersionManager.bump(CacheConstants.NEWS_LIST_NAMESPACE);
     }
 }
\ No newline at end of file
@@ -0,0 +1,216 @@
+package com.zheng.aicommunitybackend.controller.admin;
+
+import com.zheng.aicommunitybackend.component.ChatPushHub;
+import com.zheng.aicommunitybackend.component.CrawlEngine;
+import com.zheng.aicommunitybackend.component.LeasedRateLimiter;
+import com.zheng.aicommunitybackend.component.LikeWriteBehindBuffer;
+import com.zheng.aicommunitybackend.component.NearDuplicateIndex;
+import com.zheng.aicommunitybackend.component.PostViewCounter;
+import com.zheng.aicommunitybackend.component.RedPacketShardRouter;
+import com.zheng.aicommunitybackend.component.RedisScriptRegistry;
+import com.zheng.aicommunitybackend.domain.result.Result;
+import com.zheng.aicommunitybackend.mq.LikeMessageConsumer;
+import com.zheng.aicommunitybackend.mq.RedPacketSettlementConsumer;
+import com.zheng.aicommunitybackend.spider.NewsCrawlPipeline;
+import com.zheng.aicommunitybackend.utils.TwoLevelCache;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 管理端运行监控控制器
+ */
+@RestController
+@RequestMapping("/admin/monitor")
+@Slf4j
+@Tag(name = "管理端运行监控接口", description = "Redis脚本、缓存、点赞写回等运行指标查询接口")
+public class AdminMonitorController {
+
+    @Autowired
+    private RedisScriptRegistry scriptRegistry;
+
+    @Autowired
+    private TwoLevelCache twoLevelCache;
+
+    @Autowired
+    private LikeWriteBehindBuffer likeWriteBehindBuffer;
+
+    @Autowired
+    private LikeMessageConsumer likeMessageConsumer;
+
+    @Autowired
+    private RedPacketSettlementConsumer redPacketSettlementConsumer;
+
+    @Autowired
+    private RedPacketShardRouter redPacketShardRouter;
+
+    @Autowired
+    private LeasedRateLimiter leasedRateLimiter;
+
+    @Autowired
+    private ChatPushHub chatPushHub;
+
+    @Autowired
+    private PostViewCounter postViewCounter;
+
+    @Autowired
+    private NearDuplicateIndex nearDuplicateIndex;
+
+    @Autowired
+    private CrawlEngine crawlEngine;
+
+    @Autowired
+    private NewsCrawlPipeline newsCrawlPipeline;
+
+    /**
+     * 获取Lua脚本调用统计
+     *
+     * @return 每个脚本的调用次数与耗时分布
+     */
+    @GetMapping("/redis-scripts")
+    @Operation(summary = "获取Lua脚本调用统计", description = "获取每个Lua脚本的调用次数、异常次数、重新加载次数与耗时分布")
+    public Result<List<RedisScriptRegistry.ScriptStats>> getRedisScriptStats() {
+        return Result.success(scriptRegistry.getStats());
+    }
+
+    /**
+     * 重新加载所有Lua脚本
+     *
+     * @return 加载后的脚本统计
+     */
+    @PostMapping("/redis-scripts/reload")
+    @Operation(summary = "重新加载Lua脚本", description = "通过SCRIPT LOAD将所有Lua脚本重新加载到Redis")
+    public Result<List<RedisScriptRegistry.ScriptStats>> reloadRedisScripts() {
+        log.info("手动重新加载Lua脚本");
+        scriptRegistry.loadAll();
+        return Result.success(scriptRegistry.getStats());
+    }
+
+    /**
+     * 获取二级缓存命中统计
+     *
+     * @return 本地缓存与Redis两级的命中率
+     */
+    @GetMapping("/cache")
+    @Operation(summary = "获取二级缓存命中统计", description = "获取本节点本地缓存与Redis缓存的命中、未命中次数及命中率")
+    public Result<TwoLevelCache.TwoLevelCacheStats> getCacheStats() {
+        return Result.success(twoLevelCache.getStats());
+    }
+
+    /**
+     * 获取点赞写回缓冲统计
+     *
+     * @return 点赞动作的吞吐量与刷入延迟
+     */
+    @GetMapping("/like-write-behind")
+    @Operation(summary = "获取点赞写回缓冲统计", description = "获取本节点点赞动作的接收/刷入数量、吞吐量、待刷入数量及刷入延迟")
+    public Result<LikeWriteBehindBuffer.LikeWriteBehindStats> getLikeWriteBehindStats() {
+        return Result.success(likeWriteBehindBuffer.getStats());
+    }
+
+    /**
+     * 获取点赞消息批量消费统计
+     *
+     * @return 批次数、消息数与合并数
+     */
+    @GetMapping("/like-consumer")
+    @Operation(summary = "获取点赞消息消费统计", description = "获取本节点点赞消息的消费模式、批次数、消息数、批内合并数及失败批次数")
+    public Result<LikeMessageConsumer.LikeConsumerStats> getLikeConsumerStats() {
+        return Result.success(likeMessageConsumer.getStats());
+    }
+
+    /**
+     * 获取抢红包结算消费统计
+     *
+     * @return 批次数、消息数与结算数
+     */
+    @GetMapping("/red-packet-settlement")
+    @Operation(summary = "获取抢红包结算统计", description = "获取本节点抢红包结算消息的批次数、消息数、实际结算数、跳过数及失败批次数")
+    public Result<RedPacketSettlementConsumer.RedPacketSettlementStats> getRedPacketSettlementStats() {
+        return Result.success(redPacketSettlementConsumer.getStats());
+    }
+
+    /**
+     * 获取红包队列分片统计
+     *
+     * @return 分片配置与窃取次数
+     */
+    @GetMapping("/red-packet-shards")
+    @Operation(summary = "获取红包分片统计", description = "获取红包队列分片配置、本节点分片抢红包次数、跨分片窃取次数及窃取落空次数")
+    public Result<RedPacketShardRouter.ShardStats> getRedPacketShardStats() {
+        return Result.success(redPacketShardRouter.getStats());
+    }
+
+    /**
+     * 获取租借式令牌桶限流统计
+     *
+     * @return 本地放行数、租借次数与令牌数
+     */
+    @GetMapping("/rate-limit-leases")
+    @Operation(summary = "获取租借式限流统计", description = "获取本节点本地桶数量、本地放行次数、向Redis租借次数、租到与归还的令牌数及拒绝次数")
+    public Result<LeasedRateLimiter.LeaseStats> getRateLimitLeaseStats() {
+        return Result.success(leasedRateLimiter.getStats());
+    }
+
+    /**
+     * 获取聊天实时推送统计
+     *
+     * @return 在线连接数与推送计数
+     */
+    @GetMapping("/chat-push")
+    @Operation(summary = "获取聊天推送统计", description = "获取本节点在线用户数、WebSocket/SSE连接数、发布与转发事件数、投递成功与失败次数")
+    public Result<ChatPushHub.PushStats> getChatPushStats() {
+        return Result.success(chatPushHub.getStats());
+    }
+
+    /**
+     * 获取帖子浏览量计数统计
+     *
+     * @return 待刷入帖子数与刷入计数
+     */
+    @GetMapping("/post-views")
+    @Operation(summary = "获取帖子浏览量计数统计", description = "获取本节点待刷入的帖子数、累计浏览次数、已刷入浏览量与行数、刷入次数、失败次数及Redis失败次数")
+    public Result<PostViewCounter.ViewCounterStats> getPostViewStats() {
+        return Result.success(postViewCounter.getStats());
+    }
+
+    /**
+     * 获取新闻近似重复索引统计
+     *
+     * @return 索引规模与查询计数
+     */
+    @GetMapping("/news-dedup")
+    @Operation(summary = "获取新闻近似重复索引统计", description = "获取索引是否就绪、指纹数、已同步的最大新闻ID、查询与命中次数及平均候选数")
+    public Result<NearDuplicateIndex.IndexStats> getNewsDedupStats() {
+        return Result.success(nearDuplicateIndex.getStats());
+    }
+
+    /**
+     * 获取新闻抓取引擎统计
+     *
+     * @return 并发与请求计数
+     */
+    @GetMapping("/crawl")
+    @Operation(summary = "获取新闻抓取引擎统计", description = "获取站点数、当前与峰值并发请求数、请求/成功/失败/重试次数、限速等待总时长及平均下载耗时")
+    public Result<CrawlEngine.CrawlStats> getCrawlStats() {
+        return Result.success(crawlEngine.getStats());
+    }
+
+    /**
+     * 获取新闻抓取流水线统计
+     *
+     * @return 各阶段的队列与处理计数
+     */
+    @GetMapping("/news-pipeline")
+    @Operation(summary = "获取新闻抓取流水线统计", description = "获取已注册的新闻源、运行次数，以及发现/抓取/抽取/校验/指纹/去重/入库各阶段的线程数、队列长度、输入/输出/丢弃/异常计数与处理耗时")
+    public Result<NewsCrawlPipeline.PipelineStats> getNewsPipelineStats() {
+        return Result.success(newsCrawlPipeline.getStats());
+    }
+}
@@ -69,6 +69,22 @@ public class RateLimitTestController {
         return Result.success("多重限流测试成功，当前时间：" + System.currentTimeMillis());
     }
 
+    @GetMapping("/leased")
+    @RateLimit(
+        key = "test_leased",
+        limitType = RateLimit.LimitType.GLOBAL,
+        windowSize = 1,
+        maxRequests = 100,
+        algorithm = RateLimit.Algorithm.LEASED_TOKEN_BUCKET,
+        leaseSize = 10,
+        message = "全局限流：每秒最多100次"
+    )
+    @Operation(summary = "租借式令牌桶限流测试", description = "每秒最多100次请求，每次向Redis租借10个令牌")
+    public Result<String> leasedTest() {
+        log.info("租借式令牌桶限流测试被调用");
+        return Result.success("租借式令牌桶限流测试成功，当前时间：" + System.currentTimeMillis());
+    }
+
     @GetMapping("/no-limit")
     @Operation(summary = "无限流测试", description = "没有限流的接口")
     public Result<String> noLimitTest() {
@@ -1,8 +1,10 @@
 package com.zheng.aicommunitybackend.controller.user;
 
+import com.zheng.aicommunitybackend.domain.dto.PostCursorQuery;
 import com.zheng.aicommunitybackend.domain.dto.PostDTO;
 import com.zheng.aicommunitybackend.domain.dto.PostPageQuery;
 import com.zheng.aicommunitybackend.domain.enums.PostCategoryEnum;
+import com.zheng.aicommunitybackend.domain.result.CursorPageResult;
 import com.zheng.aicommunitybackend.domain.result.PageResult;
 import com.zheng.aicommunitybackend.domain.result.Result;
 import com.zheng.aicommunitybackend.domain.vo.PostVO;
@@ -102,6 +104,20 @@ public class CommunityPostsController {
         return Result.success(pageResult);
     }
 
+    /**
+     * 游标分页查询帖子列表
+     *
+     * @param query 游标分页查询参数
+     * @return 帖子列表
+     */
+    @GetMapping("/cursor")
+    @Operation(summary = "游标分页查询帖子列表", description = "按发布时间倒序，传入上一页返回的nextCursor获取下一页，不返回总数")
+    public Result<CursorPageResult<PostVO>> listPostsByCursor(PostCursorQuery query) {
+        log.info("游标分页查询帖子列表: {}", query);
+        CursorPageResult<PostVO> pageResult = communityPostsService.listPostsByCursor(query);
+        return Result.success(pageResult);
+    }
+
     /**
      * 获取当前用户发布的帖子
      *
@@ -1,15 +1,19 @@
 package com.zheng.aicommunitybackend.controller.user;
 
 import com.zheng.aicommunitybackend.common.UserContext;
+import com.zheng.aicommunitybackend.component.ChatPushHub;
 import com.zheng.aicommunitybackend.domain.dto.MessageSendDTO;
+import com.zheng.aicommunitybackend.domain.result.CursorPageResult;
 import com.zheng.aicommunitybackend.domain.result.Result;
 import com.zheng.aicommunitybackend.domain.vo.UserChatMessageVO;
 import com.zheng.aicommunitybackend.service.UserChatMessagesService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.annotation.Resource;
+import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -24,6 +28,31 @@ public class UserChatController {
     @Resource
     private UserChatMessagesService userChatMessagesService;
 
+    @Resource
+    private ChatPushHub chatPushHub;
+
+    /**
+     * 订阅聊天实时推送（SSE）
+     * 无法使用 WebSocket（/ws/chat）时的降级方案，事件格式相同
+     * 浏览器 EventSource 无法设置请求头，可通过查询参数 token 传递令牌
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "订阅聊天推送", description = "通过SSE接收新消息、已读游标更新与正在输入事件")
+    public SseEmitter stream() {
+        return chatPushHub.openSse(UserContext.getUserId());
+    }
+
+    /**
+     * 推送正在输入事件
+     */
+    @PostMapping("/{conversationId}/typing")
+    @Operation(summary = "推送正在输入", description = "通知会话其他成员当前用户正在输入（SSE客户端使用，WebSocket客户端直接上行）")
+    public Result<Void> typing(@PathVariable String conversationId) {
+        Long userId = UserContext.getUserId();
+        userChatMessagesService.sendTyping(conversationId, userId);
+        return Result.success();
+    }
+
     /**
      * 发送消息
      */
@@ -50,6 +79,21 @@ public class UserChatController {
         return Result.success(messages);
     }
 
+    /**
+     * 游标分页获取会话消息
+     */
+    @GetMapping("/{conversationId}/messages/cursor")
+    @Operation(summary = "游标分页获取会话消息", description = "从最新消息开始向前翻页，传入上一页返回的nextCursor获取更早的消息")
+    public Result<CursorPageResult<UserChatMessageVO>> getMessagesByCursor(@PathVariable String conversationId,
+                                                                          @RequestParam(required = false) String cursor,
+                                                                          @RequestParam(defaultValue = "20") Integer size) {
+        Long userId = UserContext.getUserId();
+        int pageSize = Math.max(1, Math.min(size, 100));
+        CursorPageResult<UserChatMessageVO> messages =
+                userChatMessagesService.getConversationMessagesByCursor(conversationId, userId, cursor, pageSize);
+        return Result.success(messages);
+    }
+
     /**
      * 标记消息已读
      */
@@ -61,6 +105,17 @@ public class UserChatController {
         return Result.success();
     }
 
+    /**
+     * 标记会话已读
+     */
+    @PutMapping("/{conversationId}/read")
+    @Operation(summary = "标记会话已读", description = "将指定会话的全部消息标记为已读")
+    public Result<Void> markConversationRead(@PathVariable String conversationId) {
+        Long userId = UserContext.getUserId();
+        userChatMessagesService.markConversationRead(conversationId, userId);
+        return Result.success();
+    }
+
     /**
      * 删除消息
      */
@@ -2,7 +2,9 @@ package com.zheng.aicommunitybackend.controller.user;
 
 import com.zheng.aicommunitybackend.common.UserContext;
 import com.zheng.aicommunitybackend.domain.dto.CommentCreateDTO;
+import com.zheng.aicommunitybackend.domain.dto.CommentCursorQuery;
 import com.zheng.aicommunitybackend.domain.dto.CommentPageQuery;
+import com.zheng.aicommunitybackend.domain.result.CursorPageResult;
 import com.zheng.aicommunitybackend.domain.result.PageResult;
 import com.zheng.aicommunitybackend.domain.result.Result;
 import com.zheng.aicommunitybackend.domain.vo.CommentVO;
@@ -61,6 +63,17 @@ public class UserCommentController {
         return Result.success(pageResult);
     }
     
+    /**
+     * 游标分页查询帖子的一级评论
+     */
+    @GetMapping("/cursor")
+    @Operation(summary = "游标分页查询帖子的一级评论", description = "按评论时间倒序，传入上一页返回的nextCursor获取下一页，不返回总数")
+    public Result<CursorPageResult<CommentVO>> pageCommentsByCursor(@Validated CommentCursorQuery query) {
+        Long userId = UserContext.getUserId();
+        CursorPageResult<CommentVO> pageResult = postCommentsService.pageCommentsByCursor(query, userId);
+        return Result.success(pageResult);
+    }
+    
     /**
      * 获取评论的回复列表
      */
@@ -0,0 +1,45 @@
+package com.zheng.aicommunitybackend.domain.dto;
+
+import com.zheng.aicommunitybackend.domain.vo.UserChatMessageVO;
+import lombok.Data;
+
+/**
+ * 聊天实时推送事件
+ */
+@Data
+public class ChatPushEvent {
+
+    public static final String TYPE_MESSAGE = "message";
+    public static final String TYPE_READ = "read";
+    public static final String TYPE_TYPING = "typing";
+
+    /**
+     * 事件类型：message-新消息 read-已读游标更新 typing-正在输入
+     */
+    private String type;
+
+    /**
+     * 会话ID
+     */
+    private String conversationId;
+
+    /**
+     * 触发事件的用户ID
+     */
+    private Long userId;
+
+    /**
+     * read事件的已读游标，为空表示已读到会话最新消息
+     */
+    private Long messageId;
+
+    /**
+     * message事件的消息内容
+     */
+    private UserChatMessageVO message;
+
+    /**
+     * 事件时间戳（毫秒）
+     */
+    private Long timestamp;
+}
@@ -0,0 +1,20 @@
+package com.zheng.aicommunitybackend.domain.dto;
+
+import lombok.Data;
+
+/**
+ * 按会话分组的计数结果
+ */
+@Data
+public class ConversationCountDTO {
+
+    /**
+     * 会话ID
+     */
+    private String conversationId;
+
+    /**
+     * 计数
+     */
+    private Integer count;
+}
@@ -0,0 +1,31 @@
+package com.zheng.aicommunitybackend.domain.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+/**
+ * 通用游标分页查询参数
+ */
+@Data
+@Schema(description = "游标分页查询参数")
+public class CursorPageQuery {
+
+    /**
+     * 游标（首页不传，之后传上一页返回的nextCursor）
+     */
+    @Schema(description = "游标，首页不传，之后传上一页返回的nextCursor")
+    private String cursor;
+
+    /**
+     * 每页记录数
+     */
+    @Schema(description = "每页记录数", example = "10")
+    private Integer pageSize = 10;
+
+    /**
+     * 设置安全的每页记录数（最小为1，最大为100）
+     */
+    public void setPageSize(Integer pageSize) {
+        this.pageSize = (pageSize == null || pageSize < 1) ? 10 : Math.min(pageSize, 100);
+    }
+}
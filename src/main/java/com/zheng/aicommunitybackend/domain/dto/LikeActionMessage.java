@@ -35,4 +35,11 @@ public class LikeActionMessage implements Serializable {
      * 操作类型：0-取消点赞 1-点赞
      */
     private Integer actionType;
+
+    /**
+     * 点赞关系标识：用户ID:目标类型:目标ID，用于同一关系的多次操作合并
+     */
+    public String relationKey() {
+        return userId + ":" + targetType + ":" + targetId;
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.zheng.aicommunitybackend.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 批量应用点赞动作的结果
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LikeBatchResult {
+
+    /**
+     * 新增的点赞记录数
+     */
+    private int inserted;
+
+    /**
+     * 删除的点赞记录数
+     */
+    private int deleted;
+
+    /**
+     * 点赞数发生变化的目标数
+     */
+    private int updatedTargets;
+}
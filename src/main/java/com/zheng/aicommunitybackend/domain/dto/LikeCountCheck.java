@@ -0,0 +1,25 @@
+package com.zheng.aicommunitybackend.domain.dto;
+
+import lombok.Data;
+
+/**
+ * 点赞数对账数据
+ */
+@Data
+public class LikeCountCheck {
+
+    /**
+     * 目标ID
+     */
+    private Long targetId;
+
+    /**
+     * 表中记录的点赞数
+     */
+    private Integer storedCount;
+
+    /**
+     * 点赞记录表中的实际点赞数
+     */
+    private Integer actualCount;
+}
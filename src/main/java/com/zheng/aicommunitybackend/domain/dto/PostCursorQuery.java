@@ -0,0 +1,26 @@
+package com.zheng.aicommunitybackend.domain.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * 帖子游标分页查询参数
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@Schema(description = "帖子游标分页查询参数")
+public class PostCursorQuery extends CursorPageQuery {
+
+    /**
+     * 分类
+     */
+    @Schema(description = "帖子分类", example = "讨论")
+    private String category;
+
+    /**
+     * 关键词
+     */
+    @Schema(description = "搜索关键词，搜索标题和内容", example = "智能家居")
+    private String keyword;
+}
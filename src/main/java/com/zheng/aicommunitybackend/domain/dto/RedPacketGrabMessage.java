@@ -0,0 +1,61 @@
+package com.zheng.aicommunitybackend.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 抢红包结算消息实体
+ * Redis分配红包后立即返回，红包详情、抢红包记录、活动统计与账户入账由结算消费者批量写入
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RedPacketGrabMessage implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 活动ID
+     */
+    private Long activityId;
+
+    /**
+     * 用户ID
+     */
+    private Long userId;
+
+    /**
+     * 红包详情ID
+     */
+    private Long packetId;
+
+    /**
+     * 红包金额（分）
+     */
+    private Long amount;
+
+    /**
+     * 红包序号
+     */
+    private Integer packetIndex;
+
+    /**
+     * 交易流水号
+     */
+    private String transactionNo;
+
+    /**
+     * 抢红包时间（毫秒时间戳）
+     */
+    private Long grabTime;
+
+    /**
+     * 抢红包标识：活动ID:用户ID，每个用户在同一活动中只能结算一次
+     */
+    public String grabKey() {
+        return activityId + ":" + userId;
+    }
+}
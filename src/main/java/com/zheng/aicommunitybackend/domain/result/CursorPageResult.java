@@ -0,0 +1,24 @@
+package com.zheng.aicommunitybackend.domain.result;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 封装游标分页查询结果（不返回总记录数）
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPageResult<T> implements Serializable {
+
+    private List<T> records; //当前页数据集合
+
+    private String nextCursor; //下一页游标，没有更多数据时为null
+
+    private boolean hasMore; //是否还有更多数据
+
+}
@@ -9,6 +9,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -22,6 +23,11 @@ public class JwtAuthInterceptor implements HandlerInterceptor {
     
     private static final Logger log = LoggerFactory.getLogger(JwtAuthInterceptor.class);
 
+    /**
+     * SSE 订阅请求携带令牌的查询参数名，与聊天 WebSocket 握手一致
+     */
+    private static final String TOKEN_PARAMETER = "token";
+
     private final JwtUtil jwtUtil;
     private final ObjectMapper objectMapper;
 
@@ -46,25 +52,17 @@ public class JwtAuthInterceptor implements HandlerInterceptor {
             return false;
         }
 
-        if (!jwtUtil.validateToken(jwtToken)) {
+        // 一次解析验签得到全部用户信息，缺少用户信息的令牌同样视为无效
+        JwtUtil.TokenClaims claims = jwtUtil.parseToken(jwtToken);
+        if (claims == null) {
             handleAuthError(response, "令牌已过期或无效");
             return false;
         }
 
-        // 获取用户信息
-        String username = jwtUtil.getUsernameFromToken(jwtToken);
-        Long userId = jwtUtil.getUserIdFromToken(jwtToken);
-        Integer role = jwtUtil.getRoleFromToken(jwtToken);
-        
-        if (username == null || userId == null || role == null) {
-            handleAuthError(response, "令牌中的用户信息无效");
-            return false;
-        }
-
         // 将用户信息存入ThreadLocal
-        UserContext.setUsername(username);
-        UserContext.setUserId(userId);
-        UserContext.setUserRole(role);
+        UserContext.setUsername(claims.getUsername());
+        UserContext.setUserId(claims.getUserId());
+        UserContext.setUserRole(claims.getRole());
 
         return true;
     }
@@ -86,6 +84,7 @@ public class JwtAuthInterceptor implements HandlerInterceptor {
 
     /**
      * 从请求中提取JWT令牌
+     * 浏览器的 EventSource 无法设置请求头，SSE 订阅请求（Accept: text/event-stream）没有认证请求头时读取查询参数 token
      */
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader(tokenHeader);
@@ -93,7 +92,16 @@ public class JwtAuthInterceptor implements HandlerInterceptor {
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith(tokenPrefix)) {
             return bearerToken.substring(tokenPrefix.length()).trim();
         }
+
+        if (!StringUtils.hasText(bearerToken) && isEventStreamRequest(request)) {
+            return request.getParameter(TOKEN_PARAMETER);
+        }
         
         return bearerToken;
     }
+
+    private boolean isEventStreamRequest(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE);
+    }
 } 
\ No newline at end of file
@@ -2,6 +2,11 @@ package com.zheng.aicommunitybackend.mapper;
 
 import com.zheng.aicommunitybackend.domain.entity.CommunityPosts;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.zheng.aicommunitybackend.domain.dto.LikeCountCheck;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+import java.util.Map;
 
 /**
 * @author ZhengJJ
@@ -11,6 +16,34 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 */
 public interface CommunityPostsMapper extends BaseMapper<CommunityPosts> {
 
+    /**
+     * 批量累加点赞数（单条UPDATE，点赞数最小为0）
+     * @param deltas 目标ID -> 点赞数增量，建议使用有序Map以固定加锁顺序
+     * @return 更新行数
+     */
+    int batchIncrementLikeCount(@Param("deltas") Map<Long, Integer> deltas);
+
+    /**
+     * 批量累加评论数（单条UPDATE，评论数最小为0）
+     * @param deltas 帖子ID -> 评论数增量，建议使用有序Map以固定加锁顺序
+     * @return 更新行数
+     */
+    int batchIncrementCommentCount(@Param("deltas") Map<Long, Integer> deltas);
+
+    /**
+     * 批量累加浏览量（单条UPDATE）
+     * @param deltas 帖子ID -> 浏览量增量，建议使用有序Map以固定加锁顺序
+     * @return 更新行数
+     */
+    int batchIncrementViewCount(@Param("deltas") Map<Long, Long> deltas);
+
+    /**
+     * 按ID游标分页查询点赞数与点赞记录实际数量
+     * @param lastId 上一页最后一条ID，首页传0
+     * @param limit 每页条数
+     * @return 对账数据
+     */
+    List<LikeCountCheck> selectLikeCountsAfter(@Param("lastId") Long lastId, @Param("limit") int limit);
 }
 
 
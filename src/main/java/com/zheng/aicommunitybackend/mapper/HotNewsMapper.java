@@ -2,9 +2,13 @@ package com.zheng.aicommunitybackend.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.zheng.aicommunitybackend.domain.entity.HotNews;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
 
+import java.util.Date;
 import java.util.List;
 
 /**
@@ -23,8 +27,17 @@ public interface HotNewsMapper extends BaseMapper<HotNews> {
      */
     @Select("SELECT content_hash FROM hot_news WHERE content_hash IS NOT NULL ORDER BY create_time DESC LIMIT #{limit}")
     List<String> selectRecentContentHashes(@Param("limit") int limit);
-}
-
-
-
 
+    /**
+     * 流式读取指定ID之后、指定时间之后的新闻URL
+     * fetchSize 为 Integer.MIN_VALUE 时 MySQL 驱动逐行返回结果，不会把整个结果集读入内存；
+     * 必须在事务（同一个SqlSession）内遍历完毕
+     * @param afterId 只读取ID大于该值的记录
+     * @param since 只读取创建时间不早于该时间的记录
+     * @return 只填充 id、source_url、create_time 的新闻游标
+     */
+    @Select("SELECT id, source_url, create_time FROM hot_news WHERE id > #{afterId} AND create_time >= #{since} " +
+            "AND source_url IS NOT NULL AND source_url <> ''")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    Cursor<HotNews> streamSourceUrls(@Param("afterId") long afterId, @Param("since") Date since);
+}
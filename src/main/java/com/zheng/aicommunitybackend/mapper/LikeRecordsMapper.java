@@ -2,6 +2,11 @@ package com.zheng.aicommunitybackend.mapper;
 
 import com.zheng.aicommunitybackend.domain.entity.LikeRecords;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
 
 /**
 * @author ZhengJJ
@@ -11,6 +16,46 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 */
 public interface LikeRecordsMapper extends BaseMapper<LikeRecords> {
 
+    /**
+     * 查询一批用户的全部点赞记录，只返回ID、用户ID与目标
+     * @param userIds 用户ID列表
+     * @return 点赞记录
+     */
+    List<LikeRecords> selectByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * 按ID游标分页查询目标的点赞记录，只返回ID与用户ID
+     * @param targetType 目标类型
+     * @param targetId 目标ID
+     * @param lastId 上一页最后一条记录ID，首页传0
+     * @param limit 每页条数
+     * @return 点赞记录
+     */
+    List<LikeRecords> selectLikersAfter(@Param("targetType") Integer targetType, @Param("targetId") Long targetId,
+                                        @Param("lastId") Long lastId, @Param("limit") int limit);
+
+    /**
+     * 批量写入同一目标的点赞记录（INSERT IGNORE），命中唯一键的记录被忽略
+     * 返回值只统计真正新插入的行，可直接作为该目标点赞数的增量
+     * @param targetType 目标类型
+     * @param targetId 目标ID
+     * @param userIds 点赞用户ID列表
+     * @param createTime 点赞时间
+     * @return 新插入行数
+     */
+    int insertIgnoreLikers(@Param("targetType") Integer targetType, @Param("targetId") Long targetId,
+                           @Param("userIds") Collection<Long> userIds, @Param("createTime") Date createTime);
+
+    /**
+     * 批量删除同一目标的点赞记录
+     * 返回值只统计真正删除的行，可直接作为该目标点赞数的减量
+     * @param targetType 目标类型
+     * @param targetId 目标ID
+     * @param userIds 取消点赞的用户ID列表
+     * @return 删除行数
+     */
+    int deleteLikers(@Param("targetType") Integer targetType, @Param("targetId") Long targetId,
+                     @Param("userIds") Collection<Long> userIds);
 }
 
 
@@ -10,6 +10,7 @@ import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Update;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author ZhengJJ
@@ -78,4 +79,13 @@ public interface RedPacketActivitiesMapper extends BaseMapper<RedPacketActivitie
      * @return 需要结束的活动ID列表
      */
     List<Long> selectActivitiesToEnd();
+
+    /**
+     * 按活动批量累加抢红包统计（结算消费者使用）
+     * @param counts 活动ID -> 抢到数量增量
+     * @param amounts 活动ID -> 抢到金额增量（分）
+     * @return 更新行数
+     */
+    int batchIncrementActivityStats(@Param("counts") Map<Long, Integer> counts,
+                                    @Param("amounts") Map<Long, Long> amounts);
 }
@@ -2,6 +2,7 @@ package com.zheng.aicommunitybackend.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.zheng.aicommunitybackend.domain.entity.RedPacketDetails;
+import com.zheng.aicommunitybackend.domain.entity.RedPacketRecords;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Update;
@@ -40,11 +41,11 @@ public interface RedPacketDetailsMapper extends BaseMapper<RedPacketDetails> {
     int grabRedPacket(@Param("id") Long id, @Param("userId") Long userId, @Param("grabTime") Date grabTime);
 
     /**
-     * 查询活动的可抢红包ID列表（用于Redis预加载）
+     * 查询活动的可抢红包（用于Redis预加载，只包含ID、序号与金额）
      * @param activityId 活动ID
-     * @return 可抢红包ID列表
+     * @return 可抢红包列表
      */
-    List<Long> selectAvailablePacketIds(@Param("activityId") Long activityId);
+    List<RedPacketDetails> selectAvailablePackets(@Param("activityId") Long activityId);
 
     /**
      * 查询活动的红包统计信息
@@ -68,4 +69,11 @@ public interface RedPacketDetailsMapper extends BaseMapper<RedPacketDetails> {
      * @return 红包详情列表
      */
     List<RedPacketDetails> selectActivityPackets(@Param("activityId") Long activityId, @Param("status") Integer status);
+
+    /**
+     * 批量标记红包已被抢（结算消费者使用）
+     * @param records 抢红包记录列表，使用其中的红包详情ID、用户ID与抢红包时间
+     * @return 更新行数
+     */
+    int batchGrab(@Param("records") List<RedPacketRecords> records);
 }
@@ -3,12 +3,14 @@ package com.zheng.aicommunitybackend.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.zheng.aicommunitybackend.domain.dto.RedPacketGrabMessage;
 import com.zheng.aicommunitybackend.domain.entity.RedPacketRecords;
 import com.zheng.aicommunitybackend.domain.vo.RedPacketRecordVO;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Update;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -81,4 +83,18 @@ public interface RedPacketRecordsMapper extends BaseMapper<RedPacketRecords> {
      * @return 统计信息
      */
     java.util.Map<String, Object> selectUserRecordStats(@Param("userId") Long userId);
+
+    /**
+     * 按 (活动ID, 用户ID) 批量查询已有的抢红包记录（结算幂等判断使用）
+     * @param grabs 抢红包结算消息
+     * @return 已存在的抢红包记录
+     */
+    List<RedPacketRecords> selectByActivityUsers(@Param("grabs") Collection<RedPacketGrabMessage> grabs);
+
+    /**
+     * 批量插入抢红包记录
+     * @param records 抢红包记录列表
+     * @return 插入行数
+     */
+    int batchInsert(@Param("records") List<RedPacketRecords> records);
 }
@@ -7,6 +7,8 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
 
 /**
  * 用户账户Mapper
@@ -32,4 +34,18 @@ public interface UserAccountsMapper extends BaseMapper<UserAccounts> {
     int updateFrozenAmount(@Param("userId") Long userId,
                           @Param("amount") BigDecimal amount,
                           @Param("operation") String operation);
+
+    /**
+     * 批量创建账户，已存在的账户忽略
+     * @param userIds 用户ID集合
+     * @return 新建账户数
+     */
+    int insertIgnoreAccounts(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * 按用户批量入账红包金额
+     * @param credits 用户ID -> 入账金额（元）
+     * @return 更新行数
+     */
+    int batchCreditRedPacket(@Param("credits") Map<Long, BigDecimal> credits);
 }
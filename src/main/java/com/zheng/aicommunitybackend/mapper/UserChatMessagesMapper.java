@@ -1,7 +1,12 @@
 package com.zheng.aicommunitybackend.mapper;
 
+import com.zheng.aicommunitybackend.domain.dto.ConversationCountDTO;
 import com.zheng.aicommunitybackend.domain.entity.UserChatMessages;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
 * @author ZhengJJ
@@ -11,6 +16,21 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 */
 public interface UserChatMessagesMapper extends BaseMapper<UserChatMessages> {
 
+    /**
+     * 批量查询每个会话的最后一条正常消息
+     * @param conversationIds 会话ID列表
+     * @return 每个有消息的会话一条记录
+     */
+    List<UserChatMessages> selectLastMessages(@Param("conversationIds") Collection<String> conversationIds);
+
+    /**
+     * 批量统计用户在每个会话中的未读消息数（已读游标之后他人发送的正常消息）
+     * @param userId 用户ID
+     * @param conversationIds 会话ID列表
+     * @return 未读数大于0的会话及其未读数
+     */
+    List<ConversationCountDTO> countUnreadMessages(@Param("userId") Long userId,
+                                                   @Param("conversationIds") Collection<String> conversationIds);
 }
 
 
@@ -2,6 +2,7 @@ package com.zheng.aicommunitybackend.mapper;
 
 import com.zheng.aicommunitybackend.domain.entity.UserConversationMembers;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Param;
 
 /**
 * @author ZhengJJ
@@ -11,6 +12,25 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 */
 public interface UserConversationMembersMapper extends BaseMapper<UserConversationMembers> {
 
+    /**
+     * 将成员的已读游标推进到指定消息，游标只前进不后退
+     * @param conversationId 会话ID
+     * @param userId 用户ID
+     * @param messageId 已读到的消息ID
+     * @return 影响行数，不是会话成员或游标已在该消息之后时为0
+     */
+    int advanceReadCursor(@Param("conversationId") String conversationId,
+                          @Param("userId") Long userId,
+                          @Param("messageId") Long messageId);
+
+    /**
+     * 将成员的已读游标推进到会话最新一条正常消息
+     * @param conversationId 会话ID
+     * @param userId 用户ID
+     * @return 匹配的成员行数，不是会话成员时为0
+     */
+    int markConversationRead(@Param("conversationId") String conversationId,
+                             @Param("userId") Long userId);
 }
 
 
@@ -1,21 +1,34 @@
 package com.zheng.aicommunitybackend.mq;
 
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zheng.aicommunitybackend.component.LikeWriteBehindBuffer;
 import com.zheng.aicommunitybackend.domain.dto.LikeActionMessage;
-import com.zheng.aicommunitybackend.domain.entity.LikeRecords;
+import com.zheng.aicommunitybackend.domain.dto.LikeBatchResult;
 import com.zheng.aicommunitybackend.service.LikeRecordsService;
+import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.rocketmq.client.consumer.DefaultMQPushConsumer;
+import org.apache.rocketmq.client.consumer.listener.ConsumeConcurrentlyStatus;
+import org.apache.rocketmq.client.consumer.listener.MessageListenerConcurrently;
+import org.apache.rocketmq.common.message.MessageExt;
 import org.apache.rocketmq.spring.annotation.RocketMQMessageListener;
 import org.apache.rocketmq.spring.core.RocketMQListener;
+import org.apache.rocketmq.spring.core.RocketMQPushConsumerLifecycleListener;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
-import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 点赞消息消费者
+ * 支持两种模式（like.consumer.mode）：
+ * batch - 批量消费，一批消息按 (用户, 目标) 合并为最后一次动作后在一个事务内批量写入，提交成功才确认消费；
+ * write-behind - 逐条消费，交给写回缓冲定时批量刷入
  */
 @Slf4j
 @Component
@@ -24,78 +37,151 @@ import java.util.Date;
         consumerGroup = "${mq.like.consumer-group}",
         nameServer = "${rocketmq.name-server}"
 )
-public class LikeMessageConsumer implements RocketMQListener<LikeActionMessage> {
+public class LikeMessageConsumer implements RocketMQListener<LikeActionMessage>, RocketMQPushConsumerLifecycleListener {
+
+    /**
+     * 批量消费模式
+     */
+    private static final String MODE_BATCH = "batch";
+
+    @Autowired
+    private LikeWriteBehindBuffer likeWriteBehindBuffer;
 
     @Autowired
     private LikeRecordsService likeRecordsService;
-    
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Value("${rocketmq.name-server}")
     private String nameServer;
-    
+
     @Value("${mq.like.topic}")
     private String topic;
-    
+
     @Value("${mq.like.consumer-group}")
     private String consumerGroup;
-    
+
+    /**
+     * 消费模式：batch 或 write-behind
+     */
+    @Value("${like.consumer.mode:batch}")
+    private String mode;
+
+    /**
+     * 批量模式下每次回调的最大消息数
+     */
+    @Value("${like.consumer.batch-size:64}")
+    private int batchSize;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder messages = new LongAdder();
+    private final LongAdder collapsed = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+
     @PostConstruct
     public void init() {
-        log.info("点赞消费者配置: nameServer={}, topic={}, consumerGroup={}", 
-                nameServer, topic, consumerGroup);
+        log.info("点赞消费者配置: nameServer={}, topic={}, consumerGroup={}, mode={}, batchSize={}",
+                nameServer, topic, consumerGroup, mode, batchSize);
+    }
+
+    /**
+     * 批量模式下替换容器默认的逐条监听器
+     */
+    @Override
+    public void prepareStart(DefaultMQPushConsumer consumer) {
+        if (!MODE_BATCH.equals(mode)) {
+            return;
+        }
+        consumer.setConsumeMessageBatchMaxSize(batchSize);
+        // 单次拉取数量不小于批大小，否则每批最多只能凑满一次拉取的消息
+        consumer.setPullBatchSize(Math.max(consumer.getPullBatchSize(), batchSize));
+        consumer.registerMessageListener((MessageListenerConcurrently) (msgs, context) -> consumeBatch(msgs));
     }
 
     @Override
     public void onMessage(LikeActionMessage message) {
-        log.info("收到点赞消息: {}", message);
+        log.debug("收到点赞消息: {}", message);
+        // 点赞记录与点赞数由写回缓冲合并后批量刷入数据库
+        likeWriteBehindBuffer.submit(message);
+    }
+
+    /**
+     * 获取批量消费统计
+     */
+    public LikeConsumerStats getStats() {
+        LikeConsumerStats stats = new LikeConsumerStats();
+        long batchCount = batches.sum();
+        long messageCount = messages.sum();
+        stats.setMode(mode);
+        stats.setBatchSize(batchSize);
+        stats.setBatches(batchCount);
+        stats.setMessages(messageCount);
+        stats.setCollapsed(collapsed.sum());
+        stats.setSkipped(skipped.sum());
+        stats.setFailedBatches(failedBatches.sum());
+        stats.setAvgBatchSize(batchCount == 0 ? 0 : (double) messageCount / batchCount);
+        return stats;
+    }
+
+    /**
+     * 消费一批点赞消息
+     * 同一批次内同一点赞关系只保留最后一次动作；应用结果取决于数据库中的现有记录，
+     * 因此整批重新投递时不会重复计数
+     */
+    private ConsumeConcurrentlyStatus consumeBatch(List<MessageExt> msgs) {
+        Map<String, LikeActionMessage> latest = new LinkedHashMap<>();
+        for (MessageExt msg : msgs) {
+            LikeActionMessage message = parse(msg);
+            if (message == null) {
+                skipped.increment();
+                continue;
+            }
+            // 先移除再放入，使迭代顺序与最后一次动作的顺序一致
+            latest.remove(message.relationKey());
+            latest.put(message.relationKey(), message);
+        }
+
         try {
-            // 获取消息内容
-            Long userId = message.getUserId();
-            Integer targetType = message.getTargetType();
-            Long targetId = message.getTargetId();
-            Integer actionType = message.getActionType();
-            
-            // 构建查询条件
-            LambdaQueryWrapper<LikeRecords> queryWrapper = new LambdaQueryWrapper<>();
-            queryWrapper.eq(LikeRecords::getUserId, userId)
-                    .eq(LikeRecords::getTargetType, targetType)
-                    .eq(LikeRecords::getTargetId, targetId);
-            
-            // 查询点赞记录
-            LikeRecords record = likeRecordsService.getOne(queryWrapper);
-            
-            // 根据操作类型处理数据库
-            if (actionType == 1) {
-                // 点赞操作
-                if (record == null) {
-                    // 创建新的点赞记录
-                    record = new LikeRecords();
-                    record.setUserId(userId);
-                    record.setTargetType(targetType);
-                    record.setTargetId(targetId);
-                    record.setCreateTime(new Date());
-                    likeRecordsService.save(record);
-                    
-                    // 更新目标点赞数 +1
-                    likeRecordsService.updateLikeCount(targetType, targetId, 1);
-                    log.info("用户{}点赞成功: 类型={}, 目标ID={}", userId, targetType, targetId);
-                } else {
-                    log.info("用户{}已经点过赞，不重复处理: 类型={}, 目标ID={}", userId, targetType, targetId);
-                }
-            } else {
-                // 取消点赞操作
-                if (record != null) {
-                    // 删除点赞记录
-                    likeRecordsService.removeById(record.getId());
-                    
-                    // 更新目标点赞数 -1
-                    likeRecordsService.updateLikeCount(targetType, targetId, -1);
-                    log.info("用户{}取消点赞成功: 类型={}, 目标ID={}", userId, targetType, targetId);
-                } else {
-                    log.info("用户{}尚未点赞，无需取消: 类型={}, 目标ID={}", userId, targetType, targetId);
-                }
+            if (!latest.isEmpty()) {
+                LikeBatchResult result = likeRecordsService.applyLikeActions(latest.values());
+                log.debug("批量消费点赞消息: 消息数={}, 合并后={}, 新增={}, 删除={}",
+                        msgs.size(), latest.size(), result.getInserted(), result.getDeleted());
             }
+            batches.increment();
+            messages.add(msgs.size());
+            collapsed.add(msgs.size() - latest.size());
+            return ConsumeConcurrentlyStatus.CONSUME_SUCCESS;
         } catch (Exception e) {
-            log.error("处理点赞消息失败: {}, 错误: {}", message, e.getMessage(), e);
+            failedBatches.increment();
+            log.error("批量处理点赞消息失败，{}条消息稍后重新投递", msgs.size(), e);
+            return ConsumeConcurrentlyStatus.RECONSUME_LATER;
         }
     }
-} 
\ No newline at end of file
+
+    private LikeActionMessage parse(MessageExt msg) {
+        try {
+            return objectMapper.readValue(msg.getBody(), LikeActionMessage.class);
+        } catch (Exception e) {
+            // 无法解析的消息重试也无法成功，直接跳过
+            log.error("点赞消息解析失败，跳过: msgId={}", msg.getMsgId(), e);
+            return null;
+        }
+    }
+
+    /**
+     * 批量消费统计信息
+     */
+    @Data
+    public static class LikeConsumerStats {
+        private String mode;
+        private int batchSize;
+        private long batches;
+        private long messages;
+        private long collapsed;
+        private long skipped;
+        private long failedBatches;
+        private double avgBatchSize;
+    }
+}
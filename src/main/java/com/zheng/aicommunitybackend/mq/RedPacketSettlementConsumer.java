@@ -0,0 +1,165 @@
+package com.zheng.aicommunitybackend.mq;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zheng.aicommunitybackend.domain.dto.RedPacketGrabMessage;
+import com.zheng.aicommunitybackend.service.RedPacketSettlementService;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.rocketmq.client.consumer.DefaultMQPushConsumer;
+import org.apache.rocketmq.client.consumer.listener.ConsumeConcurrentlyStatus;
+import org.apache.rocketmq.client.consumer.listener.MessageListenerConcurrently;
+import org.apache.rocketmq.common.message.MessageExt;
+import org.apache.rocketmq.spring.annotation.RocketMQMessageListener;
+import org.apache.rocketmq.spring.core.RocketMQListener;
+import org.apache.rocketmq.spring.core.RocketMQPushConsumerLifecycleListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 抢红包结算消息消费者
+ * 批量消费，一批消息在一个事务内完成记录写入、统计更新与入账，提交成功才确认消费；
+ * 整批失败时逐条重试，避免单条异常消息拖住整批
+ */
+@Slf4j
+@Component
+@RocketMQMessageListener(
+        topic = "${mq.red-packet.topic:red_packet_grab_topic}",
+        consumerGroup = "${mq.red-packet.consumer-group:red_packet_settlement_group}",
+        nameServer = "${rocketmq.name-server}"
+)
+public class RedPacketSettlementConsumer implements RocketMQListener<RedPacketGrabMessage>,
+        RocketMQPushConsumerLifecycleListener {
+
+    @Autowired
+    private RedPacketSettlementService settlementService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${mq.red-packet.topic:red_packet_grab_topic}")
+    private String topic;
+
+    @Value("${mq.red-packet.consumer-group:red_packet_settlement_group}")
+    private String consumerGroup;
+
+    /**
+     * 每次回调的最大消息数
+     */
+    @Value("${red-packet.settlement.batch-size:128}")
+    private int batchSize;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder messages = new LongAdder();
+    private final LongAdder settled = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        log.info("抢红包结算消费者配置: topic={}, consumerGroup={}, batchSize={}", topic, consumerGroup, batchSize);
+    }
+
+    /**
+     * 替换容器默认的逐条监听器为批量监听器
+     */
+    @Override
+    public void prepareStart(DefaultMQPushConsumer consumer) {
+        consumer.setConsumeMessageBatchMaxSize(batchSize);
+        consumer.setPullBatchSize(Math.max(consumer.getPullBatchSize(), batchSize));
+        consumer.registerMessageListener((MessageListenerConcurrently) (msgs, context) -> consumeBatch(msgs));
+    }
+
+    @Override
+    public void onMessage(RedPacketGrabMessage message) {
+        settled.add(settlementService.settleGrabs(Collections.singletonList(message)));
+        messages.increment();
+    }
+
+    /**
+     * 获取结算消费统计
+     */
+    public RedPacketSettlementStats getStats() {
+        RedPacketSettlementStats stats = new RedPacketSettlementStats();
+        long batchCount = batches.sum();
+        long messageCount = messages.sum();
+        stats.setBatchSize(batchSize);
+        stats.setBatches(batchCount);
+        stats.setMessages(messageCount);
+        stats.setSettled(settled.sum());
+        stats.setSkipped(skipped.sum());
+        stats.setFailedBatches(failedBatches.sum());
+        stats.setAvgBatchSize(batchCount == 0 ? 0 : (double) messageCount / batchCount);
+        return stats;
+    }
+
+    /**
+     * 消费一批结算消息
+     */
+    private ConsumeConcurrentlyStatus consumeBatch(List<MessageExt> msgs) {
+        List<RedPacketGrabMessage> grabs = new ArrayList<>(msgs.size());
+        for (MessageExt msg : msgs) {
+            RedPacketGrabMessage message = parse(msg);
+            if (message == null) {
+                skipped.increment();
+                continue;
+            }
+            grabs.add(message);
+        }
+
+        batches.increment();
+        messages.add(msgs.size());
+        if (grabs.isEmpty()) {
+            return ConsumeConcurrentlyStatus.CONSUME_SUCCESS;
+        }
+        try {
+            settled.add(settlementService.settleGrabs(grabs));
+            return ConsumeConcurrentlyStatus.CONSUME_SUCCESS;
+        } catch (Exception e) {
+            failedBatches.increment();
+            log.warn("抢红包批量结算失败，改为逐条结算: 消息数={}, 错误: {}", grabs.size(), e.getMessage());
+        }
+
+        // 已结算的消息重新投递时会被跳过，因此只要有一条失败就整批重新投递
+        boolean allSettled = true;
+        for (RedPacketGrabMessage grab : grabs) {
+            try {
+                settled.add(settlementService.settleGrabs(Collections.singletonList(grab)));
+            } catch (Exception e) {
+                allSettled = false;
+                log.error("抢红包结算失败，稍后重新投递: transactionNo={}", grab.getTransactionNo(), e);
+            }
+        }
+        return allSettled ? ConsumeConcurrentlyStatus.CONSUME_SUCCESS : ConsumeConcurrentlyStatus.RECONSUME_LATER;
+    }
+
+    private RedPacketGrabMessage parse(MessageExt msg) {
+        try {
+            return objectMapper.readValue(msg.getBody(), RedPacketGrabMessage.class);
+        } catch (Exception e) {
+            // 无法解析的消息重试也无法成功，直接跳过，由补偿任务按抢红包流水补结算
+            log.error("抢红包结算消息解析失败，跳过: msgId={}", msg.getMsgId(), e);
+            return null;
+        }
+    }
+
+    /**
+     * 结算消费统计信息
+     */
+    @Data
+    public static class RedPacketSettlementStats {
+        private int batchSize;
+        private long batches;
+        private long messages;
+        private long settled;
+        private long skipped;
+        private long failedBatches;
+        private double avgBatchSize;
+    }
+}
@@ -32,6 +32,16 @@ public class SpiderProperties {
      */
     private FinanceNews financeNews = new FinanceNews();
 
+    /**
+     * 抓取引擎配置
+     */
+    private Crawl crawl = new Crawl();
+
+    /**
+     * 抓取流水线配置
+     */
+    private Pipeline pipeline = new Pipeline();
+
     /**
      * 财经新闻配置
      */
@@ -52,4 +62,91 @@ public class SpiderProperties {
          */
         private String caixinUrl = "https://www.caixin.com/finance/";
     }
-} 
\ No newline at end of file
+
+    /**
+     * 抓取引擎配置
+     */
+    @Data
+    public static class Crawl {
+        /**
+         * 全局同时进行的请求数上限
+         */
+        private Integer maxConcurrency = 32;
+
+        /**
+         * 同一站点同时进行的请求数上限
+         */
+        private Integer perHostConcurrency = 4;
+
+        /**
+         * 同一站点每秒发起的请求数（令牌桶补充速率）
+         */
+        private Double perHostRequestsPerSecond = 2.0;
+
+        /**
+         * 同一站点空闲后允许连续发起的请求数（令牌桶容量）
+         */
+        private Integer perHostBurst = 2;
+
+        /**
+         * 单个URL最多尝试次数（含首次）
+         */
+        private Integer maxAttempts = 3;
+
+        /**
+         * 首次重试的退避时间(毫秒)，之后按2倍递增
+         */
+        private Long retryBackoffMs = 500L;
+
+        /**
+         * 重试退避时间上限(毫秒)
+         */
+        private Long maxRetryBackoffMs = 8000L;
+
+        /**
+         * 定时任务开始前的随机延迟上限(毫秒)，0表示不延迟
+         */
+        private Integer startJitterMs = 0;
+    }
+
+    /**
+     * 抓取流水线配置
+     */
+    @Data
+    public static class Pipeline {
+        /**
+         * 每个阶段输入队列的容量，队列满时上游阻塞
+         */
+        private Integer queueCapacity = 64;
+
+        /**
+         * 详情页抓取阶段的虚拟线程数（实际并发仍受抓取引擎的全局与站点闸门约束）
+         */
+        private Integer fetchWorkers = 16;
+
+        /**
+         * 正文抽取阶段的线程数
+         */
+        private Integer extractWorkers = 2;
+
+        /**
+         * 内容指纹阶段的线程数
+         */
+        private Integer fingerprintWorkers = 2;
+
+        /**
+         * 入库阶段的线程数，每个线程占用一个数据库连接
+         */
+        private Integer saveWorkers = 4;
+
+        /**
+         * 每个入库事务包含的新闻数
+         */
+        private Integer saveBatchSize = 15;
+
+        /**
+         * 单次运行的超时时间(毫秒)，超时后取消未完成的处理
+         */
+        private Long runTimeoutMs = 600000L;
+    }
+}
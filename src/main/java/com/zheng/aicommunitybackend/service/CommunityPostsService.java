@@ -1,11 +1,13 @@
 package com.zheng.aicommunitybackend.service;
 
 import com.zheng.aicommunitybackend.domain.dto.AdminPostPageQuery;
+import com.zheng.aicommunitybackend.domain.dto.PostCursorQuery;
 import com.zheng.aicommunitybackend.domain.dto.PostDTO;
 import com.zheng.aicommunitybackend.domain.dto.PostPageQuery;
 import com.zheng.aicommunitybackend.domain.dto.PostStatusDTO;
 import com.zheng.aicommunitybackend.domain.entity.CommunityPosts;
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.zheng.aicommunitybackend.domain.result.CursorPageResult;
 import com.zheng.aicommunitybackend.domain.result.PageResult;
 import com.zheng.aicommunitybackend.domain.vo.PostVO;
 
@@ -56,6 +58,14 @@ public interface CommunityPostsService extends IService<CommunityPosts> {
      */
     PageResult listPosts(PostPageQuery query);
     
+    /**
+     * 游标分页查询帖子列表（按发布时间倒序，不返回总数）
+     * 
+     * @param query 游标分页查询参数
+     * @return 帖子列表
+     */
+    CursorPageResult<PostVO> listPostsByCursor(PostCursorQuery query);
+    
     /**
      * 获取当前用户发布的帖子列表
      * 
@@ -1,6 +1,8 @@
 package com.zheng.aicommunitybackend.service;
 
 import com.zheng.aicommunitybackend.domain.dto.AdminLikePageQuery;
+import com.zheng.aicommunitybackend.domain.dto.LikeActionMessage;
+import com.zheng.aicommunitybackend.domain.dto.LikeBatchResult;
 import com.zheng.aicommunitybackend.domain.dto.LikeRecordDTO;
 import com.zheng.aicommunitybackend.domain.entity.LikeRecords;
 import com.baomidou.mybatisplus.extension.service.IService;
@@ -9,6 +11,7 @@ import com.zheng.aicommunitybackend.domain.vo.AdminLikeVO;
 import com.zheng.aicommunitybackend.domain.vo.LikeStatusVO;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -74,4 +77,12 @@ public interface LikeRecordsService extends IService<LikeRecords> {
      * @param count 更新的数量，正数为增加，负数为减少
      */
     void updateLikeCount(Integer type, Long targetId, int count);
+
+    /**
+     * 批量应用点赞动作
+     * 同一 (用户, 目标) 应只保留最后一次动作；批量写入/删除点赞记录，并按目标合并点赞数增量后批量更新
+     * @param actions 已按点赞关系合并的点赞动作
+     * @return 应用结果
+     */
+    LikeBatchResult applyLikeActions(Collection<LikeActionMessage> actions);
 }
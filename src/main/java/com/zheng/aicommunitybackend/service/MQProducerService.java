@@ -1,6 +1,7 @@
 package com.zheng.aicommunitybackend.service;
 
 import com.zheng.aicommunitybackend.domain.dto.LikeActionMessage;
+import com.zheng.aicommunitybackend.domain.dto.RedPacketGrabMessage;
 
 /**
  * 消息队列生产者服务接口
@@ -28,4 +29,11 @@ public interface MQProducerService {
      * @return 是否发送成功
      */
     boolean sendLikeMessageWithDelay(LikeActionMessage message, int delayLevel);
-} 
\ No newline at end of file
+
+    /**
+     * 同步发送抢红包结算消息
+     * @param message 抢红包结算消息
+     * @return 是否发送成功
+     */
+    boolean sendRedPacketGrabMessage(RedPacketGrabMessage message);
+}
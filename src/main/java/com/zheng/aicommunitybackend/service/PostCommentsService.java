@@ -2,10 +2,12 @@ package com.zheng.aicommunitybackend.service;
 
 import com.zheng.aicommunitybackend.domain.dto.AdminCommentPageQuery;
 import com.zheng.aicommunitybackend.domain.dto.CommentCreateDTO;
+import com.zheng.aicommunitybackend.domain.dto.CommentCursorQuery;
 import com.zheng.aicommunitybackend.domain.dto.CommentPageQuery;
 import com.zheng.aicommunitybackend.domain.dto.CommentStatusDTO;
 import com.zheng.aicommunitybackend.domain.entity.PostComments;
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.zheng.aicommunitybackend.domain.result.CursorPageResult;
 import com.zheng.aicommunitybackend.domain.result.PageResult;
 import com.zheng.aicommunitybackend.domain.vo.AdminCommentVO;
 import com.zheng.aicommunitybackend.domain.vo.CommentVO;
@@ -44,6 +46,14 @@ public interface PostCommentsService extends IService<PostComments> {
      */
     PageResult<CommentVO> pageComments(CommentPageQuery query, Long userId);
     
+    /**
+     * 游标分页查询帖子的一级评论（按评论时间倒序，不返回总数）
+     * @param query 查询参数
+     * @param userId 当前用户ID，用于判断是否是楼主
+     * @return 评论游标分页结果
+     */
+    CursorPageResult<CommentVO> pageCommentsByCursor(CommentCursorQuery query, Long userId);
+    
     /**
      * 获取评论的回复列表（二级评论）
      * @param commentId 一级评论ID
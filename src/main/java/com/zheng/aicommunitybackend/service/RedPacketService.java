@@ -111,7 +111,8 @@ public interface RedPacketService {
     boolean clearActivityFromRedis(Long activityId);
 
     /**
-     * 处理未更新账户的记录（补偿机制）
+     * 处理未结算的抢红包（补偿机制）
+     * 按Redis抢红包流水补结算消息丢失的抢红包，并为未更新账户的记录补入账
      * @param limit 处理数量限制
      * @return 处理的记录数
      */
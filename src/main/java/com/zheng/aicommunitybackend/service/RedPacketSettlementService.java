@@ -0,0 +1,27 @@
+package com.zheng.aicommunitybackend.service;
+
+import com.zheng.aicommunitybackend.domain.dto.RedPacketGrabMessage;
+import com.zheng.aicommunitybackend.domain.entity.RedPacketRecords;
+
+import java.util.Collection;
+
+/**
+ * 抢红包结算服务接口
+ */
+public interface RedPacketSettlementService {
+
+    /**
+     * 在一个事务内批量结算抢红包结果：写入红包详情、抢红包记录、活动统计并为用户入账
+     * 已有抢红包记录的 (活动, 用户) 会被跳过，因此消息重复投递不会重复入账
+     * @param messages 抢红包结算消息
+     * @return 本次实际结算的数量
+     */
+    int settleGrabs(Collection<RedPacketGrabMessage> messages);
+
+    /**
+     * 为未入账的抢红包记录补入账
+     * @param record 抢红包记录
+     * @return 是否入账成功
+     */
+    boolean compensateAccount(RedPacketRecords record);
+}
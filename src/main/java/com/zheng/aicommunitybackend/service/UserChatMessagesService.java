@@ -3,6 +3,7 @@ package com.zheng.aicommunitybackend.service;
 import com.zheng.aicommunitybackend.domain.dto.MessageSendDTO;
 import com.zheng.aicommunitybackend.domain.entity.UserChatMessages;
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.zheng.aicommunitybackend.domain.result.CursorPageResult;
 import com.zheng.aicommunitybackend.domain.vo.UserChatMessageVO;
 
 import java.util.List;
@@ -24,11 +25,27 @@ public interface UserChatMessagesService extends IService<UserChatMessages> {
      */
     List<UserChatMessageVO> getConversationMessages(String conversationId, Long userId, Integer page, Integer size);
 
+    /**
+     * 游标分页获取会话消息（从最新消息向前翻页，不返回总数）
+     */
+    CursorPageResult<UserChatMessageVO> getConversationMessagesByCursor(String conversationId, Long userId,
+                                                                       String cursor, Integer size);
+
     /**
      * 标记消息已读
      */
     void markMessageRead(Long messageId, Long userId);
 
+    /**
+     * 标记会话全部消息已读
+     */
+    void markConversationRead(String conversationId, Long userId);
+
+    /**
+     * 推送正在输入事件
+     */
+    void sendTyping(String conversationId, Long userId);
+
     /**
      * 删除消息
      */
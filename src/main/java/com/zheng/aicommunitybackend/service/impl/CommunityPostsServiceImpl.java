@@ -4,7 +4,9 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.zheng.aicommunitybackend.common.UserContext;
+import com.zheng.aicommunitybackend.component.PostViewCounter;
 import com.zheng.aicommunitybackend.domain.dto.AdminPostPageQuery;
+import com.zheng.aicommunitybackend.domain.dto.PostCursorQuery;
 import com.zheng.aicommunitybackend.domain.dto.PostDTO;
 import com.zheng.aicommunitybackend.domain.dto.PostPageQuery;
 import com.zheng.aicommunitybackend.domain.dto.PostStatusDTO;
@@ -12,6 +14,7 @@ import com.zheng.aicommunitybackend.domain.entity.CommunityPosts;
 import com.zheng.aicommunitybackend.domain.entity.FavoriteRecords;
 import com.zheng.aicommunitybackend.domain.entity.LikeRecords;
 import com.zheng.aicommunitybackend.domain.entity.Users;
+import com.zheng.aicommunitybackend.domain.result.CursorPageResult;
 import com.zheng.aicommunitybackend.domain.result.PageResult;
 import com.zheng.aicommunitybackend.domain.vo.PostVO;
 import com.zheng.aicommunitybackend.exception.BaseException;
@@ -19,9 +22,10 @@ import com.zheng.aicommunitybackend.mapper.CommunityPostsMapper;
 import com.zheng.aicommunitybackend.service.CommunityPostsService;
 import com.zheng.aicommunitybackend.service.FavoriteRecordsService;
 import com.zheng.aicommunitybackend.service.LikeRecordsService;
-import com.zheng.aicommunitybackend.service.PostCommentsService;
 import com.zheng.aicommunitybackend.service.UsersService;
-import com.zheng.aicommunitybackend.utils.RedisUtils;
+import com.zheng.aicommunitybackend.util.CursorUtil;
+import com.zheng.aicommunitybackend.utils.CacheVersionManager;
+import com.zheng.aicommunitybackend.utils.TwoLevelCache;
 import com.zheng.aicommunitybackend.constant.CacheConstants;
 import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Service;
@@ -46,19 +50,22 @@ public class CommunityPostsServiceImpl extends ServiceImpl<CommunityPostsMapper,
     private final UsersService usersService;
     private final LikeRecordsService likeRecordsService;
     private final FavoriteRecordsService favoriteRecordsService;
-    private final PostCommentsService postCommentsService;
-    private final RedisUtils redisUtils;
+    private final TwoLevelCache twoLevelCache;
+    private final CacheVersionManager cacheVersionManager;
+    private final PostViewCounter postViewCounter;
 
     public CommunityPostsServiceImpl(UsersService usersService,
                                    LikeRecordsService likeRecordsService,
                                    FavoriteRecordsService favoriteRecordsService,
-                                   PostCommentsService postCommentsService,
-                                   RedisUtils redisUtils) {
+                                   TwoLevelCache twoLevelCache,
+                                   CacheVersionManager cacheVersionManager,
+                                   PostViewCounter postViewCounter) {
         this.usersService = usersService;
         this.likeRecordsService = likeRecordsService;
         this.favoriteRecordsService = favoriteRecordsService;
-        this.postCommentsService = postCommentsService;
-        this.redisUtils = redisUtils;
+        this.twoLevelCache = twoLevelCache;
+        this.cacheVersionManager = cacheVersionManager;
+        this.postViewCounter = postViewCounter;
     }
 
     @Override
@@ -160,14 +167,15 @@ public class CommunityPostsServiceImpl extends ServiceImpl<CommunityPostsMapper,
         
         post.setUpdateTime(new Date());
 
-        // 更新到数据库
+        // 更新到数据库（计数字段由增量UPDATE维护，不随整行写回）
+        skipCounters(post);
         boolean result = this.updateById(post);
 
         // 清空帖子相关缓存
         if (result) {
             clearPostCache();
             // 清空特定帖子详情缓存
-            redisUtils.delete(CacheConstants.buildPostDetailKey(postDTO.getId()));
+            twoLevelCache.evict(buildPostDetailKey(postDTO.getId()));
         }
 
         return result;
@@ -200,13 +208,14 @@ public class CommunityPostsServiceImpl extends ServiceImpl<CommunityPostsMapper,
         post.setStatus(2); // 已删除状态
         post.setUpdateTime(new Date());
 
+        skipCounters(post);
         boolean result = this.updateById(post);
 
         // 清空帖子相关缓存
         if (result) {
             clearPostCache();
             // 清空特定帖子详情缓存
-            redisUtils.delete(CacheConstants.buildPostDetailKey(postId));
+            twoLevelCache.evict(buildPostDetailKey(postId));
         }
 
         return result;
@@ -219,12 +228,14 @@ public class CommunityPostsServiceImpl extends ServiceImpl<CommunityPostsMapper,
         }
 
         // 先尝试从缓存获取
-        String cacheKey = CacheConstants.buildPostDetailKey(postId);
-        PostVO cachedPost = (PostVO) redisUtils.get(cacheKey);
+        String cacheKey = buildPostDetailKey(postId);
+        PostVO cachedPost = (PostVO) twoLevelCache.get(cacheKey);
         if (cachedPost != null) {
-            // 更新浏览量（异步更新数据库，不影响缓存）
-            updateViewCountAsync(postId);
-            return cachedPost;
+            // 记录浏览并返回实时浏览量，复制一份避免修改本地缓存中的共享对象
+            PostVO postVO = new PostVO();
+            BeanUtils.copyProperties(cachedPost, postVO);
+            postVO.setViewCount(Math.toIntExact(postViewCounter.increment(postId, viewCountOf(cachedPost.getViewCount()))));
+            return postVO;
         }
 
         // 查询帖子
@@ -233,9 +244,8 @@ public class CommunityPostsServiceImpl extends ServiceImpl<CommunityPostsMapper,
             throw new BaseException("帖子不存在或已删除");
         }
 
-        // 更新浏览量
-        post.setViewCount(post.getViewCount() + 1);
-        this.updateById(post);
+        // 记录浏览，浏览量由计数器批量刷入数据库，这里使用实时值
+        post.setViewCount(Math.toIntExact(postViewCounter.increment(postId, viewCountOf(post.getViewCount()))));
 
         // 转换为VO
         PostVO postVO = convertToPostVO(post);
@@ -264,7 +274,7 @@ public class CommunityPostsServiceImpl extends ServiceImpl<CommunityPostsMapper,
         }
 
         // 缓存帖子详情
-        redisUtils.set(cacheKey, postVO, CacheConstants.DETAIL_EXPIRE_TIME);
+        twoLevelCache.set(cacheKey, postVO, CacheConstants.DETAIL_EXPIRE_TIME);
 
         return postVO;
     }
@@ -273,8 +283,9 @@ public class CommunityPostsServiceImpl extends ServiceImpl<CommunityPostsMapper,
     public PageResult listPosts(PostPageQuery query) {
         // 先尝试从缓存获取
         String cacheKey = CacheConstants.buildPostPageKey(
+            cacheVersionManager.current(CacheConstants.POST_PAGE_NAMESPACE),
             query.getPage(), query.getPageSize(), query.getCategory());
-        PageResult cachedResult = (PageResult) redisUtils.get(cacheKey);
+        PageResult cachedResult = (PageResult) twoLevelCache.get(cacheKey);
         if (cachedResult != null) {
             return cachedResult;
         }
@@ -335,12 +346,40 @@ public class CommunityPostsServiceImpl extends ServiceImpl<CommunityPostsMapper,
 
         // 缓存结果（只缓存无关键字搜索的结果）
         if (!StringUtils.hasText(query.getKeyword())) {
-            redisUtils.set(cacheKey, result, CacheConstants.DEFAULT_EXPIRE_TIME);
+            twoLevelCache.set(cacheKey, result, CacheConstants.DEFAULT_EXPIRE_TIME);
         }
 
         return result;
     }
 
+    @Override
+    public CursorPageResult<PostVO> listPostsByCursor(PostCursorQuery query) {
+        // 构建查询条件，只查询已发布的帖子
+        LambdaQueryWrapper<CommunityPosts> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.eq(CommunityPosts::getStatus, 1);
+
+        // 分类条件
+        if (StringUtils.hasText(query.getCategory())) {
+            queryWrapper.eq(CommunityPosts::getCategory, query.getCategory());
+        }
+
+        // 关键字条件
+        if (StringUtils.hasText(query.getKeyword())) {
+            queryWrapper.and(wrapper -> wrapper.like(CommunityPosts::getTitle, query.getKeyword())
+                    .or()
+                    .like(CommunityPosts::getContent, query.getKeyword()));
+        }
+
+        // 按 (创建时间, ID) 倒序从游标处向后取一页，不查询总数
+        CursorUtil.seekBefore(queryWrapper, CommunityPosts::getCreateTime, CommunityPosts::getId,
+                query.getCursor(), query.getPageSize());
+        List<CommunityPosts> posts = this.list(queryWrapper);
+        String nextCursor = CursorUtil.nextCursor(posts, query.getPageSize(),
+                CommunityPosts::getCreateTime, CommunityPosts::getId);
+
+        return new CursorPageResult<>(convertToPostVOList(posts), nextCursor, nextCursor != null);
+    }
+
     @Override
     public PageResult listUserPosts(PostPageQuery query) {
         // 获取当前登录用户ID
@@ -426,9 +465,10 @@ public class CommunityPostsServiceImpl extends ServiceImpl<CommunityPostsMapper,
             postVO.setAvatar(user.getAvatarUrl());
         }
         
-        // 实时查询评论数量（覆盖从数据库复制的冗余字段）
-        Integer commentCount = postCommentsService.countCommentsByPostId(post.getId());
-        postVO.setCommentCount(commentCount);
+        // 评论数由评论增删时在同一事务内维护，直接使用帖子上的 comment_count
+        if (postVO.getCommentCount() == null) {
+            postVO.setCommentCount(0);
+        }
         
         return postVO;
     }
@@ -461,10 +501,6 @@ public class CommunityPostsServiceImpl extends ServiceImpl<CommunityPostsMapper,
                 .map(CommunityPosts::getId)
                 .collect(Collectors.toSet());
         
-        // 批量查询评论数量
-        Map<Long, Integer> commentCountMap = postCommentsService.batchCountCommentsByPostIds(
-                new ArrayList<>(postIds));
-        
         // 如果用户已登录，批量查询点赞和收藏状态
         Map<Long, Boolean> likeMap = new HashMap<>();
         Map<Long, Boolean> favoriteMap = new HashMap<>();
@@ -501,7 +537,6 @@ public class CommunityPostsServiceImpl extends ServiceImpl<CommunityPostsMapper,
         Map<Long, Users> finalUserMap = userMap;
         Map<Long, Boolean> finalLikeMap = likeMap;
         Map<Long, Boolean> finalFavoriteMap = favoriteMap;
-        Map<Long, Integer> finalCommentCountMap = commentCountMap;
         
         return postList.stream().map(post -> {
             PostVO postVO = new PostVO();
@@ -530,8 +565,10 @@ public class CommunityPostsServiceImpl extends ServiceImpl<CommunityPostsMapper,
             postVO.setHasLiked(finalLikeMap.getOrDefault(post.getId(), false));
             postVO.setHasFavorited(finalFavoriteMap.getOrDefault(post.getId(), false));
             
-            // 设置实时查询的评论数量（覆盖从数据库复制的冗余字段）
-            postVO.setCommentCount(finalCommentCountMap.getOrDefault(post.getId(), 0));
+            // 评论数由评论增删时在同一事务内维护，直接使用帖子上的 comment_count
+            if (postVO.getCommentCount() == null) {
+                postVO.setCommentCount(0);
+            }
             
             return postVO;
         }).collect(Collectors.toList());
@@ -684,13 +721,14 @@ public class CommunityPostsServiceImpl extends ServiceImpl<CommunityPostsMapper,
         
         if (updated) {
             post.setUpdateTime(new Date());
+            skipCounters(post);
             boolean result = this.updateById(post);
 
             // 清空帖子相关缓存
             if (result) {
                 clearPostCache();
                 // 清空特定帖子详情缓存
-                redisUtils.delete(CacheConstants.buildPostDetailKey(postStatusDTO.getPostId()));
+                twoLevelCache.evict(buildPostDetailKey(postStatusDTO.getPostId()));
             }
 
             return result;
@@ -725,7 +763,7 @@ public class CommunityPostsServiceImpl extends ServiceImpl<CommunityPostsMapper,
         if (result) {
             clearPostCache();
             // 清空特定帖子详情缓存
-            redisUtils.delete(CacheConstants.buildPostDetailKey(postId));
+            twoLevelCache.evict(buildPostDetailKey(postId));
         }
 
         return result;
@@ -767,25 +805,34 @@ public class CommunityPostsServiceImpl extends ServiceImpl<CommunityPostsMapper,
     }
 
     /**
-     * 清空帖子相关缓存
+     * 清空帖子列表缓存
+     * 递增分页命名空间版本号，所有旧分页key随之失效；帖子详情由调用方按ID精确清除
      */
     private void clearPostCache() {
-        // 清空帖子列表缓存
-        redisUtils.deleteByPattern(CacheConstants.POST_PAGE_PREFIX + "*");
-        // 清空帖子详情缓存
-        redisUtils.deleteByPattern(CacheConstants.POST_DETAIL_PREFIX + "*");
+        cacheVersionManager.bump(CacheConstants.POST_PAGE_NAMESPACE);
     }
 
     /**
-     * 异步更新浏览量
+     * 构建当前版本的帖子详情缓存key
      */
-    private void updateViewCountAsync(Long postId) {
-        // 这里可以使用异步方式更新浏览量，避免影响查询性能
-        // 简单实现：直接更新数据库
-        CommunityPosts post = this.getById(postId);
-        if (post != null) {
-            post.setViewCount(post.getViewCount() + 1);
-            this.updateById(post);
-        }
+    private String buildPostDetailKey(Long postId) {
+        return CacheConstants.buildPostDetailKey(
+                cacheVersionManager.current(CacheConstants.POST_DETAIL_NAMESPACE), postId);
+    }
+
+    /**
+     * 整行更新前清空计数字段，避免用读取时的旧值覆盖期间累加的浏览量、点赞数与评论数
+     */
+    private void skipCounters(CommunityPosts post) {
+        post.setViewCount(null);
+        post.setLikeCount(null);
+        post.setCommentCount(null);
+    }
+
+    /**
+     * 浏览量为空时按0处理
+     */
+    private long viewCountOf(Integer viewCount) {
+        return viewCount != null ? viewCount : 0L;
     }
 }
@@ -1,20 +1,22 @@
 package com.zheng.aicommunitybackend.service.impl;
 
+import com.zheng.aicommunitybackend.component.NearDuplicateIndex;
 import com.zheng.aicommunitybackend.domain.entity.HotNews;
 import com.zheng.aicommunitybackend.mapper.HotNewsMapper;
 import com.zheng.aicommunitybackend.util.SimHashUtil;
+import com.zheng.aicommunitybackend.utils.RedisUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.Date;
 import java.util.List;
-import java.util.Set;
-import java.util.concurrent.TimeUnit;
 
 /**
  * 内容相似度检测服务
+ * 相似度查询走本节点内存中的近似重复索引（NearDuplicateIndex），覆盖整个保留窗口
  */
 @Slf4j
 @Service
@@ -24,18 +26,18 @@ public class ContentSimilarityService {
     private HotNewsMapper hotNewsMapper;
     
     @Autowired(required = false)
-    private StringRedisTemplate stringRedisTemplate;
+    private RedisUtils redisUtils;
     
-    // Redis缓存键前缀
-    private static final String CONTENT_HASH_KEY_PREFIX = "news:content_hash:";
+    @Autowired
+    private NearDuplicateIndex nearDuplicateIndex;
     
-    // Redis中存储所有内容哈希的集合键
-    private static final String CONTENT_HASH_SET_KEY = "news:all_content_hashes";
+    // 旧版本Redis缓存键前缀（已由近似重复索引取代，仅用于清理）
+    private static final String LEGACY_CONTENT_HASH_KEY_PREFIX = "news:content_hash:";
     
-    // 缓存过期时间（小时）
-    private static final int CACHE_EXPIRE_HOURS = 24;
+    // 旧版本Redis中存储所有内容哈希的集合键（已由近似重复索引取代，仅用于清理）
+    private static final String LEGACY_CONTENT_HASH_SET_KEY = "news:all_content_hashes";
     
-    // 最近指纹查询数量限制
+    // 索引未加载完成时，最近指纹查询数量限制
     private static final int RECENT_HASH_LIMIT = 100;
     
     /**
@@ -53,6 +55,7 @@ public class ContentSimilarityService {
     
     /**
      * 检查新闻是否与已有内容相似
+     * 在保留窗口内的近似重复索引中按汉明半径查找，索引未完成加载时退回比较最近的指纹
      * @param news 新闻对象
      * @return 是否相似
      */
@@ -64,19 +67,19 @@ public class ContentSimilarityService {
         String contentHash = news.getContentHash();
         log.debug("检查内容是否相似，标题: {}, 哈希值: {}", news.getTitle(), contentHash);
         
-        // 先从缓存中查询
-        boolean foundInCache = checkSimilarityInCache(contentHash);
-        if (foundInCache) {
-            log.info("在Redis缓存中发现相似内容: {}", news.getTitle());
-            return true;
+        if (nearDuplicateIndex.isReady()) {
+            Long similarNewsId = nearDuplicateIndex.findSimilar(contentHash);
+            if (similarNewsId != null) {
+                log.info("在近似重复索引中发现相似内容: {}, 相似新闻ID: {}", news.getTitle(), similarNewsId);
+                return true;
+            }
+            log.debug("没有找到相似内容: {}", news.getTitle());
+            return false;
         }
         
-        // 缓存中未找到，查询数据库
+        // 索引尚未加载完成，查询最近的指纹
         List<String> recentHashes = hotNewsMapper.selectRecentContentHashes(RECENT_HASH_LIMIT);
-        log.debug("从数据库中查询到 {} 条哈希记录", recentHashes != null ? recentHashes.size() : 0);
-        
         if (recentHashes == null || recentHashes.isEmpty()) {
-            log.debug("数据库中没有找到内容哈希记录");
             return false;
         }
         
@@ -84,9 +87,6 @@ public class ContentSimilarityService {
             if (existingHash != null && SimHashUtil.isSimilar(contentHash, existingHash)) {
                 log.info("在数据库中发现相似内容: {}, 哈希值: {}, 相似哈希: {}", 
                         news.getTitle(), contentHash, existingHash);
-                
-                // 不要在这里缓存，避免缓存与数据库不一致
-                // 只有在真正保存到数据库后才缓存
                 return true;
             }
         }
@@ -96,89 +96,46 @@ public class ContentSimilarityService {
     }
     
     /**
-     * 在缓存中查询相似内容
-     * @param contentHash 内容指纹
-     * @return 是否找到相似内容
+     * 新闻保存后加入近似重复索引
+     * 处于事务中时在提交后加入，避免回滚的新闻进入索引
+     * @param news 已保存的新闻
      */
-    private boolean checkSimilarityInCache(String contentHash) {
-        // 如果Redis不可用，直接返回false
-        if (stringRedisTemplate == null) {
-            log.warn("Redis不可用，跳过缓存相似度检查");
-            return false;
-        }
-        
-        try {
-            // 从Redis集合中获取所有内容哈希
-            Set<String> cachedHashes = stringRedisTemplate.opsForSet().members(CONTENT_HASH_SET_KEY);
-            
-            if (cachedHashes == null || cachedHashes.isEmpty()) {
-                log.debug("Redis缓存中没有内容哈希记录");
-                return false;
-            }
-            
-            log.debug("从Redis缓存中获取到 {} 条哈希值进行比较", cachedHashes.size());
-            
-            // 逐个比较相似度
-            for (String hash : cachedHashes) {
-                if (hash != null && SimHashUtil.isSimilar(contentHash, hash)) {
-                    log.debug("内容哈希[{}]与缓存中的哈希[{}]相似", contentHash, hash);
-                    return true;
-                }
-            }
-            return false;
-        } catch (Exception e) {
-            log.error("查询Redis缓存出错", e);
-            return false;
-        }
-    }
-    
-    /**
-     * 缓存内容指纹
-     * @param contentHash 内容指纹
-     */
-    public void cacheContentHash(String contentHash) {
-        if (stringRedisTemplate == null || contentHash == null) {
+    public void indexSavedNews(HotNews news) {
+        if (news == null || news.getId() == null || news.getContentHash() == null) {
             return;
         }
-        
-        try {
-            // 1. 将哈希值单独存储
-            String cacheKey = CONTENT_HASH_KEY_PREFIX + contentHash;
-            stringRedisTemplate.opsForValue().set(cacheKey, "1", CACHE_EXPIRE_HOURS, TimeUnit.HOURS);
-            
-            // 2. 同时将哈希值添加到集合中，用于相似度检查
-            stringRedisTemplate.opsForSet().add(CONTENT_HASH_SET_KEY, contentHash);
-            // 为集合设置过期时间
-            stringRedisTemplate.expire(CONTENT_HASH_SET_KEY, CACHE_EXPIRE_HOURS, TimeUnit.HOURS);
-            
-            log.debug("成功将内容哈希[{}]添加到Redis缓存", contentHash);
-        } catch (Exception e) {
-            log.error("缓存内容指纹出错", e);
+        Long newsId = news.getId();
+        String contentHash = news.getContentHash();
+        Date createTime = news.getCreateTime();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    nearDuplicateIndex.add(newsId, contentHash, createTime);
+                }
+            });
+        } else {
+            nearDuplicateIndex.add(newsId, contentHash, createTime);
         }
     }
     
     /**
-     * 清理Redis中的内容哈希缓存
-     * 当数据与缓存不一致时可调用此方法
+     * 重建内容指纹索引
+     * 当数据与索引不一致时可调用此方法，同时清理旧版本遗留在Redis中的内容哈希缓存
      */
     public void clearContentHashCache() {
-        if (stringRedisTemplate == null) {
-            return;
-        }
-        
-        try {
-            // 删除集合键
-            stringRedisTemplate.delete(CONTENT_HASH_SET_KEY);
-            
-            // 删除所有以前缀开头的键
-            Set<String> keys = stringRedisTemplate.keys(CONTENT_HASH_KEY_PREFIX + "*");
-            if (keys != null && !keys.isEmpty()) {
-                stringRedisTemplate.delete(keys);
+        if (redisUtils != null) {
+            try {
+                // 删除集合键
+                redisUtils.delete(LEGACY_CONTENT_HASH_SET_KEY);
+                
+                // 删除所有以前缀开头的键，SCAN + UNLINK 分批删除，不使用阻塞的 KEYS
+                redisUtils.deleteByPattern(LEGACY_CONTENT_HASH_KEY_PREFIX + "*");
+            } catch (Exception e) {
+                log.error("清理内容哈希缓存出错", e);
             }
-            
-            log.info("已清理Redis中的内容哈希缓存");
-        } catch (Exception e) {
-            log.error("清理内容哈希缓存出错", e);
         }
+        
+        nearDuplicateIndex.rebuild();
     }
-} 
\ No newline at end of file
+}
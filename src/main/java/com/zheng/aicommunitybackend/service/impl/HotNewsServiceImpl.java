@@ -7,7 +7,8 @@ import com.zheng.aicommunitybackend.domain.entity.HotNews;
 import com.zheng.aicommunitybackend.mapper.HotNewsMapper;
 import com.zheng.aicommunitybackend.service.HotNewsService;
 import com.zheng.aicommunitybackend.task.NewsSpiderTask;
-import com.zheng.aicommunitybackend.utils.RedisUtils;
+import com.zheng.aicommunitybackend.utils.CacheVersionManager;
+import com.zheng.aicommunitybackend.utils.TwoLevelCache;
 import com.zheng.aicommunitybackend.constant.CacheConstants;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -31,7 +32,10 @@ public class HotNewsServiceImpl extends ServiceImpl<HotNewsMapper, HotNews>
     private ApplicationContext applicationContext;
 
     @Autowired
-    private RedisUtils redisUtils;
+    private TwoLevelCache twoLevelCache;
+
+    @Autowired
+    private CacheVersionManager cacheVersionManager;
 
     @Override
     public Page<HotNews> getHotNewsByPage(Page<HotNews> page, String category) {
@@ -39,8 +43,9 @@ public class HotNewsServiceImpl extends ServiceImpl<HotNewsMapper, HotNews>
         
         // 先尝试从缓存获取
         String cacheKey = CacheConstants.buildNewsPageKey(
+            cacheVersionManager.current(CacheConstants.NEWS_LIST_NAMESPACE),
             (int) page.getCurrent(), (int) page.getSize(), category);
-        Page<HotNews> cachedResult = (Page<HotNews>) redisUtils.get(cacheKey);
+        Page<HotNews> cachedResult = (Page<HotNews>) twoLevelCache.get(cacheKey);
         if (cachedResult != null) {
             log.info("从缓存获取新闻列表：total={}, records={}", cachedResult.getTotal(), cachedResult.getRecords().size());
             return cachedResult;
@@ -67,7 +72,7 @@ public class HotNewsServiceImpl extends ServiceImpl<HotNewsMapper, HotNews>
             result.getTotal(), result.getRecords().size(), result.getCurrent(), result.getSize());
 
         // 缓存结果
-        redisUtils.set(cacheKey, result, CacheConstants.DEFAULT_EXPIRE_TIME);
+        twoLevelCache.set(cacheKey, result, CacheConstants.DEFAULT_EXPIRE_TIME);
 
         return result;
     }
@@ -75,11 +80,12 @@ public class HotNewsServiceImpl extends ServiceImpl<HotNewsMapper, HotNews>
     @Override
     public List<HotNews> getLatestHotNews(Integer limit, String category) {
         // 先尝试从缓存获取
-        String cacheKey = CacheConstants.buildHotNewsKey(limit == null ? 10 : limit);
+        String cacheKey = CacheConstants.buildHotNewsKey(
+            cacheVersionManager.current(CacheConstants.NEWS_LIST_NAMESPACE), limit == null ? 10 : limit);
         if (StringUtils.hasText(category)) {
             cacheKey += ":" + category;
         }
-        List<HotNews> cachedResult = (List<HotNews>) redisUtils.get(cacheKey);
+        List<HotNews> cachedResult = (List<HotNews>) twoLevelCache.get(cacheKey);
         if (cachedResult != null) {
             return cachedResult;
         }
@@ -102,7 +108,7 @@ public class HotNewsServiceImpl extends ServiceImpl<HotNewsMapper, HotNews>
         List<HotNews> result = list(queryWrapper);
 
         // 缓存结果（热点新闻缓存时间较短）
-        redisUtils.set(cacheKey, result, CacheConstants.HOT_DATA_EXPIRE_TIME);
+        twoLevelCache.set(cacheKey, result, CacheConstants.HOT_DATA_EXPIRE_TIME);
 
         return result;
     }
@@ -110,8 +116,9 @@ public class HotNewsServiceImpl extends ServiceImpl<HotNewsMapper, HotNews>
     @Override
     public HotNews getNewsDetail(Long id) {
         // 先尝试从缓存获取
-        String cacheKey = CacheConstants.buildNewsDetailKey(id);
-        HotNews cachedNews = (HotNews) redisUtils.get(cacheKey);
+        String cacheKey = CacheConstants.buildNewsDetailKey(
+            cacheVersionManager.current(CacheConstants.NEWS_DETAIL_NAMESPACE), id);
+        HotNews cachedNews = (HotNews) twoLevelCache.get(cacheKey);
         if (cachedNews != null) {
             // 异步更新浏览量
             updateViewCountAsync(id);
@@ -126,7 +133,7 @@ public class HotNewsServiceImpl extends ServiceImpl<HotNewsMapper, HotNews>
             updateById(news);
 
             // 缓存新闻详情
-            redisUtils.set(cacheKey, news, CacheConstants.DETAIL_EXPIRE_TIME);
+            twoLevelCache.set(cacheKey, news, CacheConstants.DETAIL_EXPIRE_TIME);
         }
 
         return news;
@@ -154,15 +161,11 @@ public class HotNewsServiceImpl extends ServiceImpl<HotNewsMapper, HotNews>
     }
 
     /**
-     * 清空新闻相关缓存
+     * 清空新闻列表缓存
+     * 新增新闻只影响分页和热点列表，递增列表命名空间版本号即可，已有新闻详情缓存保持有效
      */
     private void clearNewsCache() {
-        // 清空新闻列表缓存
-        redisUtils.deleteByPattern(CacheConstants.NEWS_PAGE_PREFIX + "*");
-        // 清空热点新闻缓存
-        redisUtils.deleteByPattern(CacheConstants.HOT_NEWS_PREFIX + "*");
-        // 清空新闻详情缓存
-        redisUtils.deleteByPattern(CacheConstants.NEWS_DETAIL_PREFIX + "*");
+        cacheVersionManager.bump(CacheConstants.NEWS_LIST_NAMESPACE);
     }
 
     /**
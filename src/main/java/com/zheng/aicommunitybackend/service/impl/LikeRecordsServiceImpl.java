@@ -3,7 +3,9 @@ package com.zheng.aicommunitybackend.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.zheng.aicommunitybackend.component.LikeCounterStore;
 import com.zheng.aicommunitybackend.domain.dto.AdminLikePageQuery;
+import com.zheng.aicommunitybackend.domain.dto.LikeBatchResult;
 import com.zheng.aicommunitybackend.domain.dto.LikeRecordDTO;
 import com.zheng.aicommunitybackend.domain.entity.CommunityPosts;
 import com.zheng.aicommunitybackend.domain.entity.LikeRecords;
@@ -18,17 +20,23 @@ import com.zheng.aicommunitybackend.mapper.PostCommentsMapper;
 import com.zheng.aicommunitybackend.service.LikeRecordsService;
 import com.zheng.aicommunitybackend.service.UsersService;
 import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.connection.ReturnType;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 // 导入MQ相关
@@ -40,6 +48,7 @@ import com.zheng.aicommunitybackend.service.MQProducerService;
 * @description 针对表【like_records(点赞记录表)】的数据库操作Service实现
 * @createDate 2025-07-10 11:03:49
 */
+@Slf4j
 @Service
 public class LikeRecordsServiceImpl extends ServiceImpl<LikeRecordsMapper, LikeRecords>
     implements LikeRecordsService {
@@ -58,6 +67,9 @@ public class LikeRecordsServiceImpl extends ServiceImpl<LikeRecordsMapper, LikeR
     
     @Autowired
     private MQProducerService mqProducerService;
+
+    @Autowired
+    private LikeCounterStore likeCounterStore;
     
     /**
      * 点赞类型：帖子
@@ -118,74 +130,46 @@ public class LikeRecordsServiceImpl extends ServiceImpl<LikeRecordsMapper, LikeR
      * @return
      */
     @Override
-    @Transactional
     public LikeStatusVO likeOrUnlikeRedis(LikeRecordDTO dto, Long userId) {
-        // 1. 校验目标是否存在
-        checkTargetExists(dto.getType(), dto.getTargetId());
+        // 1. 使用Redis Lua脚本原子更新用户点赞哈希、目标点赞用户集合与点赞数
+        LikeStatusVO status = likeCounterStore.toggle(userId, dto.getType(), dto.getTargetId());
 
-        // 2. 使用Redis Lua脚本处理点赞/取消点赞
-        String key = "community:like:" + userId;
-        String field = dto.getType() + ":" + dto.getTargetId();
-        
-        // 编写Lua脚本 - 修复脚本语法，确保正确闭合
-        String script = 
-                "local key = KEYS[1];\n" +
-                "local field = ARGV[1];\n" +
-                "local exists = redis.call('HEXISTS', key, field);\n" +
-                "if exists == 1 then\n" +
-                "   redis.call('HDEL', key, field);\n" +
-                "   return 0;\n" +
-                "else\n" +
-                "   redis.call('HSET', key, field, 1);\n" +
-                "   return 1;\n" +
-                "end";
-        
-        // 执行Lua脚本
-        Long result = (Long) redisTemplate.execute(
-                (RedisCallback<Object>) connection -> 
-                        connection.scriptingCommands().eval(
-                                script.getBytes(),
-                                ReturnType.INTEGER,
-                                1,
-                                key.getBytes(),
-                                field.getBytes()
-                        )
-        );
-        
-        // 3. 根据结果处理业务逻辑
-        boolean isLiked = (result != null && result == 1);
+        // 2. 冷目标：校验目标存在后从数据库预热，再重新执行
+        //    只有存在的目标才会被预热，已预热的目标无需再查询数据库
+        if (status == null) {
+            checkTargetExists(dto.getType(), dto.getTargetId());
+            likeCounterStore.warmUp(dto.getType(), dto.getTargetId());
+            status = likeCounterStore.toggle(userId, dto.getType(), dto.getTargetId());
+            if (status == null) {
+                throw new BaseException("点赞失败，请稍后重试");
+            }
+        }
         
-        // 4. 发送消息到MQ处理数据库操作
+        // 3. 发送消息到MQ处理数据库操作
         LikeActionMessage message = new LikeActionMessage(
                 userId,
                 dto.getType(),
                 dto.getTargetId(),
-                isLiked ? 1 : 0  // 1表示点赞，0表示取消点赞
+                status.getLiked() ? 1 : 0  // 1表示点赞，0表示取消点赞
         );
         mqProducerService.sendLikeMessageAsync(message);
         
-        // 5. 返回最新点赞状态
-        int likeCount = getLikeCount(dto.getType(), dto.getTargetId());
-        return new LikeStatusVO(isLiked, isLiked? likeCount + 1 : likeCount - 1);
+        // 4. 返回Redis中的最新点赞状态
+        return status;
     }
 
     @Override
     public LikeStatusVO getLikeStatus(Integer type, Long targetId, Long userId) {
-        // 1. 校验目标是否存在
+        LikeStatusVO status = likeCounterStore.getStatuses(userId, type, Collections.singletonList(targetId)).get(0);
+        if (status != null) {
+            return status;
+        }
+
+        // 冷目标：校验目标存在后预热
         checkTargetExists(type, targetId);
-        
-        // 2. 查询是否已点赞
-        LambdaQueryWrapper<LikeRecords> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.eq(LikeRecords::getUserId, userId)
-                .eq(LikeRecords::getTargetType, type)
-                .eq(LikeRecords::getTargetId, targetId);
-        
-        boolean isLiked = this.count(queryWrapper) > 0;
-        
-        // 3. 获取点赞数
-        int likeCount = getLikeCount(type, targetId);
-        
-        return new LikeStatusVO(isLiked, likeCount);
+        likeCounterStore.warmUp(type, targetId);
+        status = likeCounterStore.getStatuses(userId, type, Collections.singletonList(targetId)).get(0);
+        return status != null ? status : new LikeStatusVO(false, 0);
     }
 
     @Override
@@ -205,25 +189,31 @@ public class LikeRecordsServiceImpl extends ServiceImpl<LikeRecordsMapper, LikeR
             return new ArrayList<>();
         }
         
-        // 1. 批量查询用户点赞状态
-        LambdaQueryWrapper<LikeRecords> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.eq(LikeRecords::getUserId, userId)
-                .eq(LikeRecords::getTargetType, type)
-                .in(LikeRecords::getTargetId, targetIds);
-        
-        List<LikeRecords> userLikeRecords = this.list(queryWrapper);
-        List<Long> userLikedIds = userLikeRecords.stream()
-                .map(LikeRecords::getTargetId)
-                .collect(Collectors.toList());
-        
-        // 2. 获取每个目标的点赞数
-        List<LikeStatusVO> result = new ArrayList<>();
-        for (Long targetId : targetIds) {
-            boolean isLiked = userLikedIds.contains(targetId);
-            int likeCount = getLikeCount(type, targetId);
-            result.add(new LikeStatusVO(isLiked, likeCount));
+        // 1. 一次管道调用查询所有目标的点赞状态与点赞数
+        List<LikeStatusVO> result = likeCounterStore.getStatuses(userId, type, targetIds);
+
+        // 2. 收集未预热的目标
+        List<Long> coldIds = new ArrayList<>();
+        for (int i = 0; i < targetIds.size(); i++) {
+            if (result.get(i) == null) {
+                coldIds.add(targetIds.get(i));
+            }
+        }
+        if (coldIds.isEmpty()) {
+            return result;
+        }
+
+        // 3. 只预热实际存在的目标，再查询一次
+        for (Long targetId : findExistingTargetIds(type, coldIds)) {
+            likeCounterStore.warmUp(type, targetId);
+        }
+        List<LikeStatusVO> warmed = likeCounterStore.getStatuses(userId, type, coldIds);
+        for (int i = 0, j = 0; i < targetIds.size(); i++) {
+            if (result.get(i) == null) {
+                LikeStatusVO status = warmed.get(j++);
+                result.set(i, status != null ? status : new LikeStatusVO(false, 0));
+            }
         }
-        
         return result;
     }
 
@@ -375,6 +365,30 @@ public class LikeRecordsServiceImpl extends ServiceImpl<LikeRecordsMapper, LikeR
         }
     }
     
+    /**
+     * 批量查询实际存在的目标ID
+     * @param type 目标类型：1-帖子 2-评论
+     * @param targetIds 目标ID列表
+     * @return 存在的目标ID
+     */
+    private List<Long> findExistingTargetIds(Integer type, List<Long> targetIds) {
+        if (type == null) {
+            return Collections.emptyList();
+        }
+        if (TYPE_POST == type) {
+            return communityPostsMapper.selectList(new LambdaQueryWrapper<CommunityPosts>()
+                            .select(CommunityPosts::getId)
+                            .in(CommunityPosts::getId, targetIds))
+                    .stream().map(CommunityPosts::getId).collect(Collectors.toList());
+        } else if (TYPE_COMMENT == type) {
+            return postCommentsMapper.selectList(new LambdaQueryWrapper<PostComments>()
+                            .select(PostComments::getId)
+                            .in(PostComments::getId, targetIds))
+                    .stream().map(PostComments::getId).collect(Collectors.toList());
+        }
+        return Collections.emptyList();
+    }
+
     /**
      * 获取目标的点赞数
      * @param type 目标类型：1-帖子 2-评论
@@ -411,28 +425,91 @@ public class LikeRecordsServiceImpl extends ServiceImpl<LikeRecordsMapper, LikeR
             return;
         }
         
+        // 在数据库中原子累加，避免先查后改覆盖并发更新
+        Map<Long, Integer> deltas = Collections.singletonMap(targetId, count);
         if (TYPE_POST == type) {
-            // 更新帖子点赞数
-            CommunityPosts post = communityPostsMapper.selectById(targetId);
-            if (post != null) {
-                // 防止点赞数为负数
-                int newLikeCount = Math.max(0, post.getLikeCount() + count);
-                post.setLikeCount(newLikeCount);
-                communityPostsMapper.updateById(post);
-            }
+            communityPostsMapper.batchIncrementLikeCount(deltas);
         } else if (TYPE_COMMENT == type) {
-            // 更新评论点赞数
-            PostComments comment = postCommentsMapper.selectById(targetId);
-            if (comment != null) {
-                // 防止点赞数为负数
-                int newLikeCount = Math.max(0, comment.getLikeCount() + count);
-                comment.setLikeCount(newLikeCount);
-                postCommentsMapper.updateById(comment);
-            }
+            postCommentsMapper.batchIncrementLikeCount(deltas);
         }
     }
-}
 
+    @Override
+    @Transactional
+    public LikeBatchResult applyLikeActions(Collection<LikeActionMessage> actions) {
+        if (actions == null || actions.isEmpty()) {
+            return new LikeBatchResult(0, 0, 0);
+        }
 
+        // 1. 同一用户对同一目标的多次动作只保留最后一次
+        Map<String, LikeActionMessage> latest = new LinkedHashMap<>();
+        for (LikeActionMessage action : actions) {
+            if (action.getUserId() == null || action.getTargetType() == null || action.getTargetId() == null) {
+                continue;
+            }
+            latest.put(action.relationKey(), action);
+        }
 
+        // 2. 按目标分组，目标与用户都有序，保证并发批次以固定顺序加锁，降低死锁概率
+        Map<Integer, Map<Long, Set<Long>>> likes = new TreeMap<>();
+        Map<Integer, Map<Long, Set<Long>>> unlikes = new TreeMap<>();
+        for (LikeActionMessage action : latest.values()) {
+            Map<Integer, Map<Long, Set<Long>>> group =
+                    action.getActionType() != null && action.getActionType() == 1 ? likes : unlikes;
+            group.computeIfAbsent(action.getTargetType(), type -> new TreeMap<>())
+                    .computeIfAbsent(action.getTargetId(), id -> new TreeSet<>())
+                    .add(action.getUserId());
+        }
+
+        // 3. 每个目标一条INSERT IGNORE/DELETE，点赞数增量取自语句真正影响的行数，
+        // 而不是非锁定读得到的快照：重复投递或并发批次写同一条记录时，只有真正改变状态的那一次会计入点赞数
+        Map<Long, Integer> postDeltas = new TreeMap<>();
+        Map<Long, Integer> commentDeltas = new TreeMap<>();
+        Date now = new Date();
+        int inserted = 0;
+        int deleted = 0;
+        for (Map.Entry<Integer, Map<Long, Set<Long>>> typeEntry : likes.entrySet()) {
+            for (Map.Entry<Long, Set<Long>> targetEntry : typeEntry.getValue().entrySet()) {
+                int changed = baseMapper.insertIgnoreLikers(typeEntry.getKey(), targetEntry.getKey(), targetEntry.getValue(), now);
+                inserted += changed;
+                mergeDelta(postDeltas, commentDeltas, typeEntry.getKey(), targetEntry.getKey(), changed);
+            }
+        }
+        for (Map.Entry<Integer, Map<Long, Set<Long>>> typeEntry : unlikes.entrySet()) {
+            for (Map.Entry<Long, Set<Long>> targetEntry : typeEntry.getValue().entrySet()) {
+                int changed = baseMapper.deleteLikers(typeEntry.getKey(), targetEntry.getKey(), targetEntry.getValue());
+                deleted += changed;
+                mergeDelta(postDeltas, commentDeltas, typeEntry.getKey(), targetEntry.getKey(), -changed);
+            }
+        }
+
+        // 4. 每张表一条UPDATE批量更新点赞数
+        postDeltas.values().removeIf(delta -> delta == 0);
+        commentDeltas.values().removeIf(delta -> delta == 0);
+        if (!postDeltas.isEmpty()) {
+            communityPostsMapper.batchIncrementLikeCount(postDeltas);
+        }
+        if (!commentDeltas.isEmpty()) {
+            postCommentsMapper.batchIncrementLikeCount(commentDeltas);
+        }
 
+        log.debug("批量应用点赞动作: 动作数={}, 新增记录={}, 删除记录={}, 更新帖子={}, 更新评论={}",
+                actions.size(), inserted, deleted, postDeltas.size(), commentDeltas.size());
+        return new LikeBatchResult(inserted, deleted, postDeltas.size() + commentDeltas.size());
+    }
+
+    /**
+     * 累加目标的点赞数增量
+     */
+    private void mergeDelta(Map<Long, Integer> postDeltas, Map<Long, Integer> commentDeltas,
+                            Integer targetType, Long targetId, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        if (TYPE_POST == targetType) {
+            postDeltas.merge(targetId, delta, Integer::sum);
+        } else if (TYPE_COMMENT == targetType) {
+            commentDeltas.merge(targetId, delta, Integer::sum);
+        }
+    }
+}
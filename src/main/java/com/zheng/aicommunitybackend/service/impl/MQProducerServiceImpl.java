@@ -1,12 +1,14 @@
 package com.zheng.aicommunitybackend.service.impl;
 
 import com.zheng.aicommunitybackend.domain.dto.LikeActionMessage;
+import com.zheng.aicommunitybackend.domain.dto.RedPacketGrabMessage;
 import com.zheng.aicommunitybackend.service.MQProducerService;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.rocketmq.client.producer.SendCallback;
 import org.apache.rocketmq.client.producer.SendResult;
 import org.apache.rocketmq.client.producer.SendStatus;
 import org.apache.rocketmq.spring.core.RocketMQTemplate;
+import org.apache.rocketmq.spring.support.RocketMQHeaders;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.Message;
@@ -27,6 +29,9 @@ public class MQProducerServiceImpl implements MQProducerService {
     
     @Value("${mq.like.topic}")
     private String likeTopic;
+
+    @Value("${mq.red-packet.topic:red_packet_grab_topic}")
+    private String redPacketTopic;
     
     @Value("${rocketmq.producer.send-message-timeout}")
     private long sendTimeout;
@@ -227,4 +232,32 @@ public class MQProducerServiceImpl implements MQProducerService {
             return false;
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * 同步发送抢红包结算消息
+     * 抢红包接口在等待发送结果，这里不做退避重试，发送失败由调用方就地结算
+     *
+     * @param message 抢红包结算消息
+     * @return 是否发送成功
+     */
+    @Override
+    public boolean sendRedPacketGrabMessage(RedPacketGrabMessage message) {
+        Message<RedPacketGrabMessage> rocketMessage = MessageBuilder.withPayload(message)
+                .setHeader(RocketMQHeaders.KEYS, message.getTransactionNo())
+                .build();
+        try {
+            SendResult sendResult = rocketMQTemplate.syncSend(redPacketTopic, rocketMessage, sendTimeout);
+            if (sendResult.getSendStatus() == SendStatus.SEND_OK) {
+                log.debug("抢红包结算消息发送成功: msgId={}, transactionNo={}",
+                        sendResult.getMsgId(), message.getTransactionNo());
+                return true;
+            }
+            log.warn("抢红包结算消息发送状态异常: transactionNo={}, 状态: {}",
+                    message.getTransactionNo(), sendResult.getSendStatus());
+            return false;
+        } catch (Exception e) {
+            log.error("抢红包结算消息发送异常: transactionNo={}, 错误: {}", message.getTransactionNo(), e.getMessage());
+            return false;
+        }
+    }
+}
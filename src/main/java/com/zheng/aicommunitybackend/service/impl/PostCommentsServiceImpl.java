@@ -5,11 +5,13 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.zheng.aicommunitybackend.domain.dto.AdminCommentPageQuery;
 import com.zheng.aicommunitybackend.domain.dto.CommentCreateDTO;
+import com.zheng.aicommunitybackend.domain.dto.CommentCursorQuery;
 import com.zheng.aicommunitybackend.domain.dto.CommentPageQuery;
 import com.zheng.aicommunitybackend.domain.dto.CommentStatusDTO;
 import com.zheng.aicommunitybackend.domain.entity.CommunityPosts;
 import com.zheng.aicommunitybackend.domain.entity.PostComments;
 import com.zheng.aicommunitybackend.domain.entity.Users;
+import com.zheng.aicommunitybackend.domain.result.CursorPageResult;
 import com.zheng.aicommunitybackend.domain.result.PageResult;
 import com.zheng.aicommunitybackend.domain.vo.AdminCommentVO;
 import com.zheng.aicommunitybackend.domain.vo.CommentVO;
@@ -18,6 +20,7 @@ import com.zheng.aicommunitybackend.mapper.CommunityPostsMapper;
 import com.zheng.aicommunitybackend.mapper.PostCommentsMapper;
 import com.zheng.aicommunitybackend.mapper.UsersMapper;
 import com.zheng.aicommunitybackend.service.PostCommentsService;
+import com.zheng.aicommunitybackend.util.CursorUtil;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -75,6 +78,9 @@ public class PostCommentsServiceImpl extends ServiceImpl<PostCommentsMapper, Pos
         comment.setCreateTime(new Date());
         this.save(comment);
         
+        // 4. 同一事务内累加帖子评论数
+        adjustCommentCounts(Collections.singletonMap(dto.getPostId(), 1));
+        
         return comment.getId();
     }
 
@@ -93,14 +99,20 @@ public class PostCommentsServiceImpl extends ServiceImpl<PostCommentsMapper, Pos
         }
         
         // 3. 如果是一级评论，则同时删除其下所有的二级评论
+        int removedVisible = comment.getStatus() == 1 ? 1 : 0;
         if (comment.getParentId() == 0) {
+            removedVisible += Math.toIntExact(this.count(new LambdaQueryWrapper<PostComments>()
+                    .eq(PostComments::getParentId, commentId)
+                    .eq(PostComments::getStatus, 1)));
             LambdaQueryWrapper<PostComments> wrapper = new LambdaQueryWrapper<>();
             wrapper.eq(PostComments::getParentId, commentId);
             this.remove(wrapper);
         }
         
-        // 4. 删除当前评论
-        return this.removeById(commentId);
+        // 4. 删除当前评论，并在同一事务内扣减帖子评论数
+        boolean removed = this.removeById(commentId);
+        adjustCommentCounts(Collections.singletonMap(comment.getPostId(), -removedVisible));
+        return removed;
     }
 
     @Override
@@ -131,6 +143,32 @@ public class PostCommentsServiceImpl extends ServiceImpl<PostCommentsMapper, Pos
         return new PageResult<>(page.getTotal(), commentVOList);
     }
     
+    @Override
+    public CursorPageResult<CommentVO> pageCommentsByCursor(CommentCursorQuery query, Long userId) {
+        // 1. 查询帖子是否存在
+        CommunityPosts post = communityPostsMapper.selectById(query.getPostId());
+        if (post == null) {
+            throw new BaseException("帖子不存在");
+        }
+        
+        // 2. 构建查询条件 - 只查询一级评论
+        LambdaQueryWrapper<PostComments> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.eq(PostComments::getPostId, query.getPostId())
+                .eq(PostComments::getParentId, 0)
+                .eq(PostComments::getStatus, 1);
+        
+        // 3. 按 (创建时间, ID) 倒序从游标处向后取一页，不查询总数
+        CursorUtil.seekBefore(queryWrapper, PostComments::getCreateTime, PostComments::getId,
+                query.getCursor(), query.getPageSize());
+        List<PostComments> comments = this.list(queryWrapper);
+        String nextCursor = CursorUtil.nextCursor(comments, query.getPageSize(),
+                PostComments::getCreateTime, PostComments::getId);
+        
+        // 4. 数据转换
+        List<CommentVO> commentVOList = convertToCommentVOList(comments, post, userId);
+        return new CursorPageResult<>(commentVOList, nextCursor, nextCursor != null);
+    }
+    
     @Override
     public List<CommentVO> getCommentReplies(Long commentId, Long userId) {
         // 1. 查询评论是否存在
@@ -164,10 +202,11 @@ public class PostCommentsServiceImpl extends ServiceImpl<PostCommentsMapper, Pos
 
     @Override
     public Integer countCommentsByPostId(Long postId) {
-        LambdaQueryWrapper<PostComments> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(PostComments::getPostId, postId)
-                .eq(PostComments::getStatus, 1);
-        return Math.toIntExact(this.count(wrapper));
+        // 读取帖子上维护的评论数，不扫描评论表
+        CommunityPosts post = communityPostsMapper.selectOne(new LambdaQueryWrapper<CommunityPosts>()
+                .select(CommunityPosts::getId, CommunityPosts::getCommentCount)
+                .eq(CommunityPosts::getId, postId));
+        return post != null && post.getCommentCount() != null ? post.getCommentCount() : 0;
     }
     
     @Override
@@ -176,22 +215,17 @@ public class PostCommentsServiceImpl extends ServiceImpl<PostCommentsMapper, Pos
             return new HashMap<>();
         }
         
-        // 批量查询所有帖子的评论（包括一级和二级）
-        LambdaQueryWrapper<PostComments> wrapper = new LambdaQueryWrapper<>();
-        wrapper.in(PostComments::getPostId, postIds)
-                .eq(PostComments::getStatus, 1);
-        
-        List<PostComments> comments = this.list(wrapper);
-        
-        // 按帖子ID分组统计评论数量
         Map<Long, Integer> commentCountMap = new HashMap<>();
         for (Long postId : postIds) {
             commentCountMap.put(postId, 0);
         }
         
-        for (PostComments comment : comments) {
-            Long postId = comment.getPostId();
-            commentCountMap.put(postId, commentCountMap.get(postId) + 1);
+        // 只读取帖子上维护的评论数，不扫描评论表
+        List<CommunityPosts> posts = communityPostsMapper.selectList(new LambdaQueryWrapper<CommunityPosts>()
+                .select(CommunityPosts::getId, CommunityPosts::getCommentCount)
+                .in(CommunityPosts::getId, postIds));
+        for (CommunityPosts post : posts) {
+            commentCountMap.put(post.getId(), post.getCommentCount() != null ? post.getCommentCount() : 0);
         }
         
         return commentCountMap;
@@ -311,9 +345,12 @@ public class PostCommentsServiceImpl extends ServiceImpl<PostCommentsMapper, Pos
             throw new BaseException("评论不存在");
         }
         
-        // 2. 更新评论状态
+        // 2. 更新评论状态，显示状态变化时同步帖子评论数
+        int delta = visibleDelta(comment.getStatus(), dto.getStatus());
         comment.setStatus(dto.getStatus());
-        return this.updateById(comment);
+        boolean updated = this.updateById(comment);
+        adjustCommentCounts(Collections.singletonMap(comment.getPostId(), delta));
+        return updated;
     }
     
     @Override
@@ -323,24 +360,66 @@ public class PostCommentsServiceImpl extends ServiceImpl<PostCommentsMapper, Pos
             return true;
         }
         
-        // 1. 查询一级评论
+        // 1. 批量查询选中的评论，区分一级评论，并统计各帖子被删除的显示评论数
+        List<PostComments> comments = this.listByIds(ids);
         List<Long> rootCommentIds = new ArrayList<>();
-        for (Long id : ids) {
-            PostComments comment = this.getById(id);
-            if (comment != null && comment.getParentId() == 0) {
-                rootCommentIds.add(id);
+        Map<Long, Integer> deltas = new TreeMap<>();
+        Set<Long> selectedIds = new HashSet<>();
+        for (PostComments comment : comments) {
+            selectedIds.add(comment.getId());
+            if (comment.getParentId() == 0) {
+                rootCommentIds.add(comment.getId());
+            }
+            if (comment.getStatus() == 1) {
+                deltas.merge(comment.getPostId(), -1, Integer::sum);
             }
         }
         
-        // 2. 删除一级评论下的所有回复
+        // 2. 删除一级评论下的所有回复（已在选中列表中的回复不重复计数）
         if (!rootCommentIds.isEmpty()) {
+            List<PostComments> replies = this.list(new LambdaQueryWrapper<PostComments>()
+                    .select(PostComments::getId, PostComments::getPostId)
+                    .in(PostComments::getParentId, rootCommentIds)
+                    .eq(PostComments::getStatus, 1));
+            for (PostComments reply : replies) {
+                if (!selectedIds.contains(reply.getId())) {
+                    deltas.merge(reply.getPostId(), -1, Integer::sum);
+                }
+            }
             LambdaQueryWrapper<PostComments> wrapper = new LambdaQueryWrapper<>();
             wrapper.in(PostComments::getParentId, rootCommentIds);
             this.remove(wrapper);
         }
         
-        // 3. 删除选中的评论
-        return this.removeByIds(ids);
+        // 3. 删除选中的评论，并在同一事务内扣减帖子评论数
+        boolean removed = this.removeByIds(ids);
+        adjustCommentCounts(deltas);
+        return removed;
+    }
+    
+    /**
+     * 累加帖子评论数（community_posts.comment_count 只统计显示状态的评论，包括回复）
+     * @param deltas 帖子ID -> 评论数增量
+     */
+    private void adjustCommentCounts(Map<Long, Integer> deltas) {
+        Map<Long, Integer> nonZero = new TreeMap<>();
+        deltas.forEach((postId, delta) -> {
+            if (delta != 0) {
+                nonZero.put(postId, delta);
+            }
+        });
+        if (!nonZero.isEmpty()) {
+            communityPostsMapper.batchIncrementCommentCount(nonZero);
+        }
+    }
+    
+    /**
+     * 评论状态变更对评论数的影响：进入显示状态+1，离开显示状态-1
+     */
+    private int visibleDelta(Integer oldStatus, Integer newStatus) {
+        boolean wasVisible = Integer.valueOf(1).equals(oldStatus);
+        boolean isVisible = Integer.valueOf(1).equals(newStatus);
+        return wasVisible == isVisible ? 0 : (isVisible ? 1 : -1);
     }
     
     @Override
@@ -4,27 +4,33 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.zheng.aicommunitybackend.component.RedPacketShardRouter;
+import com.zheng.aicommunitybackend.component.RedisLock;
+import com.zheng.aicommunitybackend.component.RedisScriptRegistry;
 import com.zheng.aicommunitybackend.domain.dto.RedPacketActivityCreateDTO;
 import com.zheng.aicommunitybackend.domain.dto.RedPacketActivityQueryDTO;
+import com.zheng.aicommunitybackend.domain.dto.RedPacketGrabMessage;
 import com.zheng.aicommunitybackend.domain.entity.*;
 import com.zheng.aicommunitybackend.domain.vo.RedPacketActivityListVO;
 import com.zheng.aicommunitybackend.domain.vo.RedPacketActivityVO;
 import com.zheng.aicommunitybackend.domain.vo.RedPacketGrabVO;
 import com.zheng.aicommunitybackend.domain.vo.RedPacketRecordVO;
 import com.zheng.aicommunitybackend.mapper.*;
+import com.zheng.aicommunitybackend.service.MQProducerService;
 import com.zheng.aicommunitybackend.service.RedPacketService;
-import com.zheng.aicommunitybackend.service.UserAccountsService;
+import com.zheng.aicommunitybackend.service.RedPacketSettlementService;
 import com.zheng.aicommunitybackend.util.RedPacketAlgorithm;
+import com.zheng.aicommunitybackend.utils.RedisUtils;
 import com.zheng.aicommunitybackend.exception.BaseException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.*;
@@ -51,19 +57,66 @@ public class RedPacketServiceImpl extends ServiceImpl<RedPacketActivitiesMapper,
     private RedPacketActivityConfigMapper configMapper;
     
     @Autowired
-    private UserAccountsService userAccountsService;
-    
+    private StringRedisTemplate stringRedisTemplate;
+
     @Autowired
-    private RedisTemplate<String, Object> redisTemplate;
+    private RedisScriptRegistry scriptRegistry;
 
     @Autowired
-    private StringRedisTemplate stringRedisTemplate;
+    private RedPacketShardRouter shardRouter;
+
+    @Autowired
+    private RedisUtils redisUtils;
+
+    @Autowired
+    private RedisLock redisLock;
+
+    @Autowired
+    private MQProducerService mqProducerService;
+
+    @Autowired
+    private RedPacketSettlementService settlementService;
 
     // Redis Key 前缀
     private static final String ACTIVITY_QUEUE_KEY = "red_packet:activity:%d:queue";
     private static final String ACTIVITY_INFO_KEY = "red_packet:activity:%d:info";
     private static final String USER_GRABBED_KEY = "red_packet:user:%d:grabbed";
     private static final String ACTIVITY_LOCK_KEY = "red_packet:activity:%d:lock";
+    private static final String ACTIVITY_GRABS_KEY = "red_packet:activity:%d:grabs";
+    private static final String ACTIVITY_GRABS_PATTERN = "red_packet:activity:*:grabs";
+    private static final String ACTIVITY_KEY_PREFIX = "red_packet:activity:";
+    private static final String SETTLE_LOST_GRABS_LOCK_KEY = "red_packet:settle:lost-grabs:lock";
+
+    /**
+     * 抢红包脚本返回的活动信息未加载原因
+     */
+    private static final String GRAB_NOT_LOADED = "not_loaded";
+
+    /**
+     * 活动缓存在活动结束后额外保留的时间（秒）
+     */
+    private static final long ACTIVITY_EXPIRE_EXTRA_SECONDS = 3600;
+
+    /**
+     * 活动状态：已结束
+     */
+    private static final int ACTIVITY_STATUS_ENDED = 2;
+
+    /**
+     * 补结算时每批处理的抢红包流水数
+     */
+    private static final int GRABS_SCAN_BATCH_SIZE = 500;
+
+    /**
+     * 补结算锁过期时间（秒），正常一轮扫描远小于该值，节点宕机时锁自动过期
+     */
+    private static final long SETTLE_LOST_GRABS_LOCK_SECONDS = 300;
+
+    /**
+     * 抢到红包后超过该时间仍未结算的流水由补偿任务补结算（毫秒）
+     */
+    @Value("${red-packet.settlement.grace-millis:60000}")
+    private long settleGraceMillis;
 
     @Override
     @Transactional
@@ -239,183 +292,147 @@ public class RedPacketServiceImpl extends ServiceImpl<RedPacketActivitiesMapper,
     public RedPacketGrabVO grabRedPacket(Long userId, Long activityId) {
         log.info("用户 {} 尝试抢红包，活动ID: {}", userId, activityId);
         
-        // 1. 检查活动状态
-        RedPacketActivities activity = getById(activityId);
-        if (activity == null) {
-            return RedPacketGrabVO.failure("活动不存在");
-        }
-        
-        if (activity.getStatus() != 1) {
-            if (activity.getStatus() == 0) {
-                return RedPacketGrabVO.activityNotStarted();
-            } else {
-                return RedPacketGrabVO.activityEnded();
-            }
-        }
-        
-        // 2. 检查时间
-        Date now = new Date();
-        if (now.before(activity.getStartTime())) {
-            return RedPacketGrabVO.activityNotStarted();
-        }
-        if (now.after(activity.getEndTime())) {
-            return RedPacketGrabVO.activityEnded();
-        }
-        
-        // 3. 使用Redis Lua脚本原子性抢红包
         try {
-            String queueKey = String.format(ACTIVITY_QUEUE_KEY, activityId);
-            String userKey = String.format(USER_GRABBED_KEY, userId);
-
-            String luaScript =
-                "local queueKey = KEYS[1] " +
-                "local userKey = KEYS[2] " +
-                "local userId = ARGV[1] " +
-                "local activityId = ARGV[2] " +
-
-                "if redis.call('SISMEMBER', userKey, activityId) == 1 then " +
-                    "return {0, 'already_grabbed'} " +
-                "end " +
-
-                "local packetId = redis.call('LPOP', queueKey) " +
-                "if not packetId then " +
-                    "return {0, 'no_packet'} " +
-                "end " +
-
-                "redis.call('SADD', userKey, activityId) " +
-                "redis.call('EXPIRE', userKey, 86400) " +
-                "return {1, packetId}";
-
-            DefaultRedisScript<List> script = new DefaultRedisScript<>();
-            script.setScriptText(luaScript);
-            script.setResultType(List.class);
-
-            // 使用StringRedisTemplate执行Lua脚本，避免JSON序列化问题
-            @SuppressWarnings("unchecked")
-            List<Object> result = stringRedisTemplate.execute(
-                script,
-                Arrays.asList(queueKey, userKey),
-                userId.toString(), activityId.toString());
+            // 1. 使用Redis Lua脚本原子性校验活动状态、时间窗口并抢红包，超热活动按分片抢
+            int shards = shardRouter.getShardCount(activityId);
+            List<Object> result = executeGrab(userId, activityId, shards);
+
+            // 2. 活动信息不在Redis中（未预加载或已过期），回源数据库校验后加载，之后的请求由脚本直接判断
+            if (result != null && result.size() == 2 && GRAB_NOT_LOADED.equals(result.get(1).toString())) {
+                RedPacketGrabVO rejected = checkActivityFromDatabase(activityId);
+                if (rejected != null) {
+                    return rejected;
+                }
+                reloadActivityToRedis(activityId);
+                shards = shardRouter.getShardCount(activityId);
+                result = executeGrab(userId, activityId, shards);
+            }
 
             if (result == null || result.size() != 2) {
                 return RedPacketGrabVO.systemBusy();
             }
 
-            // 使用StringRedisSerializer后，返回值都是字符串
             String successStr = result.get(0).toString();
             Integer success = Integer.valueOf(successStr);
 
             if (success == 0) {
-                String reason = result.get(1).toString();
-                if ("already_grabbed".equals(reason)) {
-                    return RedPacketGrabVO.alreadyGrabbed();
-                } else {
-                    return RedPacketGrabVO.noPacketLeft();
-                }
+                return grabFailure(result.get(1).toString());
             }
 
-            // 4. 抢到红包，更新数据库
-            String packetIdStr = result.get(1).toString();
-            Long packetId = Long.valueOf(packetIdStr);
-            return processGrabbedRedPacket(userId, activityId, packetId);
+            // 3. 抢到红包，队列元素为 红包ID:金额:序号；投递结算消息后立即返回，数据库写入由结算消费者批量完成
+            String[] packet = result.get(1).toString().split(":");
+            Long packetId = Long.valueOf(packet[0]);
+            Long amount = Long.valueOf(packet[1]);
+            Integer packetIndex = Integer.valueOf(packet[2]);
+
+            Date grabTime = new Date();
+            String transactionNo = generateTransactionNo(activityId, packetId, grabTime.getTime());
+            RedPacketGrabMessage message = new RedPacketGrabMessage(activityId, userId, packetId,
+                    amount, packetIndex, transactionNo, grabTime.getTime());
+            dispatchSettlement(message);
+
+            RedPacketGrabVO grabVO = RedPacketGrabVO.success(amount, transactionNo, grabTime);
+            grabVO.setActivityId(activityId);
+            grabVO.setPacketIndex(packetIndex);
+
+            log.info("用户 {} 成功抢到红包，金额: {}分, 交易号: {}", userId, amount, transactionNo);
+            return grabVO;
         } catch (Exception e) {
+            // Redis已分配但未能投递结算的红包记录在抢红包流水中，由补偿任务补结算
             log.error("Redis操作异常，用户: {}, 活动: {}", userId, activityId, e);
             return RedPacketGrabVO.systemBusy();
         }
     }
 
     /**
-     * 处理抢到的红包
+     * 执行抢红包脚本
      */
-    @Transactional
-    public RedPacketGrabVO processGrabbedRedPacket(Long userId, Long activityId, Long packetId) {
-        try {
-            Date grabTime = new Date();
-            
-            // 1. 更新红包详情状态
-            int updateResult = detailsMapper.grabRedPacket(packetId, userId, grabTime);
-            if (updateResult == 0) {
-                log.warn("红包已被抢走，用户: {}, 红包ID: {}", userId, packetId);
-                return RedPacketGrabVO.noPacketLeft();
-            }
-            
-            // 2. 获取红包信息
-            RedPacketDetails packet = detailsMapper.selectById(packetId);
-            if (packet == null) {
-                log.error("红包详情不存在，红包ID: {}", packetId);
-                return RedPacketGrabVO.systemBusy();
-            }
-            
-            // 3. 生成交易流水号
-            String transactionNo = generateTransactionNo(activityId, userId);
-            
-            // 4. 创建抢红包记录
-            RedPacketRecords record = new RedPacketRecords();
-            record.setActivityId(activityId);
-            record.setUserId(userId);
-            record.setPacketDetailId(packetId);
-            record.setAmount(packet.getAmount());
-            record.setTransactionNo(transactionNo);
-            record.setGrabTime(grabTime);
-            record.setAccountUpdated(0);
-            record.setCreatedTime(grabTime);
-            recordsMapper.insert(record);
-            
-            // 5. 更新活动统计
-            activitiesMapper.updateActivityStats(activityId, packet.getAmount());
-            
-            // 6. 异步更新用户账户余额
-            updateUserAccountAsync(userId, packet.getAmount(), transactionNo, record.getId());
-            
-            // 7. 构造返回结果
-            RedPacketGrabVO result = RedPacketGrabVO.success(packet.getAmount(), transactionNo, grabTime);
-            result.setActivityId(activityId);
-            result.setPacketIndex(packet.getPacketIndex());
-            
-            log.info("用户 {} 成功抢到红包，金额: {}分, 交易号: {}", userId, packet.getAmount(), transactionNo);
-            return result;
-            
-        } catch (Exception e) {
-            log.error("处理抢红包失败，用户: {}, 活动: {}, 红包: {}", userId, activityId, packetId, e);
-            return RedPacketGrabVO.systemBusy();
+    private List<Object> executeGrab(Long userId, Long activityId, int shards) {
+        if (shards > RedPacketShardRouter.SINGLE_SHARD) {
+            return shardRouter.grab(userId, activityId, shards);
         }
+        return scriptRegistry.execute(RedisScriptRegistry.Script.RED_PACKET_GRAB,
+                Arrays.asList(String.format(ACTIVITY_QUEUE_KEY, activityId),
+                        String.format(USER_GRABBED_KEY, userId),
+                        String.format(ACTIVITY_GRABS_KEY, activityId),
+                        String.format(ACTIVITY_INFO_KEY, activityId)),
+                userId.toString(), activityId.toString());
     }
 
     /**
-     * 异步更新用户账户余额
+     * 将脚本返回的失败原因转换为抢红包结果
      */
-    private void updateUserAccountAsync(Long userId, Long amount, String transactionNo, Long recordId) {
-        // 这里可以使用消息队列异步处理，暂时同步处理
-        try {
-            // 抢红包是增加余额，直接调用Mapper的updateBalance方法
-            BigDecimal amountDecimal = new BigDecimal(amount).divide(new BigDecimal(100));
+    private RedPacketGrabVO grabFailure(String reason) {
+        switch (reason) {
+            case "already_grabbed":
+                return RedPacketGrabVO.alreadyGrabbed();
+            case "not_started":
+                return RedPacketGrabVO.activityNotStarted();
+            case "ended":
+                return RedPacketGrabVO.activityEnded();
+            case GRAB_NOT_LOADED:
+                return RedPacketGrabVO.systemBusy();
+            default:
+                return RedPacketGrabVO.noPacketLeft();
+        }
+    }
 
-            // 确保用户账户存在
-            userAccountsService.createAccount(userId);
+    /**
+     * 活动信息不在Redis中时从数据库校验活动
+     * 未开始的活动同样需要加载，开始前的请求由脚本按状态与时间直接拒绝
+     * @return 无需加载时的结果，需要加载时返回null
+     */
+    private RedPacketGrabVO checkActivityFromDatabase(Long activityId) {
+        RedPacketActivities activity = getById(activityId);
+        if (activity == null) {
+            return RedPacketGrabVO.failure("活动不存在");
+        }
+        
+        if (activity.getStatus() != 0 && activity.getStatus() != 1) {
+            return RedPacketGrabVO.activityEnded();
+        }
+        if (new Date().after(activity.getEndTime())) {
+            return RedPacketGrabVO.activityEnded();
+        }
+        return null;
+    }
 
-            // 直接更新余额，使用正数表示增加
-            // 注意：consume方法传入负数表示增加余额
-            boolean updateResult = userAccountsService.consume(userId, amountDecimal.negate(), "抢红包-" + transactionNo);
+    /**
+     * 重新加载活动到Redis，同一活动同时只有一个请求执行加载
+     */
+    private void reloadActivityToRedis(Long activityId) {
+        String lockKey = String.format(ACTIVITY_LOCK_KEY, activityId);
+        Boolean locked = stringRedisTemplate.opsForValue().setIfAbsent(lockKey, "1", 10, TimeUnit.SECONDS);
+        if (!Boolean.TRUE.equals(locked)) {
+            return;
+        }
+        try {
+            log.warn("活动信息不在Redis中，重新加载，活动ID: {}", activityId);
+            preloadActivityToRedis(activityId);
+        } finally {
+            stringRedisTemplate.delete(lockKey);
+        }
+    }
 
-            if (updateResult) {
-                recordsMapper.updateAccountStatus(recordId, 1);
-                log.info("用户账户更新成功，用户: {}, 金额: {}分", userId, amount);
-            } else {
-                log.error("用户账户更新失败，用户: {}, 金额: {}分", userId, amount);
-            }
+    /**
+     * 投递抢红包结算消息，投递失败时就地结算
+     */
+    private void dispatchSettlement(RedPacketGrabMessage message) {
+        if (mqProducerService.sendRedPacketGrabMessage(message)) {
+            return;
+        }
+        try {
+            settlementService.settleGrabs(Collections.singletonList(message));
         } catch (Exception e) {
-            log.error("异步更新用户账户失败，用户: {}, 金额: {}分", userId, amount, e);
+            log.error("抢红包就地结算失败，等待补偿任务处理，交易号: {}", message.getTransactionNo(), e);
         }
     }
 
     /**
-     * 生成交易流水号
+     * 生成交易流水号，红包ID全局唯一，保证流水号不重复
      */
-    private String generateTransactionNo(Long activityId, Long userId) {
-        return String.format("RP%d%d%d", 
-                System.currentTimeMillis(), 
-                activityId, 
-                userId % 10000);
+    private String generateTransactionNo(Long activityId, Long packetId, long grabTime) {
+        return String.format("RP%d%d%d", grabTime, activityId, packetId);
     }
 
     /**
@@ -477,6 +494,9 @@ public class RedPacketServiceImpl extends ServiceImpl<RedPacketActivitiesMapper,
         activity.setStatus(3);
         activity.setUpdatedTime(new Date());
         updateById(activity);
+
+        // 未开始的活动可能已因抢红包请求加载到Redis
+        clearActivityFromRedis(activityId);
         
         log.info("活动已取消，活动ID: {}, 操作者: {}", activityId, operatorId);
         return true;
@@ -533,40 +553,87 @@ public class RedPacketServiceImpl extends ServiceImpl<RedPacketActivitiesMapper,
     @Override
     public boolean preloadActivityToRedis(Long activityId) {
         try {
-            // 获取可抢红包ID列表
-            List<Long> packetIds = detailsMapper.selectAvailablePacketIds(activityId);
-            if (packetIds.isEmpty()) {
-                log.warn("活动没有可抢红包，活动ID: {}", activityId);
+            RedPacketActivities activity = getById(activityId);
+            if (activity == null) {
+                log.warn("活动不存在，活动ID: {}", activityId);
                 return false;
             }
-            
+
             String queueKey = String.format(ACTIVITY_QUEUE_KEY, activityId);
             String infoKey = String.format(ACTIVITY_INFO_KEY, activityId);
+            String grabsKey = String.format(ACTIVITY_GRABS_KEY, activityId);
+            int shards = shardRouter.decideShardCount(activityId, activity.getTotalCount());
             
-            // 清空旧数据
-            stringRedisTemplate.delete(queueKey);
-            redisTemplate.delete(infoKey);
+            // 清空旧数据；活动信息删除后脚本不再出队，此后读取的流水与红包状态不会再变化
+            List<String> staleKeys = new ArrayList<>(Arrays.asList(infoKey, queueKey));
+            staleKeys.addAll(RedPacketShardRouter.shardKeys(activityId, shards, "info"));
+            staleKeys.addAll(RedPacketShardRouter.shardKeys(activityId, shards, "queue"));
+            stringRedisTemplate.delete(staleKeys);
+
+            // 已抢走但尚未结算的红包在数据库中仍是未抢状态，按抢红包流水排除
+            List<String> grabsKeys = new ArrayList<>(Collections.singletonList(grabsKey));
+            grabsKeys.addAll(RedPacketShardRouter.shardKeys(activityId, shards, "grabs"));
+            Set<Long> pendingPacketIds = new HashSet<>();
+            for (String key : grabsKeys) {
+                for (Object value : stringRedisTemplate.opsForHash().values(key)) {
+                    pendingPacketIds.add(Long.valueOf(value.toString().split(":")[0]));
+                }
+            }
 
-            // 将红包ID加入队列
-            for (Long packetId : packetIds) {
-                stringRedisTemplate.opsForList().rightPush(queueKey, packetId.toString());
+            // 红包ID、金额、序号一起入队，抢红包时无需再查询红包详情；分片模式下轮流分配到各分片
+            List<List<String>> shardEntries = new ArrayList<>(shards);
+            for (int shard = 0; shard < shards; shard++) {
+                shardEntries.add(new ArrayList<>());
+            }
+            int entryCount = 0;
+            for (RedPacketDetails packet : detailsMapper.selectAvailablePackets(activityId)) {
+                if (!pendingPacketIds.contains(packet.getId())) {
+                    shardEntries.get(entryCount++ % shards)
+                            .add(packet.getId() + ":" + packet.getAmount() + ":" + packet.getPacketIndex());
+                }
+            }
+
+            // 缓存保留到活动结束后一小时
+            long expireSeconds = Math.max(activity.getEndTime().getTime() - System.currentTimeMillis(), 0) / 1000
+                    + ACTIVITY_EXPIRE_EXTRA_SECONDS;
+            for (int shard = 0; shard < shards; shard++) {
+                List<String> entries = shardEntries.get(shard);
+                if (entries.isEmpty()) {
+                    continue;
+                }
+                String key = shards > RedPacketShardRouter.SINGLE_SHARD
+                        ? RedPacketShardRouter.shardKey(activityId, shard, "queue") : queueKey;
+                stringRedisTemplate.opsForList().rightPushAll(key, entries);
+                stringRedisTemplate.expire(key, expireSeconds, TimeUnit.SECONDS);
             }
-            stringRedisTemplate.expire(queueKey, 24, TimeUnit.HOURS);
             
-            // 保存活动信息
-            RedPacketActivities activity = getById(activityId);
-            Map<String, Object> activityInfo = new HashMap<>();
-            activityInfo.put("id", activity.getId());
+            // 保存活动信息，状态与时间窗口供抢红包脚本校验；无可抢红包时同样写入，避免抢红包回源数据库
+            Map<String, String> activityInfo = new HashMap<>();
+            activityInfo.put("id", String.valueOf(activity.getId()));
             activityInfo.put("name", activity.getActivityName());
-            activityInfo.put("totalCount", activity.getTotalCount());
-            activityInfo.put("totalAmount", activity.getTotalAmount());
-            activityInfo.put("startTime", activity.getStartTime().getTime());
-            activityInfo.put("endTime", activity.getEndTime().getTime());
+            activityInfo.put("totalCount", String.valueOf(activity.getTotalCount()));
+            activityInfo.put("totalAmount", String.valueOf(activity.getTotalAmount()));
+            activityInfo.put("status", String.valueOf(activity.getStatus()));
+            activityInfo.put("startTime", String.valueOf(activity.getStartTime().getTime()));
+            activityInfo.put("endTime", String.valueOf(activity.getEndTime().getTime()));
+            activityInfo.put("shards", String.valueOf(shards));
             
-            redisTemplate.opsForHash().putAll(infoKey, activityInfo);
-            redisTemplate.expire(infoKey, 24, TimeUnit.HOURS);
-            
-            log.info("活动预加载到Redis成功，活动ID: {}, 红包数量: {}", activityId, packetIds.size());
+            // 分片模式下每个分片保存一份活动信息，与分片队列同属一个哈希槽
+            List<String> infoKeys = new ArrayList<>(Collections.singletonList(infoKey));
+            if (shards > RedPacketShardRouter.SINGLE_SHARD) {
+                infoKeys.addAll(RedPacketShardRouter.shardKeys(activityId, shards, "info"));
+            }
+            for (String key : infoKeys) {
+                stringRedisTemplate.opsForHash().putAll(key, activityInfo);
+                stringRedisTemplate.expire(key, expireSeconds, TimeUnit.SECONDS);
+            }
+            shardRouter.saveShardCount(activityId, shards, expireSeconds);
+
+            if (entryCount == 0) {
+                log.warn("活动没有可抢红包，活动ID: {}", activityId);
+                return false;
+            }
+            log.info("活动预加载到Redis成功，活动ID: {}, 红包数量: {}, 分片数: {}", activityId, entryCount, shards);
             return true;
             
         } catch (Exception e) {
@@ -581,8 +648,20 @@ public class RedPacketServiceImpl extends ServiceImpl<RedPacketActivitiesMapper,
             String queueKey = String.format(ACTIVITY_QUEUE_KEY, activityId);
             String infoKey = String.format(ACTIVITY_INFO_KEY, activityId);
             
-            stringRedisTemplate.delete(queueKey);
-            redisTemplate.delete(infoKey);
+            // 活动信息只保留已结束状态，结束后的抢红包请求仍由脚本直接拒绝；
+            // 抢红包流水保留到自然过期，供补偿任务补结算
+            int shards = shardRouter.getShardCount(activityId);
+            List<String> infoKeys = new ArrayList<>(Collections.singletonList(infoKey));
+            List<String> queueKeys = new ArrayList<>(Collections.singletonList(queueKey));
+            if (shards > RedPacketShardRouter.SINGLE_SHARD) {
+                infoKeys.addAll(RedPacketShardRouter.shardKeys(activityId, shards, "info"));
+                queueKeys.addAll(RedPacketShardRouter.shardKeys(activityId, shards, "queue"));
+            }
+            stringRedisTemplate.delete(queueKeys);
+            for (String key : infoKeys) {
+                stringRedisTemplate.opsForHash().put(key, "status", String.valueOf(ACTIVITY_STATUS_ENDED));
+                stringRedisTemplate.expire(key, ACTIVITY_EXPIRE_EXTRA_SECONDS, TimeUnit.SECONDS);
+            }
             
             log.info("清理活动Redis数据成功，活动ID: {}", activityId);
             return true;
@@ -594,25 +673,17 @@ public class RedPacketServiceImpl extends ServiceImpl<RedPacketActivitiesMapper,
     }
 
     @Override
-    @Transactional
     public int processUnprocessedRecords(Integer limit) {
+        // 1. 补结算结算消息丢失的抢红包
+        int recoveredCount = settleLostGrabs(limit);
+
+        // 2. 补入账记录已写入但账户未更新的抢红包
         List<RedPacketRecords> records = recordsMapper.selectUnprocessedRecords(limit);
         int processedCount = 0;
         
         for (RedPacketRecords record : records) {
             try {
-                BigDecimal amount = new BigDecimal(record.getAmount()).divide(new BigDecimal(100));
-
-                // 确保用户账户存在
-                userAccountsService.createAccount(record.getUserId());
-
-                // 直接更新余额，使用正数表示增加
-                // 注意：consume方法传入负数表示增加余额
-                boolean updateResult = userAccountsService.consume(record.getUserId(),
-                        amount.negate(), "抢红包补偿-" + record.getTransactionNo());
-
-                if (updateResult) {
-                    recordsMapper.updateAccountStatus(record.getId(), 1);
+                if (settlementService.compensateAccount(record)) {
                     processedCount++;
                     log.info("补偿处理成功，记录ID: {}, 用户: {}, 金额: {}分",
                             record.getId(), record.getUserId(), record.getAmount());
@@ -625,8 +696,135 @@ public class RedPacketServiceImpl extends ServiceImpl<RedPacketActivitiesMapper,
             }
         }
         
-        log.info("补偿处理完成，处理数量: {}/{}", processedCount, records.size());
-        return processedCount;
+        log.info("补偿处理完成，补结算数量: {}, 补入账数量: {}/{}", recoveredCount, processedCount, records.size());
+        return recoveredCount + processedCount;
+    }
+
+    /**
+     * 按抢红包流水补结算
+     * 抢到时间超过宽限期仍没有抢红包记录的流水视为结算消息丢失，按红包详情补齐金额后结算；
+     * 已结算的流水从哈希中移除，流水哈希中只保留在途与待补结算的抢红包。
+     * 扫描需要遍历整个键空间，同一时刻只允许一个节点执行，其他节点本轮跳过
+     */
+    private int settleLostGrabs(int limit) {
+        String lockToken = redisLock.tryLock(SETTLE_LOST_GRABS_LOCK_KEY, SETTLE_LOST_GRABS_LOCK_SECONDS, TimeUnit.SECONDS);
+        if (lockToken == null) {
+            log.debug("抢红包流水补结算正在其他节点执行，跳过");
+            return 0;
+        }
+        try {
+            long deadline = System.currentTimeMillis() - settleGraceMillis;
+            int[] recovered = {0};
+            redisUtils.scan(ACTIVITY_GRABS_PATTERN, keys -> {
+                for (String grabsKey : keys) {
+                    if (recovered[0] >= limit) {
+                        return;
+                    }
+                    try {
+                        recovered[0] += settleLostGrabs(grabsKey, deadline, limit - recovered[0]);
+                    } catch (Exception e) {
+                        log.error("按抢红包流水补结算失败，key: {}", grabsKey, e);
+                    }
+                }
+            });
+            return recovered[0];
+        } finally {
+            redisLock.unlock(SETTLE_LOST_GRABS_LOCK_KEY, lockToken);
+        }
+    }
+
+    private int settleLostGrabs(String grabsKey, long deadline, int limit) {
+        // red_packet:activity:{activityId}:grabs 或分片的 red_packet:activity:{activityId:shard}:grabs
+        String activityPart = grabsKey.substring(ACTIVITY_KEY_PREFIX.length(), grabsKey.lastIndexOf(':'))
+                .replace("{", "").replace("}", "");
+        int shardSeparator = activityPart.indexOf(':');
+        Long activityId = Long.valueOf(shardSeparator < 0 ? activityPart : activityPart.substring(0, shardSeparator));
+        int recovered = 0;
+        List<RedPacketGrabMessage> chunk = new ArrayList<>(GRABS_SCAN_BATCH_SIZE);
+        ScanOptions options = ScanOptions.scanOptions().count(GRABS_SCAN_BATCH_SIZE).build();
+        try (Cursor<Map.Entry<Object, Object>> cursor = stringRedisTemplate.opsForHash().scan(grabsKey, options)) {
+            while (cursor.hasNext() && recovered < limit) {
+                Map.Entry<Object, Object> entry = cursor.next();
+                // 流水值为 红包ID:金额:序号:抢到时间，早期流水只有 红包ID:抢到时间
+                String[] value = entry.getValue().toString().split(":");
+                long grabTime = Long.parseLong(value[value.length - 1]);
+                if (grabTime > deadline) {
+                    continue;
+                }
+                RedPacketGrabMessage grab = new RedPacketGrabMessage(activityId, Long.valueOf(entry.getKey().toString()),
+                        Long.valueOf(value[0]), null, null, null, grabTime);
+                if (value.length == 4) {
+                    grab.setAmount(Long.valueOf(value[1]));
+                    grab.setPacketIndex(Integer.valueOf(value[2]));
+                }
+                chunk.add(grab);
+                if (chunk.size() >= GRABS_SCAN_BATCH_SIZE) {
+                    recovered += settleLostGrabChunk(grabsKey, chunk);
+                    chunk = new ArrayList<>(GRABS_SCAN_BATCH_SIZE);
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            recovered += settleLostGrabChunk(grabsKey, chunk);
+        }
+        return recovered;
+    }
+
+    private int settleLostGrabChunk(String grabsKey, List<RedPacketGrabMessage> chunk) {
+        Set<String> settledKeys = new HashSet<>();
+        for (RedPacketRecords record : recordsMapper.selectByActivityUsers(chunk)) {
+            settledKeys.add(record.getActivityId() + ":" + record.getUserId());
+        }
+
+        List<Object> doneFields = new ArrayList<>(chunk.size());
+        List<RedPacketGrabMessage> lost = new ArrayList<>();
+        for (RedPacketGrabMessage grab : chunk) {
+            if (settledKeys.contains(grab.grabKey())) {
+                doneFields.add(grab.getUserId().toString());
+            } else {
+                lost.add(grab);
+            }
+        }
+
+        int recovered = 0;
+        if (!lost.isEmpty()) {
+            // 早期流水不含金额，从红包详情补齐
+            Map<Long, RedPacketDetails> packets = new HashMap<>();
+            List<Long> packetIds = lost.stream()
+                    .filter(grab -> grab.getAmount() == null)
+                    .map(RedPacketGrabMessage::getPacketId)
+                    .toList();
+            if (!packetIds.isEmpty()) {
+                for (RedPacketDetails packet : detailsMapper.selectBatchIds(packetIds)) {
+                    packets.put(packet.getId(), packet);
+                }
+            }
+            List<RedPacketGrabMessage> recoverable = new ArrayList<>(lost.size());
+            for (RedPacketGrabMessage grab : lost) {
+                if (grab.getAmount() == null) {
+                    RedPacketDetails packet = packets.get(grab.getPacketId());
+                    if (packet == null) {
+                        log.error("抢红包流水对应的红包详情不存在，活动: {}, 用户: {}, 红包ID: {}",
+                                grab.getActivityId(), grab.getUserId(), grab.getPacketId());
+                        continue;
+                    }
+                    grab.setAmount(packet.getAmount());
+                    grab.setPacketIndex(packet.getPacketIndex());
+                }
+                grab.setTransactionNo(generateTransactionNo(grab.getActivityId(), grab.getPacketId(), grab.getGrabTime()));
+                recoverable.add(grab);
+            }
+            if (!recoverable.isEmpty()) {
+                recovered = settlementService.settleGrabs(recoverable);
+                recoverable.forEach(grab -> doneFields.add(grab.getUserId().toString()));
+                log.warn("按抢红包流水补结算，活动: {}, 补结算数量: {}", chunk.get(0).getActivityId(), recovered);
+            }
+        }
+
+        if (!doneFields.isEmpty()) {
+            stringRedisTemplate.opsForHash().delete(grabsKey, doneFields.toArray());
+        }
+        return recovered;
     }
 
     @Override
@@ -0,0 +1,118 @@
+package com.zheng.aicommunitybackend.service.impl;
+
+import com.zheng.aicommunitybackend.domain.dto.RedPacketGrabMessage;
+import com.zheng.aicommunitybackend.domain.entity.RedPacketRecords;
+import com.zheng.aicommunitybackend.mapper.RedPacketActivitiesMapper;
+import com.zheng.aicommunitybackend.mapper.RedPacketDetailsMapper;
+import com.zheng.aicommunitybackend.mapper.RedPacketRecordsMapper;
+import com.zheng.aicommunitybackend.mapper.UserAccountsMapper;
+import com.zheng.aicommunitybackend.service.RedPacketSettlementService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * 抢红包结算服务实现
+ * 一批结算消息只产生固定数量的SQL：查询已有记录、批量插入记录、批量更新红包详情、
+ * 按活动合并更新统计、按用户合并入账，活动行与账户行在一批内各只更新一次
+ */
+@Slf4j
+@Service
+public class RedPacketSettlementServiceImpl implements RedPacketSettlementService {
+
+    @Autowired
+    private RedPacketRecordsMapper recordsMapper;
+
+    @Autowired
+    private RedPacketDetailsMapper detailsMapper;
+
+    @Autowired
+    private RedPacketActivitiesMapper activitiesMapper;
+
+    @Autowired
+    private UserAccountsMapper userAccountsMapper;
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public int settleGrabs(Collection<RedPacketGrabMessage> messages) {
+        // 1. 批内去重，同一用户在同一活动中只结算一次
+        Map<String, RedPacketGrabMessage> pending = new LinkedHashMap<>();
+        for (RedPacketGrabMessage message : messages) {
+            if (message == null || message.getActivityId() == null || message.getUserId() == null
+                    || message.getPacketId() == null || message.getAmount() == null) {
+                log.warn("抢红包结算消息不完整，跳过: {}", message);
+                continue;
+            }
+            pending.putIfAbsent(message.grabKey(), message);
+        }
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        // 2. 跳过已结算的抢红包（重复投递或补偿任务已处理）
+        for (RedPacketRecords existing : recordsMapper.selectByActivityUsers(pending.values())) {
+            pending.remove(existing.getActivityId() + ":" + existing.getUserId());
+        }
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        // 3. 组装记录，并按活动、用户合并统计增量；TreeMap保证多批并发时按相同顺序加锁
+        Date now = new Date();
+        List<RedPacketRecords> records = new ArrayList<>(pending.size());
+        Map<Long, Integer> counts = new TreeMap<>();
+        Map<Long, Long> amounts = new TreeMap<>();
+        Map<Long, BigDecimal> credits = new TreeMap<>();
+        for (RedPacketGrabMessage message : pending.values()) {
+            RedPacketRecords record = new RedPacketRecords();
+            record.setActivityId(message.getActivityId());
+            record.setUserId(message.getUserId());
+            record.setPacketDetailId(message.getPacketId());
+            record.setAmount(message.getAmount());
+            record.setTransactionNo(message.getTransactionNo());
+            record.setGrabTime(message.getGrabTime() != null ? new Date(message.getGrabTime()) : now);
+            // 入账与记录在同一事务内提交
+            record.setAccountUpdated(1);
+            record.setCreatedTime(now);
+            records.add(record);
+
+            counts.merge(message.getActivityId(), 1, Integer::sum);
+            amounts.merge(message.getActivityId(), message.getAmount(), Long::sum);
+            // 账户金额单位为元，红包金额单位为分
+            credits.merge(message.getUserId(), BigDecimal.valueOf(message.getAmount(), 2), BigDecimal::add);
+        }
+
+        // 4. 写入记录；(用户, 活动) 唯一索引冲突时整批回滚，重新投递后由第2步跳过
+        recordsMapper.batchInsert(records);
+        int grabbed = detailsMapper.batchGrab(records);
+        if (grabbed != records.size()) {
+            log.warn("部分红包详情已是已抢状态，预期: {}, 实际更新: {}", records.size(), grabbed);
+        }
+        activitiesMapper.batchIncrementActivityStats(counts, amounts);
+
+        // 5. 入账
+        userAccountsMapper.insertIgnoreAccounts(credits.keySet());
+        userAccountsMapper.batchCreditRedPacket(credits);
+
+        log.debug("抢红包批量结算完成: 消息数={}, 结算数={}, 涉及活动={}, 涉及用户={}",
+                messages.size(), records.size(), counts.size(), credits.size());
+        return records.size();
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean compensateAccount(RedPacketRecords record) {
+        userAccountsMapper.insertIgnoreAccounts(Collections.singletonList(record.getUserId()));
+        int updated = userAccountsMapper.updateBalance(record.getUserId(),
+                BigDecimal.valueOf(record.getAmount(), 2), "red_packet_compensation");
+        if (updated == 0) {
+            return false;
+        }
+        recordsMapper.updateAccountStatus(record.getId(), 1);
+        return true;
+    }
+}
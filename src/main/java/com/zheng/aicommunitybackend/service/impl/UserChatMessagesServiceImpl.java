@@ -2,30 +2,43 @@ package com.zheng.aicommunitybackend.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zheng.aicommunitybackend.component.ChatPushHub;
+import com.zheng.aicommunitybackend.domain.dto.ChatPushEvent;
 import com.zheng.aicommunitybackend.domain.dto.MessageSendDTO;
 import com.zheng.aicommunitybackend.domain.entity.UserChatMessages;
-import com.zheng.aicommunitybackend.domain.entity.UserMessageReadRecords;
+import com.zheng.aicommunitybackend.domain.entity.UserConversationMembers;
 import com.zheng.aicommunitybackend.domain.entity.Users;
+import com.zheng.aicommunitybackend.domain.result.CursorPageResult;
 import com.zheng.aicommunitybackend.domain.vo.UserChatMessageVO;
 import com.zheng.aicommunitybackend.exception.BaseException;
 import com.zheng.aicommunitybackend.mapper.UserChatMessagesMapper;
-import com.zheng.aicommunitybackend.mapper.UserMessageReadRecordsMapper;
+import com.zheng.aicommunitybackend.mapper.UserConversationMembersMapper;
 import com.zheng.aicommunitybackend.mapper.UsersMapper;
 import com.zheng.aicommunitybackend.service.UserChatMessagesService;
 import com.zheng.aicommunitybackend.service.UserConversationsService;
+import com.zheng.aicommunitybackend.util.CursorUtil;
+import jakarta.annotation.PostConstruct;
 import jakarta.annotation.Resource;
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
  * 用户聊天消息服务实现
+ * 已读状态由成员的已读游标（user_conversation_members.last_read_message_id）表示：
+ * 游标及之前的消息、以及自己发送的消息视为已读。
+ * 新消息、已读游标更新与正在输入事件通过 ChatPushHub 实时推送给会话成员
  */
 @Service
 public class UserChatMessagesServiceImpl extends ServiceImpl<UserChatMessagesMapper, UserChatMessages>
@@ -35,16 +48,36 @@ public class UserChatMessagesServiceImpl extends ServiceImpl<UserChatMessagesMap
     private UserConversationsService userConversationsService;
     
     @Resource
-    private UserMessageReadRecordsMapper userMessageReadRecordsMapper;
+    private UserConversationMembersMapper userConversationMembersMapper;
     
     @Resource
     private UsersMapper usersMapper;
 
+    @Resource
+    private ChatPushHub chatPushHub;
+
+    /**
+     * 同一用户在同一会话中两次推送正在输入事件的最小间隔（毫秒）
+     */
+    @Value("${chat.push.typing-interval-millis:3000}")
+    private long typingIntervalMillis;
+
+    private Cache<String, Boolean> recentTyping;
+
+    @PostConstruct
+    public void init() {
+        recentTyping = Caffeine.newBuilder()
+                .maximumSize(100000)
+                .expireAfterWrite(typingIntervalMillis, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
     @Override
     @Transactional
     public Long sendMessage(MessageSendDTO dto, Long userId) {
-        // 1. 验证用户是否为会话成员
-        if (!userConversationsService.isConversationMember(dto.getConversationId(), userId)) {
+        // 1. 验证用户是否为会话成员（成员列表同时作为推送接收者）
+        List<UserConversationMembers> members = selectActiveMembers(dto.getConversationId());
+        if (members.stream().noneMatch(member -> member.getUserId().equals(userId))) {
             throw new BaseException("您不是该会话的成员");
         }
         
@@ -60,27 +93,38 @@ public class UserChatMessagesServiceImpl extends ServiceImpl<UserChatMessagesMap
         message.setCreateTime(new Date());
         
         save(message);
-        
-        // 3. 创建发送者的已读记录
-        UserMessageReadRecords readRecord = new UserMessageReadRecords();
-        readRecord.setMessageId(message.getId());
-        readRecord.setUserId(userId);
-        readRecord.setConversationId(dto.getConversationId());
-        readRecord.setReadTime(new Date());
-        userMessageReadRecordsMapper.insert(readRecord);
-
-        // 4. 更新会话的最后消息信息
+
+        // 3. 更新会话的最后消息信息（自己发送的消息不计入未读，无需写已读记录）
         userConversationsService.updateLastMessage(dto.getConversationId(), message.getId(), message.getCreateTime());
 
+        // 4. 事务提交后推送给会话成员（包括发送者的其他终端）
+        UserChatMessageVO vo = new UserChatMessageVO();
+        BeanUtils.copyProperties(message, vo);
+        Users sender = usersMapper.selectById(userId);
+        if (sender != null) {
+            vo.setSenderNickname(sender.getNickname());
+            vo.setSenderAvatarUrl(sender.getAvatarUrl());
+        }
+        ChatPushEvent event = new ChatPushEvent();
+        event.setType(ChatPushEvent.TYPE_MESSAGE);
+        event.setConversationId(dto.getConversationId());
+        event.setUserId(userId);
+        event.setMessageId(message.getId());
+        event.setMessage(vo);
+        chatPushHub.publish(event, memberIds(members));
+
         return message.getId();
     }
 
     @Override
     public List<UserChatMessageVO> getConversationMessages(String conversationId, Long userId, Integer page, Integer size) {
-        // 1. 验证用户是否为会话成员
-        if (!userConversationsService.isConversationMember(conversationId, userId)) {
-            throw new BaseException("您不是该会话的成员");
-        }
+        // 1. 查询会话成员，同时用于成员校验、当前用户已读游标与消息已读人数
+        List<UserConversationMembers> members = selectActiveMembers(conversationId);
+        UserConversationMembers currentMember = members.stream()
+                .filter(member -> member.getUserId().equals(userId))
+                .findFirst()
+                .orElseThrow(() -> new BaseException("您不是该会话的成员"));
+        long readCursor = currentMember.getLastReadMessageId() != null ? currentMember.getLastReadMessageId() : 0L;
         
         // 2. 分页查询消息（按时间正序，旧消息在前）
         LambdaQueryWrapper<UserChatMessages> wrapper = new LambdaQueryWrapper<>();
@@ -95,49 +139,73 @@ public class UserChatMessagesServiceImpl extends ServiceImpl<UserChatMessagesMap
         List<UserChatMessages> messages = list(wrapper);
         
         // 3. 转换为VO
+        return toMessageVOList(messages, members, userId, readCursor);
+    }
+
+    @Override
+    public CursorPageResult<UserChatMessageVO> getConversationMessagesByCursor(String conversationId, Long userId,
+                                                                              String cursor, Integer size) {
+        // 1. 查询会话成员，同时用于成员校验、当前用户已读游标与消息已读人数
+        List<UserConversationMembers> members = selectActiveMembers(conversationId);
+        UserConversationMembers currentMember = members.stream()
+                .filter(member -> member.getUserId().equals(userId))
+                .findFirst()
+                .orElseThrow(() -> new BaseException("您不是该会话的成员"));
+        long readCursor = currentMember.getLastReadMessageId() != null ? currentMember.getLastReadMessageId() : 0L;
+
+        // 2. 从游标处向更早的消息取一页（首页为最新一页），不查询总数
+        LambdaQueryWrapper<UserChatMessages> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(UserChatMessages::getConversationId, conversationId)
+               .eq(UserChatMessages::getStatus, 1);
+        CursorUtil.seekBefore(wrapper, UserChatMessages::getCreateTime, UserChatMessages::getId, cursor, size);
+        List<UserChatMessages> messages = list(wrapper);
+        String nextCursor = CursorUtil.nextCursor(messages, size, UserChatMessages::getCreateTime, UserChatMessages::getId);
+
+        // 3. 页内按时间正序返回（旧消息在前），与普通分页接口一致
+        Collections.reverse(messages);
+        return new CursorPageResult<>(toMessageVOList(messages, members, userId, readCursor), nextCursor, nextCursor != null);
+    }
+
+    /**
+     * 将消息转换为VO，批量填充发送者信息，并按已读游标计算已读状态与已读人数
+     */
+    private List<UserChatMessageVO> toMessageVOList(List<UserChatMessages> messages, List<UserConversationMembers> members,
+                                                    Long userId, long readCursor) {
         List<UserChatMessageVO> result = new ArrayList<>();
-        if (!messages.isEmpty()) {
-            // 批量查询发送者信息
-            List<Long> senderIds = messages.stream()
-                    .map(UserChatMessages::getSenderId)
-                    .distinct()
-                    .collect(Collectors.toList());
-            
-            List<Users> senders = usersMapper.selectBatchIds(senderIds);
-            Map<Long, Users> senderMap = senders.stream()
-                    .collect(Collectors.toMap(Users::getId, user -> user));
+        if (messages.isEmpty()) {
+            return result;
+        }
+        // 批量查询发送者信息
+        List<Long> senderIds = messages.stream()
+                .map(UserChatMessages::getSenderId)
+                .distinct()
+                .collect(Collectors.toList());
+        
+        List<Users> senders = usersMapper.selectBatchIds(senderIds);
+        Map<Long, Users> senderMap = senders.stream()
+                .collect(Collectors.toMap(Users::getId, user -> user));
+        
+        for (UserChatMessages message : messages) {
+            UserChatMessageVO vo = new UserChatMessageVO();
+            BeanUtils.copyProperties(message, vo);
             
-            // 批量查询已读状态
-            List<Long> messageIds = messages.stream()
-                    .map(UserChatMessages::getId)
-                    .collect(Collectors.toList());
+            // 填充发送者信息
+            Users sender = senderMap.get(message.getSenderId());
+            if (sender != null) {
+                vo.setSenderNickname(sender.getNickname());
+                vo.setSenderAvatarUrl(sender.getAvatarUrl());
+            }
             
-            Map<Long, Boolean> readStatusMap = getReadStatusMap(messageIds, userId);
+            // 填充已读状态与已读人数
+            vo.setIsRead(message.getSenderId().equals(userId) || message.getId() <= readCursor);
+            vo.setReadCount(countReaders(members, message));
             
-            // 转换为VO
-            for (UserChatMessages message : messages) {
-                UserChatMessageVO vo = new UserChatMessageVO();
-                BeanUtils.copyProperties(message, vo);
-                
-                // 填充发送者信息
-                Users sender = senderMap.get(message.getSenderId());
-                if (sender != null) {
-                    vo.setSenderNickname(sender.getNickname());
-                    vo.setSenderAvatarUrl(sender.getAvatarUrl());
-                }
-                
-                // 填充已读状态
-                vo.setIsRead(readStatusMap.getOrDefault(message.getId(), false));
-                
-                result.add(vo);
-            }
+            result.add(vo);
         }
-        
         return result;
     }
 
     @Override
-    @Transactional
     public void markMessageRead(Long messageId, Long userId) {
         // 1. 检查消息是否存在
         UserChatMessages message = getById(messageId);
@@ -145,29 +213,48 @@ public class UserChatMessagesServiceImpl extends ServiceImpl<UserChatMessagesMap
             throw new BaseException("消息不存在");
         }
         
-        // 2. 验证用户是否为会话成员
-        if (!userConversationsService.isConversationMember(message.getConversationId(), userId)) {
+        // 2. 推进已读游标，游标已在该消息之后时不做修改
+        int updated = userConversationMembersMapper.advanceReadCursor(message.getConversationId(), userId, messageId);
+
+        // 3. 未更新时区分非成员与已读过
+        if (updated == 0) {
+            if (!userConversationsService.isConversationMember(message.getConversationId(), userId)) {
+                throw new BaseException("您不是该会话的成员");
+            }
+            return;
+        }
+
+        // 4. 推送已读游标更新（已读回执与其他终端的未读数同步）
+        publishRead(message.getConversationId(), userId, messageId);
+    }
+
+    @Override
+    public void markConversationRead(String conversationId, Long userId) {
+        if (userConversationMembersMapper.markConversationRead(conversationId, userId) == 0) {
             throw new BaseException("您不是该会话的成员");
         }
-        
-        // 3. 检查是否已经标记为已读
-        LambdaQueryWrapper<UserMessageReadRecords> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(UserMessageReadRecords::getMessageId, messageId)
-               .eq(UserMessageReadRecords::getUserId, userId);
-        
-        if (userMessageReadRecordsMapper.selectCount(wrapper) == 0) {
-            // 4. 创建已读记录
-            UserMessageReadRecords readRecord = new UserMessageReadRecords();
-            readRecord.setMessageId(messageId);
-            readRecord.setUserId(userId);
-            readRecord.setConversationId(message.getConversationId());
-            readRecord.setReadTime(new Date());
-            userMessageReadRecordsMapper.insert(readRecord);
-            
-            // 5. 更新消息的已读数量
-            message.setReadCount(message.getReadCount() + 1);
-            updateById(message);
+        publishRead(conversationId, userId, null);
+    }
+
+    @Override
+    public void sendTyping(String conversationId, Long userId) {
+        // 先校验成员身份，非成员的请求始终报错，也不会占用节流缓存
+        List<UserConversationMembers> members = selectActiveMembers(conversationId);
+        if (members.stream().noneMatch(member -> member.getUserId().equals(userId))) {
+            throw new BaseException("您不是该会话的成员");
         }
+        // 客户端每次按键都可能上报，间隔内的重复事件直接丢弃，不再推送
+        String typingKey = userId + ":" + conversationId;
+        if (recentTyping.asMap().putIfAbsent(typingKey, Boolean.TRUE) != null) {
+            return;
+        }
+        ChatPushEvent event = new ChatPushEvent();
+        event.setType(ChatPushEvent.TYPE_TYPING);
+        event.setConversationId(conversationId);
+        event.setUserId(userId);
+        List<Long> recipients = memberIds(members);
+        recipients.remove(userId);
+        chatPushHub.publish(event, recipients);
     }
 
     @Override
@@ -193,25 +280,45 @@ public class UserChatMessagesServiceImpl extends ServiceImpl<UserChatMessagesMap
     }
 
     /**
-     * 批量获取消息的已读状态
+     * 查询会话的正常成员
+     */
+    private List<UserConversationMembers> selectActiveMembers(String conversationId) {
+        LambdaQueryWrapper<UserConversationMembers> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(UserConversationMembers::getConversationId, conversationId)
+               .eq(UserConversationMembers::getStatus, 1);
+        return userConversationMembersMapper.selectList(wrapper);
+    }
+
+    /**
+     * 推送已读游标更新
+     * @param messageId 已读游标，为空表示已读到会话最新消息
      */
-    private Map<Long, Boolean> getReadStatusMap(List<Long> messageIds, Long userId) {
-        if (messageIds.isEmpty()) {
-            return Map.of();
+    private void publishRead(String conversationId, Long userId, Long messageId) {
+        ChatPushEvent event = new ChatPushEvent();
+        event.setType(ChatPushEvent.TYPE_READ);
+        event.setConversationId(conversationId);
+        event.setUserId(userId);
+        event.setMessageId(messageId);
+        chatPushHub.publish(event, memberIds(selectActiveMembers(conversationId)));
+    }
+
+    private List<Long> memberIds(List<UserConversationMembers> members) {
+        return members.stream().map(UserConversationMembers::getUserId).collect(Collectors.toList());
+    }
+
+    /**
+     * 消息的已读人数：除发送者外已读游标不早于该消息的成员数
+     */
+    private int countReaders(List<UserConversationMembers> members, UserChatMessages message) {
+        int readers = 0;
+        for (UserConversationMembers member : members) {
+            if (!member.getUserId().equals(message.getSenderId())
+                    && member.getLastReadMessageId() != null
+                    && member.getLastReadMessageId() >= message.getId()) {
+                readers++;
+            }
         }
-        
-        LambdaQueryWrapper<UserMessageReadRecords> wrapper = new LambdaQueryWrapper<>();
-        wrapper.in(UserMessageReadRecords::getMessageId, messageIds)
-               .eq(UserMessageReadRecords::getUserId, userId);
-        
-        List<UserMessageReadRecords> readRecords = userMessageReadRecordsMapper.selectList(wrapper);
-        
-        return readRecords.stream()
-                .collect(Collectors.toMap(
-                        UserMessageReadRecords::getMessageId,
-                        record -> true,
-                        (existing, replacement) -> existing
-                ));
+        return readers;
     }
 
     /**
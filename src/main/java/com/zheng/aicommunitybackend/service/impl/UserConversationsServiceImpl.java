@@ -2,6 +2,7 @@ package com.zheng.aicommunitybackend.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.zheng.aicommunitybackend.domain.dto.ConversationCountDTO;
 import com.zheng.aicommunitybackend.domain.dto.ConversationCreateDTO;
 import com.zheng.aicommunitybackend.domain.entity.UserConversationMembers;
 import com.zheng.aicommunitybackend.domain.entity.UserConversations;
@@ -117,8 +118,22 @@ public class UserConversationsServiceImpl extends ServiceImpl<UserConversationsM
                           .orderByDesc(UserConversations::getUpdateTime);
         List<UserConversations> conversations = list(conversationWrapper);
         
-        // 4. 批量获取私聊会话的对方用户信息
-        Map<String, Users> otherUsersMap = batchGetOtherUsersForPrivateChats(conversationIds, userId);
+        if (conversations.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<String> activeConversationIds = conversations.stream()
+                .map(UserConversations::getId)
+                .collect(Collectors.toList());
+
+        // 4. 批量查询成员（同时得到成员数与私聊对方用户）、最后一条消息与未读数，查询次数与会话数无关
+        List<UserConversationMembers> allMembers = selectActiveMembers(activeConversationIds);
+        Map<String, Long> memberCounts = allMembers.stream()
+                .collect(Collectors.groupingBy(UserConversationMembers::getConversationId, Collectors.counting()));
+        Map<String, Users> otherUsersMap = buildOtherUsersMap(allMembers, userId);
+        Map<String, UserChatMessages> lastMessages = userChatMessagesMapper.selectLastMessages(activeConversationIds)
+                .stream()
+                .collect(Collectors.toMap(UserChatMessages::getConversationId, message -> message));
+        Map<String, Integer> unreadCounts = batchGetUnreadCounts(activeConversationIds, userId);
 
         // 5. 转换为VO并填充额外信息
         List<ConversationVO> result = new ArrayList<>();
@@ -130,13 +145,17 @@ public class UserConversationsServiceImpl extends ServiceImpl<UserConversationsM
             vo.setConversationId(conversation.getId());
 
             // 填充成员数量
-            vo.setMemberCount(getMemberCount(conversation.getId()));
+            vo.setMemberCount(memberCounts.getOrDefault(conversation.getId(), 0L).intValue());
 
             // 填充最后一条消息
-            fillLastMessage(vo, conversation.getId());
+            UserChatMessages lastMessage = lastMessages.get(conversation.getId());
+            if (lastMessage != null) {
+                vo.setLastMessage(lastMessage.getContent());
+                vo.setLastMessageTime(lastMessage.getCreateTime());
+            }
 
             // 填充未读消息数
-            vo.setUnreadCount(getUnreadCount(conversation.getId(), userId));
+            vo.setUnreadCount(unreadCounts.getOrDefault(conversation.getId(), 0));
 
             // 动态设置会话头像（使用批量查询的结果）
             setConversationAvatarOptimized(vo, conversation, userId, otherUsersMap);
@@ -300,16 +319,6 @@ public class UserConversationsServiceImpl extends ServiceImpl<UserConversationsM
         return createConversation(dto, userId1);
     }
 
-    /**
-     * 获取会话成员数量
-     */
-    private Integer getMemberCount(String conversationId) {
-        LambdaQueryWrapper<UserConversationMembers> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(UserConversationMembers::getConversationId, conversationId)
-               .eq(UserConversationMembers::getStatus, 1);
-        return userConversationMembersMapper.selectCount(wrapper).intValue();
-    }
-
     /**
      * 填充最后一条消息信息
      */
@@ -331,28 +340,15 @@ public class UserConversationsServiceImpl extends ServiceImpl<UserConversationsM
      * 获取未读消息数
      */
     private Integer getUnreadCount(String conversationId, Long userId) {
-        // 1. 查询会话中的所有消息总数
-        LambdaQueryWrapper<UserChatMessages> messageWrapper = new LambdaQueryWrapper<>();
-        messageWrapper.eq(UserChatMessages::getConversationId, conversationId)
-                     .eq(UserChatMessages::getStatus, 1);
-        Long totalMessages = userChatMessagesMapper.selectCount(messageWrapper);
-
-        // 2. 查询用户已读的消息数
-        String sql = "SELECT COUNT(DISTINCT umrr.message_id) FROM user_message_read_records umrr " +
-                    "INNER JOIN user_chat_messages ucm ON umrr.message_id = ucm.id " +
-                    "WHERE umrr.user_id = ? AND umrr.conversation_id = ? AND ucm.status = 1";
-
-        // 使用原生SQL查询已读消息数
-        Long readMessages = userChatMessagesMapper.selectCount(
-            new LambdaQueryWrapper<UserChatMessages>()
-                .inSql(UserChatMessages::getId,
-                      "SELECT message_id FROM user_message_read_records WHERE user_id = " + userId +
-                      " AND conversation_id = '" + conversationId + "'")
-                .eq(UserChatMessages::getConversationId, conversationId)
-                .eq(UserChatMessages::getStatus, 1)
-        );
-
-        return Math.max(0, (int)(totalMessages - readMessages));
+        return batchGetUnreadCounts(Collections.singletonList(conversationId), userId).getOrDefault(conversationId, 0);
+    }
+
+    /**
+     * 一次分组查询获取多个会话的未读消息数，没有未读消息的会话不在结果中
+     */
+    private Map<String, Integer> batchGetUnreadCounts(List<String> conversationIds, Long userId) {
+        return userChatMessagesMapper.countUnreadMessages(userId, conversationIds).stream()
+                .collect(Collectors.toMap(ConversationCountDTO::getConversationId, ConversationCountDTO::getCount));
     }
 
     /**
@@ -513,17 +509,29 @@ public class UserConversationsServiceImpl extends ServiceImpl<UserConversationsM
      * 批量获取私聊会话的对方用户信息
      */
     private Map<String, Users> batchGetOtherUsersForPrivateChats(List<String> conversationIds, Long currentUserId) {
-        Map<String, Users> result = new HashMap<>();
-
         if (conversationIds.isEmpty()) {
-            return result;
+            return new HashMap<>();
         }
 
         // 1. 批量查询所有会话的成员
+        return buildOtherUsersMap(selectActiveMembers(conversationIds), currentUserId);
+    }
+
+    /**
+     * 批量查询多个会话的正常成员
+     */
+    private List<UserConversationMembers> selectActiveMembers(List<String> conversationIds) {
         LambdaQueryWrapper<UserConversationMembers> wrapper = new LambdaQueryWrapper<>();
         wrapper.in(UserConversationMembers::getConversationId, conversationIds)
                .eq(UserConversationMembers::getStatus, 1);
-        List<UserConversationMembers> allMembers = userConversationMembersMapper.selectList(wrapper);
+        return userConversationMembersMapper.selectList(wrapper);
+    }
+
+    /**
+     * 根据已查出的会话成员建立会话ID到私聊对方用户的映射
+     */
+    private Map<String, Users> buildOtherUsersMap(List<UserConversationMembers> allMembers, Long currentUserId) {
+        Map<String, Users> result = new HashMap<>();
 
         // 2. 按会话ID分组
         Map<String, List<UserConversationMembers>> membersByConversation = allMembers.stream()
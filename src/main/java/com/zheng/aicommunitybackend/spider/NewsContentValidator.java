@@ -0,0 +1,97 @@
+package com.zheng.aicommunitybackend.spider;
+
+import com.zheng.aicommunitybackend.domain.entity.HotNews;
+
+/**
+ * 新闻内容校验
+ * 抓取流水线的校验阶段与无效新闻清理共用同一套规则
+ */
+public final class NewsContentValidator {
+
+    /**
+     * 正文最大长度，避免超出数据库限制
+     */
+    private static final int MAX_CONTENT_LENGTH = 65000;
+
+    /**
+     * 摘要最大长度
+     */
+    private static final int MAX_SUMMARY_LENGTH = 500;
+
+    private NewsContentValidator() {
+    }
+
+    /**
+     * 补齐空的正文与摘要，校验通过后截断超长字段
+     * @param news 新闻对象
+     * @return 是否有效
+     */
+    public static boolean normalizeAndValidate(HotNews news) {
+        // 确保content字段不为空
+        if (news.getContent() == null || news.getContent().isEmpty()) {
+            news.setContent("<p>" + news.getTitle() + "</p>");
+        }
+        // 确保summary字段不为空
+        if (news.getSummary() == null || news.getSummary().isEmpty()) {
+            news.setSummary(news.getTitle());
+        }
+
+        if (!isValidNewsContent(news.getTitle(), news.getContent(), news.getSummary())) {
+            return false;
+        }
+
+        // 限制content和summary字段长度
+        if (news.getContent().length() > MAX_CONTENT_LENGTH) {
+            news.setContent(news.getContent().substring(0, MAX_CONTENT_LENGTH));
+        }
+        if (news.getSummary().length() > MAX_SUMMARY_LENGTH) {
+            news.setSummary(news.getSummary().substring(0, MAX_SUMMARY_LENGTH));
+        }
+        return true;
+    }
+
+    /**
+     * 检查新闻内容是否有效
+     * @param title 标题
+     * @param content 内容
+     * @param summary 摘要
+     * @return 是否有效
+     */
+    public static boolean isValidNewsContent(String title, String content, String summary) {
+        // 标题不能为空
+        if (title == null || title.isEmpty()) {
+            return false;
+        }
+
+        // 检查标题是否包含无效内容标记
+        if (title.contains("暂无详细") || title.contains("新无详细")) {
+            // 这些可能是栏目标题而不是具体新闻
+            return false;
+        }
+
+        // 内容不能为空或默认值
+        if (content == null || content.isEmpty() ||
+            content.equals("<p>暂无内容</p>") ||
+            content.equals("<p>暂无详细内容</p>")) {
+            return false;
+        }
+
+        // 检查内容是否只是简单的标签文本
+        String plainContent = content.replaceAll("<[^>]*>", "").trim();
+        if (plainContent.length() < 15) { // 降低最小长度要求，允许更短的内容（原为20）
+            return false;
+        }
+
+        // 检查内容是否包含特定的无效内容模式，但如果内容长度足够，也允许通过
+        if (plainContent.contains("下载新浪财经APP") && plainContent.length() < 40) {
+            return false;
+        }
+
+        // 摘要不能为默认值，但如果有内容，即使摘要是默认值也可以接受
+        if ((summary == null || summary.isEmpty() || summary.equals("暂无摘要")) && plainContent.length() < 60) {
+            return false;
+        }
+
+        return true;
+    }
+}
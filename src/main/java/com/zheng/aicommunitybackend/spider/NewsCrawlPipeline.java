@@ -0,0 +1,716 @@
+package com.zheng.aicommunitybackend.spider;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.zheng.aicommunitybackend.component.CrawlEngine;
+import com.zheng.aicommunitybackend.config.BloomFilterConfig;
+import com.zheng.aicommunitybackend.domain.entity.HotNews;
+import com.zheng.aicommunitybackend.mapper.HotNewsMapper;
+import com.zheng.aicommunitybackend.properties.SpiderProperties;
+import com.zheng.aicommunitybackend.service.impl.ContentSimilarityService;
+import com.zheng.aicommunitybackend.util.SimHashUtil;
+import jakarta.annotation.PreDestroy;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.nodes.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 新闻抓取流水线
+ * 发现(列表页) -> 抓取(详情页) -> 抽取 -> 校验 -> 指纹 -> 去重 -> 入库，
+ * 每个阶段有自己的有界队列和一组虚拟线程，队列满时上游阻塞形成背压；
+ * 所有新闻源在同一次运行中并行流经同一条流水线，详情页抽取完即释放DOM，
+ * 同时存活的文档数受队列容量约束，不再随链接数增长。
+ * 去重阶段单线程执行以保证批次内去重的正确性，入库阶段按批次在事务中写入
+ */
+@Slf4j
+@Component
+public class NewsCrawlPipeline {
+
+    public static final String STAGE_DISCOVER = "discover";
+    public static final String STAGE_FETCH = "fetch";
+    public static final String STAGE_EXTRACT = "extract";
+    public static final String STAGE_VALIDATE = "validate";
+    public static final String STAGE_FINGERPRINT = "fingerprint";
+    public static final String STAGE_DEDUP = "dedup";
+    public static final String STAGE_SAVE = "save";
+
+    private static final List<String> STAGES = Arrays.asList(STAGE_DISCOVER, STAGE_FETCH, STAGE_EXTRACT,
+            STAGE_VALIDATE, STAGE_FINGERPRINT, STAGE_DEDUP, STAGE_SAVE);
+
+    /**
+     * 阶段线程等待输入、等待下游队列空位的轮询间隔(毫秒)
+     */
+    private static final long POLL_MILLIS = 100;
+
+    @Autowired
+    private List<NewsSource> newsSources;
+
+    @Autowired
+    private HotNewsMapper hotNewsMapper;
+
+    @Autowired
+    private SpiderProperties spiderProperties;
+
+    @Autowired
+    private CrawlEngine crawlEngine;
+
+    @Autowired
+    private BloomFilterConfig bloomFilterConfig;
+
+    @Autowired
+    private ContentSimilarityService contentSimilarityService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * 阶段名 -> 已结束运行的累计指标，与 activeRuns 的增删一起在该对象上同步
+     */
+    private final Map<String, StageCounters> totals = new LinkedHashMap<>();
+
+    /**
+     * 运行ID -> 该次运行的各阶段，每次运行的阶段各自持有指标，用于统计进行中的运行
+     */
+    private final Map<Long, List<Stage<?, ?>>> activeRuns = new ConcurrentHashMap<>();
+
+    private final AtomicLong runSequence = new AtomicLong();
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder savedTotal = new LongAdder();
+    private volatile RunResult lastRun;
+
+    public NewsCrawlPipeline() {
+        for (String stage : STAGES) {
+            totals.put(stage, new StageCounters(0, 0));
+        }
+    }
+
+    /**
+     * 抓取所有已注册的新闻源
+     * @return 运行结果
+     */
+    public RunResult runAll() {
+        return run(newsSources);
+    }
+
+    /**
+     * 抓取指定的新闻源
+     * @param sourceIds 新闻源标识
+     * @return 运行结果
+     */
+    public RunResult run(String... sourceIds) {
+        Set<String> ids = new HashSet<>(Arrays.asList(sourceIds));
+        List<NewsSource> selected = new ArrayList<>();
+        for (NewsSource source : newsSources) {
+            if (ids.contains(source.getDefinition().getId())) {
+                selected.add(source);
+            }
+        }
+        if (selected.size() < ids.size()) {
+            log.warn("部分新闻源未注册: {}", ids);
+        }
+        return run(selected);
+    }
+
+    /**
+     * 让一组新闻源流经流水线，等待入库阶段完成
+     * @param sources 新闻源
+     * @return 运行结果，包含本次运行各阶段的指标
+     */
+    public RunResult run(List<NewsSource> sources) {
+        List<String> names = new ArrayList<>();
+        sources.forEach(source -> names.add(source.getDefinition().getName()));
+        if (sources.isEmpty()) {
+            RunResult empty = new RunResult();
+            empty.setSources(names);
+            empty.setStages(new ArrayList<>());
+            return empty;
+        }
+        SpiderProperties.Pipeline config = spiderProperties.getPipeline();
+        int capacity = Math.max(1, config.getQueueCapacity());
+        AtomicBoolean cancelled = new AtomicBoolean();
+
+        // 去重阶段单线程执行，批次内状态不需要同步
+        Set<String> batchUrls = new HashSet<>();
+        Map<String, String> batchContentHashes = new HashMap<>();
+
+        Stage<NewsSource, CrawlTask> discover = new Stage<>(STAGE_DISCOVER, sources.size(), sources.size(), 1,
+                (items, emit) -> items.forEach(source -> discover(source, emit)), cancelled);
+        Stage<CrawlTask, FetchedPage> fetch = new Stage<>(STAGE_FETCH, capacity, config.getFetchWorkers(), 1,
+                (items, emit) -> items.forEach(task -> emit.accept(fetch(task))), cancelled);
+        Stage<FetchedPage, HotNews> extract = new Stage<>(STAGE_EXTRACT, capacity, config.getExtractWorkers(), 1,
+                (items, emit) -> items.forEach(page -> emit.accept(
+                        NewsExtractor.extractNews(page.task.source, page.task.link, page.document))), cancelled);
+        Stage<HotNews, HotNews> validate = new Stage<>(STAGE_VALIDATE, capacity, 1, 1,
+                (items, emit) -> items.forEach(news -> validate(news, emit)), cancelled);
+        Stage<HotNews, HotNews> fingerprint = new Stage<>(STAGE_FINGERPRINT, capacity, config.getFingerprintWorkers(), 1,
+                (items, emit) -> items.forEach(news -> {
+                    contentSimilarityService.generateContentHash(news);
+                    emit.accept(news);
+                }), cancelled);
+        Stage<HotNews, HotNews> dedup = new Stage<>(STAGE_DEDUP, capacity, 1, 1,
+                (items, emit) -> items.forEach(news -> dedup(news, batchUrls, batchContentHashes, emit)), cancelled);
+        Stage<HotNews, HotNews> save = new Stage<>(STAGE_SAVE, capacity, config.getSaveWorkers(),
+                config.getSaveBatchSize(), this::save, cancelled);
+
+        discover.connect(null, fetch);
+        fetch.connect(discover, extract);
+        extract.connect(fetch, validate);
+        validate.connect(extract, fingerprint);
+        fingerprint.connect(validate, dedup);
+        dedup.connect(fingerprint, save);
+        save.connect(dedup, null);
+        List<Stage<?, ?>> stages = Arrays.asList(discover, fetch, extract, validate, fingerprint, dedup, save);
+
+        long runId = runSequence.incrementAndGet();
+        long start = System.currentTimeMillis();
+        log.info("抓取流水线开始运行: runId={}, 新闻源={}", runId, names);
+
+        synchronized (totals) {
+            activeRuns.put(runId, stages);
+        }
+        try {
+            sources.forEach(discover.queue::add);
+            for (Stage<?, ?> stage : stages) {
+                stage.start(executor);
+            }
+            if (!save.done.await(config.getRunTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                log.warn("抓取流水线运行超时，取消未完成的处理: runId={}", runId);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("抓取流水线运行被中断: runId={}", runId);
+        } finally {
+            cancelled.set(true);
+            // 运行结束时把本次指标并入累计指标，与移出进行中的运行原子完成，统计不会重复或遗漏
+            synchronized (totals) {
+                for (Stage<?, ?> stage : stages) {
+                    stage.counter.addTo(totals.get(stage.name));
+                }
+                activeRuns.remove(runId);
+            }
+        }
+
+        RunResult result = new RunResult();
+        result.setRunId(runId);
+        result.setSources(names);
+        result.setSaved((int) save.counter.emitted.sum());
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        List<StageStats> stageStats = new ArrayList<>();
+        StringBuilder summary = new StringBuilder();
+        for (Stage<?, ?> stage : stages) {
+            stageStats.add(toStageStats(stage.name, stage.counter, 0));
+            summary.append(stage.name).append('=').append(stage.counter.received.sum())
+                    .append("->").append(stage.counter.emitted.sum()).append(' ');
+        }
+        result.setStages(stageStats);
+        runs.increment();
+        savedTotal.add(result.getSaved());
+        lastRun = result;
+
+        log.info("抓取流水线运行完成: runId={}, 新闻源={}, 保存{}条, 耗时{}ms, 各阶段输入->输出: {}",
+                runId, names, result.getSaved(), result.getElapsedMillis(), summary.toString().trim());
+        return result;
+    }
+
+    /**
+     * 获取流水线统计
+     * 各阶段的累计指标包含已结束与进行中的运行；工作线程数、队列容量与排队数只统计进行中的运行
+     */
+    public PipelineStats getStats() {
+        SpiderProperties.Pipeline config = spiderProperties.getPipeline();
+        Map<String, StageCounters> snapshot = new LinkedHashMap<>();
+        Map<String, Integer> queued = new HashMap<>();
+        synchronized (totals) {
+            for (String name : STAGES) {
+                StageCounters counter = new StageCounters(0, 0);
+                totals.get(name).addTo(counter);
+                snapshot.put(name, counter);
+            }
+            for (List<Stage<?, ?>> stages : activeRuns.values()) {
+                for (Stage<?, ?> stage : stages) {
+                    StageCounters counter = snapshot.get(stage.name);
+                    stage.counter.addTo(counter);
+                    counter.workers += stage.counter.workers;
+                    counter.queueCapacity += stage.counter.queueCapacity;
+                    queued.merge(stage.name, stage.queue.size(), Integer::sum);
+                }
+            }
+        }
+
+        List<StageStats> stageStats = new ArrayList<>();
+        for (Map.Entry<String, StageCounters> entry : snapshot.entrySet()) {
+            stageStats.add(toStageStats(entry.getKey(), entry.getValue(), queued.getOrDefault(entry.getKey(), 0)));
+        }
+
+        List<String> sources = new ArrayList<>();
+        newsSources.forEach(source -> sources.add(source.getDefinition().getName()));
+
+        PipelineStats stats = new PipelineStats();
+        stats.setSources(sources);
+        stats.setQueueCapacity(config.getQueueCapacity());
+        stats.setRuns(runs.sum());
+        stats.setActiveRuns(activeRuns.size());
+        stats.setSaved(savedTotal.sum());
+        stats.setLastRun(lastRun);
+        stats.setStages(stageStats);
+        return stats;
+    }
+
+    private static StageStats toStageStats(String name, StageCounters counter, int queued) {
+        long received = counter.received.sum();
+        long busyMillis = TimeUnit.NANOSECONDS.toMillis(counter.busyNanos.sum());
+        StageStats stats = new StageStats();
+        stats.setName(name);
+        stats.setWorkers(counter.workers);
+        stats.setQueueCapacity(counter.queueCapacity);
+        stats.setQueued(queued);
+        stats.setReceived(received);
+        stats.setEmitted(counter.emitted.sum());
+        stats.setDropped(counter.dropped.sum());
+        stats.setErrors(counter.errors.sum());
+        stats.setBusyMillis(busyMillis);
+        stats.setBlockedMillis(TimeUnit.NANOSECONDS.toMillis(counter.blockedNanos.sum()));
+        stats.setAvgMillis(received == 0 ? 0 : (double) busyMillis / received);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 发现阶段：并行抓取新闻源的所有列表页，抽取候选链接，跳过URL已存在的链接
+     */
+    private void discover(NewsSource source, Consumer<CrawlTask> emit) {
+        SourceDefinition definition = source.getDefinition();
+        Map<String, CrawlEngine.FetchResult> pages = crawlEngine.fetchAll(
+                definition.getListUrls(), definition.getListHeaders(), spiderProperties.getTimeout());
+
+        // 多个列表页之间按URL去重
+        Map<String, NewsExtractor.NewsLink> uniqueLinks = new LinkedHashMap<>();
+        for (Map.Entry<String, CrawlEngine.FetchResult> page : pages.entrySet()) {
+            try {
+                Document document = page.getValue().requireDocument();
+                List<NewsExtractor.NewsLink> links = NewsExtractor.extractLinks(source, document);
+                log.info("{}列表页 {} 标题: {}, 过滤后的新闻链接数量: {}",
+                        definition.getName(), page.getKey(), document.title(), links.size());
+                for (NewsExtractor.NewsLink link : links) {
+                    uniqueLinks.putIfAbsent(link.getUrl(), link);
+                }
+            } catch (IOException e) {
+                log.warn("抓取{}列表页 {} 失败: {}", definition.getName(), page.getKey(), e.getMessage());
+            }
+        }
+
+        // 限制处理的链接数量，URL已存在的链接不再抓取详情页
+        int limit = Math.min(uniqueLinks.size(), definition.getMaxLinks());
+        int existing = 0;
+        int index = 0;
+        for (NewsExtractor.NewsLink link : uniqueLinks.values()) {
+            if (index++ >= limit) {
+                break;
+            }
+            if (isNewsUrlExists(link.getUrl())) {
+                existing++;
+                continue;
+            }
+            emit.accept(new CrawlTask(source, link));
+        }
+        log.info("{}发现候选链接{}个，处理{}个，其中URL已存在{}个",
+                definition.getName(), uniqueLinks.size(), limit, existing);
+    }
+
+    /**
+     * 抓取阶段：下载详情页，失败时仍向下游传递，由抽取阶段使用标题作为内容
+     */
+    private FetchedPage fetch(CrawlTask task) {
+        SourceDefinition definition = task.source.getDefinition();
+        int timeoutMs = spiderProperties.getTimeout() * Math.max(1, definition.getDetailTimeoutMultiplier());
+        CrawlEngine.FetchResult result = crawlEngine.fetchResult(task.link.getUrl(), definition.getDetailHeaders(), timeoutMs);
+        if (!result.isSuccess()) {
+            log.warn("获取{}详情页失败: {}, 尝试{}次, 错误: {}", definition.getName(), task.link.getUrl(),
+                    result.getAttempts(), result.getError() != null ? result.getError().getMessage() : null);
+        }
+        return new FetchedPage(task, result.getDocument());
+    }
+
+    /**
+     * 校验阶段：补齐默认字段、过滤无效内容并截断超长字段
+     */
+    private void validate(HotNews news, Consumer<HotNews> emit) {
+        if (NewsContentValidator.normalizeAndValidate(news)) {
+            emit.accept(news);
+        } else {
+            log.info("过滤无效新闻: {} - URL: {}", news.getTitle(), news.getSourceUrl());
+        }
+    }
+
+    /**
+     * 去重阶段：本次运行内的URL与相似内容、数据库中的URL、近似重复索引中的相似内容
+     */
+    private void dedup(HotNews news, Set<String> batchUrls, Map<String, String> batchContentHashes,
+                       Consumer<HotNews> emit) {
+        // 先检查URL是否已在本次运行中
+        if (batchUrls.contains(news.getSourceUrl())) {
+            log.info("当前批次已存在相同URL，跳过: {} - URL: {}", news.getTitle(), news.getSourceUrl());
+            return;
+        }
+
+        // 再次检查URL是否已存在于数据库（可能在处理过程中被其他进程添加）
+        if (isNewsUrlExists(news.getSourceUrl())) {
+            log.info("数据库中已存在该URL，跳过: {} - URL: {}", news.getTitle(), news.getSourceUrl());
+            return;
+        }
+
+        String contentHash = news.getContentHash();
+        if (contentHash == null) {
+            log.warn("内容指纹为空，跳过: {} - URL: {}", news.getTitle(), news.getSourceUrl());
+            return;
+        }
+
+        // 检查本次运行中是否有相似内容
+        for (Map.Entry<String, String> entry : batchContentHashes.entrySet()) {
+            if (SimHashUtil.isSimilar(contentHash, entry.getValue())) {
+                log.info("当前批次中已存在相似内容，跳过: {} - URL: {}, 相似于: {}",
+                        news.getTitle(), news.getSourceUrl(), entry.getKey());
+                return;
+            }
+        }
+
+        // 检查数据库中是否有相似内容
+        if (contentSimilarityService.isSimilarToExisting(news)) {
+            log.info("数据库中已存在相似内容，跳过: {} - URL: {}", news.getTitle(), news.getSourceUrl());
+            return;
+        }
+
+        // 记录当前URL和内容指纹，用于后续去重
+        batchUrls.add(news.getSourceUrl());
+        batchContentHashes.put(news.getSourceUrl(), contentHash);
+        emit.accept(news);
+    }
+
+    /**
+     * 入库阶段：一个批次一个事务，单条失败不影响同批次其他新闻
+     * 插入成功后更新布隆过滤器与近似重复索引（索引在事务提交后更新）
+     */
+    private void save(List<HotNews> batch, Consumer<HotNews> emit) {
+        List<HotNews> saved = transactionTemplate.execute(status -> {
+            List<HotNews> inserted = new ArrayList<>();
+            for (HotNews news : batch) {
+                try {
+                    hotNewsMapper.insert(news);
+                    bloomFilterConfig.put(news.getSourceUrl());
+                    contentSimilarityService.indexSavedNews(news);
+                    log.debug("成功保存新闻: ID={}, 标题={}, URL={}", news.getId(), news.getTitle(), news.getSourceUrl());
+                    inserted.add(news);
+                } catch (Exception e) {
+                    // 记录具体哪条数据失败，继续处理下一条
+                    log.error("单条新闻处理失败: {} - URL: {}, 错误: {}",
+                            news.getTitle(), news.getSourceUrl(), e.getMessage(), e);
+                }
+            }
+            return inserted;
+        });
+        if (saved != null) {
+            saved.forEach(emit);
+        }
+    }
+
+    /**
+     * 检查新闻URL是否已经存在于数据库中
+     * 先通过布隆过滤器快速检查，如果布隆过滤器返回可能存在，再查询数据库确认
+     * @param sourceUrl 新闻源URL
+     * @return 是否存在
+     */
+    private boolean isNewsUrlExists(String sourceUrl) {
+        if (sourceUrl == null || sourceUrl.isEmpty()) {
+            return false;
+        }
+
+        try {
+            // 布隆过滤器返回一定不存在，直接返回false
+            if (!bloomFilterConfig.mightContain(sourceUrl)) {
+                return false;
+            }
+
+            // 布隆过滤器返回可能存在，查询数据库确认
+            Long count = hotNewsMapper.selectCount(new QueryWrapper<HotNews>().eq("source_url", sourceUrl));
+            boolean exists = count > 0;
+
+            // 如果数据库中存在但布隆过滤器没有，将其添加到布隆过滤器
+            if (exists) {
+                bloomFilterConfig.put(sourceUrl);
+            }
+            return exists;
+        } catch (Exception e) {
+            log.error("检查URL是否存在时发生错误: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 阶段处理逻辑
+     * @param <I> 输入类型
+     * @param <O> 输出类型
+     */
+    @FunctionalInterface
+    private interface StageHandler<I, O> {
+        /**
+         * 处理一批输入，通过emit向下游输出任意条结果
+         */
+        void handle(List<I> items, Consumer<O> emit) throws Exception;
+    }
+
+    /**
+     * 一次运行中的一个阶段：有界输入队列 + 若干工作线程
+     * 上游所有线程退出且队列为空时，本阶段线程退出
+     */
+    private final class Stage<I, O> {
+        private final String name;
+        private final BlockingQueue<I> queue;
+        private final int workers;
+        private final int batchSize;
+        private final StageHandler<I, O> handler;
+        private final AtomicBoolean cancelled;
+        private final StageCounters counter;
+        private final CountDownLatch done;
+        private Stage<?, I> upstream;
+        private Stage<O, ?> downstream;
+
+        Stage(String name, int capacity, int workers, int batchSize, StageHandler<I, O> handler,
+              AtomicBoolean cancelled) {
+            this.name = name;
+            this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+            this.workers = Math.max(1, workers);
+            this.batchSize = Math.max(1, batchSize);
+            this.handler = handler;
+            this.cancelled = cancelled;
+            this.counter = new StageCounters(this.workers, Math.max(1, capacity));
+            this.done = new CountDownLatch(this.workers);
+        }
+
+        void connect(Stage<?, I> upstream, Stage<O, ?> downstream) {
+            this.upstream = upstream;
+            this.downstream = downstream;
+        }
+
+        void start(ExecutorService executor) {
+            for (int i = 0; i < workers; i++) {
+                executor.execute(this::work);
+            }
+        }
+
+        private boolean upstreamFinished() {
+            return upstream == null || upstream.done.getCount() == 0;
+        }
+
+        private void work() {
+            List<I> batch = new ArrayList<>(batchSize);
+            try {
+                while (!cancelled.get()) {
+                    // 先判断上游是否结束再判断队列是否为空，上游结束后队列不会再增加
+                    boolean finished = upstreamFinished();
+                    I item = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (item != null) {
+                        batch.add(item);
+                        queue.drainTo(batch, batchSize - batch.size());
+                        if (batch.size() < batchSize) {
+                            continue;
+                        }
+                    } else if (!finished || !queue.isEmpty()) {
+                        continue;
+                    }
+                    if (!batch.isEmpty()) {
+                        process(batch);
+                        batch = new ArrayList<>(batchSize);
+                    }
+                    if (item == null) {
+                        break;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (CancellationException e) {
+                // 运行已取消，下游不再消费
+            } finally {
+                done.countDown();
+            }
+        }
+
+        private void process(List<I> batch) {
+            AtomicInteger emitted = new AtomicInteger();
+            AtomicLong blockedNanos = new AtomicLong();
+            long start = System.nanoTime();
+            try {
+                handler.handle(batch, item -> {
+                    long blockStart = System.nanoTime();
+                    emit(item);
+                    blockedNanos.addAndGet(System.nanoTime() - blockStart);
+                    emitted.incrementAndGet();
+                });
+            } catch (CancellationException e) {
+                throw e;
+            } catch (Exception e) {
+                counter.errors.increment();
+                log.error("抓取流水线{}阶段处理失败: {}", name, e.getMessage(), e);
+            } finally {
+                counter.received.add(batch.size());
+                counter.emitted.add(emitted.get());
+                counter.dropped.add(Math.max(0, batch.size() - emitted.get()));
+                counter.blockedNanos.add(blockedNanos.get());
+                counter.busyNanos.add(System.nanoTime() - start - blockedNanos.get());
+            }
+        }
+
+        /**
+         * 放入下游队列，下游队列满时阻塞等待，运行取消后放弃
+         */
+        private void emit(O item) {
+            if (downstream == null) {
+                return;
+            }
+            try {
+                while (!downstream.queue.offer(item, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    if (cancelled.get()) {
+                        throw new CancellationException("抓取流水线已取消");
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("抓取流水线被中断");
+            }
+        }
+    }
+
+    /**
+     * 阶段指标，每次运行的每个阶段各有一份，运行结束后并入累计指标
+     */
+    private static class StageCounters {
+        private final LongAdder received = new LongAdder();
+        private final LongAdder emitted = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder busyNanos = new LongAdder();
+        private final LongAdder blockedNanos = new LongAdder();
+        /**
+         * 每次运行的阶段在创建时确定；汇总统计时为进行中运行的合计
+         */
+        private int workers;
+        private int queueCapacity;
+
+        StageCounters(int workers, int queueCapacity) {
+            this.workers = workers;
+            this.queueCapacity = queueCapacity;
+        }
+
+        /**
+         * 把计数累加到目标指标，不包含工作线程数与队列容量
+         */
+        void addTo(StageCounters target) {
+            target.received.add(received.sum());
+            target.emitted.add(emitted.sum());
+            target.dropped.add(dropped.sum());
+            target.errors.add(errors.sum());
+            target.busyNanos.add(busyNanos.sum());
+            target.blockedNanos.add(blockedNanos.sum());
+        }
+    }
+
+    /**
+     * 待抓取的详情页
+     */
+    private static class CrawlTask {
+        private final NewsSource source;
+        private final NewsExtractor.NewsLink link;
+
+        CrawlTask(NewsSource source, NewsExtractor.NewsLink link) {
+            this.source = source;
+            this.link = link;
+        }
+    }
+
+    /**
+     * 已下载的详情页，抓取失败时document为null
+     */
+    private static class FetchedPage {
+        private final CrawlTask task;
+        private final Document document;
+
+        FetchedPage(CrawlTask task, Document document) {
+            this.task = task;
+            this.document = document;
+        }
+    }
+
+    /**
+     * 阶段统计信息
+     */
+    @Data
+    public static class StageStats {
+        private String name;
+        private int workers;
+        private int queueCapacity;
+        private int queued;
+        private long received;
+        private long emitted;
+        private long dropped;
+        private long errors;
+        private long busyMillis;
+        private long blockedMillis;
+        private double avgMillis;
+    }
+
+    /**
+     * 一次运行的结果
+     */
+    @Data
+    public static class RunResult {
+        private long runId;
+        private List<String> sources;
+        private int saved;
+        private long elapsedMillis;
+        private List<StageStats> stages;
+    }
+
+    /**
+     * 流水线统计信息
+     */
+    @Data
+    public static class PipelineStats {
+        private List<String> sources;
+        private int queueCapacity;
+        private long runs;
+        private int activeRuns;
+        private long saved;
+        private RunResult lastRun;
+        private List<StageStats> stages;
+    }
+}
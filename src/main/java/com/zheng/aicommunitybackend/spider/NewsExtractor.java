@@ -0,0 +1,332 @@
+package com.zheng.aicommunitybackend.spider;
+
+import com.zheng.aicommunitybackend.domain.entity.HotNews;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 按新闻源声明抽取新闻
+ * 列表页抽取候选链接，详情页抽取正文、摘要、封面图与发布时间，不包含任何站点专属逻辑
+ */
+@Slf4j
+public final class NewsExtractor {
+
+    /**
+     * 摘要取正文前多少个字符
+     */
+    private static final int SUMMARY_LENGTH = 100;
+
+    private static final Pattern DATE_TIME_PATTERN =
+            Pattern.compile("(\\d{4})[-年](\\d{1,2})[-月](\\d{1,2})日?\\s*(\\d{1,2})[:\\s时](\\d{1,2})分?");
+
+    private static final Pattern DATE_PATTERN = Pattern.compile("(\\d{4})[-年](\\d{1,2})[-月](\\d{1,2})日?");
+
+    private static final String[] DATE_FORMATS = {
+        "yyyy-MM-dd HH:mm:ss",
+        "yyyy-MM-dd HH:mm",
+        "yyyy年MM月dd日 HH:mm",
+        "yyyy年MM月dd日 HH:mm:ss",
+        "yyyy年MM月dd日",
+        "MM月dd日 HH:mm",
+        "yyyy-MM-dd",
+        "MM-dd HH:mm"
+    };
+
+    private NewsExtractor() {
+    }
+
+    /**
+     * 从列表页抽取候选新闻链接
+     * @param source 新闻源
+     * @param listPage 列表页文档
+     * @return 候选链接，按页面顺序
+     */
+    public static List<NewsLink> extractLinks(NewsSource source, Document listPage) {
+        SourceDefinition definition = source.getDefinition();
+
+        // 按顺序尝试选择器，使用第一个有匹配结果的
+        Elements elements = new Elements();
+        for (String selector : definition.getItemSelectors()) {
+            elements = listPage.select(selector);
+            if (!elements.isEmpty()) {
+                break;
+            }
+        }
+
+        List<NewsLink> links = new ArrayList<>();
+        for (Element element : elements) {
+            Element linkElement = element.tagName().equals("a") ? element : element.selectFirst("a[href]");
+            if (linkElement == null) {
+                continue;
+            }
+            String href = linkElement.attr("href");
+            String text = element.text().trim();
+
+            // 过滤条件：链接必须有文本，且文本长度满足要求
+            if (href.isEmpty() || text.length() <= definition.getMinTitleLength()
+                    || href.contains("#") || href.contains("javascript:")) {
+                continue;
+            }
+            String absoluteUrl = linkElement.attr("abs:href");
+            if (!absoluteUrl.startsWith("http") || !source.acceptLink(href, absoluteUrl)) {
+                continue;
+            }
+
+            NewsLink link = new NewsLink();
+            link.setUrl(absoluteUrl);
+            link.setTitle(text);
+            if (definition.getListSummarySelector() != null) {
+                Element summaryElement = element.selectFirst(definition.getListSummarySelector());
+                if (summaryElement != null) {
+                    link.setListSummary(summaryElement.text().trim());
+                }
+            }
+            links.add(link);
+        }
+
+        // 如果还是没有找到任何链接，尝试直接从HTML中提取
+        if (links.isEmpty() && definition.getFallbackLinkPattern() != null) {
+            Matcher matcher = Pattern.compile(definition.getFallbackLinkPattern()).matcher(listPage.html());
+            while (matcher.find()) {
+                String href = matcher.group(1);
+                if (!href.contains("#") && !href.contains("javascript:")) {
+                    NewsLink link = new NewsLink();
+                    link.setUrl(href);
+                    link.setTitle(definition.getName() + "文章 - " + href.substring(href.lastIndexOf('/') + 1));
+                    links.add(link);
+                }
+            }
+            log.info("{}从HTML源代码中提取到的链接数量: {}", definition.getName(), links.size());
+        }
+        return links;
+    }
+
+    /**
+     * 从详情页抽取新闻
+     * 详情页抓取失败或没有正文时，使用标题（或列表页摘要）作为内容
+     * @param source 新闻源
+     * @param link 列表页链接
+     * @param detail 详情页文档，抓取失败时为null
+     * @return 新闻对象
+     */
+    public static HotNews extractNews(NewsSource source, NewsLink link, Document detail) {
+        SourceDefinition definition = source.getDefinition();
+        String title = link.getTitle();
+
+        HotNews news = new HotNews();
+        news.setTitle(title);
+        news.setSourceUrl(link.getUrl());
+        news.setContent("<p>" + title + "</p>");
+        news.setSummary(link.getListSummary() != null && !link.getListSummary().isEmpty() ? link.getListSummary() : title);
+        news.setPublishTime(new Date());
+
+        if (detail != null) {
+            // 只提取文本内容并处理成简单的HTML格式
+            Element contentElement = detail.selectFirst(definition.getContentSelector());
+            if (contentElement != null) {
+                news.setContent(extractContentText(contentElement));
+                // 生成摘要，取内容前100个字符
+                String text = contentElement.text().trim();
+                news.setSummary(text.length() > SUMMARY_LENGTH ? text.substring(0, SUMMARY_LENGTH) + "..." : text);
+            } else {
+                log.warn("未找到文章内容元素: {}", link.getUrl());
+            }
+
+            // 抓取封面图，未匹配时尝试从meta标签中获取
+            Element imgElement = detail.selectFirst(definition.getImageSelector());
+            if (imgElement != null) {
+                news.setCoverImage(imgElement.attr("abs:src"));
+            } else {
+                Element metaImg = detail.selectFirst("meta[property=og:image]");
+                if (metaImg != null) {
+                    news.setCoverImage(metaImg.attr("content"));
+                }
+            }
+
+            // 抓取发布时间
+            Element timeElement = detail.selectFirst(definition.getTimeSelector());
+            if (timeElement != null) {
+                Date publishTime = parseDate(timeElement.text().trim());
+                if (publishTime != null) {
+                    news.setPublishTime(publishTime);
+                }
+            }
+        }
+
+        // 设置其他属性
+        Date now = new Date();
+        news.setSource(definition.getName());
+        news.setCategory(definition.getCategory());
+        news.setTags(definition.getTags());
+        news.setViewCount(0);
+        news.setLikeCount(0);
+        news.setCommentCount(0);
+        news.setIsHot(1);  // 默认为热点
+        news.setIsTop(0);  // 默认不置顶
+        news.setStatus(1); // 默认为已发布
+        news.setCrawlTime(now);
+        news.setCreateTime(now);
+        news.setUpdateTime(now);
+        return news;
+    }
+
+    /**
+     * 从HTML元素中提取文本内容并转换成简洁的HTML格式
+     * @param element HTML元素
+     * @return 简洁的HTML内容字符串
+     */
+    public static String extractContentText(Element element) {
+        if (element == null) {
+            return "<p>暂无内容</p>";
+        }
+
+        StringBuilder content = new StringBuilder();
+
+        // 首先移除无关元素
+        element = element.clone(); // 克隆以免修改原始元素
+        element.select("script, style, .ad, .advertisement, .footer, .comment, .share, .related").remove();
+
+        // 获取所有段落元素
+        Elements paragraphs = element.select("p");
+        if (!paragraphs.isEmpty()) {
+            // 如果有段落元素，直接使用这些段落
+            for (Element p : paragraphs) {
+                String text = p.text().trim();
+                if (isUsefulParagraph(text)) {
+                    content.append("<p>").append(text).append("</p>");
+                }
+            }
+        } else {
+            // 如果没有段落元素，按照换行符分割文本
+            String[] lines = element.text().split("\\n");
+            for (String line : lines) {
+                String text = line.trim();
+                if (isUsefulParagraph(text)) {
+                    content.append("<p>").append(text).append("</p>");
+                }
+            }
+
+            // 如果没有换行符，则整个文本作为一个段落
+            if (lines.length <= 1) {
+                String text = element.text().trim();
+                if (isUsefulParagraph(text)) {
+                    content = new StringBuilder();
+                    content.append("<p>").append(text).append("</p>");
+                }
+            }
+        }
+
+        // 如果内容为空，返回默认文本
+        if (content.length() == 0) {
+            return "<p>暂无内容</p>";
+        }
+
+        return content.toString();
+    }
+
+    /**
+     * 解析多种格式的日期
+     * @param dateStr 日期字符串
+     * @return 解析后的日期对象，如果解析失败则返回null
+     */
+    public static Date parseDate(String dateStr) {
+        // 如果为空，直接返回null
+        if (dateStr == null || dateStr.trim().isEmpty()) {
+            return null;
+        }
+
+        // 尝试从字符串中提取日期
+        Date date = extractDateFromString(dateStr);
+        if (date != null) {
+            return date;
+        }
+
+        // 尝试多种日期格式
+        for (String format : DATE_FORMATS) {
+            try {
+                SimpleDateFormat sdf = new SimpleDateFormat(format);
+                return sdf.parse(dateStr.trim());
+            } catch (ParseException e) {
+                // 继续尝试下一种格式
+            }
+        }
+
+        // 所有格式都解析失败，返回null
+        return null;
+    }
+
+    /**
+     * 从字符串中提取日期
+     * @param text 包含日期的文本
+     * @return 提取的日期，如果无法提取则返回null
+     */
+    private static Date extractDateFromString(String text) {
+        // 尝试匹配常见的日期格式
+        Matcher matcher = DATE_TIME_PATTERN.matcher(text);
+        if (matcher.find()) {
+            try {
+                int year = Integer.parseInt(matcher.group(1));
+                int month = Integer.parseInt(matcher.group(2));
+                int day = Integer.parseInt(matcher.group(3));
+                int hour = Integer.parseInt(matcher.group(4));
+                int minute = Integer.parseInt(matcher.group(5));
+
+                SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+                return sdf.parse(String.format("%04d-%02d-%02d %02d:%02d:00", year, month, day, hour, minute));
+            } catch (Exception e) {
+                log.error("解析日期失败：" + text, e);
+            }
+        }
+
+        // 尝试匹配仅有日期的格式
+        matcher = DATE_PATTERN.matcher(text);
+        if (matcher.find()) {
+            try {
+                int year = Integer.parseInt(matcher.group(1));
+                int month = Integer.parseInt(matcher.group(2));
+                int day = Integer.parseInt(matcher.group(3));
+
+                SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+                return sdf.parse(String.format("%04d-%02d-%02d 00:00:00", year, month, day));
+            } catch (Exception e) {
+                log.error("解析日期失败：" + text, e);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * 过滤空段落与推广、版权等无关段落
+     */
+    private static boolean isUsefulParagraph(String text) {
+        return !text.isEmpty() &&
+            !text.contains("下载新浪财经APP") &&
+            !text.contains("关注") &&
+            !text.contains("扫码") &&
+            !text.contains("二维码") &&
+            !text.contains("免责声明") &&
+            !text.contains("版权所有");
+    }
+
+    /**
+     * 列表页上的候选新闻链接
+     */
+    @Data
+    public static class NewsLink {
+        private String url;
+        private String title;
+        private String listSummary;
+    }
+}
@@ -0,0 +1,37 @@
+package com.zheng.aicommunitybackend.spider;
+
+/**
+ * 新闻源扩展点
+ * 每个站点实现一个Spring组件并返回自己的抽取声明，抓取流水线自动发现所有新闻源，
+ * 新增站点只需新增一个实现，不需要再写一套抓取循环
+ */
+public interface NewsSource {
+
+    /**
+     * 获取新闻源声明
+     */
+    SourceDefinition getDefinition();
+
+    /**
+     * 判断列表页上的链接是否可能是新闻
+     * 默认按声明的域名与关键词过滤，站点规则无法用声明表达时可以覆盖
+     * @param href 链接原始href
+     * @param absoluteUrl 链接绝对地址
+     * @return 是否保留
+     */
+    default boolean acceptLink(String href, String absoluteUrl) {
+        SourceDefinition definition = getDefinition();
+        if (definition.getLinkDomain() != null && !absoluteUrl.contains(definition.getLinkDomain())) {
+            return false;
+        }
+        if (definition.getLinkKeywords().isEmpty()) {
+            return true;
+        }
+        for (String keyword : definition.getLinkKeywords()) {
+            if (href.contains(keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
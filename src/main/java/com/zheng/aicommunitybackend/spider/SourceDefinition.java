@@ -0,0 +1,107 @@
+package com.zheng.aicommunitybackend.spider;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 新闻源声明
+ * 描述一个站点从列表页到详情页的抽取规则，抓取流水线只按声明执行，不包含站点专属代码
+ */
+@Data
+public class SourceDefinition {
+
+    /**
+     * 新闻源标识
+     */
+    private String id;
+
+    /**
+     * 新闻源名称，写入新闻的 source 字段
+     */
+    private String name;
+
+    /**
+     * 新闻分类
+     */
+    private String category = "财经";
+
+    /**
+     * 新闻标签
+     */
+    private String tags;
+
+    /**
+     * 列表页URL
+     */
+    private List<String> listUrls = new ArrayList<>();
+
+    /**
+     * 列表页请求头
+     */
+    private Map<String, String> listHeaders = Collections.emptyMap();
+
+    /**
+     * 详情页请求头
+     */
+    private Map<String, String> detailHeaders = Collections.emptyMap();
+
+    /**
+     * 列表项选择器，按顺序尝试，使用第一个有匹配结果的选择器
+     * 匹配到的元素本身是链接时取其href，否则取其中第一个链接
+     */
+    private List<String> itemSelectors = new ArrayList<>();
+
+    /**
+     * 列表项文本长度需大于该值才视为新闻标题
+     */
+    private int minTitleLength = 5;
+
+    /**
+     * 链接的绝对地址需包含的域名，为空时不限制
+     */
+    private String linkDomain;
+
+    /**
+     * 链接原始href需包含其中任一关键词，为空时不限制
+     */
+    private List<String> linkKeywords = Collections.emptyList();
+
+    /**
+     * 选择器没有匹配到链接时，从HTML源码中提取链接的正则（第1个分组为URL），为空时不使用
+     */
+    private String fallbackLinkPattern;
+
+    /**
+     * 列表项中的摘要选择器，详情页没有正文时使用，为空时不使用
+     */
+    private String listSummarySelector;
+
+    /**
+     * 每次抓取最多处理的链接数
+     */
+    private int maxLinks = 30;
+
+    /**
+     * 详情页超时相对全局超时的倍数
+     */
+    private int detailTimeoutMultiplier = 1;
+
+    /**
+     * 详情页正文选择器
+     */
+    private String contentSelector;
+
+    /**
+     * 详情页封面图选择器，未匹配时使用 og:image
+     */
+    private String imageSelector;
+
+    /**
+     * 详情页发布时间选择器，未匹配或无法解析时使用当前时间
+     */
+    private String timeSelector;
+}
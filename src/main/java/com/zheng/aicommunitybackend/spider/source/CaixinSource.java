@@ -0,0 +1,61 @@
+package com.zheng.aicommunitybackend.spider.source;
+
+import com.zheng.aicommunitybackend.properties.SpiderProperties;
+import com.zheng.aicommunitybackend.spider.NewsSource;
+import com.zheng.aicommunitybackend.spider.SourceDefinition;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 新闻源 - 财新网
+ */
+@Component
+public class CaixinSource implements NewsSource {
+
+    public static final String ID = "caixin";
+
+    /**
+     * 列表页请求头
+     */
+    private static final Map<String, String> LIST_HEADERS = Map.of(
+            "Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8",
+            "Accept-Language", "zh-CN,zh;q=0.8,en-US;q=0.5,en;q=0.3",
+            "Accept-Encoding", "gzip, deflate, br",
+            "Cache-Control", "max-age=0");
+
+    /**
+     * 详情页请求头
+     */
+    private static final Map<String, String> DETAIL_HEADERS = Map.of(
+            "Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8",
+            "Accept-Language", "zh-CN,zh;q=0.8,en-US;q=0.5,en;q=0.3");
+
+    private final SourceDefinition definition = new SourceDefinition();
+
+    public CaixinSource(SpiderProperties spiderProperties) {
+        definition.setId(ID);
+        definition.setName("财新网");
+        definition.setTags("财经,财新网");
+        // 列表页地址可通过配置调整
+        definition.setListUrls(List.of(spiderProperties.getFinanceNews().getCaixinUrl()));
+        definition.setListHeaders(LIST_HEADERS);
+        definition.setDetailHeaders(DETAIL_HEADERS);
+        definition.setItemSelectors(List.of(
+                "div.news_list li, .contentList li, ul.list li, .column-box a, .box-r a",
+                ".news_list li, .list li, article, .news-item, .item, a[href]:has(h3), a[href]:has(h4), a[href]:has(.title)",
+                "a[href]"));
+        definition.setLinkDomain("caixin.com");
+        definition.setListSummarySelector("p.summary, .desc, .description");
+        definition.setMaxLinks(30);
+        definition.setContentSelector("div.article-content, .content, .article, #Main_Content_Val, .text, .article_content, .main-text");
+        definition.setImageSelector("div.article-img img, .article img:first-child, .content img:first-child, .main-pic img");
+        definition.setTimeSelector("span.time, .pubtime, .date, time, .article-time, .publish-time");
+    }
+
+    @Override
+    public SourceDefinition getDefinition() {
+        return definition;
+    }
+}
@@ -0,0 +1,64 @@
+package com.zheng.aicommunitybackend.spider.source;
+
+import com.zheng.aicommunitybackend.spider.NewsSource;
+import com.zheng.aicommunitybackend.spider.SourceDefinition;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 新闻源 - 新浪财经
+ */
+@Component
+public class SinaSource implements NewsSource {
+
+    public static final String ID = "sina";
+
+    /**
+     * 列表页请求头
+     */
+    private static final Map<String, String> LIST_HEADERS = Map.of(
+            "Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8",
+            "Accept-Language", "zh-CN,zh;q=0.8,en-US;q=0.5,en;q=0.3");
+
+    /**
+     * 详情页请求头
+     */
+    private static final Map<String, String> DETAIL_HEADERS = Map.of(
+            "Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8",
+            "Accept-Language", "zh-CN,zh;q=0.8,en-US;q=0.5,en;q=0.3",
+            "Referer", "https://finance.sina.com.cn/");
+
+    private final SourceDefinition definition = new SourceDefinition();
+
+    public SinaSource() {
+        definition.setId(ID);
+        definition.setName("新浪财经");
+        definition.setTags("财经,新浪财经");
+        // 首页与多个子频道，增加数据源
+        definition.setListUrls(List.of(
+                "https://finance.sina.com.cn/",
+                "https://finance.sina.com.cn/stock/",
+                "https://finance.sina.com.cn/roll/",
+                "https://finance.sina.com.cn/china/"));
+        definition.setListHeaders(LIST_HEADERS);
+        definition.setDetailHeaders(DETAIL_HEADERS);
+        definition.setItemSelectors(List.of("a[href]"));
+        definition.setMinTitleLength(4);
+        // 站内链接都包含 finance 域名，关键词按原始href匹配
+        definition.setLinkKeywords(List.of(
+                "finance", "money", "stock", "business", "economy",
+                "china", "forex", "fund", "industry", "bank"));
+        definition.setMaxLinks(100);
+        definition.setDetailTimeoutMultiplier(2);
+        definition.setContentSelector("article, .article, .content, .article-content, #artibody, .main-content, .article-text, #content, .news-text");
+        definition.setImageSelector(".article-img img, .main-pic img, article img:first-child, .content img:first-child, img");
+        definition.setTimeSelector("time, .time, .date, .publish-time, .article-time, .pubtime, .release-time");
+    }
+
+    @Override
+    public SourceDefinition getDefinition() {
+        return definition;
+    }
+}
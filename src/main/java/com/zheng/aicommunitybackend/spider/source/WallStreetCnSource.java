@@ -0,0 +1,68 @@
+package com.zheng.aicommunitybackend.spider.source;
+
+import com.zheng.aicommunitybackend.spider.NewsSource;
+import com.zheng.aicommunitybackend.spider.SourceDefinition;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 新闻源 - 华尔街见闻
+ */
+@Component
+public class WallStreetCnSource implements NewsSource {
+
+    public static final String ID = "wallstreetcn";
+
+    /**
+     * 列表页请求头，模拟真实浏览器
+     */
+    private static final Map<String, String> LIST_HEADERS = Map.ofEntries(
+            Map.entry("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,image/webp,image/apng,*/*;q=0.8,application/signed-exchange;v=b3;q=0.9"),
+            Map.entry("Accept-Language", "zh-CN,zh;q=0.9,en;q=0.8"),
+            Map.entry("Accept-Encoding", "gzip, deflate, br"),
+            Map.entry("Cache-Control", "max-age=0"),
+            Map.entry("sec-ch-ua", "\"Google Chrome\";v=\"119\", \"Chromium\";v=\"119\", \"Not?A_Brand\";v=\"24\""),
+            Map.entry("sec-ch-ua-mobile", "?0"),
+            Map.entry("sec-ch-ua-platform", "\"Windows\""),
+            Map.entry("Sec-Fetch-Dest", "document"),
+            Map.entry("Sec-Fetch-Mode", "navigate"),
+            Map.entry("Sec-Fetch-Site", "none"),
+            Map.entry("Sec-Fetch-User", "?1"),
+            Map.entry("Upgrade-Insecure-Requests", "1"));
+
+    /**
+     * 详情页请求头
+     */
+    private static final Map<String, String> DETAIL_HEADERS = Map.of(
+            "Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,image/webp,image/apng,*/*;q=0.8",
+            "Accept-Language", "zh-CN,zh;q=0.9,en;q=0.8");
+
+    private final SourceDefinition definition = new SourceDefinition();
+
+    public WallStreetCnSource() {
+        definition.setId(ID);
+        definition.setName("华尔街见闻");
+        definition.setTags("财经,华尔街见闻");
+        // 使用主页，避免使用可能已更改的子页面
+        definition.setListUrls(List.of("https://wallstreetcn.com"));
+        definition.setListHeaders(LIST_HEADERS);
+        definition.setDetailHeaders(DETAIL_HEADERS);
+        definition.setItemSelectors(List.of(
+                "div.article-card, div.card, div.news-item, article",
+                "a.title, a h2, h3 a, .news-title a, .article-title a",
+                "a[href]"));
+        definition.setLinkDomain("wallstreetcn.com");
+        definition.setFallbackLinkPattern("href=[\"'](https?://wallstreetcn\\.com/[^\"']+)[\"']");
+        definition.setMaxLinks(30);
+        definition.setContentSelector("article, .article, .content, .post-content, .article-content, #content, .main-content, .article-detail");
+        definition.setImageSelector("img.cover, .article-img img, .cover-img, article img:first-child");
+        definition.setTimeSelector("time, .time, .date, .publish-time, .article-time, .post-date");
+    }
+
+    @Override
+    public SourceDefinition getDefinition() {
+        return definition;
+    }
+}
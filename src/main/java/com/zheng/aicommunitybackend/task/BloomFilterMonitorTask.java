@@ -105,6 +105,9 @@ public class BloomFilterMonitorTask {
                 stats.getAlertLevel().getName(), stats.getAlertLevel().getDescription());
         log.info("   数据保留天数: {} 天", stats.getDataRetentionDays());
         log.info("   最后重建时间: {}", stats.getLastRebuildTime());
+        stats.getSegments().forEach(segment -> log.info("   分段 {}: {}/{} ({})",
+                segment.getDay(), segment.getUrlCount(), segment.getExpectedInsertions(),
+                String.format("%.1f%%", segment.getFillRatio() * 100)));
         log.info("   建议操作: {}", stats.getAlertRecommendation());
     }
 
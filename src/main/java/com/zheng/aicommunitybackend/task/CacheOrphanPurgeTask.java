@@ -0,0 +1,78 @@
+package com.zheng.aicommunitybackend.task;
+
+import com.zheng.aicommunitybackend.constant.CacheConstants;
+import com.zheng.aicommunitybackend.utils.CacheVersionManager;
+import com.zheng.aicommunitybackend.utils.RedisUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 版本化缓存孤儿key清理任务
+ * 命名空间版本递增后旧版本key不再被读取，只能等待过期；
+ * 本任务使用 SCAN 增量遍历各缓存前缀，分批 UNLINK 版本号落后的key，提前释放内存
+ */
+@Slf4j
+@Component
+public class CacheOrphanPurgeTask {
+
+    /**
+     * 缓存key前缀 -> 所属命名空间
+     */
+    private static final Map<String, String> PREFIX_NAMESPACES = new LinkedHashMap<>();
+
+    static {
+        PREFIX_NAMESPACES.put(CacheConstants.POST_PAGE_PREFIX, CacheConstants.POST_PAGE_NAMESPACE);
+        PREFIX_NAMESPACES.put(CacheConstants.POST_DETAIL_PREFIX, CacheConstants.POST_DETAIL_NAMESPACE);
+        PREFIX_NAMESPACES.put(CacheConstants.NEWS_PAGE_PREFIX, CacheConstants.NEWS_LIST_NAMESPACE);
+        PREFIX_NAMESPACES.put(CacheConstants.HOT_NEWS_PREFIX, CacheConstants.NEWS_LIST_NAMESPACE);
+        PREFIX_NAMESPACES.put(CacheConstants.NEWS_DETAIL_PREFIX, CacheConstants.NEWS_DETAIL_NAMESPACE);
+    }
+
+    @Autowired
+    private RedisUtils redisUtils;
+
+    @Autowired
+    private CacheVersionManager cacheVersionManager;
+
+    /**
+     * 每10分钟清理一次旧版本缓存
+     */
+    @Scheduled(fixedDelay = 10 * 60 * 1000, initialDelay = 60 * 1000)
+    public void purgeOrphanKeys() {
+        long start = System.currentTimeMillis();
+        long totalPurged = 0;
+        for (Map.Entry<String, String> entry : PREFIX_NAMESPACES.entrySet()) {
+            try {
+                totalPurged += purgePrefix(entry.getKey(), entry.getValue());
+            } catch (Exception e) {
+                log.error("清理旧版本缓存失败，前缀: {}", entry.getKey(), e);
+            }
+        }
+        if (totalPurged > 0) {
+            log.info("旧版本缓存清理完成，共清理{}个key，耗时{}ms", totalPurged, System.currentTimeMillis() - start);
+        }
+    }
+
+    private long purgePrefix(String prefix, String namespace) {
+        long currentVersion = cacheVersionManager.current(namespace);
+        long[] purged = {0};
+        redisUtils.scan(prefix + "v*", keys -> {
+            List<String> orphans = keys.stream()
+                    .filter(key -> {
+                        long version = CacheConstants.parseVersion(prefix, key);
+                        return version >= 0 && version < currentVersion;
+                    })
+                    .toList();
+            if (!orphans.isEmpty()) {
+                purged[0] += redisUtils.unlink(orphans);
+            }
+        });
+        return purged[0];
+    }
+}
@@ -1,46 +1,51 @@
 package com.zheng.aicommunitybackend.task;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.zheng.aicommunitybackend.domain.entity.HotNews;
 import com.zheng.aicommunitybackend.mapper.HotNewsMapper;
 import com.zheng.aicommunitybackend.service.impl.ContentSimilarityService;
+import com.zheng.aicommunitybackend.util.SimHashUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 /**
  * 内容指纹迁移任务
- * 为现有新闻生成内容指纹
+ * 为没有内容指纹的新闻生成指纹，并为去重保留窗口内的旧版本指纹重新计算，
+ * 保证参与去重比较的指纹都由当前版本的算法生成
  */
 @Slf4j
 @Component
 @Order(100) // 设置较低优先级，确保在其他初始化完成后执行
 public class ContentHashMigrationTask implements CommandLineRunner {
 
+    private static final int PAGE_SIZE = 100;
+
     @Autowired
     private HotNewsMapper hotNewsMapper;
     
     @Autowired
     private ContentSimilarityService contentSimilarityService;
+
+    /**
+     * 去重保留天数，窗口外的旧版本指纹不再参与比较，不需要重新计算
+     */
+    @Value("${news.dedup.retention-days:7}")
+    private int retentionDays;
     
     @Override
     public void run(String... args) {
         log.info("开始为现有新闻生成内容指纹...");
-        
-        int pageSize = 100;
-        int currentPage = 1;
-        int total = 0;
-        int processed = 0;
-        
-        // 查询没有内容指纹的新闻
-        LambdaQueryWrapper<HotNews> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.isNull(HotNews::getContentHash);
-        
-        // 获取总数
-        total = hotNewsMapper.selectCount(queryWrapper).intValue();
+
+        Date windowStart = new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionDays));
+        long total = hotNewsMapper.selectCount(pendingQuery(windowStart, 0L));
         log.info("共有{}条新闻需要生成内容指纹", total);
         
         if (total == 0) {
@@ -48,20 +53,28 @@ public class ContentHashMigrationTask implements CommandLineRunner {
             return;
         }
         
-        // 分页处理
+        // 按ID游标分页：处理过的行不再满足查询条件，偏移分页会跳过数据
+        int processed = 0;
+        long lastId = 0L;
         while (true) {
-            Page<HotNews> page = hotNewsMapper.selectPage(new Page<>(currentPage, pageSize), queryWrapper);
-            if (page.getRecords().isEmpty()) {
+            List<HotNews> page = hotNewsMapper.selectList(pendingQuery(windowStart, lastId)
+                    .orderByAsc(HotNews::getId)
+                    .last("LIMIT " + PAGE_SIZE));
+            if (page.isEmpty()) {
                 break;
             }
             
-            for (HotNews news : page.getRecords()) {
+            for (HotNews news : page) {
+                lastId = news.getId();
                 try {
                     // 生成内容指纹
                     contentSimilarityService.generateContentHash(news);
                     
-                    // 更新到数据库
-                    hotNewsMapper.updateById(news);
+                    // 只更新指纹字段，不覆盖并发更新的浏览量等字段
+                    HotNews update = new HotNews();
+                    update.setId(news.getId());
+                    update.setContentHash(news.getContentHash());
+                    hotNewsMapper.updateById(update);
                     
                     processed++;
                     if (processed % 100 == 0) {
@@ -72,10 +85,20 @@ public class ContentHashMigrationTask implements CommandLineRunner {
                             news.getId(), news.getTitle(), e.getMessage());
                 }
             }
-            
-            currentPage++;
         }
         
         log.info("内容指纹迁移任务完成，共处理{}条新闻", processed);
     }
-} 
\ No newline at end of file
+
+    /**
+     * 需要（重新）生成指纹的新闻：没有指纹，或保留窗口内的旧版本指纹
+     */
+    private LambdaQueryWrapper<HotNews> pendingQuery(Date windowStart, long lastId) {
+        LambdaQueryWrapper<HotNews> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.gt(HotNews::getId, lastId)
+                .and(wrapper -> wrapper.isNull(HotNews::getContentHash)
+                        .or(legacy -> legacy.notLikeRight(HotNews::getContentHash, SimHashUtil.FINGERPRINT_VERSION)
+                                .ge(HotNews::getCreateTime, windowStart)));
+        return queryWrapper;
+    }
+}
@@ -1,26 +1,36 @@
 package com.zheng.aicommunitybackend.task;
 
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.zheng.aicommunitybackend.domain.entity.CommunityPosts;
+import com.zheng.aicommunitybackend.component.RedisLock;
+import com.zheng.aicommunitybackend.constant.CacheConstants;
+import com.zheng.aicommunitybackend.domain.dto.LikeActionMessage;
+import com.zheng.aicommunitybackend.domain.dto.LikeBatchResult;
+import com.zheng.aicommunitybackend.domain.dto.LikeCountCheck;
 import com.zheng.aicommunitybackend.domain.entity.LikeRecords;
-import com.zheng.aicommunitybackend.domain.entity.PostComments;
 import com.zheng.aicommunitybackend.mapper.CommunityPostsMapper;
 import com.zheng.aicommunitybackend.mapper.LikeRecordsMapper;
 import com.zheng.aicommunitybackend.mapper.PostCommentsMapper;
+import com.zheng.aicommunitybackend.service.LikeRecordsService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.params.ScanParams;
+import redis.clients.jedis.resps.ScanResult;
 
 import java.util.*;
-import java.util.concurrent.Executors;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
 
 /**
  * 点赞数据对账补偿任务
+ * 以Redis用户点赞哈希为准修正数据库，整个过程流式执行、内存占用与数据总量无关：
+ * 1. 使用 SCAN 游标分页遍历用户点赞哈希，每个用户用 HSCAN 分页读取点赞目标，
+ *    用户ID与编码为 long 的目标都存入排序后的原始类型数组，与数据库中该页用户的点赞记录归并比对，差异批量写回；
+ * 2. 按ID游标分块遍历帖子与评论，修正点赞数与点赞记录数量不一致的目标。
+ * 每处理完一页即把进度写入Redis检查点，任务中断后下次执行从检查点继续
  */
 @Slf4j
 @Component
@@ -28,352 +38,321 @@ public class LikeReconciliationTask {
 
     @Autowired
     private StringRedisTemplate stringRedisTemplate;
-    
+
     @Autowired
     private LikeRecordsMapper likeRecordsMapper;
-    
+
     @Autowired
     private CommunityPostsMapper communityPostsMapper;
-    
+
     @Autowired
     private PostCommentsMapper postCommentsMapper;
-    
-    // Redis中用户点赞记录的hash结构key前缀
-    private static final String LIKE_KEY_PREFIX = "community:like:";
 
+    @Autowired
+    private LikeRecordsService likeRecordsService;
+
+    @Autowired
+    private RedisLock redisLock;
+
+    /**
+     * 对账检查点key（hash）
+     */
+    private static final String CHECKPOINT_KEY = "like:reconcile:checkpoint";
+
+    /**
+     * 对账任务锁，防止多个节点同时执行
+     */
+    private static final String LOCK_KEY = "like:reconcile:lock";
+
+    private static final long LOCK_EXPIRE_HOURS = 2;
+
+    private static final String PHASE_RECORDS = "records";
+    private static final String PHASE_POSTS = "posts";
+    private static final String PHASE_COMMENTS = "comments";
+
+    /**
+     * SCAN / HSCAN 每次返回数量提示
+     */
+    private static final int SCAN_COUNT = 500;
+
+    /**
+     * 点赞数对账每块的目标数
+     */
+    private static final int COUNT_CHUNK_SIZE = 500;
+
+    /**
+     * 单个事务应用的最大点赞动作数
+     */
+    private static final int APPLY_BATCH_SIZE = 1000;
+
+    private static final int TYPE_POST = 1;
+    private static final int TYPE_COMMENT = 2;
+
+    /**
+     * 目标编码：高8位为目标类型，低56位为目标ID
+     */
+    private static final int TYPE_SHIFT = 56;
+    private static final long TARGET_ID_MASK = (1L << TYPE_SHIFT) - 1;
 
-    
     /**
      * 每天凌晨3点执行点赞数据对账补偿
      */
-    @Transactional
     @Scheduled(cron = "0 0 3 * * ?")
     public void reconcileLikeData() {
-        log.info("开始执行点赞数据对账补偿任务...");
-        
+        String lockToken = redisLock.tryLock(LOCK_KEY, LOCK_EXPIRE_HOURS, TimeUnit.HOURS);
+        if (lockToken == null) {
+            log.info("点赞数据对账任务正在其他节点执行，跳过");
+            return;
+        }
         try {
-            // 1. 从Redis中获取所有用户点赞数据并统计点赞数
-            Map<String, Integer> postLikeCountMap = new HashMap<>();  // 文章点赞数统计
-            Map<String, Integer> commentLikeCountMap = new HashMap<>();  // 评论点赞数统计
-            Map<String, Set<Long>> postLikeUsersMap = new HashMap<>();  // 文章点赞用户集合
-            Map<String, Set<Long>> commentLikeUsersMap = new HashMap<>();  // 评论点赞用户集合
-            
-            // 收集所有点赞记录
-            collectLikeDataFromRedis(postLikeCountMap, commentLikeCountMap, 
-                    postLikeUsersMap, commentLikeUsersMap);
-            
-            // 2. 同步处理文章点赞数和记录
-            reconcilePostsLikeData(postLikeCountMap, postLikeUsersMap);
-
-            // 3. 同步处理评论点赞数和记录
-            reconcileCommentsLikeData(commentLikeCountMap, commentLikeUsersMap);
-
-
-            log.info("点赞数据对账补偿任务执行完成");
+            Progress progress = runReconcile();
+            log.info("点赞数据对账补偿任务执行完成: {}", progress);
         } catch (Exception e) {
-            log.error("点赞数据对账补偿任务执行失败", e);
+            log.error("点赞数据对账补偿任务执行失败，下次执行将从检查点继续", e);
+            throw e;
+        } finally {
+            // 只释放自己持有的锁，执行超过锁过期时间时不会误删其他节点的锁
+            redisLock.unlock(LOCK_KEY, lockToken);
         }
     }
-    
+
     /**
-     * 从Redis中收集所有用户的点赞数据
+     * 执行对账，从检查点恢复进度
      */
-    private void collectLikeDataFromRedis(
-            Map<String, Integer> postLikeCountMap, 
-            Map<String, Integer> commentLikeCountMap,
-            Map<String, Set<Long>> postLikeUsersMap,
-            Map<String, Set<Long>> commentLikeUsersMap) {
-        
-        log.info("开始从Redis收集点赞数据...");
-        // 获取所有用户的点赞key
-        Set<String> userLikeKeys = stringRedisTemplate.keys(LIKE_KEY_PREFIX + "*");
-        if (userLikeKeys == null || userLikeKeys.isEmpty()) {
-            log.info("Redis中未找到点赞记录数据");
-            return;
+    private Progress runReconcile() {
+        Progress progress = Progress.restore(stringRedisTemplate.<String, String>opsForHash().entries(CHECKPOINT_KEY));
+        if (progress.resumed) {
+            log.info("从检查点继续点赞数据对账: {}", progress);
+        } else {
+            log.info("开始执行点赞数据对账补偿任务...");
         }
-        
-        log.info("找到{}个用户点赞记录", userLikeKeys.size());
-        
-        // 遍历每个用户的点赞记录
-        for (String userLikeKey : userLikeKeys) {
-            // 提取用户ID
-            String userIdStr = userLikeKey.substring(LIKE_KEY_PREFIX.length());
-            Long userId;
-            try {
-                userId = Long.valueOf(userIdStr);
-            } catch (NumberFormatException e) {
-                log.warn("无效的用户ID: {}", userIdStr);
-                continue;
+
+        if (PHASE_RECORDS.equals(progress.phase)) {
+            reconcileRecords(progress);
+            progress.phase = PHASE_POSTS;
+            progress.lastId = 0;
+            saveCheckpoint(progress);
+        }
+        if (PHASE_POSTS.equals(progress.phase)) {
+            reconcileCounts(progress, TYPE_POST, communityPostsMapper::selectLikeCountsAfter);
+            progress.phase = PHASE_COMMENTS;
+            progress.lastId = 0;
+            saveCheckpoint(progress);
+        }
+        if (PHASE_COMMENTS.equals(progress.phase)) {
+            reconcileCounts(progress, TYPE_COMMENT, postCommentsMapper::selectLikeCountsAfter);
+        }
+
+        stringRedisTemplate.delete(CHECKPOINT_KEY);
+        return progress;
+    }
+
+    /**
+     * 阶段一：SCAN 遍历用户点赞哈希，按页与数据库点赞记录比对
+     */
+    private void reconcileRecords(Progress progress) {
+        ScanParams scanParams = new ScanParams().match(CacheConstants.LIKE_USER_PREFIX + "*").count(SCAN_COUNT);
+        int pages = 0;
+        do {
+            String cursor = progress.cursor;
+            ScanResult<String> page = stringRedisTemplate.execute((RedisCallback<ScanResult<String>>) connection ->
+                    ((Jedis) connection.getNativeConnection()).scan(cursor, scanParams));
+            if (page == null) {
+                break;
             }
-            
-            // 获取该用户的所有点赞目标
-            Map<Object, Object> userLikes = stringRedisTemplate.opsForHash().entries(userLikeKey);
-            if (userLikes == null || userLikes.isEmpty()) {
-                continue;
+            reconcileUserPage(page.getResult(), progress);
+            progress.cursor = page.getCursor();
+            saveCheckpoint(progress);
+            if (++pages % 20 == 0) {
+                log.info("点赞记录对账进度: {}", progress);
             }
-            
-            // 处理每个点赞目标
-            for (Map.Entry<Object, Object> entry : userLikes.entrySet()) {
-                String targetKey = entry.getKey().toString();
-                // 解析目标类型和ID
-                String[] parts = targetKey.split(":");
-                if (parts.length != 2) {
-                    log.warn("无效的点赞目标键: {}", targetKey);
-                    continue;
-                }
-                
-                int type;
-                Long targetId;
-                try {
-                    type = Integer.parseInt(parts[0]);
-                    targetId = Long.parseLong(parts[1]);
-                } catch (NumberFormatException e) {
-                    log.warn("无效的点赞目标类型或ID: {}", targetKey);
-                    continue;
-                }
-                
-                // 根据类型统计点赞数和记录点赞用户
-                if (type == 1) {  // 文章点赞
-                    String key = String.valueOf(targetId);
-                    postLikeCountMap.put(key, postLikeCountMap.getOrDefault(key, 0) + 1);
-                    
-                    // 记录点赞用户
-                    postLikeUsersMap.computeIfAbsent(key, k -> new HashSet<>()).add(userId);
-                } else if (type == 2) {  // 评论点赞
-                    String key = String.valueOf(targetId);
-                    commentLikeCountMap.put(key, commentLikeCountMap.getOrDefault(key, 0) + 1);
-                    
-                    // 记录点赞用户
-                    commentLikeUsersMap.computeIfAbsent(key, k -> new HashSet<>()).add(userId);
-                }
-            }
-        }
-        
-        log.info("Redis点赞数据收集完成，文章点赞数: {}, 评论点赞数: {}", 
-                postLikeCountMap.size(), commentLikeCountMap.size());
+        } while (!ScanParams.SCAN_POINTER_START.equals(progress.cursor));
     }
-    
+
     /**
-     * 同步文章点赞数和记录
+     * 比对一页用户的点赞记录
+     * 一页内的用户ID升序存入原始类型数组，Redis与数据库的点赞目标按用户下标存放，查找用户使用二分查找，不创建装箱的哈希表
      */
-    @Transactional(rollbackFor = Exception.class)
-    public void reconcilePostsLikeData(
-            Map<String, Integer> postLikeCountMap, 
-            Map<String, Set<Long>> postLikeUsersMap) {
-        
-        log.info("开始同步文章点赞数据...");
-        if (postLikeCountMap.isEmpty()) {
+    private void reconcileUserPage(List<String> userKeys, Progress progress) {
+        // 1. 解析用户ID并排序去重（SCAN 可能重复返回同一个key）
+        long[] userIds = new long[userKeys.size()];
+        int userCount = 0;
+        for (String userKey : userKeys) {
+            Long userId = parseUserId(userKey);
+            if (userId != null) {
+                userIds[userCount++] = userId;
+            }
+        }
+        if (userCount == 0) {
             return;
         }
-        
-        int updatedPostCount = 0;
-        int addedLikeRecords = 0;
-        int removedLikeRecords = 0;
-        
-        // 获取所有需要更新的文章ID
-        List<Long> postIds = postLikeCountMap.keySet().stream()
-                .map(Long::parseLong)
-                .collect(Collectors.toList());
-        
-        // 批量查询文章
-        List<CommunityPosts> posts = communityPostsMapper.selectBatchIds(postIds);
-        Map<Long, CommunityPosts> postsMap = posts.stream()
-                .collect(Collectors.toMap(CommunityPosts::getId, Function.identity()));
-        
-        // 更新文章点赞数
-        for (Map.Entry<String, Integer> entry : postLikeCountMap.entrySet()) {
-            Long postId = Long.parseLong(entry.getKey());
-            Integer likeCount = entry.getValue();
-            
-            CommunityPosts post = postsMap.get(postId);
-            if (post == null) {
-                log.warn("文章不存在，ID: {}", postId);
+        userIds = Arrays.stream(userIds, 0, userCount).sorted().distinct().toArray();
+
+        // 2. 读取Redis中每个用户的点赞目标，编码后排序
+        long[][] redisTargets = new long[userIds.length][];
+        List<Long> userIdParams = new ArrayList<>(userIds.length);
+        for (int u = 0; u < userIds.length; u++) {
+            long[] targets = scanUserTargets(CacheConstants.buildLikeUserKey(userIds[u]));
+            Arrays.sort(targets);
+            redisTargets[u] = targets;
+            userIdParams.add(userIds[u]);
+            progress.users++;
+            progress.likesScanned += targets.length;
+        }
+
+        // 3. 一次查询该页用户在数据库中的点赞记录
+        LongArray[] dbTargets = new LongArray[userIds.length];
+        for (LikeRecords record : likeRecordsMapper.selectByUserIds(userIdParams)) {
+            int u = Arrays.binarySearch(userIds, record.getUserId());
+            if (u < 0) {
                 continue;
             }
-            
-            // 如果点赞数不一致，更新数据库
-            if (!likeCount.equals(post.getLikeCount())) {
-                log.info("更新文章点赞数: ID={}, Redis点赞数={}, DB点赞数={}", 
-                        postId, likeCount, post.getLikeCount());
-                post.setLikeCount(likeCount);
-                communityPostsMapper.updateById(post);
-                updatedPostCount++;
+            if (dbTargets[u] == null) {
+                dbTargets[u] = new LongArray();
             }
+            dbTargets[u].add(encode(record.getTargetType(), record.getTargetId()));
+            progress.dbRowsScanned++;
         }
-        
-        // 同步点赞记录表
-        for (Map.Entry<String, Set<Long>> entry : postLikeUsersMap.entrySet()) {
-            Long postId = Long.parseLong(entry.getKey());
-            Set<Long> userIds = entry.getValue();
-            
-            // 查询数据库中该文章的所有点赞记录
-            LambdaQueryWrapper<LikeRecords> queryWrapper = new LambdaQueryWrapper<>();
-            queryWrapper.eq(LikeRecords::getTargetType, 1)
-                    .eq(LikeRecords::getTargetId, postId);
-            List<LikeRecords> dbLikeRecords = likeRecordsMapper.selectList(queryWrapper);
-            
-            // 将数据库记录转为用户ID集合
-            Set<Long> dbUserIds = dbLikeRecords.stream()
-                    .map(LikeRecords::getUserId)
-                    .collect(Collectors.toSet());
-            
-            // 需要添加的记录：Redis中有但数据库中没有
-            Set<Long> toAddUserIds = new HashSet<>(userIds);
-            toAddUserIds.removeAll(dbUserIds);
-            
-            // 需要删除的记录：数据库中有但Redis中没有
-            Set<Long> toRemoveUserIds = new HashSet<>(dbUserIds);
-            toRemoveUserIds.removeAll(userIds);
-            
-            // 批量添加点赞记录
-            if (!toAddUserIds.isEmpty()) {
-                List<LikeRecords> toAddRecords = new ArrayList<>();
-                for (Long userId : toAddUserIds) {
-                    LikeRecords record = new LikeRecords();
-                    record.setUserId(userId);
-                    record.setTargetType(1);  // 1表示文章
-                    record.setTargetId(postId);
-                    record.setCreateTime(new Date());
-                    toAddRecords.add(record);
-                }
-                
-                for (LikeRecords record : toAddRecords) {
-                    likeRecordsMapper.insert(record);
-                    addedLikeRecords++;
+
+        // 4. 逐个用户归并比对
+        List<LikeActionMessage> actions = new ArrayList<>();
+        for (int u = 0; u < userIds.length; u++) {
+            long userId = userIds[u];
+            long[] redis = redisTargets[u];
+            long[] db = dbTargets[u] != null ? dbTargets[u].sorted() : new long[0];
+
+            int i = 0;
+            int j = 0;
+            while (i < redis.length || j < db.length) {
+                if (j >= db.length || (i < redis.length && redis[i] < db[j])) {
+                    // Redis中有、数据库中没有
+                    actions.add(toAction(userId, redis[i++], 1));
+                } else if (i >= redis.length || db[j] < redis[i]) {
+                    // 数据库中有、Redis中没有
+                    actions.add(toAction(userId, db[j++], 0));
+                } else {
+                    i++;
+                    j++;
                 }
-                
-                log.info("为文章ID={}添加了{}条点赞记录", postId, toAddRecords.size());
-            }
-            
-            // 批量删除点赞记录
-            if (!toRemoveUserIds.isEmpty()) {
-                LambdaQueryWrapper<LikeRecords> removeWrapper = new LambdaQueryWrapper<>();
-                removeWrapper.eq(LikeRecords::getTargetType, 1)
-                        .eq(LikeRecords::getTargetId, postId)
-                        .in(LikeRecords::getUserId, toRemoveUserIds);
-                int removedCount = likeRecordsMapper.delete(removeWrapper);
-                removedLikeRecords += removedCount;
-                
-                log.info("从文章ID={}删除了{}条点赞记录", postId, removedCount);
             }
         }
-        
-        log.info("文章点赞数据同步完成: 更新{}篇文章点赞数, 新增{}条点赞记录, 删除{}条点赞记录",
-                updatedPostCount, addedLikeRecords, removedLikeRecords);
+
+        // 5. 差异分批写回，点赞数在同一事务中按变化量修正
+        for (int from = 0; from < actions.size(); from += APPLY_BATCH_SIZE) {
+            List<LikeActionMessage> batch = actions.subList(from, Math.min(from + APPLY_BATCH_SIZE, actions.size()));
+            LikeBatchResult result = likeRecordsService.applyLikeActions(batch);
+            progress.inserted += result.getInserted();
+            progress.deleted += result.getDeleted();
+        }
     }
-    
+
     /**
-     * 同步评论点赞数和记录
+     * 使用 HSCAN 分页读取用户的所有点赞目标
      */
-    @Transactional(rollbackFor = Exception.class)
-    public void reconcileCommentsLikeData(
-            Map<String, Integer> commentLikeCountMap, 
-            Map<String, Set<Long>> commentLikeUsersMap) {
-        
-        log.info("开始同步评论点赞数据...");
-        if (commentLikeCountMap.isEmpty()) {
-            return;
-        }
-        
-        int updatedCommentCount = 0;
-        int addedLikeRecords = 0;
-        int removedLikeRecords = 0;
-        
-        // 获取所有需要更新的评论ID
-        List<Long> commentIds = commentLikeCountMap.keySet().stream()
-                .map(Long::parseLong)
-                .collect(Collectors.toList());
-        
-        // 批量查询评论
-        List<PostComments> comments = postCommentsMapper.selectBatchIds(commentIds);
-        Map<Long, PostComments> commentsMap = comments.stream()
-                .collect(Collectors.toMap(PostComments::getId, Function.identity()));
-        
-        // 更新评论点赞数
-        for (Map.Entry<String, Integer> entry : commentLikeCountMap.entrySet()) {
-            Long commentId = Long.parseLong(entry.getKey());
-            Integer likeCount = entry.getValue();
-            
-            PostComments comment = commentsMap.get(commentId);
-            if (comment == null) {
-                log.warn("评论不存在，ID: {}", commentId);
-                continue;
+    private long[] scanUserTargets(String userKey) {
+        ScanParams params = new ScanParams().count(SCAN_COUNT);
+        LongArray targets = new LongArray();
+        String cursor = ScanParams.SCAN_POINTER_START;
+        do {
+            String current = cursor;
+            ScanResult<Map.Entry<String, String>> page = stringRedisTemplate.execute(
+                    (RedisCallback<ScanResult<Map.Entry<String, String>>>) connection ->
+                            ((Jedis) connection.getNativeConnection()).hscan(userKey, current, params));
+            if (page == null) {
+                break;
             }
-            
-            // 如果点赞数不一致，更新数据库
-            if (!likeCount.equals(comment.getLikeCount())) {
-                log.info("更新评论点赞数: ID={}, Redis点赞数={}, DB点赞数={}", 
-                        commentId, likeCount, comment.getLikeCount());
-                comment.setLikeCount(likeCount);
-                postCommentsMapper.updateById(comment);
-                updatedCommentCount++;
+            for (Map.Entry<String, String> field : page.getResult()) {
+                long target = parseTarget(field.getKey());
+                if (target >= 0) {
+                    targets.add(target);
+                }
             }
-        }
-        
-        // 同步点赞记录表
-        for (Map.Entry<String, Set<Long>> entry : commentLikeUsersMap.entrySet()) {
-            Long commentId = Long.parseLong(entry.getKey());
-            Set<Long> userIds = entry.getValue();
-            
-            // 查询数据库中该评论的所有点赞记录
-            LambdaQueryWrapper<LikeRecords> queryWrapper = new LambdaQueryWrapper<>();
-            queryWrapper.eq(LikeRecords::getTargetType, 2)  // 2表示评论
-                    .eq(LikeRecords::getTargetId, commentId);
-            List<LikeRecords> dbLikeRecords = likeRecordsMapper.selectList(queryWrapper);
-            
-            // 将数据库记录转为用户ID集合
-            Set<Long> dbUserIds = dbLikeRecords.stream()
-                    .map(LikeRecords::getUserId)
-                    .collect(Collectors.toSet());
-            
-            // 需要添加的记录：Redis中有但数据库中没有
-            Set<Long> toAddUserIds = new HashSet<>(userIds);
-            toAddUserIds.removeAll(dbUserIds);
-            
-            // 需要删除的记录：数据库中有但Redis中没有
-            Set<Long> toRemoveUserIds = new HashSet<>(dbUserIds);
-            toRemoveUserIds.removeAll(userIds);
-            
-            // 批量添加点赞记录
-            if (!toAddUserIds.isEmpty()) {
-                List<LikeRecords> toAddRecords = new ArrayList<>();
-                for (Long userId : toAddUserIds) {
-                    LikeRecords record = new LikeRecords();
-                    record.setUserId(userId);
-                    record.setTargetType(2);  // 2表示评论
-                    record.setTargetId(commentId);
-                    record.setCreateTime(new Date());
-                    toAddRecords.add(record);
+            cursor = page.getCursor();
+        } while (!ScanParams.SCAN_POINTER_START.equals(cursor));
+        return targets.toArray();
+    }
+
+    /**
+     * 阶段二：按ID分块修正点赞数与点赞记录数量不一致的目标
+     */
+    private void reconcileCounts(Progress progress, int type,
+                                 BiFunction<Long, Integer, List<LikeCountCheck>> loader) {
+        while (true) {
+            List<LikeCountCheck> chunk = loader.apply(progress.lastId, COUNT_CHUNK_SIZE);
+            if (chunk.isEmpty()) {
+                break;
+            }
+
+            Map<Long, Integer> deltas = new TreeMap<>();
+            for (LikeCountCheck check : chunk) {
+                int stored = check.getStoredCount() != null ? check.getStoredCount() : 0;
+                int actual = check.getActualCount() != null ? check.getActualCount() : 0;
+                if (stored != actual) {
+                    deltas.put(check.getTargetId(), actual - stored);
+                }
+            }
+            if (!deltas.isEmpty()) {
+                if (type == TYPE_POST) {
+                    communityPostsMapper.batchIncrementLikeCount(deltas);
+                } else {
+                    postCommentsMapper.batchIncrementLikeCount(deltas);
                 }
+                progress.countsFixed += deltas.size();
+                log.info("修正{}个{}的点赞数", deltas.size(), type == TYPE_POST ? "帖子" : "评论");
+            }
 
-                Thread.ofVirtual().start(() -> {
-                    likeRecordsMapper.insert(toAddRecords);
-                });
-                
-                log.info("为评论ID={}添加了{}条点赞记录", commentId, toAddRecords.size());
+            progress.targetsChecked += chunk.size();
+            progress.lastId = chunk.get(chunk.size() - 1).getTargetId();
+            saveCheckpoint(progress);
+            if (chunk.size() < COUNT_CHUNK_SIZE) {
+                break;
             }
-            
-            // 批量删除点赞记录
-            if (!toRemoveUserIds.isEmpty()) {
-                LambdaQueryWrapper<LikeRecords> removeWrapper = new LambdaQueryWrapper<>();
-                removeWrapper.eq(LikeRecords::getTargetType, 2)  // 2表示评论
-                        .eq(LikeRecords::getTargetId, commentId)
-                        .in(LikeRecords::getUserId, toRemoveUserIds);
-                Thread.ofVirtual().start(() -> {
-                    int removedCount = likeRecordsMapper.delete(removeWrapper);
-//                    return removedCount;
-                });
-
-//                removedLikeRecords += removedCount;
-
-                log.info("从评论ID={}删除了{}条点赞记录", commentId, -1);
+        }
+    }
+
+    private void saveCheckpoint(Progress progress) {
+        stringRedisTemplate.opsForHash().putAll(CHECKPOINT_KEY, progress.toMap());
+    }
+
+    private Long parseUserId(String userKey) {
+        try {
+            return Long.valueOf(userKey.substring(CacheConstants.LIKE_USER_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            log.warn("无效的用户点赞key: {}", userKey);
+            return null;
+        }
+    }
+
+    /**
+     * 解析 {type}:{targetId} 格式的点赞目标
+     * @return 编码后的目标，格式错误时返回-1
+     */
+    private long parseTarget(String field) {
+        int separator = field.indexOf(':');
+        if (separator <= 0) {
+            return -1;
+        }
+        try {
+            int type = Integer.parseInt(field.substring(0, separator));
+            long targetId = Long.parseLong(field.substring(separator + 1));
+            if ((type != TYPE_POST && type != TYPE_COMMENT) || targetId < 0 || targetId > TARGET_ID_MASK) {
+                return -1;
             }
+            return encode(type, targetId);
+        } catch (NumberFormatException e) {
+            log.warn("无效的点赞目标键: {}", field);
+            return -1;
         }
-        
-        log.info("评论点赞数据同步完成: 更新{}条评论点赞数, 新增{}条点赞记录, 删除{}条点赞记录",
-                updatedCommentCount, addedLikeRecords, removedLikeRecords);
     }
-    
+
+    private static long encode(int type, long targetId) {
+        return ((long) type << TYPE_SHIFT) | targetId;
+    }
+
+    private static LikeActionMessage toAction(long userId, long target, int actionType) {
+        return new LikeActionMessage(userId, (int) (target >>> TYPE_SHIFT), target & TARGET_ID_MASK, actionType);
+    }
+
     /**
      * 手动触发执行点赞数据对账
      * @return 处理结果信息
@@ -391,4 +370,99 @@ public class LikeReconciliationTask {
         }
         return result;
     }
-} 
\ No newline at end of file
+
+    /**
+     * 可增长的 long 数组，避免装箱
+     */
+    private static class LongArray {
+        private long[] values = new long[16];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+
+        /**
+         * 排序并去重
+         */
+        long[] sorted() {
+            return Arrays.stream(values, 0, size).sorted().distinct().toArray();
+        }
+    }
+
+    /**
+     * 对账进度，同时作为检查点内容
+     */
+    private static class Progress {
+        private String phase = PHASE_RECORDS;
+        private String cursor = ScanParams.SCAN_POINTER_START;
+        private long lastId;
+        private long users;
+        private long likesScanned;
+        private long dbRowsScanned;
+        private long inserted;
+        private long deleted;
+        private long targetsChecked;
+        private long countsFixed;
+        private long startTime = System.currentTimeMillis();
+        private boolean resumed;
+
+        static Progress restore(Map<String, String> checkpoint) {
+            Progress progress = new Progress();
+            if (checkpoint == null || checkpoint.isEmpty()) {
+                return progress;
+            }
+            progress.resumed = true;
+            progress.phase = checkpoint.getOrDefault("phase", PHASE_RECORDS);
+            progress.cursor = checkpoint.getOrDefault("cursor", ScanParams.SCAN_POINTER_START);
+            progress.lastId = Long.parseLong(checkpoint.getOrDefault("lastId", "0"));
+            progress.users = Long.parseLong(checkpoint.getOrDefault("users", "0"));
+            progress.likesScanned = Long.parseLong(checkpoint.getOrDefault("likesScanned", "0"));
+            progress.dbRowsScanned = Long.parseLong(checkpoint.getOrDefault("dbRowsScanned", "0"));
+            progress.inserted = Long.parseLong(checkpoint.getOrDefault("inserted", "0"));
+            progress.deleted = Long.parseLong(checkpoint.getOrDefault("deleted", "0"));
+            progress.targetsChecked = Long.parseLong(checkpoint.getOrDefault("targetsChecked", "0"));
+            progress.countsFixed = Long.parseLong(checkpoint.getOrDefault("countsFixed", "0"));
+            progress.startTime = Long.parseLong(checkpoint.getOrDefault("startTime",
+                    String.valueOf(System.currentTimeMillis())));
+            return progress;
+        }
+
+        Map<String, String> toMap() {
+            Map<String, String> map = new HashMap<>();
+            map.put("phase", phase);
+            map.put("cursor", cursor);
+            map.put("lastId", String.valueOf(lastId));
+            map.put("users", String.valueOf(users));
+            map.put("likesScanned", String.valueOf(likesScanned));
+            map.put("dbRowsScanned", String.valueOf(dbRowsScanned));
+            map.put("inserted", String.valueOf(inserted));
+            map.put("deleted", String.valueOf(deleted));
+            map.put("targetsChecked", String.valueOf(targetsChecked));
+            map.put("countsFixed", String.valueOf(countsFixed));
+            map.put("startTime", String.valueOf(startTime));
+            return map;
+        }
+
+        /**
+         * 每秒处理的行数（Redis点赞目标 + 数据库点赞记录 + 对账目标）
+         */
+        double rowsPerSecond() {
+            double seconds = Math.max(1, System.currentTimeMillis() - startTime) / 1000.0;
+            return (likesScanned + dbRowsScanned + targetsChecked) / seconds;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("阶段=%s, 用户=%d, Redis点赞=%d, 数据库记录=%d, 新增=%d, 删除=%d, 检查目标=%d, 修正点赞数=%d, 速率=%.1f行/秒",
+                    phase, users, likesScanned, dbRowsScanned, inserted, deleted, targetsChecked, countsFixed, rowsPerSecond());
+        }
+    }
+}
@@ -109,12 +109,12 @@ public class RedPacketScheduledTask {
     }
 
     /**
-     * 每5分钟处理未更新账户的记录（补偿机制）
+     * 每分钟补结算丢失的结算消息并处理未更新账户的记录（补偿机制）
      */
-    @Scheduled(cron = "0 */5 * * * ?")
+    @Scheduled(cron = "0 * * * * ?")
     public void processUnprocessedRecords() {
         try {
-            log.debug("开始处理未更新账户的抢红包记录");
+            log.debug("开始补结算抢红包流水并处理未更新账户的记录");
             
             // 每次处理最多100条记录
             int processedCount = redPacketService.processUnprocessedRecords(100);
@@ -0,0 +1,87 @@
+package com.zheng.aicommunitybackend.util;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import com.zheng.aicommunitybackend.exception.BaseException;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游标分页工具类
+ * 按 (create_time, id) 倒序做 seek 分页：下一页条件为 create_time &lt; t OR (create_time = t AND id &lt; id)，
+ * 配合 (..., create_time, id) 联合索引，翻到多深都只扫描一页数据，也不需要 COUNT 查询。
+ * 游标为 "创建时间毫秒:ID" 的 Base64url 编码，对客户端不透明
+ */
+public class CursorUtil {
+
+    private CursorUtil() {
+    }
+
+    /**
+     * 生成游标
+     *
+     * @param createTime 当前页最后一条记录的创建时间
+     * @param id 当前页最后一条记录的ID
+     * @return 游标
+     */
+    public static String encode(Date createTime, Long id) {
+        String raw = createTime.getTime() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 为查询追加 seek 条件、倒序排序与 LIMIT，多查一条用于判断是否还有下一页
+     *
+     * @param wrapper 查询条件
+     * @param timeColumn 创建时间列
+     * @param idColumn 主键列
+     * @param cursor 游标，为空时查询第一页
+     * @param size 每页记录数
+     */
+    public static <T> void seekBefore(LambdaQueryWrapper<T> wrapper, SFunction<T, Date> timeColumn,
+                                      SFunction<T, Long> idColumn, String cursor, int size) {
+        if (StringUtils.hasText(cursor)) {
+            long[] position = decode(cursor);
+            Date createTime = new Date(position[0]);
+            long id = position[1];
+            wrapper.and(w -> w.lt(timeColumn, createTime)
+                    .or(o -> o.eq(timeColumn, createTime).lt(idColumn, id)));
+        }
+        wrapper.orderByDesc(timeColumn).orderByDesc(idColumn)
+                .last("LIMIT " + (size + 1));
+    }
+
+    /**
+     * 截掉多查的一条记录，并返回下一页游标
+     *
+     * @param records 按 seekBefore 查询出的记录，会被截断为 size 条
+     * @param size 每页记录数
+     * @param timeGetter 创建时间取值
+     * @param idGetter 主键取值
+     * @return 下一页游标，没有更多数据时返回null
+     */
+    public static <T> String nextCursor(List<T> records, int size, Function<T, Date> timeGetter,
+                                        Function<T, Long> idGetter) {
+        if (records.size() <= size) {
+            return null;
+        }
+        records.subList(size, records.size()).clear();
+        T last = records.get(size - 1);
+        return encode(timeGetter.apply(last), idGetter.apply(last));
+    }
+
+    private static long[] decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            return new long[]{Long.parseLong(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1))};
+        } catch (RuntimeException e) {
+            throw new BaseException("分页游标无效");
+        }
+    }
+}
@@ -1,23 +1,34 @@
 package com.zheng.aicommunitybackend.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.zheng.aicommunitybackend.domain.entity.Users;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
-import java.security.Key;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * JWT工具类，用于生成、解析和验证JWT令牌
+ * 令牌只解析、验签一次，得到的声明按令牌的SHA-256摘要缓存，缓存项不会晚于令牌本身过期
  */
 @Component
 @Slf4j
@@ -26,22 +37,104 @@ public class JwtUtil {
     // 使用强密钥生成器创建安全的密钥
     private final SecretKey key = Keys.secretKeyFor(SignatureAlgorithm.HS512);
 
+    /**
+     * 解析器不可变且线程安全，全局复用
+     */
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(key).build();
+
     @Value("${jwt.expiration}")
     private Long expiration;
 
     /**
-     * 从令牌中获取用户名
+     * 已验证令牌缓存的最大条目数，不大于0时不缓存
+     */
+    @Value("${jwt.cache.maximum-size:10000}")
+    private long cacheMaximumSize;
+
+    /**
+     * 已验证令牌在缓存中的最长保留时间（秒）
+     */
+    @Value("${jwt.cache.expire-seconds:300}")
+    private long cacheExpireSeconds;
+
+    private Cache<String, TokenClaims> verifiedTokens;
+
+    @PostConstruct
+    public void init() {
+        if (cacheMaximumSize <= 0) {
+            verifiedTokens = null;
+            return;
+        }
+        long maxTtlNanos = TimeUnit.SECONDS.toNanos(cacheExpireSeconds);
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfter(new Expiry<String, TokenClaims>() {
+                    @Override
+                    public long expireAfterCreate(String tokenHash, TokenClaims claims, long currentTime) {
+                        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(
+                                claims.getExpiresAt() - System.currentTimeMillis());
+                        return Math.max(0, Math.min(maxTtlNanos, remainingNanos));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String tokenHash, TokenClaims claims, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(tokenHash, claims, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String tokenHash, TokenClaims claims, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * 解析并验证令牌，一次得到全部用户信息
+     * 命中缓存时不再验签；签名无效、格式错误或已过期时返回null
      *
      * @param token 令牌
-     * @return 用户名
+     * @return 令牌声明
      */
-    public String getUsernameFromToken(String token) {
+    public TokenClaims parseToken(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        String tokenHash = verifiedTokens != null ? hash(token) : null;
+        if (tokenHash != null) {
+            TokenClaims cached = verifiedTokens.getIfPresent(tokenHash);
+            if (cached != null && !cached.isExpired()) {
+                return cached;
+            }
+        }
+
+        TokenClaims claims;
         try {
-            Claims claims = getAllClaimsFromToken(token);
-            return claims.getSubject();
+            claims = toTokenClaims(getAllClaimsFromToken(token));
         } catch (Exception e) {
+            // 过期、签名错误、格式错误统一视为无效
             return null;
         }
+        if (claims == null || claims.isExpired()) {
+            return null;
+        }
+        if (tokenHash != null) {
+            verifiedTokens.put(tokenHash, claims);
+        }
+        return claims;
+    }
+
+    /**
+     * 从令牌中获取用户名
+     *
+     * @param token 令牌
+     * @return 用户名
+     */
+    public String getUsernameFromToken(String token) {
+        TokenClaims claims = parseToken(token);
+        return claims != null ? claims.getUsername() : null;
     }
 
     /**
@@ -51,12 +144,8 @@ public class JwtUtil {
      * @return 用户ID
      */
     public Long getUserIdFromToken(String token) {
-        try {
-            Claims claims = getAllClaimsFromToken(token);
-            return Long.parseLong(claims.get("userId").toString());
-        } catch (Exception e) {
-            return null;
-        }
+        TokenClaims claims = parseToken(token);
+        return claims != null ? claims.getUserId() : null;
     }
 
     /**
@@ -66,12 +155,8 @@ public class JwtUtil {
      * @return 用户角色
      */
     public Integer getRoleFromToken(String token) {
-        try {
-            Claims claims = getAllClaimsFromToken(token);
-            return Integer.parseInt(claims.get("role").toString());
-        } catch (Exception e) {
-            return null;
-        }
+        TokenClaims claims = parseToken(token);
+        return claims != null ? claims.getRole() : null;
     }
 
     /**
@@ -81,12 +166,8 @@ public class JwtUtil {
      * @return 过期日期
      */
     public Date getExpirationDateFromToken(String token) {
-        try {
-            Claims claims = getAllClaimsFromToken(token);
-            return claims.getExpiration();
-        } catch (Exception e) {
-            return null;
-        }
+        TokenClaims claims = parseToken(token);
+        return claims != null ? new Date(claims.getExpiresAt()) : null;
     }
 
     /**
@@ -96,11 +177,32 @@ public class JwtUtil {
      * @return 所有声明
      */
     private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    /**
+     * 提取用户信息，缺少任一字段时返回null
+     */
+    private TokenClaims toTokenClaims(Claims claims) {
+        Object userId = claims.get("userId");
+        Object role = claims.get("role");
+        if (claims.getSubject() == null || userId == null || role == null || claims.getExpiration() == null) {
+            return null;
+        }
+        return new TokenClaims(claims.getSubject(), Long.parseLong(userId.toString()),
+                Integer.parseInt(role.toString()), claims.getExpiration().getTime());
+    }
+
+    /**
+     * 令牌的SHA-256摘要，作为缓存key，避免在内存中保留原始令牌
+     */
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256不可用", e);
+        }
     }
 
     /**
@@ -110,14 +212,8 @@ public class JwtUtil {
      * @return 是否已过期
      */
     public boolean isTokenExpired(String token) {
-        try {
-            Date expiration = getExpirationDateFromToken(token);
-            return expiration != null && expiration.before(new Date());
-        } catch (ExpiredJwtException e) {
-            return true;
-        } catch (Exception e) {
-            return true;
-        }
+        // 已过期的令牌解析失败，同样返回null
+        return parseToken(token) == null;
     }
 
     /**
@@ -172,10 +268,25 @@ public class JwtUtil {
      * @return 是否有效
      */
     public boolean validateToken(String token) {
-        try {
-            return !isTokenExpired(token);
-        } catch (Exception e) {
-            return false;
+        return parseToken(token) != null;
+    }
+
+    /**
+     * 已验证令牌的声明，不可变
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class TokenClaims {
+        private final String username;
+        private final Long userId;
+        private final Integer role;
+        /**
+         * 过期时间戳（毫秒）
+         */
+        private final long expiresAt;
+
+        public boolean isExpired() {
+            return expiresAt <= System.currentTimeMillis();
         }
     }
 } 
\ No newline at end of file
@@ -0,0 +1,234 @@
+package com.zheng.aicommunitybackend.util;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import lombok.Data;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按天分段的滚动布隆过滤器
+ * 每天一个分段，URL写入其所属日期的分段，查询时对所有分段取或；
+ * 每天零点新增当天分段并直接丢弃最旧的分段，保留窗口外的URL随分段一起过期，不需要重新扫描数据库。
+ * 每个分段的误判率取总误判率除以分段数，整体误判率（各分段误判率之和）不超过配置值；
+ * 每个分段的容量只需容纳一天的数据，使用率不会随运行时间无限增长。
+ * 分段列表采用写时复制，查询与写入不加锁
+ */
+public class RotatingBloomFilter {
+
+    private final int segmentCount;
+    private final int segmentInsertions;
+    private final double segmentProbability;
+
+    /**
+     * 分段列表，按日期从新到旧排列，整体替换
+     */
+    private volatile List<Segment> segments;
+
+    /**
+     * @param segmentCount 分段数（保留天数 + 1，当天分段未满一天）
+     * @param segmentInsertions 每个分段预计插入的元素数量
+     * @param segmentProbability 每个分段的误判率
+     * @param today 当天日期
+     */
+    public RotatingBloomFilter(int segmentCount, int segmentInsertions, double segmentProbability, LocalDate today) {
+        this(segmentCount, segmentInsertions, segmentProbability, new ArrayList<>());
+        rotate(today);
+    }
+
+    private RotatingBloomFilter(int segmentCount, int segmentInsertions, double segmentProbability,
+                                List<Segment> segments) {
+        this.segmentCount = segmentCount;
+        this.segmentInsertions = segmentInsertions;
+        this.segmentProbability = segmentProbability;
+        this.segments = Collections.unmodifiableList(segments);
+    }
+
+    /**
+     * 判断元素是否可能存在于任一分段
+     * @param value 元素
+     * @return false表示一定不存在
+     */
+    public boolean mightContain(String value) {
+        for (Segment segment : segments) {
+            if (segment.filter.mightContain(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 写入最新分段
+     * @param value 元素
+     * @return 是否改变了过滤器的位
+     */
+    public boolean put(String value) {
+        return segments.get(0).put(value);
+    }
+
+    /**
+     * 写入指定日期的分段
+     * 日期晚于最新分段时写入最新分段，早于最旧分段时已超出保留窗口，不写入
+     * @param value 元素
+     * @param day 元素所属日期
+     * @return 是否改变了过滤器的位
+     */
+    public boolean put(String value, LocalDate day) {
+        List<Segment> current = segments;
+        for (Segment segment : current) {
+            if (!day.isBefore(segment.day)) {
+                return segment.put(value);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 滚动到指定日期：补齐到当天的分段，并丢弃超出分段数的最旧分段
+     * @param today 当天日期
+     * @return 丢弃的分段数
+     */
+    public synchronized int rotate(LocalDate today) {
+        List<Segment> rotated = new ArrayList<>(segments);
+        LocalDate newest = rotated.isEmpty() ? today.minusDays(segmentCount) : rotated.get(0).day;
+        // 停机跨过多天时逐天补齐，中间的空分段同样占用窗口
+        for (LocalDate day = newest.plusDays(1); !day.isAfter(today); day = day.plusDays(1)) {
+            rotated.add(0, new Segment(day, BloomFilter.create(
+                    Funnels.stringFunnel(StandardCharsets.UTF_8), segmentInsertions, segmentProbability)));
+        }
+        int dropped = 0;
+        LocalDate oldestKept = today.minusDays(segmentCount - 1);
+        while (!rotated.isEmpty() && rotated.get(rotated.size() - 1).day.isBefore(oldestKept)) {
+            rotated.remove(rotated.size() - 1);
+            dropped++;
+        }
+        this.segments = Collections.unmodifiableList(rotated);
+        return dropped;
+    }
+
+    /**
+     * 已写入的元素总数（按位发生变化的写入计数，近似去重后的数量）
+     */
+    public long size() {
+        long total = 0;
+        for (Segment segment : segments) {
+            total += segment.count.get();
+        }
+        return total;
+    }
+
+    /**
+     * 使用率最高的分段的使用率，用于告警
+     * @return 使用率 (0.0 - 1.0)
+     */
+    public double maxFillRatio() {
+        double max = 0;
+        for (Segment segment : segments) {
+            max = Math.max(max, segment.fillRatio(segmentInsertions));
+        }
+        return max;
+    }
+
+    /**
+     * 各分段的统计信息，按日期从新到旧
+     */
+    public List<SegmentStats> getSegmentStats() {
+        List<SegmentStats> result = new ArrayList<>();
+        for (Segment segment : segments) {
+            SegmentStats stats = new SegmentStats();
+            stats.setDay(segment.day);
+            stats.setUrlCount(segment.count.get());
+            stats.setExpectedInsertions(segmentInsertions);
+            stats.setFillRatio(segment.fillRatio(segmentInsertions));
+            stats.setExpectedFpp(segment.filter.expectedFpp());
+            result.add(stats);
+        }
+        return result;
+    }
+
+    /**
+     * 序列化全部分段
+     * @param out 输出流
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        List<Segment> current = segments;
+        out.writeInt(current.size());
+        for (Segment segment : current) {
+            out.writeLong(segment.day.toEpochDay());
+            out.writeLong(segment.count.get());
+            segment.filter.writeTo(out);
+        }
+    }
+
+    /**
+     * 反序列化分段，并滚动到当天
+     * @param in 输入流
+     * @param segmentCount 分段数
+     * @param segmentInsertions 每个分段预计插入的元素数量
+     * @param segmentProbability 每个分段的误判率
+     * @param today 当天日期
+     * @return 滚动布隆过滤器
+     */
+    public static RotatingBloomFilter readFrom(DataInputStream in, int segmentCount, int segmentInsertions,
+                                               double segmentProbability, LocalDate today) throws IOException {
+        int size = in.readInt();
+        List<Segment> segments = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            LocalDate day = LocalDate.ofEpochDay(in.readLong());
+            long count = in.readLong();
+            Segment segment = new Segment(day, BloomFilter.readFrom(in, Funnels.stringFunnel(StandardCharsets.UTF_8)));
+            segment.count.set(count);
+            segments.add(segment);
+        }
+        RotatingBloomFilter filter = new RotatingBloomFilter(segmentCount, segmentInsertions, segmentProbability, segments);
+        filter.rotate(today);
+        return filter;
+    }
+
+    /**
+     * 单日分段
+     */
+    private static class Segment {
+        private final LocalDate day;
+        private final BloomFilter<String> filter;
+        private final AtomicLong count = new AtomicLong();
+
+        Segment(LocalDate day, BloomFilter<String> filter) {
+            this.day = day;
+            this.filter = filter;
+        }
+
+        boolean put(String value) {
+            if (filter.put(value)) {
+                count.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+
+        double fillRatio(int expectedInsertions) {
+            return (double) count.get() / expectedInsertions;
+        }
+    }
+
+    /**
+     * 分段统计信息
+     */
+    @Data
+    public static class SegmentStats {
+        private LocalDate day;
+        private long urlCount;
+        private int expectedInsertions;
+        private double fillRatio;
+        private double expectedFpp;
+    }
+}
@@ -1,10 +1,8 @@
 package com.zheng.aicommunitybackend.util;
 
 import com.huaban.analysis.jieba.JiebaSegmenter;
-import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang3.StringUtils;
 
-import java.math.BigInteger;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -15,7 +13,11 @@ import java.util.stream.Collectors;
 
 /**
  * SimHash算法工具类
- * 用于计算文本的指纹并进行相似度比较
+ * 用于计算文本的指纹并进行相似度比较。
+ * 指纹以 long 计算和比较，汉明距离为 Long.bitCount(a ^ b)；
+ * 存储的指纹为带版本前缀的十六进制字符串（如 v2:1a2b...）。
+ * 不带前缀的是旧版本按MD5计算词哈希得到的指纹，与当前指纹的位不可比，
+ * 比较时视为无效指纹，由内容指纹迁移任务（ContentHashMigrationTask）重新计算
  */
 public class SimHashUtil {
 
@@ -27,96 +29,142 @@ public class SimHashUtil {
     
     // 汉明距离阈值，小于等于此值认为相似
     // 调整阈值为10（原为8），允许更多差异度，获取更多不同内容
-    private static final int HAMMING_DIST_THRESHOLD = 10;
+    public static final int HAMMING_DIST_THRESHOLD = 10;
     
     // 指纹位数
     private static final int HASH_BITS = 64;
 
+    /**
+     * 当前指纹版本前缀，词哈希算法变化时需要升级版本
+     */
+    public static final String FINGERPRINT_VERSION = "v2:";
+
+    // MurmurHash3 x64 混合常量
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
     /**
      * 计算文本的SimHash值
      * @param text 文本内容
-     * @return SimHash值的十六进制字符串表示
+     * @return 64位SimHash值，文本为空时返回0
      */
-    public static String simHash(String text) {
+    public static long simHash64(String text) {
         if (StringUtils.isBlank(text)) {
-            return null;
+            return 0L;
         }
-        
-        // 分词并计算权重
-        Map<String, Integer> wordWeights = tokenizeAndCount(text);
-        
-        // 初始化特征向量
+        return simHash64(tokenizeAndCount(text));
+    }
+
+    /**
+     * 由词频计算SimHash值：每个词的64位哈希按位加减权重，最后取符号位
+     * @param wordWeights 词 -> 权重
+     * @return 64位SimHash值
+     */
+    static long simHash64(Map<String, Integer> wordWeights) {
         int[] featureVector = new int[HASH_BITS];
-        
-        // 计算特征向量
         for (Map.Entry<String, Integer> entry : wordWeights.entrySet()) {
-            String word = entry.getKey();
+            long wordHash = hash64(entry.getKey());
             int weight = entry.getValue();
-            
-            // 计算词的hash值
-            String wordHash = DigestUtils.md5Hex(word);
-            BigInteger bigInt = new BigInteger(wordHash, 16);
-            
-            // 将hash值转换为二进制字符串
-            StringBuilder binaryHash = new StringBuilder(bigInt.toString(2));
-            while (binaryHash.length() < HASH_BITS) {
-                binaryHash.insert(0, "0");
-            }
-            if (binaryHash.length() > HASH_BITS) {
-                binaryHash = new StringBuilder(binaryHash.substring(0, HASH_BITS));
-            }
-            
-            // 更新特征向量
             for (int i = 0; i < HASH_BITS; i++) {
-                if (binaryHash.charAt(i) == '1') {
-                    featureVector[i] += weight;
-                } else {
-                    featureVector[i] -= weight;
-                }
+                // 第i位为1加权重，为0减权重
+                featureVector[i] += ((wordHash >>> i) & 1L) != 0 ? weight : -weight;
             }
         }
-        
-        // 生成最终的SimHash值
-        StringBuilder simHashValue = new StringBuilder();
+
+        long simHash = 0L;
         for (int i = 0; i < HASH_BITS; i++) {
             if (featureVector[i] > 0) {
-                simHashValue.append("1");
-            } else {
-                simHashValue.append("0");
+                simHash |= 1L << i;
             }
         }
-        
-        // 转换为十六进制
-        BigInteger hashInt = new BigInteger(simHashValue.toString(), 2);
-        return hashInt.toString(16);
+        return simHash;
     }
-    
+
     /**
      * 计算两个SimHash值的汉明距离
      * @param simHash1 第一个SimHash值
      * @param simHash2 第二个SimHash值
      * @return 汉明距离
      */
+    public static int hammingDistance(long simHash1, long simHash2) {
+        return Long.bitCount(simHash1 ^ simHash2);
+    }
+
+    /**
+     * 判断两个SimHash值是否相似
+     * @param simHash1 第一个SimHash值
+     * @param simHash2 第二个SimHash值
+     * @return 是否相似
+     */
+    public static boolean isSimilar(long simHash1, long simHash2) {
+        return hammingDistance(simHash1, simHash2) <= HAMMING_DIST_THRESHOLD;
+    }
+
+    /**
+     * 64位SimHash值转为存储格式：版本前缀 + 无符号十六进制（不补前导0）
+     * @param simHash SimHash值
+     * @return 带版本前缀的指纹字符串
+     */
+    public static String toFingerprint(long simHash) {
+        return FINGERPRINT_VERSION + Long.toHexString(simHash);
+    }
+
+    /**
+     * 解析已存储的指纹
+     * @param fingerprint 带版本前缀的指纹字符串
+     * @return 64位SimHash值
+     * @throws NumberFormatException 旧版本指纹、格式不正确或超过64位
+     */
+    public static long parseFingerprint(String fingerprint) {
+        if (!isCurrentVersion(fingerprint)) {
+            throw new NumberFormatException("指纹版本不是当前版本: " + fingerprint);
+        }
+        return Long.parseUnsignedLong(fingerprint.substring(FINGERPRINT_VERSION.length()), 16);
+    }
+
+    /**
+     * 判断指纹是否由当前版本的算法生成
+     * @param fingerprint 指纹字符串
+     * @return 是否为当前版本
+     */
+    public static boolean isCurrentVersion(String fingerprint) {
+        return fingerprint != null && fingerprint.startsWith(FINGERPRINT_VERSION);
+    }
+
+    /**
+     * 计算文本的SimHash值
+     * @param text 文本内容
+     * @return 带版本前缀的SimHash指纹
+     */
+    public static String simHash(String text) {
+        if (StringUtils.isBlank(text)) {
+            return null;
+        }
+        return toFingerprint(simHash64(text));
+    }
+    
+    /**
+     * 计算两个SimHash指纹的汉明距离
+     * @param simHash1 第一个SimHash指纹
+     * @param simHash2 第二个SimHash指纹
+     * @return 汉明距离，格式不正确或任一方为旧版本指纹时返回-1
+     */
     public static int hammingDistance(String simHash1, String simHash2) {
         if (simHash1 == null || simHash2 == null) {
             return -1;
         }
         
         try {
-            BigInteger hash1 = new BigInteger(simHash1, 16);
-            BigInteger hash2 = new BigInteger(simHash2, 16);
-            
-            // 计算异或值中1的个数，即为汉明距离
-            return Long.bitCount(hash1.xor(hash2).longValue());
-        } catch (Exception e) {
+            return hammingDistance(parseFingerprint(simHash1), parseFingerprint(simHash2));
+        } catch (NumberFormatException e) {
             return -1;
         }
     }
     
     /**
-     * 判断两个SimHash值是否相似
-     * @param simHash1 第一个SimHash值
-     * @param simHash2 第二个SimHash值
+     * 判断两个SimHash指纹是否相似
+     * @param simHash1 第一个SimHash指纹
+     * @param simHash2 第二个SimHash指纹
      * @return 是否相似
      */
     public static boolean isSimilar(String simHash1, String simHash2) {
@@ -128,13 +176,57 @@ public class SimHashUtil {
         // 距离小于等于阈值认为相似
         return distance <= HAMMING_DIST_THRESHOLD;
     }
+
+    /**
+     * 词的64位哈希：直接按UTF-16字符读取，每4个字符组成一个64位块，
+     * 使用 MurmurHash3 x64 的块混合与 fmix64 收尾，不产生中间字符串或字节数组
+     * @param word 词
+     * @return 64位哈希值
+     */
+    static long hash64(String word) {
+        int length = word.length();
+        long h = 0x9368e53c2f6af274L ^ length;
+        int i = 0;
+        for (; i + 4 <= length; i += 4) {
+            long k = (long) word.charAt(i)
+                    | (long) word.charAt(i + 1) << 16
+                    | (long) word.charAt(i + 2) << 32
+                    | (long) word.charAt(i + 3) << 48;
+            h ^= mixK(k);
+            h = Long.rotateLeft(h, 27) * 5 + 0x52dce729;
+        }
+        if (i < length) {
+            long k = 0;
+            for (int shift = 0; i < length; i++, shift += 16) {
+                k |= (long) word.charAt(i) << shift;
+            }
+            h ^= mixK(k);
+        }
+        return fmix64(h ^ length);
+    }
+
+    private static long mixK(long k) {
+        k *= C1;
+        k = Long.rotateLeft(k, 31);
+        k *= C2;
+        return k;
+    }
+
+    private static long fmix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
     
     /**
      * 使用结巴分词并计算词频
      * @param text 文本内容
      * @return 词频统计结果
      */
-    private static Map<String, Integer> tokenizeAndCount(String text) {
+    static Map<String, Integer> tokenizeAndCount(String text) {
         if (text == null || text.isEmpty()) {
             return new HashMap<>();
         }
@@ -187,6 +279,23 @@ public class SimHashUtil {
      * @return 内容指纹
      */
     public static String generateNewsFingerprint(String title, String content) {
+        return simHash(newsFingerprintText(title, content));
+    }
+
+    /**
+     * 生成新闻的64位内容指纹，取样规则与 generateNewsFingerprint 相同
+     * @param title 新闻标题
+     * @param content 新闻内容
+     * @return 64位内容指纹
+     */
+    public static long generateNewsFingerprint64(String title, String content) {
+        return simHash64(newsFingerprintText(title, content));
+    }
+
+    /**
+     * 拼接用于生成新闻指纹的文本
+     */
+    private static String newsFingerprintText(String title, String content) {
         // 标题权重更高，重复3次
         String titleWeight = title + " " + title + " " + title;
         
@@ -194,9 +303,7 @@ public class SimHashUtil {
         String plainContent = content.replaceAll("<[^>]*>", " ");
         
         // 取内容前500个字符，增加取样范围，与标题组合生成指纹
-        String textForHash = titleWeight + " " + 
+        return titleWeight + " " + 
                 (plainContent.length() > 500 ? plainContent.substring(0, 500) : plainContent);
-        
-        return simHash(textForHash);
     }
 } 
\ No newline at end of file
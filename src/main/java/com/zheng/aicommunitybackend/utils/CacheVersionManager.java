@@ -0,0 +1,131 @@
+package com.zheng.aicommunitybackend.utils;
+
+import com.zheng.aicommunitybackend.constant.CacheConstants;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 缓存命名空间版本管理
+ * 分页、详情等缓存key中嵌入所属命名空间的版本号，对版本号执行一次 INCR 即可让整个命名空间的旧key失效，
+ * 无需 KEYS 扫描删除；旧版本key依靠过期时间和后台SCAN清理任务回收。
+ * 版本号在本地缓存，递增时通过 Redis pub/sub 广播，并定时从Redis刷新兜底
+ */
+@Slf4j
+@Component
+public class CacheVersionManager implements MessageListener {
+
+    /**
+     * 版本变更广播频道
+     */
+    public static final String VERSION_CHANNEL = "cache:version:changed";
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(VERSION_CHANNEL));
+    }
+
+    /**
+     * 获取命名空间当前版本号
+     * @param namespace 命名空间
+     * @return 版本号，从未递增过时为0
+     */
+    public long current(String namespace) {
+        return versions.computeIfAbsent(namespace, this::loadVersion);
+    }
+
+    /**
+     * 递增命名空间版本号，使该命名空间下的所有缓存失效
+     * @param namespace 命名空间
+     * @return 新版本号
+     */
+    public long bump(String namespace) {
+        Long version = stringRedisTemplate.opsForValue().increment(CacheConstants.buildVersionKey(namespace));
+        long newVersion = version != null ? version : 0L;
+        versions.merge(namespace, newVersion, Math::max);
+        try {
+            stringRedisTemplate.convertAndSend(VERSION_CHANNEL, namespace + "|" + newVersion);
+        } catch (Exception e) {
+            // 广播失败时其他节点依赖定时刷新兜底
+            log.error("发送缓存版本变更广播失败，命名空间: {}", namespace, e);
+        }
+        log.debug("缓存命名空间版本递增: {} -> {}", namespace, newVersion);
+        return newVersion;
+    }
+
+    /**
+     * 接收版本变更广播，消息格式：命名空间|版本号
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.lastIndexOf('|');
+        if (separator <= 0) {
+            return;
+        }
+        try {
+            long version = Long.parseLong(body.substring(separator + 1));
+            versions.merge(body.substring(0, separator), version, Math::max);
+        } catch (NumberFormatException e) {
+            log.warn("忽略格式错误的缓存版本广播: {}", body);
+        }
+    }
+
+    /**
+     * 每5秒从Redis刷新一次本地版本号，防止丢失广播导致长期读取旧版本缓存
+     */
+    @Scheduled(fixedDelay = 5000)
+    public void refreshVersions() {
+        if (versions.isEmpty()) {
+            return;
+        }
+        try {
+            List<String> namespaces = new ArrayList<>(versions.keySet());
+            List<String> keys = namespaces.stream().map(CacheConstants::buildVersionKey).toList();
+            List<String> values = stringRedisTemplate.opsForValue().multiGet(keys);
+            if (values == null) {
+                return;
+            }
+            for (int i = 0; i < namespaces.size(); i++) {
+                String value = values.get(i);
+                versions.put(namespaces.get(i), value != null ? Long.parseLong(value) : 0L);
+            }
+        } catch (Exception e) {
+            log.warn("刷新缓存版本号失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 获取本地已知的所有命名空间版本号
+     */
+    public Map<String, Long> snapshot() {
+        return Collections.unmodifiableMap(new ConcurrentHashMap<>(versions));
+    }
+
+    private long loadVersion(String namespace) {
+        String value = stringRedisTemplate.opsForValue().get(CacheConstants.buildVersionKey(namespace));
+        return value != null ? Long.parseLong(value) : 0L;
+    }
+}
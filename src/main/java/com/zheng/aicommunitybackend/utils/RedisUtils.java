@@ -1,10 +1,15 @@
 package com.zheng.aicommunitybackend.utils;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.Cursor;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * Redis工具类
@@ -12,6 +17,11 @@ import java.util.concurrent.TimeUnit;
 @Component
 public class RedisUtils {
 
+    /**
+     * SCAN 每批返回的建议数量
+     */
+    private static final int SCAN_BATCH_SIZE = 500;
+
     @Autowired
     private RedisTemplate<String, Object> redisTemplate;
 
@@ -53,10 +63,46 @@ public class RedisUtils {
 
     /**
      * 批量删除缓存
+     * 使用 SCAN 增量遍历并分批 UNLINK，避免 KEYS 阻塞Redis
+     * @param pattern 匹配模式
+     * @return 删除的key数量
+     */
+    public long deleteByPattern(String pattern) {
+        long[] deleted = {0};
+        scan(pattern, keys -> deleted[0] += unlink(keys));
+        return deleted[0];
+    }
+
+    /**
+     * 增量遍历匹配的key，按批回调
      * @param pattern 匹配模式
+     * @param batchConsumer 每批key的处理逻辑
+     */
+    public void scan(String pattern, Consumer<List<String>> batchConsumer) {
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(SCAN_BATCH_SIZE).build();
+        List<String> batch = new ArrayList<>(SCAN_BATCH_SIZE);
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() >= SCAN_BATCH_SIZE) {
+                    batchConsumer.accept(batch);
+                    batch = new ArrayList<>(SCAN_BATCH_SIZE);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            batchConsumer.accept(batch);
+        }
+    }
+
+    /**
+     * 批量删除指定的key（非阻塞 UNLINK）
+     * @param keys 键集合
+     * @return 删除数量
      */
-    public void deleteByPattern(String pattern) {
-        redisTemplate.delete(redisTemplate.keys(pattern));
+    public long unlink(List<String> keys) {
+        Long count = redisTemplate.unlink(keys);
+        return count != null ? count : 0;
     }
 
     /**
@@ -0,0 +1,189 @@
+package com.zheng.aicommunitybackend.utils;
+
+import cn.hutool.core.util.IdUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 二级缓存
+ * L1 为本节点内的 Caffeine 缓存（按容量与写入时间淘汰），L2 为 Redis（RedisUtils）。
+ * 读取先查 L1，未命中再查 Redis 并回填 L1；失效时同时删除两级缓存，
+ * 并通过 Redis pub/sub 通知其他节点清理各自的 L1
+ */
+@Slf4j
+@Component
+public class TwoLevelCache implements MessageListener {
+
+    /**
+     * 缓存失效广播频道
+     */
+    public static final String INVALIDATION_CHANNEL = "cache:invalidation";
+
+    private static final String TYPE_KEY = "key";
+
+    @Autowired
+    private RedisUtils redisUtils;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    /**
+     * 本地缓存最大条目数
+     */
+    @Value("${cache.local.maximum-size:10000}")
+    private long maximumSize;
+
+    /**
+     * 本地缓存写入后过期时间（秒），应明显短于Redis过期时间，作为丢失失效广播时的兜底
+     */
+    @Value("${cache.local.expire-seconds:60}")
+    private long expireSeconds;
+
+    /**
+     * 当前节点标识，用于忽略自己发出的失效广播
+     */
+    private final String nodeId = IdUtil.fastSimpleUUID();
+
+    private Cache<String, Object> localCache;
+
+    private final LongAdder redisHits = new LongAdder();
+    private final LongAdder redisMisses = new LongAdder();
+    private final LongAdder invalidationsPublished = new LongAdder();
+    private final LongAdder invalidationsReceived = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        localCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+        log.info("二级缓存初始化完成，本地缓存容量: {}, 过期时间: {}秒, 节点: {}", maximumSize, expireSeconds, nodeId);
+    }
+
+    /**
+     * 获取缓存，依次查询本地缓存和Redis
+     * @param key 键
+     * @return 值，两级都未命中时返回null
+     */
+    public Object get(String key) {
+        Object value = localCache.getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+
+        value = redisUtils.get(key);
+        if (value != null) {
+            redisHits.increment();
+            localCache.put(key, value);
+        } else {
+            redisMisses.increment();
+        }
+        return value;
+    }
+
+    /**
+     * 同时写入本地缓存和Redis
+     * @param key 键
+     * @param value 值
+     * @param timeout Redis过期时间（秒）
+     */
+    public void set(String key, Object value, long timeout) {
+        redisUtils.set(key, value, timeout);
+        localCache.put(key, value);
+    }
+
+    /**
+     * 删除指定key的两级缓存，并通知其他节点
+     * @param key 键
+     */
+    public void evict(String key) {
+        redisUtils.delete(key);
+        localCache.invalidate(key);
+        publish(TYPE_KEY, key);
+    }
+
+    /**
+     * 获取两级缓存的命中统计
+     */
+    public TwoLevelCacheStats getStats() {
+        com.github.benmanes.caffeine.cache.stats.CacheStats localStats = localCache.stats();
+        long l2Hits = redisHits.sum();
+        long l2Misses = redisMisses.sum();
+
+        TwoLevelCacheStats stats = new TwoLevelCacheStats();
+        stats.setLocalSize(localCache.estimatedSize());
+        stats.setLocalHits(localStats.hitCount());
+        stats.setLocalMisses(localStats.missCount());
+        stats.setLocalHitRatio(localStats.hitRate());
+        stats.setLocalEvictions(localStats.evictionCount());
+        stats.setRedisHits(l2Hits);
+        stats.setRedisMisses(l2Misses);
+        stats.setRedisHitRatio(l2Hits + l2Misses == 0 ? 1.0 : (double) l2Hits / (l2Hits + l2Misses));
+        stats.setInvalidationsPublished(invalidationsPublished.sum());
+        stats.setInvalidationsReceived(invalidationsReceived.sum());
+        return stats;
+    }
+
+    /**
+     * 接收其他节点的失效广播，消息格式：节点ID|类型|键
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        String[] parts = body.split("\\|", 3);
+        if (parts.length != 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+
+        invalidationsReceived.increment();
+        localCache.invalidate(parts[2]);
+        log.debug("收到缓存失效广播，来源节点: {}, 类型: {}, 目标: {}", parts[0], parts[1], parts[2]);
+    }
+
+    private void publish(String type, String target) {
+        try {
+            stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, nodeId + "|" + type + "|" + target);
+            invalidationsPublished.increment();
+        } catch (Exception e) {
+            // 广播失败时其他节点依赖本地缓存过期兜底
+            log.error("发送缓存失效广播失败，类型: {}, 目标: {}", type, target, e);
+        }
+    }
+
+    /**
+     * 二级缓存统计信息
+     */
+    @Data
+    public static class TwoLevelCacheStats {
+        private long localSize;
+        private long localHits;
+        private long localMisses;
+        private double localHitRatio;
+        private long localEvictions;
+        private long redisHits;
+        private long redisMisses;
+        private double redisHitRatio;
+        private long invalidationsPublished;
+        private long invalidationsReceived;
+    }
+}
@@ -0,0 +1,68 @@
+package com.zheng.aicommunitybackend.websocket;
+
+import com.zheng.aicommunitybackend.util.JwtUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Map;
+
+/**
+ * 聊天WebSocket握手认证
+ * 浏览器建立WebSocket时无法设置请求头，令牌优先从查询参数 token 读取，其次读取认证请求头
+ */
+@Slf4j
+@Component
+public class ChatHandshakeInterceptor implements HandshakeInterceptor {
+
+    /**
+     * 握手通过后存放用户ID的会话属性名
+     */
+    public static final String USER_ID_ATTRIBUTE = "userId";
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Value("${jwt.header:Authorization}")
+    private String tokenHeader;
+
+    @Value("${jwt.token-prefix:Bearer}")
+    private String tokenPrefix;
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        JwtUtil.TokenClaims claims = jwtUtil.parseToken(resolveToken(request));
+        if (claims == null) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+        attributes.put(USER_ID_ATTRIBUTE, claims.getUserId());
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+
+    private String resolveToken(ServerHttpRequest request) {
+        String token = UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().getFirst("token");
+        if (StringUtils.hasText(token)) {
+            return token;
+        }
+        String header = request.getHeaders().getFirst(tokenHeader);
+        if (StringUtils.hasText(header) && header.startsWith(tokenPrefix)) {
+            return header.substring(tokenPrefix.length()).trim();
+        }
+        return header;
+    }
+}
@@ -0,0 +1,66 @@
+package com.zheng.aicommunitybackend.websocket;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zheng.aicommunitybackend.component.ChatPushHub;
+import com.zheng.aicommunitybackend.domain.dto.ChatPushEvent;
+import com.zheng.aicommunitybackend.service.UserChatMessagesService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+/**
+ * 聊天WebSocket处理器
+ * 服务端向客户端推送 message / read / typing 事件；客户端只上行正在输入事件：
+ * {"type":"typing","conversationId":"..."}，发消息、标记已读仍走REST接口
+ */
+@Slf4j
+@Component
+public class ChatWebSocketHandler extends TextWebSocketHandler {
+
+    @Autowired
+    private ChatPushHub chatPushHub;
+
+    @Autowired
+    private UserChatMessagesService userChatMessagesService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        chatPushHub.register(userId(session), session);
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        try {
+            JsonNode node = objectMapper.readTree(message.getPayload());
+            if (ChatPushEvent.TYPE_TYPING.equals(node.path("type").asText())
+                    && node.hasNonNull("conversationId")) {
+                userChatMessagesService.sendTyping(node.get("conversationId").asText(), userId(session));
+            }
+        } catch (Exception e) {
+            // 非法的上行消息直接忽略，不断开连接
+            log.debug("忽略无法处理的WebSocket消息: userId={}, error={}", userId(session), e.getMessage());
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        chatPushHub.unregister(userId(session), session);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        chatPushHub.unregister(userId(session), session);
+    }
+
+    private Long userId(WebSocketSession session) {
+        return (Long) session.getAttributes().get(ChatHandshakeInterceptor.USER_ID_ATTRIBUTE);
+    }
+}
@@ -0,0 +1,6 @@
+-- 聊天消息会话索引迁移
+-- 会话列表按会话批量查询最后一条消息与未读数，都以 (conversation_id, status) 过滤，
+-- 二级索引叶子节点自带主键ID，按会话取最大ID可直接在索引上完成
+ALTER TABLE user_chat_messages
+    DROP INDEX idx_conversation_id,
+    ADD INDEX idx_conversation_status (conversation_id, status);
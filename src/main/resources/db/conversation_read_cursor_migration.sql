@@ -0,0 +1,15 @@
+-- 会话已读游标迁移
+-- 已读状态改为每个会话成员一个已读游标 user_conversation_members.last_read_message_id，
+-- 游标及之前的消息视为已读，不再按 (消息, 用户) 写 user_message_read_records，也不再更新消息的 read_count。
+-- 回填：取每个成员已读记录中最大的消息ID作为游标（游标只前进不后退）；
+-- 旧数据中跳读的消息，回填后其之前的消息一并视为已读
+UPDATE user_conversation_members cm
+INNER JOIN (
+    SELECT conversation_id, user_id, MAX(message_id) AS last_read_message_id
+    FROM user_message_read_records
+    GROUP BY conversation_id, user_id
+) r ON r.conversation_id = cm.conversation_id AND r.user_id = cm.user_id
+SET cm.last_read_message_id = GREATEST(IFNULL(cm.last_read_message_id, 0), r.last_read_message_id);
+
+-- 新代码已不再读写 user_message_read_records，确认回填结果无误后可删除该表
+-- DROP TABLE user_message_read_records;
@@ -0,0 +1,16 @@
+-- 游标分页索引迁移
+-- 聊天记录、一级评论与帖子列表改为按 (create_time, id) 倒序的 seek 分页，
+-- 等值过滤列在前、(create_time, id) 在后，翻页条件与排序都能在索引上完成，无需回表排序
+
+-- 聊天消息：会话内按时间翻页（保留 idx_conversation_status，用于按会话取最大ID与未读统计）
+ALTER TABLE user_chat_messages
+    ADD INDEX idx_conversation_status_time (conversation_id, status, create_time, id);
+
+-- 帖子评论：帖子下的一级评论按时间翻页
+ALTER TABLE post_comments
+    ADD INDEX idx_post_parent_status_time (post_id, parent_id, status, create_time, id);
+
+-- 社区帖子：全部帖子与按分类查询的帖子列表按时间翻页
+ALTER TABLE community_posts
+    ADD INDEX idx_status_time (status, create_time, id),
+    ADD INDEX idx_category_status_time (category, status, create_time, id);
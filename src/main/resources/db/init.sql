@@ -69,7 +69,8 @@ CREATE TABLE IF NOT EXISTS like_records (
     target_type TINYINT NOT NULL COMMENT '目标类型：1-帖子 2-评论',
     create_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '点赞时间',
     status TINYINT NOT NULL DEFAULT 1 COMMENT '状态：0-取消 1-有效',
-    INDEX idx_user_target (user_id, target_id, target_type)
+    UNIQUE KEY uk_user_target (user_id, target_type, target_id),
+    INDEX idx_target (target_type, target_id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='点赞记录表';
 
 -- 收藏记录表
@@ -202,7 +203,8 @@ CREATE TABLE IF NOT EXISTS user_chat_messages (
     read_count INTEGER NOT NULL DEFAULT 0 COMMENT '已读人数',
     create_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
     update_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
-    INDEX idx_conversation_id (conversation_id),
+    INDEX idx_conversation_status (conversation_id, status),
+    INDEX idx_conversation_status_time (conversation_id, status, create_time, id),
     INDEX idx_sender_id (sender_id),
     INDEX idx_create_time (create_time)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='用户聊天消息表';
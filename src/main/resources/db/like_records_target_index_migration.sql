@@ -0,0 +1,3 @@
+-- 点赞记录目标索引迁移
+-- Redis点赞计数预热时按 (target_type, target_id) 游标分页读取点赞用户，需要以目标开头的索引
+ALTER TABLE like_records ADD INDEX idx_target (target_type, target_id);
@@ -0,0 +1,14 @@
+-- 点赞记录唯一约束迁移
+-- 点赞消息批量消费按目标使用 INSERT IGNORE 写入点赞记录，依赖 (user_id, target_type, target_id) 唯一约束保证幂等，重复的行不计入影响行数
+
+-- 清理重复的点赞记录，保留最早的一条
+DELETE l1 FROM like_records l1
+JOIN like_records l2
+  ON l1.user_id = l2.user_id
+ AND l1.target_type = l2.target_type
+ AND l1.target_id = l2.target_id
+ AND l1.id > l2.id;
+
+-- 使用唯一索引替换原有的普通联合索引
+ALTER TABLE like_records DROP INDEX idx_user_target;
+ALTER TABLE like_records ADD UNIQUE KEY uk_user_target (user_id, target_type, target_id);
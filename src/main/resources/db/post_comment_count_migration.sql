@@ -0,0 +1,11 @@
+-- 帖子评论数回填
+-- community_posts.comment_count 改为在评论新增、删除、显示状态变更时于同一事务内维护，
+-- 帖子列表与详情直接读取该字段，不再扫描评论表；上线前按显示状态的评论（包括回复）回填一次
+UPDATE community_posts p
+LEFT JOIN (
+    SELECT post_id, COUNT(*) AS cnt
+    FROM post_comments
+    WHERE status = 1
+    GROUP BY post_id
+) c ON c.post_id = p.id
+SET p.comment_count = IFNULL(c.cnt, 0);
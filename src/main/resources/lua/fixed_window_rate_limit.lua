@@ -0,0 +1,15 @@
+-- 固定窗口限流
+-- KEYS[1] 限流键
+-- ARGV[1] 窗口内最大请求数 ARGV[2] 窗口大小（秒）
+local key = KEYS[1]
+local limit = tonumber(ARGV[1])
+local window = tonumber(ARGV[2])
+local current = redis.call('incr', key)
+if current == 1 then
+    redis.call('expire', key, window)
+end
+if current <= limit then
+    return 1
+else
+    return 0
+end
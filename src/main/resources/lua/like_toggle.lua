@@ -0,0 +1,32 @@
+-- 点赞 / 取消点赞
+-- KEYS[1] 用户点赞哈希 community:like:{userId}
+-- KEYS[2] 目标点赞用户集合 community:likers:{type}:{targetId}
+-- KEYS[3] 目标点赞计数 community:like-count:{type}:{targetId}
+-- ARGV[1] 点赞目标 {type}:{targetId}
+-- ARGV[2] 用户ID
+-- ARGV[3] 点赞用户集合与计数key的过期时间（秒），每次点赞/取消点赞时续期
+-- 返回 {状态, 点赞数}，状态 1 表示点赞，0 表示取消点赞，-1 表示目标未预热（计数key不存在）
+if redis.call('EXISTS', KEYS[3]) == 0 then
+    return {-1, 0}
+end
+local state
+local count
+if redis.call('SISMEMBER', KEYS[2], ARGV[2]) == 1 then
+    redis.call('SREM', KEYS[2], ARGV[2])
+    redis.call('HDEL', KEYS[1], ARGV[1])
+    state = 0
+    count = redis.call('DECR', KEYS[3])
+    if count < 0 then
+        redis.call('SET', KEYS[3], 0)
+        count = 0
+    end
+else
+    redis.call('SADD', KEYS[2], ARGV[2])
+    redis.call('HSET', KEYS[1], ARGV[1], 1)
+    state = 1
+    count = redis.call('INCR', KEYS[3])
+end
+-- 集合与计数一起续期，过期后下次访问重新预热
+redis.call('EXPIRE', KEYS[2], ARGV[3])
+redis.call('EXPIRE', KEYS[3], ARGV[3])
+return {state, count}
@@ -0,0 +1,22 @@
+-- 目标点赞数据预热
+-- KEYS[1] 目标点赞用户集合 community:likers:{type}:{targetId}
+-- KEYS[2] 目标点赞计数 community:like-count:{type}:{targetId}
+-- KEYS[3] 预热临时集合，已写入从数据库读取的点赞用户
+-- ARGV[1] 点赞用户集合与计数key的过期时间（秒）
+-- 计数key已存在说明已由其他请求完成预热，丢弃临时集合；否则原子替换点赞用户集合并写入计数
+-- 返回当前点赞数
+if redis.call('EXISTS', KEYS[2]) == 1 then
+    redis.call('DEL', KEYS[3])
+    redis.call('EXPIRE', KEYS[1], ARGV[1])
+    redis.call('EXPIRE', KEYS[2], ARGV[1])
+    return tonumber(redis.call('GET', KEYS[2]))
+end
+if redis.call('EXISTS', KEYS[3]) == 1 then
+    redis.call('RENAME', KEYS[3], KEYS[1])
+    redis.call('EXPIRE', KEYS[1], ARGV[1])
+else
+    redis.call('DEL', KEYS[1])
+end
+local count = redis.call('SCARD', KEYS[1])
+redis.call('SET', KEYS[2], count, 'EX', ARGV[1])
+return count
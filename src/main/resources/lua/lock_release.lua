@@ -0,0 +1,8 @@
+-- 释放分布式锁（比较后删除）
+-- KEYS[1] 锁key
+-- ARGV[1] 加锁时写入的持有者标识
+-- 返回 1 表示释放成功，0 表示锁已过期或已被其他持有者重新获取，不做任何修改
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    return redis.call('DEL', KEYS[1])
+end
+return 0
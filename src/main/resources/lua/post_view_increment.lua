@@ -0,0 +1,10 @@
+-- 帖子浏览量自增
+-- KEYS[1] 帖子实时浏览量 community:view-count:{postId}
+-- ARGV[1] 初始浏览量（key不存在时写入，取自数据库或详情缓存） ARGV[2] 过期时间（秒）
+-- 返回自增后的浏览量
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    redis.call('SET', KEYS[1], ARGV[1])
+end
+local count = redis.call('INCR', KEYS[1])
+redis.call('EXPIRE', KEYS[1], ARGV[2])
+return count
@@ -0,0 +1,48 @@
+-- 抢红包
+-- KEYS[1] 活动红包队列 KEYS[2] 用户已抢活动集合 KEYS[3] 活动抢红包流水哈希 KEYS[4] 活动信息哈希
+-- ARGV[1] 用户ID ARGV[2] 活动ID
+-- 返回 {1, 红包ID:金额:序号} 或 {0, 失败原因}
+-- 活动状态与时间窗口在脚本内按Redis服务器时间原子校验，抢红包全程不读数据库
+-- 流水哈希记录 用户ID -> 红包ID:金额:序号:抢到时间(毫秒)，结算消息丢失时由补偿任务据此补结算
+local queueKey = KEYS[1]
+local userKey = KEYS[2]
+local grabsKey = KEYS[3]
+local infoKey = KEYS[4]
+local userId = ARGV[1]
+local activityId = ARGV[2]
+
+local info = redis.call('HMGET', infoKey, 'status', 'startTime', 'endTime')
+if not info[1] then
+    return {0, 'not_loaded'}
+end
+if info[1] == '0' then
+    return {0, 'not_started'}
+end
+if info[1] ~= '1' then
+    return {0, 'ended'}
+end
+
+local time = redis.call('TIME')
+local now = time[1] * 1000 + math.floor(time[2] / 1000)
+if now < tonumber(info[2]) then
+    return {0, 'not_started'}
+end
+if now > tonumber(info[3]) then
+    return {0, 'ended'}
+end
+
+if redis.call('SISMEMBER', userKey, activityId) == 1 then
+    return {0, 'already_grabbed'}
+end
+
+local packet = redis.call('LPOP', queueKey)
+if not packet then
+    return {0, 'no_packet'}
+end
+
+redis.call('SADD', userKey, activityId)
+redis.call('EXPIRE', userKey, 86400)
+
+redis.call('HSET', grabsKey, userId, packet .. ':' .. now)
+redis.call('EXPIRE', grabsKey, 86400)
+return {1, packet}
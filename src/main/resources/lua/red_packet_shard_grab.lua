@@ -0,0 +1,44 @@
+-- 分片模式抢红包（在用户所属分片上执行）
+-- KEYS[1] 分片红包队列 KEYS[2] 分片已抢用户集合 KEYS[3] 分片抢红包流水哈希 KEYS[4] 分片活动信息哈希
+-- ARGV[1] 用户ID
+-- 返回 {1, 红包ID:金额:序号}、{0, 失败原因}，或 {2, 'steal'} 表示本分片已空、已为用户占位，需到其他分片窃取
+-- 同一用户总是路由到同一分片，已抢用户集合按活动分片维护，与队列同属一个哈希槽
+local queueKey = KEYS[1]
+local usersKey = KEYS[2]
+local grabsKey = KEYS[3]
+local infoKey = KEYS[4]
+local userId = ARGV[1]
+
+local info = redis.call('HMGET', infoKey, 'status', 'startTime', 'endTime')
+if not info[1] then
+    return {0, 'not_loaded'}
+end
+if info[1] == '0' then
+    return {0, 'not_started'}
+end
+if info[1] ~= '1' then
+    return {0, 'ended'}
+end
+
+local time = redis.call('TIME')
+local now = time[1] * 1000 + math.floor(time[2] / 1000)
+if now < tonumber(info[2]) then
+    return {0, 'not_started'}
+end
+if now > tonumber(info[3]) then
+    return {0, 'ended'}
+end
+
+if redis.call('SADD', usersKey, userId) == 0 then
+    return {0, 'already_grabbed'}
+end
+redis.call('EXPIRE', usersKey, 86400)
+
+local packet = redis.call('LPOP', queueKey)
+if not packet then
+    return {2, 'steal'}
+end
+
+redis.call('HSET', grabsKey, userId, packet .. ':' .. now)
+redis.call('EXPIRE', grabsKey, 86400)
+return {1, packet}
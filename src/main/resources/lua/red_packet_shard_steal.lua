@@ -0,0 +1,14 @@
+-- 分片模式从其他分片窃取红包（用户所属分片已空且已占位后执行）
+-- KEYS[1] 分片红包队列 KEYS[2] 分片抢红包流水哈希
+-- ARGV[1] 用户ID
+-- 返回 {1, 红包ID:金额:序号} 或 {0, 'no_packet'}
+local packet = redis.call('LPOP', KEYS[1])
+if not packet then
+    return {0, 'no_packet'}
+end
+
+local time = redis.call('TIME')
+local now = time[1] * 1000 + math.floor(time[2] / 1000)
+redis.call('HSET', KEYS[2], ARGV[1], packet .. ':' .. now)
+redis.call('EXPIRE', KEYS[2], 86400)
+return {1, packet}
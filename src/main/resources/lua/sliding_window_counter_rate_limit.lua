@@ -0,0 +1,46 @@
+-- 滑动窗口计数器限流
+-- KEYS[1] 限流键（哈希，field为子窗口序号，value为该子窗口内的请求数）
+-- ARGV[1] 窗口大小（秒） ARGV[2] 窗口内最大请求数 ARGV[3] 子窗口数
+-- 返回1允许、0拒绝
+-- 窗口按子窗口粒度滑动，内存占用与子窗口数成正比，与请求数无关；
+-- 最早的子窗口整段计入，实际统计范围在 (窗口 - 子窗口, 窗口] 之间，限流只会偏严不会偏松
+local key = KEYS[1]
+local window = tonumber(ARGV[1])
+local limit = tonumber(ARGV[2])
+local buckets = tonumber(ARGV[3])
+
+-- 参数验证
+if not window or not limit or not buckets then
+    return 0
+end
+if window <= 0 or limit <= 0 or buckets <= 0 then
+    return 0
+end
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+local bucketMillis = math.max(1, math.floor(window * 1000 / buckets))
+local current = math.floor(now / bucketMillis)
+local oldest = current - buckets + 1
+
+-- 统计窗口内的请求数，同时清除滑出窗口的子窗口
+local fields = redis.call('HGETALL', key)
+local count = 0
+local expired = {}
+for i = 1, #fields, 2 do
+    if tonumber(fields[i]) < oldest then
+        expired[#expired + 1] = fields[i]
+    else
+        count = count + tonumber(fields[i + 1])
+    end
+end
+if #expired > 0 then
+    redis.call('HDEL', key, unpack(expired))
+end
+
+if count >= limit then
+    return 0
+end
+redis.call('HINCRBY', key, string.format('%d', current), 1)
+redis.call('PEXPIRE', key, window * 1000 + bucketMillis)
+return 1
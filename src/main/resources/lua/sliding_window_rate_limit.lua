@@ -0,0 +1,28 @@
+-- 滑动窗口限流
+-- KEYS[1] 限流键
+-- ARGV[1] 窗口大小（秒） ARGV[2] 窗口内最大请求数 ARGV[3] 当前时间戳（毫秒）
+local key = KEYS[1]
+local window = tonumber(ARGV[1])
+local limit = tonumber(ARGV[2])
+local current = tonumber(ARGV[3])
+
+-- 参数验证
+if not window or not limit or not current then
+    return 0
+end
+if window <= 0 or limit <= 0 then
+    return 0
+end
+
+-- 清除旧数据
+redis.call('zremrangebyscore', key, 0, current - window * 1000)
+
+local currentRequests = redis.call('zcard', key)
+if currentRequests < limit then
+    redis.call('zadd', key, current, current)
+    -- 设置过期时间避免内存泄漏
+    redis.call('expire', key, window)
+    return 1
+else
+    return 0
+end
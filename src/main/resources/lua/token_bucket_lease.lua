@@ -0,0 +1,30 @@
+-- 令牌桶批量租借
+-- KEYS[1] 限流键
+-- ARGV[1] 桶容量 ARGV[2] 令牌补充速率（每秒） ARGV[3] 本次申请的令牌数 ARGV[4] 归还的未用令牌数
+-- 返回实际租到的令牌数（0 ~ 申请数）
+-- 归还与租借在同一次调用中完成；时间取Redis服务器时间，避免各节点时钟不一致；
+-- 令牌数保留小数部分，高频小批量租借时补充的令牌不会被取整丢弃
+local key = KEYS[1]
+local capacity = tonumber(ARGV[1])
+local refillRate = tonumber(ARGV[2])
+local requested = tonumber(ARGV[3])
+local returned = tonumber(ARGV[4])
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local bucket = redis.call('HMGET', key, 'tokens', 'lastRefill')
+local tokens = tonumber(bucket[1]) or capacity
+local lastRefill = tonumber(bucket[2]) or now
+local timePassed = math.max(0, now - lastRefill)
+tokens = math.min(capacity, tokens + timePassed / 1000 * refillRate + returned)
+
+local granted = math.min(requested, math.floor(tokens))
+if granted < 0 then
+    granted = 0
+end
+tokens = tokens - granted
+
+redis.call('HSET', key, 'tokens', tostring(tokens), 'lastRefill', now)
+redis.call('EXPIRE', key, math.max(60, math.ceil(capacity / refillRate) * 2))
+return granted
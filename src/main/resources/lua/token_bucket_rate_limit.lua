@@ -0,0 +1,23 @@
+-- 令牌桶限流
+-- KEYS[1] 限流键
+-- ARGV[1] 桶容量 ARGV[2] 令牌补充速率（每秒） ARGV[3] 当前时间戳（毫秒）
+local key = KEYS[1]
+local capacity = tonumber(ARGV[1])
+local refillRate = tonumber(ARGV[2])
+local currentTime = tonumber(ARGV[3])
+local bucket = redis.call('hmget', key, 'tokens', 'lastRefill')
+local tokens = tonumber(bucket[1]) or capacity
+local lastRefill = tonumber(bucket[2]) or currentTime
+local timePassed = math.max(0, currentTime - lastRefill)
+local tokensToAdd = math.floor(timePassed / 1000 * refillRate)
+tokens = math.min(capacity, tokens + tokensToAdd)
+if tokens >= 1 then
+    tokens = tokens - 1
+    redis.call('hmset', key, 'tokens', tokens, 'lastRefill', currentTime)
+    redis.call('expire', key, 3600)
+    return 1
+else
+    redis.call('hmset', key, 'tokens', tokens, 'lastRefill', currentTime)
+    redis.call('expire', key, 3600)
+    return 0
+end
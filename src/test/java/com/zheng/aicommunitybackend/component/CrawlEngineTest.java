@@ -0,0 +1,199 @@
+package com.zheng.aicommunitybackend.component;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.zheng.aicommunitybackend.properties.SpiderProperties;
+import org.jsoup.HttpStatusException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 抓取引擎测试
+ * 使用本地HTTP桩服务器模拟慢响应、间歇性5xx与404，验证并行下载、站点并发上限、令牌桶限速、重试与去重。
+ * 时间相关的断言只看桩服务器记录的请求到达时间间隔，不断言总耗时
+ */
+public class CrawlEngineTest {
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String baseUrl;
+
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final AtomicInteger peakConcurrent = new AtomicInteger();
+    private final AtomicInteger flakyCalls = new AtomicInteger();
+    private final AtomicInteger pageCalls = new AtomicInteger();
+    private final List<Long> pageArrivalNanos = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+
+        // 每个请求耗时200ms，记录同时处理的请求数
+        server.createContext("/slow", exchange -> {
+            peakConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(200);
+                respond(exchange, 200, "<html><head><title>slow</title></head><body>ok</body></html>");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                concurrent.decrementAndGet();
+            }
+        });
+        // 前两次返回503，之后正常
+        server.createContext("/flaky", exchange -> {
+            if (flakyCalls.incrementAndGet() <= 2) {
+                respond(exchange, 503, "busy");
+            } else {
+                respond(exchange, 200, "<html><head><title>flaky</title></head></html>");
+            }
+        });
+        server.createContext("/missing", exchange -> respond(exchange, 404, "not found"));
+        server.createContext("/page", exchange -> {
+            pageArrivalNanos.add(System.nanoTime());
+            pageCalls.incrementAndGet();
+            respond(exchange, 200, "<html><head><title>page</title></head></html>");
+        });
+
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testFetchAllRunsInParallelWithinHostLimit() {
+        CrawlEngine engine = newEngine(4, 1000.0, 100, 1, 10L);
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            urls.add(baseUrl + "/slow/" + i);
+        }
+
+        Map<String, CrawlEngine.FetchResult> results = engine.fetchAll(urls, Collections.emptyMap(), 5000);
+
+        assertEquals(8, results.size());
+        results.values().forEach(result -> assertTrue(result.isSuccess()));
+        // 桩服务器观察到的同时处理请求数，证明详情页是并行下载的
+        assertTrue(peakConcurrent.get() > 1, "应有多个请求同时进行");
+        assertTrue(peakConcurrent.get() <= 4, "同一站点并发不应超过上限，实际: " + peakConcurrent.get());
+        engine.shutdown();
+    }
+
+    @Test
+    public void testTokenBucketSpacesRequestsToSameHost() {
+        // 每秒5个请求、容量1：相邻请求到达桩服务器的间隔约为200ms
+        CrawlEngine engine = newEngine(4, 5.0, 1, 1, 10L);
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            urls.add(baseUrl + "/page/" + i);
+        }
+
+        Map<String, CrawlEngine.FetchResult> results = engine.fetchAll(urls, Collections.emptyMap(), 5000);
+
+        results.values().forEach(result -> assertTrue(result.isSuccess()));
+        List<Long> arrivals = new ArrayList<>(pageArrivalNanos);
+        Collections.sort(arrivals);
+        assertEquals(6, arrivals.size());
+        for (int i = 1; i < arrivals.size(); i++) {
+            long gapMillis = (arrivals.get(i) - arrivals.get(i - 1)) / 1_000_000;
+            // 下限留出一半的调度抖动；上限只用于发现请求被卡住，取得很宽
+            assertTrue(gapMillis >= 100, "同一站点请求应按令牌桶速率放行，第" + i + "个间隔: " + gapMillis + "ms");
+            assertTrue(gapMillis < 3000, "令牌桶不应使请求等待过久，第" + i + "个间隔: " + gapMillis + "ms");
+        }
+        assertTrue(engine.getStats().getThrottleWaitMillis() > 0);
+        engine.shutdown();
+    }
+
+    @Test
+    public void testRetriesServerErrorsWithBackoff() throws IOException {
+        CrawlEngine engine = newEngine(4, 1000.0, 100, 3, 10L);
+
+        CrawlEngine.FetchResult result = engine.fetchAll(
+                List.of(baseUrl + "/flaky"), Collections.emptyMap(), 5000).get(baseUrl + "/flaky");
+
+        assertTrue(result.isSuccess());
+        assertEquals(3, result.getAttempts());
+        assertEquals("flaky", result.requireDocument().title());
+        assertEquals(2, engine.getStats().getRetries());
+        engine.shutdown();
+    }
+
+    @Test
+    public void testDoesNotRetryClientErrors() {
+        CrawlEngine engine = newEngine(4, 1000.0, 100, 3, 10L);
+
+        CrawlEngine.FetchResult result = engine.fetchAll(
+                List.of(baseUrl + "/missing"), Collections.emptyMap(), 5000).get(baseUrl + "/missing");
+
+        assertFalse(result.isSuccess());
+        assertEquals(1, result.getAttempts());
+        HttpStatusException error = assertInstanceOf(HttpStatusException.class, result.getError());
+        assertEquals(404, error.getStatusCode());
+        assertThrows(HttpStatusException.class, () -> engine.fetch(baseUrl + "/missing", Collections.emptyMap(), 5000));
+        engine.shutdown();
+    }
+
+    @Test
+    public void testFrontierDeduplicatesUrls() {
+        CrawlEngine engine = newEngine(4, 1000.0, 100, 1, 10L);
+        String url = baseUrl + "/page/same";
+
+        Map<String, CrawlEngine.FetchResult> results = engine.fetchAll(
+                List.of(url, url, url, ""), Collections.emptyMap(), 5000);
+
+        assertEquals(1, results.size());
+        assertEquals(1, pageCalls.get());
+        engine.shutdown();
+    }
+
+    @Test
+    public void testHostOfToleratesUnescapedCharacters() {
+        assertEquals("news.example.com", CrawlEngine.hostOf("https://News.Example.com/a b|新闻?q=x y"));
+        assertThrows(IllegalArgumentException.class, () -> CrawlEngine.hostOf("not a url"));
+        assertThrows(IllegalArgumentException.class, () -> CrawlEngine.hostOf("file:///tmp/page.html"));
+    }
+
+    private static CrawlEngine newEngine(int perHostConcurrency, double requestsPerSecond, int burst,
+                                         int maxAttempts, long backoffMs) {
+        SpiderProperties properties = new SpiderProperties();
+        SpiderProperties.Crawl crawl = properties.getCrawl();
+        crawl.setMaxConcurrency(16);
+        crawl.setPerHostConcurrency(perHostConcurrency);
+        crawl.setPerHostRequestsPerSecond(requestsPerSecond);
+        crawl.setPerHostBurst(burst);
+        crawl.setMaxAttempts(maxAttempts);
+        crawl.setRetryBackoffMs(backoffMs);
+        crawl.setMaxRetryBackoffMs(backoffMs * 4);
+        return new CrawlEngine(properties);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/html; charset=UTF-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.zheng.aicommunitybackend.component;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.StreamUtils;
+import redis.clients.jedis.ConnectionPoolConfig;
+import redis.clients.jedis.JedisPooled;
+import redis.clients.jedis.params.ScanParams;
+import redis.clients.jedis.resps.ScanResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 红包分片队列压测
+ * 使用与线上相同的Lua脚本，分别以不同分片数抢完同一批红包，输出吞吐、延迟与窃取次数，并校验不超发、不重复。
+ * 需要指定Redis节点才会执行，分片按序号轮流落到各节点上，模拟Redis Cluster中不同哈希槽分布在不同节点：
+ * mvn test -Dtest=RedPacketShardLoadTest -Dredpacket.loadtest.nodes=127.0.0.1:7000,127.0.0.1:7001,127.0.0.1:7002
+ * 可选参数：redpacket.loadtest.packets（默认100000）、redpacket.loadtest.threads（默认64）、
+ * redpacket.loadtest.shards（默认1,2,4,8，1表示非分片模式）
+ */
+public class RedPacketShardLoadTest {
+
+    private static final long ACTIVITY_ID_BASE = 9_000_000_000L;
+
+    @Test
+    public void testShardScaling() throws Exception {
+        String nodesProperty = System.getProperty("redpacket.loadtest.nodes");
+        assumeTrue(nodesProperty != null && !nodesProperty.isBlank(), "未指定 redpacket.loadtest.nodes，跳过压测");
+
+        int packets = Integer.getInteger("redpacket.loadtest.packets", 100000);
+        int threads = Integer.getInteger("redpacket.loadtest.threads", 64);
+        int[] shardCounts = Arrays.stream(System.getProperty("redpacket.loadtest.shards", "1,2,4,8").split(","))
+                .map(String::trim).mapToInt(Integer::parseInt).toArray();
+
+        List<JedisPooled> nodes = new ArrayList<>();
+        ConnectionPoolConfig poolConfig = new ConnectionPoolConfig();
+        poolConfig.setMaxTotal(threads);
+        poolConfig.setMaxIdle(threads);
+        for (String node : nodesProperty.split(",")) {
+            String[] hostPort = node.trim().split(":");
+            nodes.add(new JedisPooled(poolConfig, hostPort[0], Integer.parseInt(hostPort[1])));
+        }
+
+        Scripts scripts = new Scripts();
+        System.out.printf("红包分片压测：节点数=%d, 红包数=%d, 用户数=%d, 线程数=%d%n",
+                nodes.size(), packets, packets + packets / 5, threads);
+        System.out.printf("%-6s %12s %10s %10s %10s %10s%n", "分片数", "吞吐(次/秒)", "p50(ms)", "p99(ms)", "窃取次数", "耗时(ms)");
+        try {
+            for (int shards : shardCounts) {
+                RunResult result = run(nodes, scripts, ACTIVITY_ID_BASE + shards, shards, packets, threads);
+                System.out.printf("%-9d %14.0f %10.2f %10.2f %12d %10d%n", shards, result.throughput(),
+                        result.percentileMillis(0.50), result.percentileMillis(0.99), result.steals, result.elapsedMillis);
+            }
+        } finally {
+            nodes.forEach(JedisPooled::close);
+        }
+    }
+
+    /**
+     * 以指定分片数抢完一批红包
+     */
+    private RunResult run(List<JedisPooled> nodes, Scripts scripts, long activityId, int shards,
+                          int packets, int threads) throws InterruptedException {
+        List<String> cleanupKeys = preload(nodes, activityId, shards, packets);
+        int users = packets + packets / 5;
+        AtomicLong nextUser = new AtomicLong();
+        LongAdder steals = new LongAdder();
+        LongAdder failures = new LongAdder();
+        Set<String> grabbedPackets = ConcurrentHashMap.newKeySet();
+        long[][] latencies = new long[threads][];
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            int threadIndex = t;
+            Thread worker = new Thread(() -> {
+                long[] samples = new long[users / threads + 1];
+                int count = 0;
+                ready.countDown();
+                try {
+                    start.await();
+                    long userId;
+                    while ((userId = nextUser.incrementAndGet()) <= users) {
+                        long begin = System.nanoTime();
+                        String packet = shards > 1
+                                ? grabSharded(nodes, scripts, activityId, shards, userId, steals)
+                                : grabSingle(nodes.get(0), scripts, activityId, userId);
+                        if (count < samples.length) {
+                            samples[count++] = System.nanoTime() - begin;
+                        }
+                        if (packet != null && !grabbedPackets.add(packet)) {
+                            failures.increment();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    latencies[threadIndex] = Arrays.copyOf(samples, count);
+                    done.countDown();
+                }
+            }, "red-packet-load-" + t);
+            worker.start();
+        }
+
+        ready.await();
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsedNanos = System.nanoTime() - begin;
+
+        for (String key : cleanupKeys) {
+            nodeFor(nodes, key).del(key);
+        }
+        if (shards == 1) {
+            cleanupUserKeys(nodes.get(0));
+        }
+
+        assertEquals(0, failures.sum(), "同一个红包被分配给了多个用户");
+        assertEquals(packets, grabbedPackets.size(), "分配出的红包数与预加载的红包数不一致");
+
+        RunResult result = new RunResult();
+        result.operations = users;
+        result.elapsedMillis = elapsedNanos / 1_000_000;
+        result.elapsedNanos = elapsedNanos;
+        result.steals = steals.sum();
+        result.latencies = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        return result;
+    }
+
+    /**
+     * 预加载红包与活动信息，返回需要清理的key
+     */
+    private List<String> preload(List<JedisPooled> nodes, long activityId, int shards, int packets) {
+        List<String> keys = new ArrayList<>();
+        List<List<String>> entries = new ArrayList<>();
+        for (int shard = 0; shard < shards; shard++) {
+            entries.add(new ArrayList<>());
+        }
+        for (int i = 0; i < packets; i++) {
+            entries.get(i % shards).add((i + 1) + ":" + ThreadLocalRandom.current().nextInt(1, 1000) + ":" + (i + 1));
+        }
+
+        for (int shard = 0; shard < shards; shard++) {
+            String queueKey = shards > 1 ? RedPacketShardRouter.shardKey(activityId, shard, "queue")
+                    : String.format("red_packet:activity:%d:queue", activityId);
+            String infoKey = shards > 1 ? RedPacketShardRouter.shardKey(activityId, shard, "info")
+                    : String.format("red_packet:activity:%d:info", activityId);
+            String usersKey = RedPacketShardRouter.shardKey(activityId, shard, "users");
+            String grabsKey = shards > 1 ? RedPacketShardRouter.shardKey(activityId, shard, "grabs")
+                    : String.format("red_packet:activity:%d:grabs", activityId);
+            keys.addAll(Arrays.asList(queueKey, infoKey, usersKey, grabsKey));
+
+            JedisPooled node = shards > 1 ? nodes.get(shard % nodes.size()) : nodes.get(0);
+            node.del(queueKey, infoKey, usersKey, grabsKey);
+            List<String> shardEntries = entries.get(shard);
+            for (int from = 0; from < shardEntries.size(); from += 1000) {
+                List<String> batch = shardEntries.subList(from, Math.min(from + 1000, shardEntries.size()));
+                node.rpush(queueKey, batch.toArray(new String[0]));
+            }
+            node.hset(infoKey, "status", "1");
+            node.hset(infoKey, "startTime", "0");
+            node.hset(infoKey, "endTime", String.valueOf(System.currentTimeMillis() + 3600_000L));
+        }
+        return keys;
+    }
+
+    private String grabSingle(JedisPooled node, Scripts scripts, long activityId, long userId) {
+        List<String> keys = Arrays.asList(
+                String.format("red_packet:activity:%d:queue", activityId),
+                String.format("red_packet:loadtest:user:%d:grabbed", userId),
+                String.format("red_packet:activity:%d:grabs", activityId),
+                String.format("red_packet:activity:%d:info", activityId));
+        List<?> result = (List<?>) node.eval(scripts.grab, keys,
+                Arrays.asList(String.valueOf(userId), String.valueOf(activityId)));
+        return code(result) == 1 ? text(result.get(1)) : null;
+    }
+
+    private String grabSharded(List<JedisPooled> nodes, Scripts scripts, long activityId, int shards,
+                               long userId, LongAdder steals) {
+        int home = RedPacketShardRouter.homeShard(userId, shards);
+        List<?> result = (List<?>) nodes.get(home % nodes.size()).eval(scripts.shardGrab,
+                Arrays.asList(RedPacketShardRouter.shardKey(activityId, home, "queue"),
+                        RedPacketShardRouter.shardKey(activityId, home, "users"),
+                        RedPacketShardRouter.shardKey(activityId, home, "grabs"),
+                        RedPacketShardRouter.shardKey(activityId, home, "info")),
+                Collections.singletonList(String.valueOf(userId)));
+        if (code(result) == 1) {
+            return text(result.get(1));
+        }
+        if (code(result) != 2) {
+            return null;
+        }
+
+        int start = ThreadLocalRandom.current().nextInt(shards);
+        for (int i = 0; i < shards; i++) {
+            int shard = (start + i) % shards;
+            if (shard == home) {
+                continue;
+            }
+            List<?> stolen = (List<?>) nodes.get(shard % nodes.size()).eval(scripts.shardSteal,
+                    Arrays.asList(RedPacketShardRouter.shardKey(activityId, shard, "queue"),
+                            RedPacketShardRouter.shardKey(activityId, shard, "grabs")),
+                    Collections.singletonList(String.valueOf(userId)));
+            if (code(stolen) == 1) {
+                steals.increment();
+                return text(stolen.get(1));
+            }
+        }
+        nodes.get(home % nodes.size()).srem(RedPacketShardRouter.shardKey(activityId, home, "users"),
+                String.valueOf(userId));
+        return null;
+    }
+
+    /**
+     * 非分片模式的已抢集合按用户建key，压测结束后统一清理
+     */
+    private void cleanupUserKeys(JedisPooled node) {
+        ScanParams params = new ScanParams().match("red_packet:loadtest:user:*").count(1000);
+        String cursor = ScanParams.SCAN_POINTER_START;
+        do {
+            ScanResult<String> page = node.scan(cursor, params);
+            if (!page.getResult().isEmpty()) {
+                node.unlink(page.getResult().toArray(new String[0]));
+            }
+            cursor = page.getCursor();
+        } while (!ScanParams.SCAN_POINTER_START.equals(cursor));
+    }
+
+    private JedisPooled nodeFor(List<JedisPooled> nodes, String key) {
+        int open = key.indexOf('{');
+        if (open < 0) {
+            return nodes.get(0);
+        }
+        String tag = key.substring(open + 1, key.indexOf('}'));
+        int shard = Integer.parseInt(tag.substring(tag.indexOf(':') + 1));
+        return nodes.get(shard % nodes.size());
+    }
+
+    private static long code(List<?> result) {
+        return ((Number) result.get(0)).longValue();
+    }
+
+    private static String text(Object value) {
+        return value instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8) : String.valueOf(value);
+    }
+
+    /**
+     * 线上使用的抢红包脚本
+     */
+    private static class Scripts {
+        private final String grab = read("lua/red_packet_grab.lua");
+        private final String shardGrab = read("lua/red_packet_shard_grab.lua");
+        private final String shardSteal = read("lua/red_packet_shard_steal.lua");
+
+        private static String read(String location) {
+            try (InputStream in = new ClassPathResource(location).getInputStream()) {
+                return StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new IllegalStateException("读取Lua脚本失败: " + location, e);
+            }
+        }
+    }
+
+    /**
+     * 单轮压测结果
+     */
+    private static class RunResult {
+        private long operations;
+        private long elapsedMillis;
+        private long elapsedNanos;
+        private long steals;
+        private long[] latencies;
+
+        private double throughput() {
+            return operations * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        private double percentileMillis(double percentile) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.min(latencies.length - 1, Math.ceil(percentile * latencies.length) - 1);
+            return latencies[Math.max(index, 0)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.zheng.aicommunitybackend.component;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.StreamUtils;
+import redis.clients.jedis.ConnectionPoolConfig;
+import redis.clients.jedis.JedisPooled;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 滑动窗口限流压测：ZSET滑动窗口 vs 子窗口计数器
+ * 使用与线上相同的Lua脚本，按固定速率向同一个全局key发请求，输出实际吞吐、放行数、延迟，
+ * 以及压测期间限流key的最大成员数与内存占用（MEMORY USAGE）。
+ * 需要指定Redis节点才会执行：
+ * mvn test -Dtest=SlidingWindowRateLimitBenchmarkTest -Dratelimit.benchmark.redis=127.0.0.1:6379
+ * 可选参数：ratelimit.benchmark.rps（默认10000）、ratelimit.benchmark.seconds（默认10）、
+ * ratelimit.benchmark.limit（每秒放行上限，默认5000）、ratelimit.benchmark.buckets（默认10）、
+ * ratelimit.benchmark.threads（默认32）
+ */
+public class SlidingWindowRateLimitBenchmarkTest {
+
+    private static final int WINDOW_SECONDS = 1;
+
+    @Test
+    public void testZsetVersusCounter() throws Exception {
+        String redisProperty = System.getProperty("ratelimit.benchmark.redis");
+        assumeTrue(redisProperty != null && !redisProperty.isBlank(), "未指定 ratelimit.benchmark.redis，跳过压测");
+
+        int rps = Integer.getInteger("ratelimit.benchmark.rps", 10000);
+        int seconds = Integer.getInteger("ratelimit.benchmark.seconds", 10);
+        int limit = Integer.getInteger("ratelimit.benchmark.limit", 5000);
+        int buckets = Integer.getInteger("ratelimit.benchmark.buckets", 10);
+        int threads = Integer.getInteger("ratelimit.benchmark.threads", 32);
+
+        String[] hostPort = redisProperty.trim().split(":");
+        ConnectionPoolConfig poolConfig = new ConnectionPoolConfig();
+        poolConfig.setMaxTotal(threads + 1);
+        poolConfig.setMaxIdle(threads + 1);
+
+        String zsetScript = read("lua/sliding_window_rate_limit.lua");
+        String counterScript = read("lua/sliding_window_counter_rate_limit.lua");
+
+        System.out.printf("滑动窗口限流压测：目标速率=%d/s, 时长=%ds, 放行上限=%d/%ds, 子窗口数=%d, 线程数=%d%n",
+                rps, seconds, limit, WINDOW_SECONDS, buckets, threads);
+        System.out.printf("%-10s %12s %12s %10s %10s %10s %12s%n",
+                "算法", "吞吐(次/秒)", "放行(次/秒)", "p50(ms)", "p99(ms)", "最大成员数", "最大内存(B)");
+
+        try (JedisPooled redis = new JedisPooled(poolConfig, hostPort[0], Integer.parseInt(hostPort[1]))) {
+            String zsetKey = "rate_limit:benchmark:zset";
+            RunResult zset = run(redis, zsetKey, rps, seconds, threads, key -> redis.zcard(key),
+                    key -> ((Number) redis.eval(zsetScript, Collections.singletonList(key), Arrays.asList(
+                            String.valueOf(WINDOW_SECONDS), String.valueOf(limit),
+                            String.valueOf(System.currentTimeMillis())))).longValue() == 1);
+            print("ZSET", zset, seconds);
+
+            String counterKey = "rate_limit:benchmark:counter";
+            RunResult counter = run(redis, counterKey, rps, seconds, threads, key -> redis.hlen(key),
+                    key -> ((Number) redis.eval(counterScript, Collections.singletonList(key), Arrays.asList(
+                            String.valueOf(WINDOW_SECONDS), String.valueOf(limit),
+                            String.valueOf(buckets)))).longValue() == 1);
+            print("COUNTER", counter, seconds);
+
+            assertTrue(counter.maxMembers <= buckets + 1, "子窗口计数器的字段数超过子窗口数");
+            assertTrue(counter.allowed <= (long) limit * (seconds + WINDOW_SECONDS), "子窗口计数器放行数超过上限");
+            assertTrue(counter.maxMemoryBytes < zset.maxMemoryBytes, "子窗口计数器内存占用未低于ZSET版本");
+        }
+    }
+
+    /**
+     * 按固定速率压测一个限流脚本，同时每100ms采样一次限流key的成员数与内存占用
+     */
+    private RunResult run(JedisPooled redis, String key, int rps, int seconds, int threads,
+                          KeyProbe cardinality, Limiter limiter) throws InterruptedException {
+        redis.del(key);
+        long total = (long) rps * seconds;
+        long intervalNanos = 1_000_000_000L / rps;
+        AtomicLong nextRequest = new AtomicLong();
+        LongAdder allowed = new LongAdder();
+        long[][] latencies = new long[threads][];
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long[] beginHolder = new long[1];
+
+        for (int t = 0; t < threads; t++) {
+            int threadIndex = t;
+            Thread worker = new Thread(() -> {
+                long[] samples = new long[(int) (total / threads + 1)];
+                int count = 0;
+                ready.countDown();
+                try {
+                    start.await();
+                    long request;
+                    while ((request = nextRequest.getAndIncrement()) < total) {
+                        // 按请求序号排定发送时间，落后时立即发送，保持整体速率
+                        long scheduled = beginHolder[0] + request * intervalNanos;
+                        long wait = scheduled - System.nanoTime();
+                        if (wait > 0) {
+                            LockSupport.parkNanos(wait);
+                        }
+                        long begin = System.nanoTime();
+                        if (limiter.tryAcquire(key)) {
+                            allowed.increment();
+                        }
+                        if (count < samples.length) {
+                            samples[count++] = System.nanoTime() - begin;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    latencies[threadIndex] = Arrays.copyOf(samples, count);
+                    done.countDown();
+                }
+            }, "rate-limit-bench-" + t);
+            worker.start();
+        }
+
+        RunResult result = new RunResult();
+        ready.await();
+        beginHolder[0] = System.nanoTime();
+        start.countDown();
+        while (!done.await(100, TimeUnit.MILLISECONDS)) {
+            result.maxMembers = Math.max(result.maxMembers, cardinality.probe(key));
+            Long memory = redis.memoryUsage(key);
+            result.maxMemoryBytes = Math.max(result.maxMemoryBytes, memory != null ? memory : 0);
+        }
+        long elapsedNanos = System.nanoTime() - beginHolder[0];
+        redis.del(key);
+
+        result.operations = total;
+        result.allowed = allowed.sum();
+        result.elapsedNanos = elapsedNanos;
+        result.latencies = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        return result;
+    }
+
+    private void print(String name, RunResult result, int seconds) {
+        System.out.printf("%-12s %14.0f %14.0f %10.2f %10.2f %12d %14d%n", name, result.throughput(),
+                (double) result.allowed / seconds, result.percentileMillis(0.50), result.percentileMillis(0.99),
+                result.maxMembers, result.maxMemoryBytes);
+    }
+
+    private static String read(String location) {
+        try (InputStream in = new ClassPathResource(location).getInputStream()) {
+            return StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("读取Lua脚本失败: " + location, e);
+        }
+    }
+
+    private interface Limiter {
+        boolean tryAcquire(String key);
+    }
+
+    private interface KeyProbe {
+        long probe(String key);
+    }
+
+    /**
+     * 单轮压测结果
+     */
+    private static class RunResult {
+        private long operations;
+        private long allowed;
+        private long elapsedNanos;
+        private long maxMembers;
+        private long maxMemoryBytes;
+        private long[] latencies;
+
+        private double throughput() {
+            return operations * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        private double percentileMillis(double percentile) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.min(latencies.length - 1, Math.ceil(percentile * latencies.length) - 1);
+            return latencies[Math.max(index, 0)] / 1_000_000.0;
+        }
+    }
+}
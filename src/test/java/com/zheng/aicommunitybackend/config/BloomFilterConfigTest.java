@@ -1,8 +1,8 @@
 package com.zheng.aicommunitybackend.config;
 
-import com.google.common.hash.BloomFilter;
 import com.zheng.aicommunitybackend.domain.entity.HotNews;
 import com.zheng.aicommunitybackend.mapper.HotNewsMapper;
+import com.zheng.aicommunitybackend.util.RotatingBloomFilter;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -17,9 +17,6 @@ import static org.junit.jupiter.api.Assertions.*;
 @ActiveProfiles("test")
 public class BloomFilterConfigTest {
 
-    @Autowired
-    private BloomFilter<String> urlBloomFilter;
-
     @Autowired
     private BloomFilterConfig bloomFilterConfig;
 
@@ -29,17 +26,17 @@ public class BloomFilterConfigTest {
     @Test
     public void testBloomFilterInitialization() {
         // 测试布隆过滤器是否正确初始化
-        assertNotNull(urlBloomFilter);
+        assertNotNull(bloomFilterConfig.getStats().getLastRebuildTime());
         
         // 测试基本功能
         String testUrl = "https://test.example.com/news/123";
         
         // 初始状态应该不包含测试URL
-        assertFalse(urlBloomFilter.mightContain(testUrl));
+        assertFalse(bloomFilterConfig.mightContain(testUrl));
         
         // 添加URL后应该包含
-        urlBloomFilter.put(testUrl);
-        assertTrue(urlBloomFilter.mightContain(testUrl));
+        bloomFilterConfig.put(testUrl);
+        assertTrue(bloomFilterConfig.mightContain(testUrl));
     }
 
     @Test
@@ -78,17 +75,17 @@ public class BloomFilterConfigTest {
         
         // 添加测试URL
         for (String url : testUrls) {
-            urlBloomFilter.put(url);
+            bloomFilterConfig.put(url);
         }
         
         // 验证所有URL都能被检测到
         for (String url : testUrls) {
-            assertTrue(urlBloomFilter.mightContain(url), 
+            assertTrue(bloomFilterConfig.mightContain(url), 
                 "URL should be detected: " + url);
         }
         
         // 验证不存在的URL
-        assertFalse(urlBloomFilter.mightContain("https://nonexistent.com/news/999"));
+        assertFalse(bloomFilterConfig.mightContain("https://nonexistent.com/news/999"));
     }
 
     @Test
@@ -100,9 +97,18 @@ public class BloomFilterConfigTest {
         assertTrue(usageRatio >= 0.0);
         assertTrue(usageRatio <= 1.0);
 
-        // 使用率应该等于 loadedUrlCount / expectedInsertions
-        double expectedRatio = (double) stats.getLoadedUrlCount() / stats.getExpectedInsertions();
+        // 使用率应该等于使用率最高的分段的填充率
+        double expectedRatio = stats.getSegments().stream()
+                .mapToDouble(RotatingBloomFilter.SegmentStats::getFillRatio)
+                .max()
+                .orElse(0);
         assertEquals(expectedRatio, usageRatio, 0.001);
+
+        // 分段数为保留天数 + 1，URL数量为各分段之和
+        assertEquals(stats.getDataRetentionDays() + 1, stats.getSegments().size());
+        assertEquals(stats.getLoadedUrlCount(), stats.getSegments().stream()
+                .mapToLong(RotatingBloomFilter.SegmentStats::getUrlCount)
+                .sum());
     }
 
     @Test
@@ -0,0 +1,154 @@
+package com.zheng.aicommunitybackend.interceptor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zheng.aicommunitybackend.common.UserContext;
+import com.zheng.aicommunitybackend.domain.entity.Users;
+import com.zheng.aicommunitybackend.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * JWT认证拦截器基准测试
+ * legacy：改造前的路径，validateToken 与三个 getXxxFromToken 各自新建解析器并验签，共4次；
+ * parseOnce：解析器复用、单次验签，不使用缓存；
+ * parseOnceCached：命中已验证令牌缓存，不验签。
+ * 需要显式开启才会执行：
+ * mvn test -Dtest=JwtAuthInterceptorBenchmark -Djwt.benchmark=true
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthInterceptorBenchmark {
+
+    private static final String HEADER = "Authorization";
+    private static final String PREFIX = "Bearer ";
+
+    private JwtUtil legacyJwtUtil;
+    private SecretKey legacyKey;
+    private JwtAuthInterceptor uncachedInterceptor;
+    private JwtAuthInterceptor cachedInterceptor;
+    private MockHttpServletRequest legacyRequest;
+    private MockHttpServletRequest uncachedRequest;
+    private MockHttpServletRequest cachedRequest;
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Test
+    public void runBenchmark() throws Exception {
+        assumeTrue(Boolean.getBoolean("jwt.benchmark"), "未指定 -Djwt.benchmark=true，跳过基准测试");
+        Options options = new OptionsBuilder()
+                .include(JwtAuthInterceptorBenchmark.class.getSimpleName())
+                .build();
+        assertTrue(!new Runner(options).run().isEmpty());
+    }
+
+    @Setup
+    public void setup() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        legacyJwtUtil = newJwtUtil(0);
+        legacyKey = (SecretKey) ReflectionTestUtils.getField(legacyJwtUtil, "key");
+        legacyRequest = newRequest(legacyJwtUtil);
+
+        JwtUtil uncachedJwtUtil = newJwtUtil(0);
+        uncachedInterceptor = newInterceptor(uncachedJwtUtil, objectMapper);
+        uncachedRequest = newRequest(uncachedJwtUtil);
+
+        JwtUtil cachedJwtUtil = newJwtUtil(10000);
+        cachedInterceptor = newInterceptor(cachedJwtUtil, objectMapper);
+        cachedRequest = newRequest(cachedJwtUtil);
+        // 预热缓存
+        cachedInterceptor.preHandle(cachedRequest, response, null);
+        UserContext.clear();
+    }
+
+    @Benchmark
+    public Long legacy() {
+        String token = legacyRequest.getHeader(HEADER).substring(PREFIX.length()).trim();
+        if (legacyParse(token).getExpiration().before(new Date())) {
+            return null;
+        }
+        String username = legacyParse(token).getSubject();
+        Long userId = Long.parseLong(legacyParse(token).get("userId").toString());
+        Integer role = Integer.parseInt(legacyParse(token).get("role").toString());
+        UserContext.setUsername(username);
+        UserContext.setUserId(userId);
+        UserContext.setUserRole(role);
+        Long result = UserContext.getUserId();
+        UserContext.clear();
+        return result;
+    }
+
+    @Benchmark
+    public Long parseOnce() throws Exception {
+        return handle(uncachedInterceptor, uncachedRequest);
+    }
+
+    @Benchmark
+    public Long parseOnceCached() throws Exception {
+        return handle(cachedInterceptor, cachedRequest);
+    }
+
+    private Long handle(JwtAuthInterceptor interceptor, MockHttpServletRequest request) throws Exception {
+        interceptor.preHandle(request, response, null);
+        Long result = UserContext.getUserId();
+        UserContext.clear();
+        return result;
+    }
+
+    private Claims legacyParse(String token) {
+        return Jwts.parserBuilder().setSigningKey(legacyKey).build().parseClaimsJws(token).getBody();
+    }
+
+    private static JwtUtil newJwtUtil(long cacheSize) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "expiration", TimeUnit.HOURS.toMillis(2));
+        ReflectionTestUtils.setField(jwtUtil, "cacheMaximumSize", cacheSize);
+        ReflectionTestUtils.setField(jwtUtil, "cacheExpireSeconds", 300L);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+
+    private static JwtAuthInterceptor newInterceptor(JwtUtil jwtUtil, ObjectMapper objectMapper) {
+        JwtAuthInterceptor interceptor = new JwtAuthInterceptor(jwtUtil, objectMapper);
+        ReflectionTestUtils.setField(interceptor, "tokenHeader", HEADER);
+        ReflectionTestUtils.setField(interceptor, "tokenPrefix", PREFIX);
+        return interceptor;
+    }
+
+    private static MockHttpServletRequest newRequest(JwtUtil jwtUtil) {
+        Users user = new Users();
+        user.setId(10001L);
+        user.setUsername("benchmark_user");
+        user.setRole(0);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/user/info");
+        request.addHeader(HEADER, PREFIX + jwtUtil.generateToken(user));
+        return request;
+    }
+}
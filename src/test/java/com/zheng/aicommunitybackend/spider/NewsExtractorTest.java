@@ -0,0 +1,138 @@
+package com.zheng.aicommunitybackend.spider;
+
+import com.zheng.aicommunitybackend.domain.entity.HotNews;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.Calendar;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 声明式新闻抽取测试
+ * 使用静态HTML验证列表页选择器回退、链接过滤、正则兜底，以及详情页正文、摘要、封面图、发布时间的抽取
+ */
+public class NewsExtractorTest {
+
+    private static final String BASE_URL = "https://news.example.com/";
+
+    @Test
+    public void testExtractLinksUsesFirstMatchingSelectorAndFilters() {
+        SourceDefinition definition = newDefinition();
+        definition.setItemSelectors(List.of("div.missing li", "ul.news li", "a[href]"));
+        definition.setLinkDomain("example.com");
+        definition.setListSummarySelector(".desc");
+        Document listPage = Jsoup.parse("<ul class='news'>"
+                + "<li><a href='/a/1'>央行宣布下调存款准备金率</a><p class='desc'>释放长期资金</p></li>"
+                + "<li><a href='#top'>返回顶部的链接文字</a></li>"
+                + "<li><a href='javascript:void(0)'>脚本链接的文字内容</a></li>"
+                + "<li><a href='/a/2'>短标题</a></li>"
+                + "<li><a href='https://other.org/a/3'>其他站点的新闻标题</a></li>"
+                + "<li><span>没有链接的列表项文字</span></li>"
+                + "</ul>", BASE_URL);
+
+        List<NewsExtractor.NewsLink> links = NewsExtractor.extractLinks(source(definition), listPage);
+
+        assertEquals(1, links.size());
+        assertEquals("https://news.example.com/a/1", links.get(0).getUrl());
+        assertEquals("央行宣布下调存款准备金率 释放长期资金", links.get(0).getTitle());
+        assertEquals("释放长期资金", links.get(0).getListSummary());
+    }
+
+    @Test
+    public void testLinkKeywordsMatchRawHref() {
+        SourceDefinition definition = newDefinition();
+        definition.setItemSelectors(List.of("a[href]"));
+        definition.setMinTitleLength(4);
+        definition.setLinkKeywords(List.of("stock", "fund"));
+        Document listPage = Jsoup.parse("<a href='/stock/1.html'>股票频道新闻一</a>"
+                + "<a href='/sports/2.html'>体育频道新闻二</a>"
+                + "<a href='/fund/3.html'>基金频道新闻三</a>", BASE_URL);
+
+        List<NewsExtractor.NewsLink> links = NewsExtractor.extractLinks(source(definition), listPage);
+
+        assertEquals(2, links.size());
+        assertEquals("https://news.example.com/stock/1.html", links.get(0).getUrl());
+        assertEquals("https://news.example.com/fund/3.html", links.get(1).getUrl());
+    }
+
+    @Test
+    public void testFallbackLinkPatternWhenNoSelectorMatches() {
+        SourceDefinition definition = newDefinition();
+        definition.setItemSelectors(List.of("div.card"));
+        definition.setFallbackLinkPattern("href=[\"'](https?://news\\.example\\.com/[^\"']+)[\"']");
+        Document listPage = Jsoup.parse("<a href='https://news.example.com/p/42'>x</a>", BASE_URL);
+
+        List<NewsExtractor.NewsLink> links = NewsExtractor.extractLinks(source(definition), listPage);
+
+        assertEquals(1, links.size());
+        assertEquals("https://news.example.com/p/42", links.get(0).getUrl());
+        assertEquals("测试源文章 - 42", links.get(0).getTitle());
+    }
+
+    @Test
+    public void testExtractNewsFromDetailPage() {
+        SourceDefinition definition = newDefinition();
+        StringBuilder longText = new StringBuilder();
+        for (int i = 0; i < 30; i++) {
+            longText.append("市场消息");
+        }
+        Document detail = Jsoup.parse("<html><head><meta property='og:image' content='https://img.example.com/c.png'></head>"
+                + "<body><span class='pubtime'>2024年05月06日 09:30</span>"
+                + "<div class='article-content'><p>" + longText + "</p><p>扫码关注我们</p><script>var a;</script></div>"
+                + "</body></html>", BASE_URL + "a/1");
+
+        HotNews news = NewsExtractor.extractNews(source(definition), link("央行宣布下调存款准备金率", null), detail);
+
+        assertEquals("<p>" + longText + "</p>", news.getContent());
+        assertEquals(longText.substring(0, 100) + "...", news.getSummary());
+        assertEquals("https://img.example.com/c.png", news.getCoverImage());
+        Calendar publishTime = Calendar.getInstance();
+        publishTime.setTime(news.getPublishTime());
+        assertEquals(2024, publishTime.get(Calendar.YEAR));
+        assertEquals(Calendar.MAY, publishTime.get(Calendar.MONTH));
+        assertEquals(9, publishTime.get(Calendar.HOUR_OF_DAY));
+        assertEquals("测试源", news.getSource());
+        assertEquals("财经,测试源", news.getTags());
+        assertEquals(1, news.getStatus().intValue());
+        assertTrue(NewsContentValidator.normalizeAndValidate(news));
+    }
+
+    @Test
+    public void testExtractNewsFallsBackToTitleWhenDetailMissing() {
+        SourceDefinition definition = newDefinition();
+
+        HotNews failed = NewsExtractor.extractNews(source(definition), link("央行宣布下调存款准备金率", "释放长期资金"), null);
+        assertEquals("<p>央行宣布下调存款准备金率</p>", failed.getContent());
+        assertEquals("释放长期资金", failed.getSummary());
+        assertNotNull(failed.getPublishTime());
+
+        // 标题作为内容过短时不能通过校验
+        assertFalse(NewsContentValidator.normalizeAndValidate(failed));
+    }
+
+    private static SourceDefinition newDefinition() {
+        SourceDefinition definition = new SourceDefinition();
+        definition.setId("test");
+        definition.setName("测试源");
+        definition.setTags("财经,测试源");
+        definition.setContentSelector("div.article-content, .content");
+        definition.setImageSelector("img.cover");
+        definition.setTimeSelector("span.pubtime, time");
+        return definition;
+    }
+
+    private static NewsSource source(SourceDefinition definition) {
+        return () -> definition;
+    }
+
+    private static NewsExtractor.NewsLink link(String title, String listSummary) {
+        NewsExtractor.NewsLink link = new NewsExtractor.NewsLink();
+        link.setUrl(BASE_URL + "a/1");
+        link.setTitle(title);
+        link.setListSummary(listSummary);
+        return link;
+    }
+}
@@ -0,0 +1,136 @@
+package com.zheng.aicommunitybackend.util;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * SimHash基准测试
+ * legacyXxx：改造前的实现，每个词计算MD5十六进制串并转BigInteger、补齐二进制串，距离计算重新解析十六进制；
+ * xxx64：long 实现，词哈希直接按字符计算，距离为 Long.bitCount；
+ * fingerprintDistance：对存储格式（带版本前缀）的指纹计算距离，包含解析开销。
+ * 指纹计算基于预先分好的词频，排除结巴分词本身的耗时。
+ * 需要显式开启才会执行：
+ * mvn test -Dtest=SimHashBenchmark -Dsimhash.benchmark=true
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimHashBenchmark {
+
+    private static final int HASH_BITS = 64;
+
+    private static final String TITLE = "市政府发布新一轮城市更新计划 老旧小区改造将覆盖全市";
+    private static final String CONTENT = "<p>记者从市住建局获悉，今年全市计划改造老旧小区120个，涉及居民3.5万户。"
+            + "改造内容包括外墙保温、雨污分流、加装电梯、停车位增设以及智慧安防系统建设。</p>"
+            + "<p>相关负责人表示，改造过程中将充分征求居民意见，实行“一小区一方案”，"
+            + "同时引入社会资本参与运营，探索 smart community 管理新模式，预计年底前全部完工。</p>";
+
+    private Map<String, Integer> wordWeights;
+    private String legacyHash1;
+    private String legacyHash2;
+    private long hash1;
+    private long hash2;
+    private String fingerprint1;
+    private String fingerprint2;
+
+    @Test
+    public void runBenchmark() throws Exception {
+        assumeTrue(Boolean.getBoolean("simhash.benchmark"), "未指定 -Dsimhash.benchmark=true，跳过基准测试");
+        Options options = new OptionsBuilder()
+                .include(SimHashBenchmark.class.getSimpleName())
+                .build();
+        assertTrue(!new Runner(options).run().isEmpty());
+    }
+
+    @Setup
+    public void setup() {
+        String text = TITLE + " " + TITLE + " " + TITLE + " " + CONTENT.replaceAll("<[^>]*>", " ");
+        wordWeights = SimHashUtil.tokenizeAndCount(text);
+        legacyHash1 = legacySimHash(wordWeights);
+        legacyHash2 = legacySimHash(SimHashUtil.tokenizeAndCount(text.replace("120", "150")));
+        hash1 = SimHashUtil.simHash64(wordWeights);
+        hash2 = SimHashUtil.simHash64(SimHashUtil.tokenizeAndCount(text.replace("120", "150")));
+        fingerprint1 = SimHashUtil.toFingerprint(hash1);
+        fingerprint2 = SimHashUtil.toFingerprint(hash2);
+    }
+
+    @Benchmark
+    public String legacyFingerprint() {
+        return legacySimHash(wordWeights);
+    }
+
+    @Benchmark
+    public long fingerprint64() {
+        return SimHashUtil.simHash64(wordWeights);
+    }
+
+    @Benchmark
+    public int legacyDistance() {
+        BigInteger h1 = new BigInteger(legacyHash1, 16);
+        BigInteger h2 = new BigInteger(legacyHash2, 16);
+        return Long.bitCount(h1.xor(h2).longValue());
+    }
+
+    @Benchmark
+    public int distance64() {
+        return SimHashUtil.hammingDistance(hash1, hash2);
+    }
+
+    @Benchmark
+    public int fingerprintDistance() {
+        return SimHashUtil.hammingDistance(fingerprint1, fingerprint2);
+    }
+
+    /**
+     * 改造前的指纹计算
+     */
+    private static String legacySimHash(Map<String, Integer> wordWeights) {
+        int[] featureVector = new int[HASH_BITS];
+        for (Map.Entry<String, Integer> entry : wordWeights.entrySet()) {
+            int weight = entry.getValue();
+            BigInteger bigInt = new BigInteger(DigestUtils.md5Hex(entry.getKey()), 16);
+            StringBuilder binaryHash = new StringBuilder(bigInt.toString(2));
+            while (binaryHash.length() < HASH_BITS) {
+                binaryHash.insert(0, "0");
+            }
+            if (binaryHash.length() > HASH_BITS) {
+                binaryHash = new StringBuilder(binaryHash.substring(0, HASH_BITS));
+            }
+            for (int i = 0; i < HASH_BITS; i++) {
+                if (binaryHash.charAt(i) == '1') {
+                    featureVector[i] += weight;
+                } else {
+                    featureVector[i] -= weight;
+                }
+            }
+        }
+        StringBuilder simHashValue = new StringBuilder();
+        for (int i = 0; i < HASH_BITS; i++) {
+            simHashValue.append(featureVector[i] > 0 ? "1" : "0");
+        }
+        return new BigInteger(simHashValue.toString(), 2).toString(16);
+    }
+}